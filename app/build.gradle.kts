@@ -129,6 +129,14 @@ android(
         testInstrumentationRunnerArguments += mapOf(
             "clearPackageData" to "true"
         )
+        // Benchmarks are skipped, unless requested with `-Pbenchmark`
+        if (project.hasProperty("benchmark")) {
+            testInstrumentationRunnerArguments += mapOf(
+                "benchmark" to "true",
+                "androidx.benchmark.output.enable" to "true",
+                "androidx.benchmark.suppressErrors" to "DEBUGGABLE,EMULATOR,LOW-BATTERY,UNLOCKED"
+            )
+        }
 
         testInstrumentationRunner = "ch.protonmail.android.HiltCustomTestRunner"
     }
@@ -331,7 +339,7 @@ dependencies {
 
         // Modules
         project(Module.domain),
-        // project(Module.tokenAutoComplete),
+        project(Module.tokenAutoComplete),
 
         // Kotlin
         `kotlin-jdk7`,
@@ -403,7 +411,6 @@ dependencies {
         `trustKit`, `android-preference`, // Workaround (https://github.com/datatheorem/TrustKit-Android/issues/76).
         `viewStateStore`,
         `viewStateStore-paging`,
-        `remark`,
         `okio`,
         `store`,
         `coil-base`
@@ -430,6 +437,7 @@ dependencies {
     androidTestImplementation(
         project(Module.testAndroidInstrumented),
         `aerogear`,
+        `benchmark-junit4`,
         `falcon`,
         `espresso-intents`,
         `espresso-web`,
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.core.Constants.MessageLocationType
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.data.local.model.MessageSender
+import ch.protonmail.android.labels.data.local.model.LabelEntity
+import ch.protonmail.android.labels.domain.model.Label
+import ch.protonmail.android.labels.domain.model.LabelId
+import ch.protonmail.android.labels.domain.model.LabelType
+import ch.protonmail.android.mailbox.data.local.model.LabelContextDatabaseModel
+import ch.protonmail.android.mailbox.domain.model.Conversation
+import ch.protonmail.android.mailbox.domain.model.Correspondent
+import ch.protonmail.android.mailbox.domain.model.LabelContext
+import me.proton.core.domain.entity.UserId
+import kotlin.random.Random
+
+private const val DEFAULT_SEED = 20_221_019
+private const val FIRST_MESSAGE_TIME = 1_640_995_200L
+private const val FOLDERS_RATIO = 3
+
+private val FIRST_NAMES = listOf(
+    "Alice", "Bob", "Carol", "Dave", "Erin", "Frank", "Grace", "Heidi", "Ivan", "Judy", "Mallory", "Niaj", "Olivia",
+    "Peggy", "Rupert", "Sybil", "Trent", "Victor", "Walter", "Zoé"
+)
+private val LAST_NAMES = listOf(
+    "Müller", "Smith", "García", "Rossi", "Dubois", "Nakamura", "Kowalski", "Johansson", "Silva", "O'Brien"
+)
+private val DOMAINS = listOf("proton.me", "protonmail.com", "pm.me", "gmail.com", "outlook.com", "example.com")
+private val WORDS = listOf(
+    "quarterly", "report", "invoice", "meeting", "schedule", "update", "project", "review", "draft", "proposal",
+    "holiday", "travel", "booking", "confirmation", "newsletter", "weekly", "digest", "security", "alert", "team"
+)
+private val COLORS = listOf("#8080FF", "#DB60D6", "#415DF0", "#1DA583", "#EA7D4F", "#C26CC7", "#F78400", "#0F735A")
+
+/**
+ * Generates realistic fixtures for the benchmarks. The same [seed] always generates the same fixtures, so results of
+ *  different builds are comparable
+ */
+class BenchmarkFixtures(seed: Int = DEFAULT_SEED) {
+
+    private val random = Random(seed)
+
+    val userId = UserId("benchmarkUserId")
+
+    fun recipients(count: Int): List<MessageRecipient> =
+        List(count) { randomName().let { name -> MessageRecipient(name, emailOf(name)) } }
+
+    fun senders(count: Int): List<MessageSender> =
+        List(count) { randomName().let { name -> MessageSender(name, emailOf(name), isProtonDomain(name)) } }
+
+    fun labelContexts(labelIds: List<String>): List<LabelContextDatabaseModel> =
+        labelIds.map { labelId ->
+            val messages = random.nextInt(1, 10)
+            LabelContextDatabaseModel(
+                id = labelId,
+                contextNumUnread = random.nextInt(0, messages + 1),
+                contextNumMessages = messages,
+                contextTime = randomTime(),
+                contextSize = random.nextInt(1_024, 1_024 * 1_024),
+                contextNumAttachments = random.nextInt(0, 3)
+            )
+        }
+
+    /**
+     * Labels and folders of a user, where folders are nested up to a few levels
+     */
+    fun labels(count: Int): List<LabelEntity> {
+        val labels = mutableListOf<LabelEntity>()
+        repeat(count) { index ->
+            val isFolder = index % FOLDERS_RATIO == 0
+            val parent = labels.lastOrNull { it.type == LabelType.FOLDER }
+                ?.takeIf { isFolder && random.nextBoolean() }
+            val name = randomWords(2)
+            labels += LabelEntity(
+                id = LabelId("labelId$index"),
+                userId = userId,
+                name = name,
+                color = COLORS.random(random),
+                order = index,
+                type = if (isFolder) LabelType.FOLDER else LabelType.MESSAGE_LABEL,
+                path = parent?.let { "${it.path}/$name" } ?: name,
+                parentId = parent?.id?.id ?: "",
+                expanded = 0,
+                sticky = 0,
+                notify = 1
+            )
+        }
+        return labels
+    }
+
+    fun Collection<LabelEntity>.toDomainLabels(): List<Label> = map { entity ->
+        Label(
+            id = entity.id,
+            name = entity.name,
+            color = entity.color,
+            order = entity.order,
+            type = entity.type,
+            path = entity.path,
+            parentId = entity.parentId
+        )
+    }
+
+    /**
+     * A page of Messages, as loaded for a mailbox, each of them in a location and some of the given [labelIds]
+     */
+    fun messages(count: Int, labelIds: List<String>): List<Message> = List(count) { index ->
+        Message(
+            messageId = "messageId$index",
+            conversationId = "conversationId$index",
+            subject = randomSubject(),
+            Unread = random.nextInt(4) == 0,
+            time = randomTime(),
+            totalSize = random.nextLong(2_048, 512 * 1_024),
+            location = MessageLocationType.INBOX.messageLocationTypeValue,
+            isStarred = random.nextInt(10) == 0,
+            numAttachments = if (random.nextInt(5) == 0) random.nextInt(1, 4) else 0,
+            allLabelIDs = messageLabelIds(labelIds),
+            toList = recipients(random.nextInt(1, 4)),
+            ccList = recipients(random.nextInt(0, 3)),
+            sender = senders(1).single()
+        )
+    }
+
+    /**
+     * A page of Conversations, as loaded for a mailbox, each of them in a location and some of the given [labelIds]
+     */
+    fun conversations(count: Int, labelIds: List<String>): List<Conversation> = List(count) { index ->
+        val messagesCount = random.nextInt(1, 8)
+        Conversation(
+            id = "conversationId$index",
+            subject = randomSubject(),
+            senders = correspondents(random.nextInt(1, 4)),
+            receivers = correspondents(random.nextInt(1, 4)),
+            messagesCount = messagesCount,
+            unreadCount = random.nextInt(0, messagesCount + 1),
+            attachmentsCount = random.nextInt(0, 3),
+            expirationTime = 0,
+            labels = labelContexts(messageLabelIds(labelIds)).map { context ->
+                LabelContext(
+                    id = context.id,
+                    contextNumUnread = context.contextNumUnread,
+                    contextNumMessages = context.contextNumMessages,
+                    contextTime = context.contextTime,
+                    contextSize = context.contextSize,
+                    contextNumAttachments = context.contextNumAttachments
+                )
+            },
+            messages = null
+        )
+    }
+
+    /**
+     * A messages response, with a page of Messages as returned when loading a mailbox
+     */
+    fun messagesResponseJson(count: Int, labelIds: List<String>): String {
+        val messages = List(count) { index -> messageJson(index, labelIds) }
+        return """{"Code":1000,"Total":$count,"Messages":[${messages.joinToString(",")}]}"""
+    }
+
+    /**
+     * An events response, with a page of new Messages and Conversations and the updated counters
+     */
+    fun eventsResponseJson(count: Int, labelIds: List<String>): String {
+        val messages = List(count) { index ->
+            """{"ID":"messageId$index","Action":1,"Message":${messageJson(index, labelIds)}}"""
+        }
+        val conversations = List(count) { index ->
+            """{"ID":"conversationId$index","Action":1,"Conversation":${conversationJson(index, labelIds)}}"""
+        }
+        val counts = (labelIds + MessageLocationType.INBOX.asLabelIdString()).joinToString(",") { labelId ->
+            """{"LabelID":"$labelId","Total":${random.nextInt(1_000)},"Unread":${random.nextInt(100)}}"""
+        }
+        return """{"Code":1000,"EventID":"eventId","Refresh":0,"More":0,
+            |"Messages":[${messages.joinToString(",")}],"Conversations":[${conversations.joinToString(",")}],
+            |"MessageCounts":[$counts],"ConversationCounts":[$counts],"UsedSpace":123456789}""".trimMargin()
+    }
+
+    /**
+     * Build a newsletter like the ones commonly received: nested layout tables, inline styles, tracking pixels,
+     *  links with pings, and some elements that are removed by the sanitizer
+     */
+    fun newsletterHtml(sizeInBytes: Int): String = buildString {
+        append("<!DOCTYPE html><html><head><meta charset='utf-8'><title>Newsletter</title>")
+        append("<style>.title { font-size: 20px; }</style><link rel='stylesheet' href='https://example.com/s.css'>")
+        append("</head><body style='margin: 0'>")
+        var index = 0
+        while (length < sizeInBytes) {
+            append("<table style='table-layout: fixed; width: 600px' cellpadding='0' cellspacing='0'><tr><td>")
+            append("<table width='100%'><tr><td class='title' style='color: ${COLORS.random(random)}'>")
+            append("${randomSubject()}</td></tr><tr><td style='font-family: Arial; line-height: 1.4'>")
+            append("<p>${randomWords(random.nextInt(20, 80))}</p>")
+            append("<a href='https://example.com/article/$index' ping='https://tracker.example.com/$index'>Read</a>")
+            append("<img src='https://example.com/image/$index.png' width='560' alt='image $index'>")
+            append("<img src='https://tracker.example.com/pixel/$index.gif' width='1' height='1'>")
+            if (index % 10 == 0) append("<script>track($index)</script><iframe src='https://example.com'></iframe>")
+            append("</td></tr></table></td></tr></table>")
+            index++
+        }
+        append("</body></html>")
+    }
+
+    fun bytes(size: Int): ByteArray = random.nextBytes(size)
+
+    private fun messageJson(index: Int, labelIds: List<String>): String {
+        val sender = randomName()
+        val isProton = if (isProtonDomain(sender)) 1 else 0
+        return """{"ID":"messageId$index","Order":${1_000 - index},"ConversationID":"conversationId$index",
+            |"Subject":"${randomSubject()}","Unread":${random.nextInt(2)},
+            |"Sender":{"Name":"$sender","Address":"${emailOf(sender)}","IsProton":$isProton},
+            |"SenderAddress":"${emailOf(sender)}","SenderName":"$sender","Flags":8193,"Type":0,"IsEncrypted":2,
+            |"IsReplied":0,"IsRepliedAll":0,"IsForwarded":0,
+            |"ToList":[${recipientsJson(random.nextInt(1, 4))}],"CCList":[${recipientsJson(random.nextInt(0, 3))}],
+            |"BCCList":[],"Time":${randomTime()},"Size":${random.nextInt(2_048, 512 * 1_024)},"NumAttachments":0,
+            |"ExpirationTime":0,"SpamScore":0,"AddressID":"addressId","ExternalID":"<external$index@proton.me>",
+            |"LabelIDs":[${messageLabelIds(labelIds).joinToString(",") { "\"$it\"" }}],"Attachments":[]}
+        """.trimMargin()
+    }
+
+    private fun conversationJson(index: Int, labelIds: List<String>): String {
+        val messages = random.nextInt(1, 8)
+        val contexts = messageLabelIds(labelIds).joinToString(",") { labelId ->
+            """{"ID":"$labelId","ContextNumUnread":${random.nextInt(0, messages + 1)},
+                |"ContextNumMessages":$messages,"ContextTime":${randomTime()},"ContextSize":12345,
+                |"ContextNumAttachments":0}
+            """.trimMargin()
+        }
+        return """{"ID":"conversationId$index","Order":${1_000 - index},"Subject":"${randomSubject()}",
+            |"Senders":[${recipientsJson(1)}],"Recipients":[${recipientsJson(random.nextInt(1, 4))}],
+            |"NumMessages":$messages,"NumUnread":${random.nextInt(0, messages + 1)},"NumAttachments":0,
+            |"ExpirationTime":0,"Size":12345,"Labels":[$contexts],"ContextTime":${randomTime()}}
+        """.trimMargin()
+    }
+
+    private fun recipientsJson(count: Int): String =
+        recipients(count).joinToString(",") { """{"Name":"${it.name}","Address":"${it.emailAddress}"}""" }
+
+    private fun correspondents(count: Int): List<Correspondent> =
+        List(count) { randomName().let { name -> Correspondent(name, emailOf(name), isProtonDomain(name)) } }
+
+    private fun messageLabelIds(labelIds: List<String>): List<String> =
+        listOf(MessageLocationType.INBOX.asLabelIdString(), MessageLocationType.ALL_MAIL.asLabelIdString()) +
+            labelIds.shuffled(random).take(random.nextInt(0, 3))
+
+    private fun randomName() = "${FIRST_NAMES.random(random)} ${LAST_NAMES.random(random)}"
+
+    private fun emailOf(name: String): String {
+        val domain = DOMAINS[name.hashCode().mod(DOMAINS.size)]
+        return "${name.lowercase().replace(" ", ".").replace("'", "")}@$domain"
+    }
+
+    private fun isProtonDomain(name: String) = emailOf(name).substringAfter('@') in DOMAINS.take(3)
+
+    private fun randomSubject(): String {
+        val prefix = listOf("", "", "Re: ", "Fwd: ").random(random)
+        return prefix + randomWords(random.nextInt(2, 8)).replaceFirstChar { it.uppercase() }
+    }
+
+    private fun randomWords(count: Int) = List(count) { WORDS.random(random) }.joinToString(" ")
+
+    private fun randomTime() = FIRST_MESSAGE_TIME - random.nextLong(0, 365L * 24 * 60 * 60)
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import androidx.test.platform.app.InstrumentationRegistry
+import org.junit.Assume.assumeTrue
+
+/**
+ * Instrumentation argument that enables the benchmarks of this package, set by the `benchmark` Gradle property
+ */
+private const val ARGUMENT_BENCHMARK = "benchmark"
+
+/**
+ * Skips the current benchmark, unless the benchmarks have been requested.
+ *
+ * The benchmarks of this package measure the hot paths of the mail pipeline with `androidx.benchmark`, which reports
+ *  the results as JSON, so regressions can be tracked across builds. They are skipped in the regular instrumented
+ *  runs, and run with
+ *
+ * ```
+ * ./gradlew :app:connectedBetaDebugAndroidTest -Pbenchmark \
+ *   -Pandroid.testInstrumentationRunnerArguments.package=ch.protonmail.android.benchmark
+ * ```
+ *
+ * The reports are written in `app/build/outputs/connected_android_test_additional_output`. As they run on a
+ *  debuggable build, the results are only meaningful compared with each other on the same device.
+ */
+fun assumeBenchmarksEnabled() {
+    val arguments = InstrumentationRegistry.getArguments()
+    assumeTrue("Benchmarks are only run when requested", arguments.getString(ARGUMENT_BENCHMARK).toBoolean())
+}
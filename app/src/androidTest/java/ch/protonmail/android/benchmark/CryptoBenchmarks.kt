@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.crypto.AddressCrypto
+import ch.protonmail.android.crypto.CipherText
+import ch.protonmail.android.crypto.Crypto
+import ch.protonmail.android.crypto.NoEncryptionKeyStoreCrypto
+import ch.protonmail.android.domain.entity.NotBlankString
+import ch.protonmail.android.domain.entity.PgpField
+import ch.protonmail.android.domain.entity.user.AddressKey
+import ch.protonmail.android.domain.entity.user.AddressKeys
+import ch.protonmail.android.domain.entity.user.User
+import ch.protonmail.android.utils.crypto.OpenPGP
+import com.proton.gopenpgp.crypto.PGPSplitMessage
+import io.mockk.every
+import io.mockk.mockk
+import me.proton.core.crypto.common.keystore.EncryptedByteArray
+import me.proton.core.domain.entity.UserId
+import me.proton.core.user.domain.entity.AddressId
+import org.junit.Rule
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import com.proton.gopenpgp.crypto.Crypto as GoOpenPgpCrypto
+
+/**
+ * Decrypts Messages and Attachments through [AddressCrypto] and [OpenPGP], with a key generated for the benchmark
+ */
+class CryptoBenchmarks {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val fixtures = BenchmarkFixtures()
+    private val passphrase = "benchmark passphrase".toByteArray()
+    private val addressId = AddressId("benchmarkAddressId")
+    private val openPgp = OpenPGP()
+
+    private lateinit var armoredPrivateKey: String
+    private lateinit var addressCrypto: AddressCrypto
+    private lateinit var encryptedMessage: CipherText
+    private lateinit var encryptedAttachment: PGPSplitMessage
+
+    @BeforeTest
+    fun setup() {
+        assumeBenchmarksEnabled()
+
+        val key = GoOpenPgpCrypto.generateKey("Benchmark", "benchmark@proton.me", KEY_TYPE, 0)
+        armoredPrivateKey = key.lock(passphrase).armor()
+        val addressKey = AddressKey(
+            id = UserId("benchmarkKeyId"),
+            version = 3u,
+            canEncrypt = true,
+            canVerifySignature = true,
+            publicKey = PgpField.PublicKey(NotBlankString(key.armoredPublicKey)),
+            privateKey = PgpField.PrivateKey(NotBlankString(armoredPrivateKey)),
+            token = null,
+            signature = null,
+            activation = null,
+            active = true
+        )
+        val user: User = mockk {
+            every { addresses } returns mockk {
+                every { findBy(addressId) } returns mockk {
+                    every { keys } returns AddressKeys(addressKey, listOf(addressKey))
+                }
+            }
+        }
+        val userManager: UserManager = mockk {
+            every { openPgp } returns this@CryptoBenchmarks.openPgp
+            every { keyStoreCrypto } returns NoEncryptionKeyStoreCrypto
+            every { getUserBlocking(fixtures.userId) } returns user
+            every { getUserPassphraseBlocking(fixtures.userId) } returns EncryptedByteArray(passphrase)
+        }
+        addressCrypto = Crypto.forAddress(userManager, fixtures.userId, addressId)
+
+        encryptedMessage = addressCrypto.encrypt(fixtures.newsletterHtml(MESSAGE_SIZE), sign = true)
+        encryptedAttachment = GoOpenPgpCrypto.newKeyRing(GoOpenPgpCrypto.newKeyFromArmored(key.armoredPublicKey))
+            .encryptAttachment(GoOpenPgpCrypto.newPlainMessage(fixtures.bytes(ATTACHMENT_SIZE)), "attachment.bin")
+    }
+
+    @Test
+    fun decryptMessageWithAddressCrypto() {
+        benchmarkRule.measureRepeated {
+            addressCrypto.decrypt(encryptedMessage)
+        }
+    }
+
+    @Test
+    fun decryptMessageWithOpenPgp() {
+        val privateKey = GoOpenPgpCrypto.newKeyFromArmored(armoredPrivateKey).serialize()
+        benchmarkRule.measureRepeated {
+            openPgp.decryptMessageBinKey(encryptedMessage.armored, privateKey, passphrase)
+        }
+    }
+
+    @Test
+    fun decryptAttachmentWithAddressCrypto() {
+        benchmarkRule.measureRepeated {
+            addressCrypto.decryptAttachment(encryptedAttachment.keyPacket, encryptedAttachment.dataPacket)
+        }
+    }
+
+    private companion object {
+
+        const val KEY_TYPE = "x25519"
+        const val MESSAGE_SIZE = 50 * 1024
+        const val ATTACHMENT_SIZE = 1024 * 1024
+    }
+}
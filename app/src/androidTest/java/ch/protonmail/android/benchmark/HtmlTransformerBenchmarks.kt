@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import ch.protonmail.android.utils.HTMLTransformer.DefaultTransformer
+import ch.protonmail.android.utils.HTMLTransformer.ViewportTransformer
+import org.jsoup.Jsoup
+import org.junit.Rule
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+
+/**
+ * Sanitizes and wraps generated newsletters with the pipeline used for displaying a Message
+ */
+class HtmlTransformerBenchmarks {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val fixtures = BenchmarkFixtures()
+
+    private lateinit var newsletter50kb: String
+    private lateinit var newsletter500kb: String
+    private lateinit var newsletter2mb: String
+
+    @BeforeTest
+    fun setup() {
+        assumeBenchmarksEnabled()
+        newsletter50kb = fixtures.newsletterHtml(sizeInBytes = 50 * 1024)
+        newsletter500kb = fixtures.newsletterHtml(sizeInBytes = 500 * 1024)
+        newsletter2mb = fixtures.newsletterHtml(sizeInBytes = 2 * 1024 * 1024)
+    }
+
+    @Test
+    fun transformNewsletter50kb() {
+        benchmarkRule.measureRepeated { transform(newsletter50kb) }
+    }
+
+    @Test
+    fun transformNewsletter500kb() {
+        benchmarkRule.measureRepeated { transform(newsletter500kb) }
+    }
+
+    @Test
+    fun transformNewsletter2mb() {
+        benchmarkRule.measureRepeated { transform(newsletter2mb) }
+    }
+
+    private fun transform(html: String): String =
+        DefaultTransformer()
+            .pipe(ViewportTransformer(RENDER_WIDTH, CSS, CSS))
+            .transform(Jsoup.parse(html))
+            .toString()
+
+    private companion object {
+
+        const val RENDER_WIDTH = 400
+        const val CSS = "body { margin: 0; }"
+    }
+}
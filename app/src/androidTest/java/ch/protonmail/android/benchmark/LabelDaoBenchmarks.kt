@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.platform.app.InstrumentationRegistry
+import ch.protonmail.android.data.AppDatabase
+import ch.protonmail.android.labels.data.local.LabelDao
+import ch.protonmail.android.labels.data.local.model.LabelEntity
+import ch.protonmail.android.labels.domain.model.LabelType
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.Rule
+import kotlin.test.AfterTest
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+
+/**
+ * Queries [LabelDao] on an in-memory database with [LABELS] Labels and Folders, as done when the drawer, the label
+ *  pickers and the mailbox items are displayed
+ */
+class LabelDaoBenchmarks {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val fixtures = BenchmarkFixtures()
+
+    private lateinit var database: AppDatabase
+    private lateinit var labelDao: LabelDao
+    private lateinit var labels: List<LabelEntity>
+
+    @BeforeTest
+    fun setup() {
+        assumeBenchmarksEnabled()
+        database = AppDatabase.buildInMemoryDatabase(InstrumentationRegistry.getInstrumentation().targetContext)
+        labelDao = database.labelDao()
+        labels = fixtures.labels(LABELS)
+        runBlocking { labelDao.insertOrUpdate(*labels.toTypedArray()) }
+    }
+
+    @AfterTest
+    fun tearDown() {
+        if (::database.isInitialized) database.close()
+    }
+
+    @Test
+    fun observeAllLabels() {
+        benchmarkRule.measureRepeated {
+            runBlocking { labelDao.observeAllLabels(fixtures.userId).first() }
+        }
+    }
+
+    @Test
+    fun findFolders() {
+        benchmarkRule.measureRepeated {
+            runBlocking { labelDao.findLabelsByTypes(fixtures.userId, LabelType.FOLDER) }
+        }
+    }
+
+    @Test
+    fun searchLabelsByName() {
+        benchmarkRule.measureRepeated {
+            runBlocking {
+                labelDao.observeSearchLabelsByNameAndType(fixtures.userId, SEARCH_QUERY, LabelType.MESSAGE_LABEL)
+                    .first()
+            }
+        }
+    }
+
+    @Test
+    fun findLabelById() {
+        val labelIds = labels.map { it.id }
+        var index = 0
+        benchmarkRule.measureRepeated {
+            runBlocking { labelDao.findLabelById(labelIds[index++ % labelIds.size]) }
+        }
+    }
+
+    private companion object {
+
+        const val LABELS = 200
+        const val SEARCH_QUERY = "re"
+    }
+}
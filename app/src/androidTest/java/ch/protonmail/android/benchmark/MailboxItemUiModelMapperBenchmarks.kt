@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import ch.protonmail.android.core.Constants.MessageLocationType
+import ch.protonmail.android.data.ContactsRepository
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.labels.domain.model.Label
+import ch.protonmail.android.labels.domain.model.LabelId
+import ch.protonmail.android.labels.presentation.mapper.LabelChipUiModelMapper
+import ch.protonmail.android.mailbox.domain.model.Conversation
+import ch.protonmail.android.mailbox.presentation.mapper.MailboxItemUiModelMapper
+import io.mockk.every
+import io.mockk.mockk
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.runBlocking
+import org.junit.Rule
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+
+/**
+ * Maps a mailbox page of [PAGE_SIZE] Messages or Conversations with [MailboxItemUiModelMapper], as done every time the
+ *  mailbox is updated
+ */
+class MailboxItemUiModelMapperBenchmarks {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val fixtures = BenchmarkFixtures()
+    private val contactsRepository: ContactsRepository = mockk {
+        every { findContactsByEmail(any(), any()) } returns flowOf(emptyList())
+    }
+    private val mapper = MailboxItemUiModelMapper(contactsRepository, LabelChipUiModelMapper())
+    private val inboxLabelId = LabelId(MessageLocationType.INBOX.asLabelIdString())
+
+    private lateinit var allLabels: List<Label>
+    private lateinit var messages: List<Message>
+    private lateinit var conversations: List<Conversation>
+
+    @BeforeTest
+    fun setup() {
+        assumeBenchmarksEnabled()
+        val labels = fixtures.labels(LABELS)
+        val labelIds = labels.map { it.id.id }
+        allLabels = with(fixtures) { labels.toDomainLabels() }
+        messages = fixtures.messages(PAGE_SIZE, labelIds)
+        conversations = fixtures.conversations(PAGE_SIZE, labelIds)
+    }
+
+    @Test
+    fun mapMessagesPage() {
+        benchmarkRule.measureRepeated {
+            mapper.toUiModels(messages, inboxLabelId, allLabels)
+        }
+    }
+
+    @Test
+    fun mapConversationsPage() {
+        benchmarkRule.measureRepeated {
+            runBlocking {
+                mapper.toUiModels(fixtures.userId, conversations, inboxLabelId, allLabels)
+            }
+        }
+    }
+
+    private companion object {
+
+        const val PAGE_SIZE = 50
+        const val LABELS = 30
+    }
+}
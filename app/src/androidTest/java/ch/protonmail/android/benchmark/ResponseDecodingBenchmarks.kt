@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.api.models.messages.receive.MessagesResponse
+import ch.protonmail.android.api.utils.ResponseTypeAdapterFactory
+import ch.protonmail.android.data.local.model.AttachmentHeaders
+import ch.protonmail.android.event.data.remote.model.EventResponse
+import com.google.gson.FieldNamingPolicy
+import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import org.junit.Rule
+import java.lang.reflect.Modifier
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+
+/**
+ * Decodes a page of [MESSAGES] Messages and an events page with [MESSAGES] new Messages and Conversations, with the
+ *  same Gson configuration used by the API client
+ */
+class ResponseDecodingBenchmarks {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val fixtures = BenchmarkFixtures()
+    private val gson: Gson = GsonBuilder()
+        .setFieldNamingStrategy(FieldNamingPolicy.UPPER_CAMEL_CASE)
+        .registerTypeAdapter(MessageRecipient::class.java, MessageRecipient.MessageRecipientSerializer())
+        .registerTypeAdapter(MessageRecipient::class.java, MessageRecipient.MessageRecipientDeserializer())
+        .registerTypeAdapter(AttachmentHeaders::class.java, AttachmentHeaders.AttachmentHeadersDeserializer())
+        .registerTypeAdapterFactory(ResponseTypeAdapterFactory())
+        .excludeFieldsWithModifiers(Modifier.TRANSIENT, Modifier.STATIC)
+        .create()
+
+    private lateinit var messagesJson: String
+    private lateinit var eventsJson: String
+
+    @BeforeTest
+    fun setup() {
+        assumeBenchmarksEnabled()
+        val labelIds = fixtures.labels(LABELS).map { it.id.id }
+        messagesJson = fixtures.messagesResponseJson(MESSAGES, labelIds)
+        eventsJson = fixtures.eventsResponseJson(MESSAGES, labelIds)
+    }
+
+    @Test
+    fun decodeMessagesPage() {
+        benchmarkRule.measureRepeated {
+            gson.fromJson(messagesJson, MessagesResponse::class.java)
+        }
+    }
+
+    @Test
+    fun decodeEventsPage() {
+        benchmarkRule.measureRepeated {
+            gson.fromJson(eventsJson, EventResponse::class.java)
+        }
+    }
+
+    private companion object {
+
+        const val MESSAGES = 150
+        const val LABELS = 20
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.data.local.model.MessageSender
+import ch.protonmail.android.data.local.model.MessagesTypesConverter
+import ch.protonmail.android.mailbox.data.local.ConversationTypesConverter
+import ch.protonmail.android.mailbox.data.local.model.LabelContextDatabaseModel
+import org.junit.Rule
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+
+/**
+ * Encodes and decodes the list columns of a page of [ROWS] rows with [MessagesTypesConverter] and
+ *  [ConversationTypesConverter], as Room does when saving and loading a mailbox
+ */
+class TypesConvertersBenchmarks {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val fixtures = BenchmarkFixtures()
+    private val messagesConverter = MessagesTypesConverter()
+    private val conversationsConverter = ConversationTypesConverter()
+
+    private lateinit var recipients: List<List<MessageRecipient>>
+    private lateinit var senders: List<List<MessageSender>>
+    private lateinit var labelContexts: List<List<LabelContextDatabaseModel>>
+
+    @BeforeTest
+    fun setup() {
+        assumeBenchmarksEnabled()
+        val labelIds = fixtures.labels(LABELS).map { it.id.id }
+        recipients = List(ROWS) { fixtures.recipients(RECIPIENTS) }
+        senders = List(ROWS) { fixtures.senders(SENDERS) }
+        labelContexts = List(ROWS) { fixtures.labelContexts(labelIds.shuffled().take(LABELS_PER_ROW)) }
+    }
+
+    @Test
+    fun encodeRecipients() {
+        benchmarkRule.measureRepeated {
+            recipients.forEach(messagesConverter::messageRecipientsListToString)
+        }
+    }
+
+    @Test
+    fun decodeRecipients() {
+        val encoded = recipients.map(messagesConverter::messageRecipientsListToString)
+        benchmarkRule.measureRepeated {
+            encoded.forEach(messagesConverter::stringToMessageRecipientsList)
+        }
+    }
+
+    @Test
+    fun encodeSenders() {
+        benchmarkRule.measureRepeated {
+            senders.forEach(conversationsConverter::messageRecipientsListToString)
+        }
+    }
+
+    @Test
+    fun decodeSenders() {
+        val encoded = senders.map(conversationsConverter::messageRecipientsListToString)
+        benchmarkRule.measureRepeated {
+            encoded.forEach(conversationsConverter::stringToMessageSendersList)
+        }
+    }
+
+    @Test
+    fun encodeLabelContexts() {
+        benchmarkRule.measureRepeated {
+            labelContexts.forEach(conversationsConverter::labelsContextListToString)
+        }
+    }
+
+    @Test
+    fun decodeLabelContexts() {
+        val encoded = labelContexts.map(conversationsConverter::labelsContextListToString)
+        benchmarkRule.measureRepeated {
+            encoded.forEach(conversationsConverter::stringToLabelsContextList)
+        }
+    }
+
+    private companion object {
+
+        const val ROWS = 50
+        const val RECIPIENTS = 4
+        const val SENDERS = 2
+        const val LABELS = 20
+        const val LABELS_PER_ROW = 3
+    }
+}
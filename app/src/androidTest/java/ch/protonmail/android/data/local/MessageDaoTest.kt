@@ -23,6 +23,7 @@ import androidx.test.core.app.ApplicationProvider
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import app.cash.turbine.test
 import ch.protonmail.android.data.local.model.Message
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.test.runTest
 import org.junit.runner.RunWith
 import kotlin.test.AfterTest
@@ -142,6 +143,29 @@ class MessageDaoTest {
         }
     }
 
+    @Test
+    fun saving_a_message_read_from_the_list_keeps_its_columns_missing_from_the_list() = runTest {
+        // given
+        val message = buildMessage(FIRST_MESSAGE_ID, labelsIds = listOf(INBOX_LABEL)).apply {
+            mimeType = "text/html"
+            spamScore = 101
+            accessTime = 1_000L
+        }
+        dao.saveMessage(message)
+        val listedMessage = dao.observeMessages(INBOX_LABEL).first().single()
+
+        // when
+        listedMessage.Unread = false
+        dao.saveMessage(listedMessage)
+
+        // then
+        val result = dao.findMessageByIdOnce(FIRST_MESSAGE_ID)!!
+        assertEquals(false, result.Unread)
+        assertEquals("text/html", result.mimeType)
+        assertEquals(101, result.spamScore)
+        assertEquals(1_000L, result.accessTime)
+    }
+
     companion object TestData {
 
         const val FIRST_MESSAGE_ID = "first"
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils
+
+import org.junit.FixMethodOrder
+import org.junit.runners.MethodSorters
+import kotlin.system.measureTimeMillis
+import kotlin.test.BeforeTest
+import kotlin.test.Ignore
+import kotlin.test.Test
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@Ignore("Benchmarks are useful only when observed, not needed to run for every pipeline")
+class HTMLToMDConverterBenchmarks {
+
+    private val converter = HTMLToMDConverter()
+
+    private lateinit var thread50replies: String
+    private lateinit var thread500replies: String
+    private lateinit var thread5_000replies: String
+
+    @BeforeTest
+    fun setupThreads() {
+        fun buildThread(replies: Int): String = buildString {
+            repeat(replies) { index ->
+                append("<div>Reply $index from <a href=\"mailto:user$index@proton.me\">User $index</a></div>")
+                append("<div class=\"protonmail_quote\"><blockquote class=\"protonmail_quote\" type=\"cite\">")
+            }
+            append("<p>Original <b>message</b> with a <a href=\"https://proton.me\">link</a></p>")
+            repeat(replies) { append("</blockquote></div>") }
+        }
+
+        thread50replies = buildThread(50)
+        thread500replies = buildThread(500)
+        thread5_000replies = buildThread(5_000)
+    }
+
+    @Test
+    fun test1thread50replies() {
+        runBenchmark(thread50replies)
+    }
+
+    @Test
+    fun test2thread500replies() {
+        runBenchmark(thread500replies)
+    }
+
+    @Test
+    fun test3thread5_000replies() {
+        runBenchmark(thread5_000replies)
+    }
+
+    private fun runBenchmark(input: String) {
+        // when
+        var result: String
+        val time = measureTimeMillis {
+            result = converter.convert(input)
+        }
+
+        // then
+        println("${input.length} chars -> ${result.length} chars in $time ms")
+    }
+}
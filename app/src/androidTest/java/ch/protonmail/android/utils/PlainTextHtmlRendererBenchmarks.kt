@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils
+
+import org.junit.FixMethodOrder
+import org.junit.runners.MethodSorters
+import kotlin.system.measureTimeMillis
+import kotlin.test.BeforeTest
+import kotlin.test.Ignore
+import kotlin.test.Test
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@Ignore("Benchmarks are useful only when observed, not needed to run for every pipeline")
+class PlainTextHtmlRendererBenchmarks {
+
+    private lateinit var body100kb: String
+    private lateinit var body1mb: String
+    private lateinit var body5mb: String
+
+    @BeforeTest
+    fun setupBodies() {
+        val line = "2022-10-19 12:00:00.000 <INFO> GET https://mail.proton.me/api/messages?Page=1&PageSize=50 " +
+            "took 123ms, see www.proton.me/support for \"details\"\r\n"
+        fun buildBody(size: Int) = buildString(size + line.length) {
+            while (length < size) append(line)
+        }
+
+        body100kb = buildBody(100 * 1024)
+        body1mb = buildBody(1024 * 1024)
+        body5mb = buildBody(5 * 1024 * 1024)
+    }
+
+    @Test
+    fun test1render100kb() {
+        runBenchmark(body100kb)
+    }
+
+    @Test
+    fun test2render1mb() {
+        runBenchmark(body1mb)
+    }
+
+    @Test
+    fun test3render5mb() {
+        runBenchmark(body5mb)
+    }
+
+    private fun runBenchmark(input: String) {
+        // when
+        var result: String
+        val time = measureTimeMillis {
+            result = PlainTextHtmlRenderer.render(input)
+        }
+
+        // then
+        println("${input.length} chars -> ${result.length} chars in $time ms")
+    }
+}
@@ -20,33 +20,34 @@ package ch.protonmail.android.activities
 
 import android.content.Intent
 import android.os.Bundle
-import android.os.Handler
 import android.view.Menu
 import android.view.MenuItem
 import android.view.View
 import android.view.inputmethod.EditorInfo
 import android.widget.ProgressBar
+import androidx.activity.viewModels
 import androidx.appcompat.widget.SearchView
 import androidx.constraintlayout.widget.ConstraintLayout
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.flowWithLifecycle
+import androidx.lifecycle.lifecycleScope
 import androidx.recyclerview.widget.LinearLayoutManager
 import androidx.recyclerview.widget.RecyclerView
 import ch.protonmail.android.R
-import ch.protonmail.android.activities.messageDetails.repository.MessageDetailsRepository
 import ch.protonmail.android.adapters.messages.MailboxRecyclerViewAdapter
 import ch.protonmail.android.api.segments.event.FetchUpdatesJob
 import ch.protonmail.android.core.Constants.MessageLocationType
 import ch.protonmail.android.core.Constants.MessageLocationType.Companion.fromInt
-import ch.protonmail.android.core.ProtonMailApplication
 import ch.protonmail.android.details.presentation.ui.MessageDetailsActivity
-import ch.protonmail.android.events.NoResultsEvent
-import ch.protonmail.android.events.SearchResultEvent
-import ch.protonmail.android.jobs.SearchMessagesJob
 import ch.protonmail.android.mailbox.presentation.model.MailboxItemUiModel
+import ch.protonmail.android.mailbox.presentation.model.SearchState
 import ch.protonmail.android.mailbox.presentation.viewmodel.MailboxViewModel
+import ch.protonmail.android.mailbox.presentation.viewmodel.SearchViewModel
 import ch.protonmail.android.utils.AppUtil
 import com.google.android.material.snackbar.Snackbar
-import com.squareup.otto.Subscribe
 import dagger.hilt.android.AndroidEntryPoint
+import kotlinx.coroutines.flow.launchIn
+import kotlinx.coroutines.flow.onEach
 import javax.inject.Inject
 import javax.inject.Provider
 
@@ -57,13 +58,9 @@ internal class SearchActivity : BaseActivity() {
     private lateinit var noMessagesView: ConstraintLayout
     private lateinit var progressBar: ProgressBar
     private var scrollStateChanged = false
-    private var queryText = ""
-    private var currentPage = 0
     private lateinit var searchView: SearchView
     private lateinit var mailboxViewModel: MailboxViewModel
-
-    @Inject
-    lateinit var messageDetailsRepository: MessageDetailsRepository
+    private val searchViewModel: SearchViewModel by viewModels()
 
     @Inject
     lateinit var mailboxViewModelProvider: Provider<MailboxViewModel>
@@ -121,8 +118,7 @@ internal class SearchActivity : BaseActivity() {
                 val lastPosition = adapter?.itemCount?.let { it - 1 } ?: return
                 if (scrollStateChanged && lastVisibleItem == lastPosition && dy > 0) {
                     scrollStateChanged = false
-                    currentPage++
-                    performSearch(true)
+                    searchViewModel.loadMore()
                 }
             }
         })
@@ -149,31 +145,34 @@ internal class SearchActivity : BaseActivity() {
             }
         }
 
+        searchViewModel.searchState
+            .flowWithLifecycle(lifecycle, Lifecycle.State.STARTED)
+            .onEach(::showSearchState)
+            .launchIn(lifecycleScope)
     }
 
-    private fun showSearchResults(items: List<MailboxItemUiModel>) {
-        adapter.submitList(items)
-        progressBar.visibility = View.GONE
-        adapter.setNewLocation(MessageLocationType.SEARCH)
-    }
-
-    override fun onStart() {
-        super.onStart()
-        ProtonMailApplication.getApplication().bus.register(this)
-    }
-
-    override fun onStop() {
-        super.onStop()
-        ProtonMailApplication.getApplication().bus.unregister(this)
+    private suspend fun showSearchState(state: SearchState) {
+        when (state) {
+            SearchState.Idle -> {
+                adapter.submitList(null)
+                progressBar.visibility = View.GONE
+                noMessagesView.visibility = View.GONE
+            }
+            is SearchState.Results -> {
+                val items = mailboxViewModel.messagesToMailboxItems(state.messages)
+                adapter.submitList(items)
+                adapter.setNewLocation(MessageLocationType.SEARCH)
+                progressBar.visibility = if (state.isLoading && items.isEmpty()) View.VISIBLE else View.GONE
+                noMessagesView.visibility = if (state.isLoading.not() && items.isEmpty()) View.VISIBLE else View.GONE
+            }
+        }
     }
 
     override fun onResume() {
         super.onResume()
         mJobManager.addJobInBackground(FetchUpdatesJob())
-        if (queryText.isNotEmpty()) {
-            progressBar.visibility = View.VISIBLE
-            Handler().postDelayed({ performSearch(false) }, 1000)
-        }
+        // Messages opened from the results could have been changed or moved meanwhile
+        searchViewModel.refresh()
     }
 
     override fun onCreateOptionsMenu(menu: Menu): Boolean {
@@ -189,27 +188,19 @@ internal class SearchActivity : BaseActivity() {
         searchView.requestFocus()
         searchView.setOnQueryTextListener(object : SearchView.OnQueryTextListener {
             override fun onQueryTextSubmit(query: String): Boolean {
-                currentPage = 0
-                queryText = query
-                performSearch(false)
+                searchViewModel.setQuery(query)
+                searchView.clearFocus()
                 return true
             }
 
             override fun onQueryTextChange(newText: String): Boolean {
-                progressBar.visibility = View.GONE
-                noMessagesView.visibility = View.GONE
+                searchViewModel.setQuery(newText)
                 return true
             }
         })
         return true
     }
 
-    private fun performSearch(loadMore: Boolean) {
-        progressBar.visibility = if (loadMore) View.GONE else View.VISIBLE
-        mJobManager.addJobInBackground(SearchMessagesJob(queryText, currentPage))
-        searchView.clearFocus()
-    }
-
     override fun onOptionsItemSelected(item: MenuItem): Boolean {
         if (item.itemId == android.R.id.home) {
             onBackPressed()
@@ -223,20 +214,4 @@ internal class SearchActivity : BaseActivity() {
         return messageLocation === MessageLocationType.ALL_DRAFT ||
             messageLocation === MessageLocationType.DRAFT
     }
-
-    @Subscribe
-    fun onNoResultsEvent(event: NoResultsEvent) {
-        progressBar.visibility = View.GONE
-        if (event.page == 0) {
-            adapter.submitList(null)
-            noMessagesView.visibility = View.VISIBLE
-        }
-    }
-
-    @Subscribe
-    fun onSearchResults(event: SearchResultEvent) {
-        val messages = event.results
-        val items = mailboxViewModel.messagesToMailboxItemsBlocking(messages)
-        showSearchResults(items)
-    }
 }
@@ -74,7 +74,6 @@ import androidx.work.WorkManager;
 
 import com.google.android.material.snackbar.Snackbar;
 import com.squareup.otto.Subscribe;
-import com.tokenautocomplete.TokenCompleteTextView;
 
 import org.apache.http.protocol.HTTP;
 import org.jsoup.Jsoup;
@@ -158,8 +157,11 @@ import ch.protonmail.android.utils.extensions.StringExtensionsKt;
 import ch.protonmail.android.utils.extensions.TextExtensions;
 import ch.protonmail.android.utils.ui.dialogs.DialogUtils;
 import ch.protonmail.android.utils.ui.screen.RenderDimensionsProvider;
+import ch.protonmail.android.utils.webview.WebViewPool;
 import ch.protonmail.android.views.MessageRecipientView;
 import ch.protonmail.android.views.PmWebViewClient;
+import ch.protonmail.tokenautocomplete.CharacterTokenizer;
+import ch.protonmail.tokenautocomplete.TokenCompleteTextView;
 import dagger.hilt.android.AndroidEntryPoint;
 import kotlin.collections.CollectionsKt;
 import me.proton.core.accountmanager.domain.AccountManager;
@@ -199,7 +201,7 @@ public class ComposeMessageActivity
     private static final String STATE_ADDITIONAL_ROWS_VISIBLE = "additional_rows_visible";
     private static final String STATE_DRAFT_ID = "draft_id";
     private static final String STATE_ADDED_CONTENT = "added_content";
-    private static final char[] RECIPIENT_SEPARATORS = {',', ';', ' '};
+    private static final List<Character> RECIPIENT_SEPARATORS = Arrays.asList(',', ';', ' ');
     //endregion
 
     //region views
@@ -253,6 +255,9 @@ public class ComposeMessageActivity
     @Inject
     AccountSettingsRepository accountSettingsRepository;
 
+    @Inject
+    WebViewPool webViewPool;
+
     String composerInstanceId;
 
     Menu menu;
@@ -379,7 +384,7 @@ public class ComposeMessageActivity
     }
 
     private void setUpQuotedMessageWebView() {
-        quotedMessageWebView = new WebView(this);
+        quotedMessageWebView = webViewPool.acquire(this);
         pmWebViewClient = new PmWebViewClient(mUserManager, accountSettingsRepository, this, false);
         quotedMessageWebView.setWebViewClient(pmWebViewClient);
         quotedMessageWebView.requestDisallowInterceptTouchEvent(true);
@@ -960,6 +965,15 @@ public class ComposeMessageActivity
         ProtonMailApplication.getApplication().getBus().unregister(composeMessageViewModel);
     }
 
+    @Override
+    protected void onDestroy() {
+        if (quotedMessageWebView != null) {
+            webViewPool.release(quotedMessageWebView);
+            quotedMessageWebView = null;
+        }
+        super.onDestroy();
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -1082,7 +1096,7 @@ public class ComposeMessageActivity
     private void initRecipientsView(final MessageRecipientView recipientsView, ArrayAdapter adapter, final Constants.RecipientLocationType location) {
         recipientsView.setAdapter(adapter);
         recipientsView.allowCollapse(true);
-        recipientsView.setSplitChar(RECIPIENT_SEPARATORS);
+        recipientsView.setTokenizer(new CharacterTokenizer(RECIPIENT_SEPARATORS, ","));
         recipientsView.setThreshold(1);
         recipientsView.setLocation(location);
         recipientsView.setDeletionStyle(TokenCompleteTextView.TokenDeleteStyle.PartialCompletion);
@@ -1124,6 +1138,11 @@ public class ComposeMessageActivity
                 recipientsView.removeKey(token.getEmailAddress());
                 recipientsView.removeToken(token.getEmailAddress());
             }
+
+            @Override
+            public void onTokenIgnored(MessageRecipient token) {
+                // All the recipients are accepted
+            }
         });
     }
 
@@ -1554,14 +1573,17 @@ public class ComposeMessageActivity
     private Map<MessageRecipientView, List<MessageRecipient>> pendingRecipients = new HashMap<>();
 
     private void addStringRecipientsToView(List<String> recipients, MessageRecipientView messageRecipientView) {
+        List<MessageRecipient> validRecipients = new ArrayList<>(recipients.size());
         for (String recipient : recipients) {
             if (CommonExtensionsKt.isValidEmail(recipient)) {
-                messageRecipientView.addObject(new MessageRecipient("", recipient));
+                validRecipients.add(new MessageRecipient("", recipient));
             } else {
                 String message = getString(R.string.invalid_email_address_removed, recipient);
                 TextExtensions.showToast(this, message);
             }
         }
+        // Added with a single edit of the view, instead of one per recipient
+        messageRecipientView.addObjects(validRecipients);
     }
 
     private void addRecipientsToView(List<MessageRecipient> recipients, MessageRecipientView messageRecipientView) {
@@ -1571,6 +1593,7 @@ public class ComposeMessageActivity
         } else {
             messageRecipientView.clear();
         }
+        List<MessageRecipient> recipientsToAdd = new ArrayList<>(recipients.size());
         Map<String, List<MessageRecipient>> groupedRecipients = new HashMap<>();
         for (MessageRecipient recipient : recipients) {
             // loop all recipients
@@ -1588,7 +1611,7 @@ public class ComposeMessageActivity
                 groupRecipients.add(recipient);
                 groupedRecipients.put(group, groupRecipients);
             } else {
-                messageRecipientView.addObject(new MessageRecipient("", recipient.getEmailAddress()));
+                recipientsToAdd.add(new MessageRecipient("", recipient.getEmailAddress()));
             }
         }
         for (Map.Entry<String, List<MessageRecipient>> entry : groupedRecipients.entrySet()) {
@@ -1614,7 +1637,7 @@ public class ComposeMessageActivity
                             }
                             if (!found) {
                                 groupRecipientsIterator.remove();
-                                messageRecipientView.addObject(new MessageRecipient("", currentMR.getEmailAddress()));
+                                recipientsToAdd.add(new MessageRecipient("", currentMR.getEmailAddress()));
                             }
                         }
                     }
@@ -1624,9 +1647,11 @@ public class ComposeMessageActivity
                 recipient.setGroupIcon(R.string.contact_group_groups_icon);
                 recipient.setGroupColor(Color.parseColor(UiUtil.normalizeColor(group.getColor())));
                 recipient.setGroupRecipients(groupRecipients);
-                messageRecipientView.addObject(recipient);
+                recipientsToAdd.add(recipient);
             }
         }
+        // Added with a single edit of the view, instead of one per recipient
+        messageRecipientView.addObjects(recipientsToAdd);
     }
 
     private void setBodyContent(boolean respondInline, boolean isPlainText) {
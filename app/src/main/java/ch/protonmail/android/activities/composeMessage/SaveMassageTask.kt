@@ -21,7 +21,7 @@ package ch.protonmail.android.activities.composeMessage
 import android.os.AsyncTask
 import ch.protonmail.android.activities.messageDetails.repository.MessageDetailsRepository
 import ch.protonmail.android.data.local.model.Message
-import kotlinx.coroutines.runBlocking
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 
 internal class SaveMassageTask(
     private val messageDetailsRepository: MessageDetailsRepository,
@@ -29,7 +29,7 @@ internal class SaveMassageTask(
 ) : AsyncTask<Unit, Unit, Unit>() {
 
     override fun doInBackground(vararg units: Unit) {
-        runBlocking {
+        runBlockingMonitored {
             messageDetailsRepository.saveMessage(savedMessage)
         }
     }
@@ -50,6 +50,8 @@ import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.model.Attachment
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.details.data.local.EmbeddedImagesStore
+import ch.protonmail.android.details.data.remote.RemoteImagesProxy
 import ch.protonmail.android.details.domain.model.SignatureVerification
 import ch.protonmail.android.details.presentation.mapper.MessageEncryptionUiModelMapper
 import ch.protonmail.android.details.presentation.mapper.MessageToMessageDetailsListItemMapper
@@ -57,6 +59,7 @@ import ch.protonmail.android.details.presentation.model.ConversationUiModel
 import ch.protonmail.android.details.presentation.model.MessageDetailsListItem
 import ch.protonmail.android.details.presentation.ui.MessageDetailsActivity
 import ch.protonmail.android.details.presentation.view.MessageDetailsActionsView
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.labels.domain.model.Label
 import ch.protonmail.android.settings.data.AccountSettingsRepository
 import ch.protonmail.android.ui.model.LabelChipUiModel
@@ -67,13 +70,13 @@ import ch.protonmail.android.utils.ui.ExpandableRecyclerAdapter
 import ch.protonmail.android.utils.ui.TYPE_HEADER
 import ch.protonmail.android.utils.ui.TYPE_ITEM
 import ch.protonmail.android.utils.webview.SetUpWebViewDarkModeHandlingIfSupported
+import ch.protonmail.android.utils.webview.WebViewPool
 import ch.protonmail.android.views.PmWebViewClient
 import ch.protonmail.android.views.messageDetails.MessageDetailsAttachmentsView
 import ch.protonmail.android.views.messageDetails.MessageDetailsHeaderView
 import ch.protonmail.android.views.messageDetails.ReplyActionsView
 import kotlinx.android.synthetic.main.layout_message_details.view.*
 import kotlinx.android.synthetic.main.layout_message_details_body.view.*
-import kotlinx.coroutines.runBlocking
 import org.apache.http.protocol.HTTP
 import timber.log.Timber
 
@@ -92,8 +95,11 @@ internal class MessageDetailsAdapter(
     private val messageToMessageDetailsListItemMapper: MessageToMessageDetailsListItemMapper,
     private val userManager: UserManager,
     private val accountSettingsRepository: AccountSettingsRepository,
+    private val embeddedImages: EmbeddedImagesStore.Scope,
+    private val remoteImagesProxy: RemoteImagesProxy,
     private val messageEncryptionUiModelMapper: MessageEncryptionUiModelMapper,
     private val setUpWebViewDarkModeHandlingIfSupported: SetUpWebViewDarkModeHandlingIfSupported,
+    private val webViewPool: WebViewPool,
     private val protonCalendarUtil: ProtonCalendarUtil,
     private val onLoadEmbeddedImagesClicked: (Message, List<String>) -> Unit,
     private val onDisplayRemoteContentClicked: (Message) -> Unit,
@@ -107,6 +113,7 @@ internal class MessageDetailsAdapter(
 
     private var exclusiveLabelsPerMessage: HashMap<String, List<Label>> = hashMapOf()
     private var nonExclusiveLabelsPerMessage: HashMap<String, List<LabelChipUiModel>> = hashMapOf()
+    private val messageBodyWebViews = mutableSetOf<WebView>()
 
     private val messageLoadingSpinnerTopMargin by lazy {
         context.resources.getDimension(R.dimen.padding_m).toInt()
@@ -147,9 +154,8 @@ internal class MessageDetailsAdapter(
                 false
             )
 
-            val webView = setupMessageBodyWebView(itemView)
+            // The message body WebView is taken from the pool when the item is bound
             itemView.messageWebViewContainer.removeAllViews()
-            itemView.messageWebViewContainer.addView(webView)
 
             val messageBodyProgress = createMessageBodyProgressBar()
             itemView.messageWebViewContainer.addView(messageBodyProgress)
@@ -212,7 +218,7 @@ internal class MessageDetailsAdapter(
         // Looks like some devices are not able to create a WebView in some conditions.
         // Show Toast and redirect to the proper page.
         val webView = try {
-            WebView(context)
+            webViewPool.acquire(context)
         } catch (ignored: Throwable) {
             (context as FragmentActivity).redirectToChrome()
             return null
@@ -220,7 +226,13 @@ internal class MessageDetailsAdapter(
         webView.id = R.id.item_message_body_web_view_id
 
         val webViewClient = MessageDetailsPmWebViewClient(
-            userManager, accountSettingsRepository, context, itemView, shouldShowRemoteImages()
+            userManager,
+            accountSettingsRepository,
+            embeddedImages,
+            remoteImagesProxy,
+            context,
+            itemView,
+            shouldShowRemoteImages()
         )
         configureWebView(webView, webViewClient)
         setUpScrollListener(webView, itemView.messageWebViewContainer)
@@ -228,12 +240,34 @@ internal class MessageDetailsAdapter(
         webView.invalidate()
         context.registerForContextMenu(webView)
 
+        itemView.messageWebViewContainer.addView(webView, 0)
+        messageBodyWebViews += webView
         return webView
     }
 
+    private fun releaseMessageBodyWebView(webView: WebView) {
+        (context as Activity).unregisterForContextMenu(webView)
+        messageBodyWebViews -= webView
+        webViewPool.release(webView)
+    }
+
+    /**
+     * Returns the WebViews of all the items to the [WebViewPool], it must be called when the adapter is not used
+     *  anymore
+     */
+    fun releaseWebViews() {
+        messageBodyWebViews.toList().forEach(::releaseMessageBodyWebView)
+    }
+
     override fun onViewRecycled(holder: ViewHolder) {
         super.onViewRecycled(holder)
 
+        if (holder is ItemViewHolder) {
+            holder.itemView.messageWebViewContainer
+                .findViewById<WebView>(R.id.item_message_body_web_view_id)
+                ?.let(::releaseMessageBodyWebView)
+        }
+
         holder.itemView.lastConversationMessageCollapsedDivider?.let { it.isVisible = false }
         holder.itemView.headerView?.forbidExpandingHeaderView()
         holder.itemView.headerView?.hideRecipientsCollapsedView()
@@ -433,7 +467,9 @@ internal class MessageDetailsAdapter(
 
     private fun wrapMessageContentHeightWhenContentLoaded(messageWebViewContainer: LinearLayout) {
         messageWebViewContainer.postDelayed(WRAP_MESSAGE_CONTENT_DELAY_MS) {
+            // The WebView is returned to the pool when the item is recycled
             val webView = messageWebViewContainer.findViewById<WebView>(R.id.item_message_body_web_view_id)
+                ?: return@postDelayed
             // We want to keep waiting until the content is actually loaded before wrapping the height to
             // avoid wrapping to quickly (this could result in the message being scrolled behind the screen instead
             // of staying in the user's view)
@@ -471,10 +507,19 @@ internal class MessageDetailsAdapter(
     private class MessageDetailsPmWebViewClient(
         userManager: UserManager,
         accountSettingsRepository: AccountSettingsRepository,
+        embeddedImages: EmbeddedImagesStore.Scope,
+        remoteImagesProxy: RemoteImagesProxy,
         activity: Activity,
         private val itemView: View,
         private val isAutoShowRemoteImages: Boolean
-    ) : PmWebViewClient(userManager, accountSettingsRepository, activity, isAutoShowRemoteImages) {
+    ) : PmWebViewClient(
+        userManager,
+        accountSettingsRepository,
+        activity,
+        isAutoShowRemoteImages,
+        embeddedImages,
+        remoteImagesProxy
+    ) {
 
         override fun onPageFinished(view: WebView, url: String) {
             if (amountOfRemoteResourcesBlocked() > 0) {
@@ -498,7 +543,7 @@ internal class MessageDetailsAdapter(
 
     private fun isAndroidApiLevelLowerThan26() = Build.VERSION.SDK_INT < Build.VERSION_CODES.O
 
-    private fun setUpWebViewDarkModeBlocking(webView: WebView, messageId: String) = runBlocking {
+    private fun setUpWebViewDarkModeBlocking(webView: WebView, messageId: String) = runBlockingMonitored {
         setUpWebViewDarkModeHandlingIfSupported(context, userManager.requireCurrentUserId(), webView, messageId)
     }
 
@@ -587,7 +632,9 @@ internal class MessageDetailsAdapter(
             val openInProtonCalendarView = itemView.include_open_in_proton_calendar
             val editDraftButton = itemView.editDraftButton
             val webView = itemView.messageWebViewContainer
-                .findViewById<WebView>(R.id.item_message_body_web_view_id) ?: return
+                .findViewById<WebView>(R.id.item_message_body_web_view_id)
+                ?: setupMessageBodyWebView(itemView)
+                ?: return
             val messageBodyProgress = itemView.messageWebViewContainer
                 .findViewById<ProgressBar>(R.id.item_message_body_progress_view_id) ?: return
 
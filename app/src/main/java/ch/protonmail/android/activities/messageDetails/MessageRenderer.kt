@@ -22,21 +22,17 @@ package ch.protonmail.android.activities.messageDetails
 
 import android.graphics.Bitmap
 import android.graphics.BitmapFactory
-import android.util.Base64
-import ch.protonmail.android.details.domain.model.EmbeddedImageWithContent
-import ch.protonmail.android.details.domain.model.EmbeddedImageWithOutputStream
+import ch.protonmail.android.details.data.local.EmbeddedImagesStore
+import ch.protonmail.android.details.domain.model.EmbeddedImageWithUrl
 import ch.protonmail.android.details.domain.model.MessageBodyDocument
 import ch.protonmail.android.details.domain.model.MessageEmbeddedImages
-import ch.protonmail.android.details.domain.model.MessageEmbeddedImagesWithContent
-import ch.protonmail.android.details.domain.model.MessageEmbeddedImagesWithOutputStream
+import ch.protonmail.android.details.domain.model.MessageEmbeddedImagesWithUrls
 import ch.protonmail.android.details.presentation.model.RenderedMessage
 import ch.protonmail.android.di.AttachmentsDirectory
 import ch.protonmail.android.jobs.helper.EmbeddedImage
-import ch.protonmail.android.utils.extensions.forEachAsync
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.channels.actor
-import kotlinx.coroutines.channels.toList
 import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.launch
@@ -46,15 +42,14 @@ import me.proton.core.util.kotlin.DispatcherProvider
 import org.jsoup.Jsoup
 import org.jsoup.nodes.Document
 import org.jsoup.select.Elements
-import timber.log.Timber
-import java.io.ByteArrayOutputStream
 import java.io.File
 import javax.inject.Inject
 import kotlin.math.pow
 import kotlin.math.sqrt
 
 /**
- * A class that will inline the images in the message's body.
+ * A class that will inline the images in the message's body, replacing their `cid:` with the URL that serves them
+ *  from [EmbeddedImagesStore].
  *
  * ## Input
  * For start the process, these functions must be called
@@ -73,7 +68,7 @@ import kotlin.math.sqrt
 internal class MessageRenderer(
     private val dispatchers: DispatcherProvider,
     private val documentParser: DocumentParser,
-    private val bitmapImageDecoder: ImageDecoder,
+    private val embeddedImages: EmbeddedImagesStore.Scope,
     private val attachmentsDirectory: File,
     scope: CoroutineScope
 ) : CoroutineScope by scope + dispatchers.Comp {
@@ -81,6 +76,8 @@ internal class MessageRenderer(
     private val renderedMessagesCache = mutableMapOf<String, RenderedMessage>()
 
     private val messagesBodiesById = mutableMapOf<String, String>()
+    // documents already parsed by the caller, which are used instead of parsing the bodies again
+    private val messagesDocumentsById = mutableMapOf<String, Document>()
     // keep track of ids of the already inlined images across the threads
     private val inlinedImagesIdsByMessageId = mutableMapOf<String, MutableList<String>>()
 
@@ -88,102 +85,45 @@ internal class MessageRenderer(
     private val resultsChannel = Channel<RenderedMessage>()
 
     /**
-     * Actor that will compress images.
+     * Actor that will register the images in the [EmbeddedImagesStore.Scope] of this renderer.
      *
-     * This actor will work concurrently: it will push all the [EmbeddedImage]s to be processed in
-     * `imageSelector`, then it will create a pool of tasks ( which pool's size is [WORKERS_COUNT] )
-     * and each task will collect and process items - concurrently - from `imageSelector` until it's
-     * empty.
+     * Images are not decoded here, they are only checked to be available, the WebView will load them from the
+     * [EmbeddedImagesStore] when they're displayed.
      */
-    private val imageCompressor = actor<MessageEmbeddedImages> {
+    private val imageRegistrar = actor<MessageEmbeddedImages> {
         for ((messageId, embeddedImages) in channel) {
-            val outputsChannel = Channel<EmbeddedImageWithOutputStream>(capacity = embeddedImages.size)
-
-            /** This [Channel] works as a queue for handle [EmbeddedImage]s concurrently */
-            val imageSelector = Channel<EmbeddedImage>(capacity = embeddedImages.size)
-
-            // Queue all the embeddedImages
-            for (embeddedImage in embeddedImages) {
+            val imagesWithUrls = embeddedImages.mapNotNull { embeddedImage ->
                 val contentId = embeddedImage.contentId.formatContentId()
 
                 // Skip if we don't have a content id or already rendered
-                if (contentId.isNotBlank() && contentId !in getInlinedImagesIds(messageId))
-                    imageSelector.send(embeddedImage)
-            }
-
-            // For each worker in WORKERS_COUNT start an "async task"
-            (1..WORKERS_COUNT).forEachAsync {
-                // Each "task" will iterate and collect a single embeddedImage until imageSelector
-                // is empty and process it asynchronously
-                while (!imageSelector.isEmpty) {
-                    val embeddedImage = imageSelector.receive()
-
-                    // Process the image
-                    val child = embeddedImage.localFileName ?: continue
-                    val file = File(messageDirectory(embeddedImage.messageId), child)
-                    // Skip if file does not exist
-                    if (!file.exists() || file.length() == 0L) continue
-
-                    val size = (MAX_IMAGES_TOTAL_SIZE / embeddedImages.size)
-                        .coerceAtMost(MAX_IMAGE_SINGLE_SIZE)
-
-                    val compressed = try {
-                        ByteArrayOutputStream().also {
-                            // The file could be corrupted even if exists and it's not empty
-                            val bitmap = bitmapImageDecoder(file, size)
-                            // Could throw `IllegalStateException` if for some reason the
-                            // Bitmap is already recycled
-                            bitmap.compress(Bitmap.CompressFormat.WEBP, 80, it)
-                        }
-                    } catch (t: Throwable) {
-                        Timber.i(t, "Skip the image")
-                        // Skip the image
-                        continue
-                    }
-
-                    // Add the processed image to outputs
-                    outputsChannel.send(EmbeddedImageWithOutputStream(embeddedImage, compressed))
-                }
-            }
-
-            imageSelector.close()
-            outputsChannel.close()
-            imageStringifier.send(MessageEmbeddedImagesWithOutputStream(messageId, outputsChannel.toList()))
-        }
-    }
+                if (contentId.isBlank() || contentId in getInlinedImagesIds(messageId)) return@mapNotNull null
 
-    /** Actor that will stringify images */
-    private val imageStringifier = actor<MessageEmbeddedImagesWithOutputStream> {
-        for ((messageId, imagesWithStreams) in channel) {
+                // Skip if file does not exist
+                val child = embeddedImage.localFileName ?: return@mapNotNull null
+                val file = File(messageDirectory(embeddedImage.messageId), child)
+                if (!file.exists() || file.length() == 0L) return@mapNotNull null
 
-            val imageStrings = imagesWithStreams.map { imageWithStream ->
-                val content = Base64.encodeToString(imageWithStream.stream.toByteArray(), Base64.DEFAULT)
-                EmbeddedImageWithContent(imageWithStream.image, content)
+                EmbeddedImageWithUrl(embeddedImage, embeddedImages.register(embeddedImage))
             }
-            imageInliner.send(MessageEmbeddedImagesWithContent(messageId, imageStrings))
+            imageInliner.send(MessageEmbeddedImagesWithUrls(messageId, imagesWithUrls))
         }
     }
 
     /** Actor that will inline images into [Document] */
-    private val imageInliner = actor<MessageEmbeddedImagesWithContent> {
-        for ((messageId, imagesWithContents) in channel) {
-            val messageBody = messagesBodiesById.getValue(messageId)
-            val document = documentParser(messageBody)
-
-            for (imageWithContent in imagesWithContents) {
+    private val imageInliner = actor<MessageEmbeddedImagesWithUrls> {
+        for ((messageId, imagesWithUrls) in channel) {
+            val document = messagesDocumentsById[messageId]?.flatten()
+                ?: documentParser(messagesBodiesById.getValue(messageId))
 
-                val (embeddedImage, image64) = imageWithContent
+            for ((embeddedImage, url) in imagesWithUrls) {
                 val contentId = embeddedImage.contentId.formatContentId()
 
-                // Skip if we don't have a content id or already rendered
-                if (contentId.isBlank() || contentId in getInlinedImagesIds(messageId)) continue
+                // Skip if already rendered
+                if (contentId in getInlinedImagesIds(messageId)) continue
                 idsListUpdater.send(messageId to contentId)
 
-                val encoding = embeddedImage.encoding.formatEncoding()
-                val contentType = embeddedImage.contentType.formatContentType()
-
                 document.findImageElements(contentId)
-                    ?.attr("src", "data:$contentType;$encoding,$image64")
+                    ?.attr("src", url)
             }
 
             documentStringifier.send(MessageBodyDocument(messageId, document))
@@ -217,6 +157,20 @@ internal class MessageRenderer(
      */
     fun setMessageBody(messageId: String, messageBody: String) {
         messagesBodiesById[messageId] = messageBody
+        messagesDocumentsById.remove(messageId)
+        inlinedImagesIdsByMessageId[messageId]?.clear()
+    }
+
+    /**
+     * Set the already parsed [messageDocument] for the message with the given [messageId], so it doesn't need to be
+     *  parsed again when [setImagesAndProcess] is called for a message with the same [messageId].
+     * The [messageDocument] will be modified when the images are inlined, so it must not be used by the caller anymore
+     *
+     * @param messageDocument [Document] of the HTML message's body
+     */
+    fun setMessageBody(messageId: String, messageDocument: Document) {
+        messagesDocumentsById[messageId] = messageDocument
+        messagesBodiesById.remove(messageId)
         inlinedImagesIdsByMessageId[messageId]?.clear()
     }
 
@@ -234,8 +188,10 @@ internal class MessageRenderer(
                 return@coroutineScope fromCache
             } else {
                 val cacheJob = launch {
-                    checkNotNull(messagesBodiesById[messageId]) { "No message body set for id: $messageId" }
-                    imageCompressor.send(MessageEmbeddedImages(messageId, images))
+                    check(messageId in messagesBodiesById || messageId in messagesDocumentsById) {
+                        "No message body set for id: $messageId"
+                    }
+                    imageRegistrar.send(MessageEmbeddedImages(messageId, images))
                     for (result in resultsChannel) {
                         renderedMessagesCache[result.messageId] = result
                     }
@@ -261,32 +217,25 @@ internal class MessageRenderer(
      * We use this because [MessageRenderer] needs a message body that will be retrieved lazily,
      * but we still can mock [MessageRenderer] by injecting a mocked [Factory] in the `ViewModel`
      *
-     * @param imageDecoder [ImageDecoder]
      */
     class Factory @Inject constructor(
         private val dispatchers: DispatcherProvider,
         @AttachmentsDirectory private val attachmentsDirectory: File,
-        private val documentParser: DocumentParser = DefaultDocumentParser(),
-        private val imageDecoder: ImageDecoder = DefaultImageDecoder()
+        private val documentParser: DocumentParser = DefaultDocumentParser()
     ) {
 
-        /** @return new instance of [MessageRenderer] */
-        fun create(scope: CoroutineScope) =
-            MessageRenderer(dispatchers, documentParser, imageDecoder, attachmentsDirectory, scope)
+        /**
+         * @param embeddedImages [EmbeddedImagesStore.Scope] where the images are registered, the WebViews that display
+         *  the rendered bodies must serve the images from it
+         * @return new instance of [MessageRenderer]
+         */
+        fun create(scope: CoroutineScope, embeddedImages: EmbeddedImagesStore.Scope) =
+            MessageRenderer(dispatchers, documentParser, embeddedImages, attachmentsDirectory, scope)
     }
 
 }
 
 // region constants
-/** A count of bytes representing the maximum total size of the images to inline */
-private const val MAX_IMAGES_TOTAL_SIZE = 9_437_184 // 9 MB
-
-/** A count of bytes representing the maximum size of a single images to inline */
-private const val MAX_IMAGE_SINGLE_SIZE = 1_048_576 // 1 MB
-
-/** Max number of concurrent workers. It represents the available processors */
-private val WORKERS_COUNT get() = Runtime.getRuntime().availableProcessors()
-
 /** Placeholder for image's id */
 private const val ID_PLACEHOLDER = "%id"
 
@@ -296,11 +245,7 @@ private val IMAGE_ATTRIBUTES =
 // endregion
 
 // region extensions
-private fun String.formatEncoding() = toLowerCase()
 private fun String.formatContentId() = trimStart('<').trimEnd('>')
-private fun String.formatContentType() = toLowerCase()
-    .replace("\r", "").replace("\n", "")
-    .replaceFirst(";.*$".toRegex(), "")
 
 /**
  * Flatten the receiver [Document] by removing the indentation and disabling prettyPrint.
@@ -33,6 +33,7 @@ import ch.protonmail.android.core.BigContentHolder
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.MessageDao
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.pendingaction.data.PendingActionDao
 import ch.protonmail.android.data.local.model.Attachment
 import ch.protonmail.android.data.local.model.LocalAttachment
@@ -51,7 +52,6 @@ import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.map
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import me.proton.core.domain.entity.UserId
 import me.proton.core.util.kotlin.equalsNoCase
@@ -117,7 +117,7 @@ class MessageDetailsRepository @Inject constructor(
 
     @Deprecated("Use Flow", ReplaceWith("findMessageByDatabaseId(messageDbId).first()"))
     fun findMessageByDatabaseIdBlocking(messageDbId: Long): Message? =
-        runBlocking {
+        runBlockingMonitored {
             findMessageByDatabaseId(messageDbId).first()
         }
 
@@ -128,7 +128,7 @@ class MessageDetailsRepository @Inject constructor(
             }
 
     fun findAllMessageByLastMessageAccessTimeBlocking(laterThan: Long = 0) =
-        runBlocking { findAllMessageByLastMessageAccessTime(laterThan).first() }
+        runBlockingMonitored { findAllMessageByLastMessageAccessTime(laterThan).first() }
 
     /**
      * Helper function mapping Message with body saved in file to body in memory.
@@ -158,12 +158,6 @@ class MessageDetailsRepository @Inject constructor(
         }
     }
 
-    fun searchMessages(subject: String, senderName: String, senderEmail: String): List<Message> =
-        runBlocking {
-            messagesDao.searchMessages(subject, senderName, senderEmail).first()
-                .mapNotNull { readMessageBodyFromFileIfNeeded(it) }
-        }
-
     suspend fun findAttachmentsByMessageId(messageId: String): List<Attachment> =
         messagesDao.findAttachmentsByMessageId(messageId).first()
 
@@ -177,7 +171,7 @@ class MessageDetailsRepository @Inject constructor(
     }
 
     @Deprecated("Use suspend function", ReplaceWith("saveMessage(message)"))
-    fun saveMessageBlocking(message: Message): Long = runBlocking {
+    fun saveMessageBlocking(message: Message): Long = runBlockingMonitored {
         saveMessage(message)
     }
 
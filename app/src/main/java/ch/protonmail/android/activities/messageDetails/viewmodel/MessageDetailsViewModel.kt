@@ -51,11 +51,15 @@ import ch.protonmail.android.data.ContactsRepository
 import ch.protonmail.android.data.local.AttachmentMetadataDao
 import ch.protonmail.android.data.local.model.Attachment
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.details.data.local.EmbeddedImagesStore
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
 import ch.protonmail.android.details.data.toConversationUiModel
+import ch.protonmail.android.details.domain.model.PrefetchedMessageBody
 import ch.protonmail.android.details.domain.usecase.GetViewInDarkModeMessagePreference
 import ch.protonmail.android.details.presentation.model.ConversationUiModel
 import ch.protonmail.android.details.presentation.model.MessageBodyState
 import ch.protonmail.android.details.presentation.ui.MessageDetailsActivity
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.domain.entity.EmailAddress
 import ch.protonmail.android.domain.entity.Name
 import ch.protonmail.android.events.DownloadEmbeddedImagesEvent
@@ -94,7 +98,10 @@ import ch.protonmail.android.viewmodel.ConnectivityBaseViewModel
 import com.birbit.android.jobqueue.JobManager
 import dagger.hilt.android.lifecycle.HiltViewModel
 import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.async
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.SharedFlow
@@ -111,7 +118,7 @@ import kotlinx.coroutines.flow.launchIn
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.entity.UserId
 import me.proton.core.util.kotlin.DispatcherProvider
@@ -124,6 +131,7 @@ import org.jsoup.Jsoup
 import timber.log.Timber
 import java.io.File
 import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
 import javax.inject.Inject
 
 @Suppress("LongParameterList") // Every new parameter adds a new issue and breaks the build
@@ -156,7 +164,9 @@ internal class MessageDetailsViewModel @Inject constructor(
     messageRendererFactory: MessageRenderer.Factory,
     verifyConnection: VerifyConnection,
     networkConfigurator: NetworkConfigurator,
-    private val protonCalendarUtil: ProtonCalendarUtil
+    private val protonCalendarUtil: ProtonCalendarUtil,
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache,
+    embeddedImagesStore: EmbeddedImagesStore
 ) : ConnectivityBaseViewModel(verifyConnection, networkConfigurator), LifecycleObserver {
 
     private val messageOrConversationId: String =
@@ -173,8 +183,13 @@ internal class MessageDetailsViewModel @Inject constructor(
         savedStateHandle.get<String>(MessageDetailsActivity.EXTRA_MAILBOX_LABEL_ID)
     }
 
+    private val embeddedImagesLazy = lazy { embeddedImagesStore.newScope(userManager.requireCurrentUserId()) }
+
+    /** Embedded images of the displayed messages, only the WebViews of this screen can load them */
+    val embeddedImages by embeddedImagesLazy
+
     private val messageRenderer
-        by lazy { messageRendererFactory.create(viewModelScope) }
+        by lazy { messageRendererFactory.create(viewModelScope, embeddedImages) }
 
     var renderingPassed = false
     var hasEmbeddedImages: Boolean = false
@@ -222,6 +237,19 @@ internal class MessageDetailsViewModel @Inject constructor(
 
     private var conversationFlowJob: Job? = null
 
+    /**
+     * Verification keys, by user and sender email, so they are fetched only once for every distinct sender of the
+     *  conversation
+     */
+    private val verificationKeysBySender = ConcurrentHashMap<Pair<UserId, String>, Deferred<List<KeyInformation>?>>()
+
+    /**
+     * Decryptions started ahead when the conversation is loaded, by message id.
+     * The result is a decrypted copy of the [Message], or `null` if it could not be decrypted; the copy is handed to
+     *  the collector of [loadMessageBody], so the instances shared with the UI are never mutated in background
+     */
+    private val decryptionsAhead = ConcurrentHashMap<String, Deferred<Message?>>()
+
     init {
         // message render flow
         conversationFlowJob = userManager.primaryUserId
@@ -296,6 +324,11 @@ internal class MessageDetailsViewModel @Inject constructor(
         return LabelChipUiModel(id, Name(name), labelColor)
     }
 
+    override fun onCleared() {
+        if (embeddedImagesLazy.isInitialized()) embeddedImages.close()
+        super.onCleared()
+    }
+
     fun cancelConversationFlowJob() = conversationFlowJob?.cancel()
 
     fun markUnread() {
@@ -325,10 +358,32 @@ internal class MessageDetailsViewModel @Inject constructor(
         } else {
             val userId = userManager.requireCurrentUserId()
             val messageId = requireNotNull(message.messageId)
+
+            val prefetchedBody = prefetchedMessageBodyCache.get(userId, messageId)
+            if (prefetchedBody != null) {
+                Timber.v("message $messageId body loaded from prefetched bodies")
+                message.setPrefetchedBody(prefetchedBody)
+                if (!message.isRead && visibleToTheUser) {
+                    messageRepository.markRead(listOf(messageId))
+                }
+                emit(MessageBodyState.Success(message))
+                return@flow
+            }
+
+            val messageDecryptedAhead = decryptionsAhead[messageId]?.let { decryption ->
+                decryption.await().also { decryptionsAhead.remove(messageId, decryption) }
+            }
+            if (messageDecryptedAhead != null) {
+                Timber.v("message $messageId body decrypted ahead")
+                if (!messageDecryptedAhead.isRead && visibleToTheUser) {
+                    messageRepository.markRead(listOf(messageId))
+                }
+                emit(MessageBodyState.Success(messageDecryptedAhead))
+                return@flow
+            }
+
             val fetchedMessage = messageRepository.getMessage(userId, messageId, true) ?: return@flow
-            val verificationKeys = runCatching {
-                fetchVerificationKeys(userId, message.senderEmail)
-            }.getOrNull()
+            val verificationKeys = getVerificationKeys(userId, message.senderEmail)
             val isDecrypted = fetchedMessage.tryDecrypt(verificationKeys)
             Timber.v("message $messageId isDecrypted, isRead: ${fetchedMessage.isRead}")
             if (!fetchedMessage.isRead && visibleToTheUser) {
@@ -343,6 +398,15 @@ internal class MessageDetailsViewModel @Inject constructor(
         }
     }.flowOn(dispatchers.Io)
 
+    private fun Message.setPrefetchedBody(prefetchedBody: PrefetchedMessageBody) {
+        decryptedBody = prefetchedBody.decryptedBody
+        decryptedHTML = prefetchedBody.sanitizedHtml
+        isDecryptedHtmlSanitized = true
+        hasValidSignature = prefetchedBody.hasValidSignature
+        hasInvalidSignature = prefetchedBody.hasInvalidSignature
+        embeddedImageIds = prefetchedBody.embeddedImageIds
+    }
+
     @OnLifecycleEvent(Lifecycle.Event.ON_PAUSE)
     fun pause() {
         visibleToTheUser = false
@@ -381,7 +445,7 @@ internal class MessageDetailsViewModel @Inject constructor(
 
     fun isConversationEnabled() = conversationModeEnabled(location)
 
-    fun doesConversationHaveMoreThanOneMessage() = runBlocking {
+    fun doesConversationHaveMoreThanOneMessage() = runBlockingMonitored {
         val messagesCount = conversationUiModel.first().messagesCount
         if (messagesCount != null) messagesCount > 1 else false
     }
@@ -417,27 +481,72 @@ internal class MessageDetailsViewModel @Inject constructor(
         conversation: Conversation,
         userId: UserId
     ): ConversationUiModel? {
-        val messages = conversation.messages?.mapNotNull { message ->
-            messageRepository.findMessage(userId, message.id)?.let { localMessage ->
-                val contact = contactsRepository.findContactEmailByEmail(userId, localMessage.senderEmail)
-                val contactName = contact?.name?.takeIfNotBlank()
-                if (contactName != null && contactName != contact.email) {
-                    localMessage.senderDisplayName = contact.name
-                }
-                localMessage
-            }
-        }
-        if (messages.isNullOrEmpty()) {
+        val messageIds = conversation.messages?.map { it.id }.orEmpty()
+        val messages = if (messageIds.isNotEmpty()) messageRepository.findMessages(userId, messageIds) else emptyList()
+        if (messages.isEmpty()) {
             Timber.d("Failed fetching Message Details for message $messageOrConversationId")
             _messageDetailsError.postValue(Event("Failed getting conversation's messages"))
             return null
         }
 
+        val senderEmails = messages.map { it.senderEmail }.distinct()
+        val contactsByEmail = contactsRepository.findContactEmailsByEmails(userId, senderEmails)
+            .associateBy { it.email }
+        for (localMessage in messages) {
+            val contact = contactsByEmail[localMessage.senderEmail]
+            val contactName = contact?.name?.takeIfNotBlank()
+            if (contactName != null && contactName != contact.email) {
+                localMessage.senderDisplayName = contact.name
+            }
+        }
+
+        val sortedMessages = messages.sortedBy { it.time }
+        decryptAhead(userId, sortedMessages)
         return conversation.toConversationUiModel().copy(
-            messages = messages.sortedBy { it.time }
+            messages = sortedMessages
         )
     }
 
+    /**
+     * Starts decrypting, in parallel and in display order, the downloaded [messages] that are likely to be expanded:
+     *  the last one that is not a draft, and the unread ones.
+     * [loadMessageBody] then awaits the result, so every body is shown as soon as its own decryption is done
+     */
+    private fun decryptAhead(userId: UserId, messages: List<Message>) {
+        val lastNonDraftMessage = messages.lastOrNull { !it.isDraft() }
+        val messagesToDecrypt = messages
+            .filter { it === lastNonDraftMessage || !it.isRead }
+            .filter { it.isDownloaded && it.messageBody != null && it.decryptedHTML.isNullOrEmpty() }
+            .filter { it.messageId != null }
+
+        // The conversation has changed, drop the decryptions that are not relevant anymore. They are not cancelled, as
+        //  loadMessageBody could be awaiting them already
+        val messageIdsToDecrypt = messagesToDecrypt.mapNotNull { it.messageId }.toSet()
+        decryptionsAhead.keys.retainAll(messageIdsToDecrypt)
+
+        for (message in messagesToDecrypt) {
+            decryptionsAhead.getOrPut(requireNotNull(message.messageId)) {
+                val copy = message.copyForDecryption()
+                viewModelScope.async(dispatchers.Comp) {
+                    val verificationKeys = getVerificationKeys(userId, copy.senderEmail)
+                    copy.takeIf { it.tryDecrypt(verificationKeys) == true }
+                }
+            }
+        }
+    }
+
+    private suspend fun getVerificationKeys(userId: UserId, email: String): List<KeyInformation>? {
+        val key = userId to email
+        val verificationKeys = verificationKeysBySender.getOrPut(key) {
+            viewModelScope.async(dispatchers.Io, start = CoroutineStart.LAZY) {
+                runCatching { fetchVerificationKeys(userId, email) }.getOrNull()
+            }
+        }
+        // Failures are not kept, so they can be retried the next time
+        return verificationKeys.await()
+            .also { if (it == null) verificationKeysBySender.remove(key, verificationKeys) }
+    }
+
     private suspend fun emitConversationUiItem(conversationUiModel: ConversationUiModel) {
         _decryptedConversationUiModel.postValue(conversationUiModel)
         _conversationUiFlow.emit(conversationUiModel)
@@ -543,12 +652,14 @@ internal class MessageDetailsViewModel @Inject constructor(
     ) {
         val user: User = userManager.requireCurrentLegacyUser()
         viewModelScope.launch {
+            // The quoted body leaves the message details WebView, so it can't reference the embedded images by URL
+            val quotedContent = withContext(dispatchers.Io) { embeddedImages.inlineAsDataUris(content) }
             val intent = messageDetailsRepository.prepareEditMessageIntent(
                 messageAction,
                 message,
                 user,
                 newMessageTitle,
-                content,
+                quotedContent,
                 mBigContentHolder,
                 areImagesDisplayed,
                 remoteContentDisplayed,
@@ -733,13 +844,19 @@ internal class MessageDetailsViewModel @Inject constructor(
     }
 
     fun printMessage(messageId: String, activityContext: Context) {
-        _decryptedConversationUiModel.value?.messages?.find { it.messageId == messageId }?.let {
+        val message = _decryptedConversationUiModel.value?.messages?.find { it.messageId == messageId }
+            ?: return
+        viewModelScope.launch {
+            // The printer's WebView doesn't serve the embedded images, so they are inlined in the printed body
+            val printedBody = withContext(dispatchers.Io) {
+                embeddedImages.inlineAsDataUris(message.decryptedHTML ?: "")
+            }
             MessagePrinter(
                 activityContext,
                 activityContext.resources,
                 activityContext.getSystemService(Context.PRINT_SERVICE) as PrintManager,
                 remoteContentDisplayed
-            ).printMessage(it, it.decryptedHTML ?: "")
+            ).printMessage(message, printedBody)
         }
     }
 
@@ -751,19 +868,27 @@ internal class MessageDetailsViewModel @Inject constructor(
         defaultErrorMessage: String
     ): String {
         val messageId = requireNotNull(message.messageId) { "message id is null" }
-        val formattedHtml = try {
-            val contentTransformer = DefaultTransformer()
-                .pipe(ViewportTransformer(windowWidth, css, darkModeCss))
+        val formattedDocument = try {
+            val viewportTransformer = ViewportTransformer(windowWidth, css, darkModeCss)
+            val contentTransformer =
+                if (message.isDecryptedHtmlSanitized) viewportTransformer
+                else DefaultTransformer().pipe(viewportTransformer)
 
-            contentTransformer.transform(Jsoup.parse(message.decryptedHTML)).toString()
+            contentTransformer.transform(Jsoup.parse(message.decryptedHTML))
         } catch (ioException: IOException) {
             Timber.e(ioException, "Jsoup is unable to parse HTML message details")
-            defaultErrorMessage
+            null
         }
+        val formattedHtml = formattedDocument?.toString() ?: defaultErrorMessage
 
         updateUiModelMessageWithFormattedHtml(message.messageId, formattedHtml, message.decryptedBody)
-        // Set the body of the message currently being displayed in messageRenderer to allow embedded images loading
-        messageRenderer.setMessageBody(messageId, formattedHtml)
+        // Set the body of the message currently being displayed in messageRenderer to allow embedded images loading,
+        //  the document is handed over, so it doesn't need to be parsed again
+        if (formattedDocument != null) {
+            messageRenderer.setMessageBody(messageId, formattedDocument)
+        } else {
+            messageRenderer.setMessageBody(messageId, formattedHtml)
+        }
         return formattedHtml
     }
 
@@ -900,7 +1025,7 @@ internal class MessageDetailsViewModel @Inject constructor(
 
     fun isAppInDarkMode(context: Context) = isAppInDarkMode.invoke(context)
 
-    fun isWebViewInDarkModeBlocking(context: Context, messageId: String) = runBlocking {
+    fun isWebViewInDarkModeBlocking(context: Context, messageId: String) = runBlockingMonitored {
         getViewInDarkModeMessagePreference(context, userManager.requireCurrentUserId(), messageId)
     }
 
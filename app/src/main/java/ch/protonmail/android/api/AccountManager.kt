@@ -25,10 +25,10 @@ import androidx.core.content.edit
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.di.ApplicationModule
 import ch.protonmail.android.di.DefaultSharedPreferences
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.prefs.SecureSharedPreferences
 import ch.protonmail.android.utils.extensions.obfuscateUsername
 import ch.protonmail.android.utils.getStringList
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import me.proton.core.domain.entity.UserId
 import me.proton.core.util.android.sharedpreferences.clearOnly
@@ -139,7 +139,7 @@ class AccountManager(
         }
 
         fun blocking() {
-            runBlocking { invoke() }
+            runBlockingMonitored { invoke() }
         }
     }
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api
+
+import okhttp3.Call
+import okhttp3.Connection
+import okhttp3.ConnectionPool
+import okhttp3.EventListener
+import okhttp3.Handshake
+import okhttp3.Protocol
+import timber.log.Timber
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Collects the connection reuse statistics of the clients derived from [OkHttpProvider.rootClient].
+ *
+ * A connection acquired by a call that didn't open it, is a connection reused from the [ConnectionPool].
+ * The statistics are logged every time a new connection is opened, as that is when they change meaningfully
+ */
+class OkHttpConnectionStats : EventListener() {
+
+    private val acquiredCount = AtomicLong()
+    private val openedCount = AtomicLong()
+    private val handshakeCount = AtomicLong()
+
+    /**
+     * Count of the connections acquired by the calls, either new or reused
+     */
+    val connectionsAcquired: Long
+        get() = acquiredCount.get()
+
+    /**
+     * Count of the new connections opened
+     */
+    val connectionsOpened: Long
+        get() = openedCount.get()
+
+    /**
+     * Count of the connections acquired from the pool, without opening a new one
+     */
+    val connectionsReused: Long
+        get() = (connectionsAcquired - connectionsOpened).coerceAtLeast(0)
+
+    /**
+     * Count of the TLS handshakes completed
+     */
+    val tlsHandshakes: Long
+        get() = handshakeCount.get()
+
+    override fun connectStart(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy) {
+        openedCount.incrementAndGet()
+    }
+
+    override fun secureConnectEnd(call: Call, handshake: Handshake?) {
+        handshakeCount.incrementAndGet()
+    }
+
+    override fun connectEnd(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy, protocol: Protocol?) {
+        Timber.d("New connection to ${call.request().url.host}, $this")
+    }
+
+    override fun connectionAcquired(call: Call, connection: Connection) {
+        acquiredCount.incrementAndGet()
+    }
+
+    override fun toString(): String =
+        "acquired: $connectionsAcquired, opened: $connectionsOpened, reused: $connectionsReused, " +
+            "TLS handshakes: $tlsHandshakes"
+}
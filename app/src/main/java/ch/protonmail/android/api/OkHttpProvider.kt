@@ -18,17 +18,26 @@
  */
 package ch.protonmail.android.api
 
-import ch.protonmail.android.api.interceptors.RetryRequestInterceptor
 import ch.protonmail.android.di.BaseUrl
 import ch.protonmail.android.utils.crypto.ServerTimeInterceptor
 import me.proton.core.network.data.ProtonCookieStore
 import me.proton.core.network.data.di.AlternativeApiPins
+import okhttp3.ConnectionPool
 import okhttp3.ConnectionSpec
+import okhttp3.Dispatcher
 import okhttp3.Interceptor
+import okhttp3.OkHttpClient
 import okhttp3.logging.HttpLoggingInterceptor
+import java.util.concurrent.TimeUnit
 import javax.inject.Inject
 import javax.inject.Singleton
 
+// region constants
+private const val MAX_IDLE_CONNECTIONS = 5
+private const val KEEP_ALIVE_DURATION_MINUTES = 5L
+private const val DEFAULT_MAX_REQUESTS_PER_HOST = 5
+// endregion
+
 @Singleton
 class OkHttpProvider @Inject constructor(
     @AlternativeApiPins private val pinnedKeyHashes: List<String>,
@@ -37,6 +46,47 @@ class OkHttpProvider @Inject constructor(
     // cache the clients, this way we can have separate client for every Uri/Url
     private val okHttpClients = HashMap<String, ProtonOkHttpClient>()
 
+    private val dispatcher = Dispatcher().apply {
+        maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST
+    }
+
+    private val connectionPool = ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MINUTES, TimeUnit.MINUTES)
+
+    /**
+     * Connection reuse statistics of all the clients derived from [rootClient]
+     */
+    val connectionStats = OkHttpConnectionStats()
+
+    /**
+     * The client all the others are derived from, with [OkHttpClient.newBuilder], so they all share the same
+     *  connection pool and dispatcher
+     */
+    val rootClient: OkHttpClient = OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .connectionPool(connectionPool)
+        .eventListener(connectionStats)
+        .build()
+
+    /**
+     * Count of the open connections in the shared pool
+     */
+    val connectionCount: Int
+        get() = connectionPool.connectionCount()
+
+    /**
+     * Count of the idle connections in the shared pool
+     */
+    val idleConnectionCount: Int
+        get() = connectionPool.idleConnectionCount()
+
+    /**
+     * Tune the max number of requests executed concurrently by all the clients for every host. The total is left to
+     *  the default of [Dispatcher], so a slow host doesn't hold back the requests to the others
+     */
+    fun setMaxRequestsPerHost(maxRequestsPerHost: Int) {
+        dispatcher.maxRequestsPerHost = maxRequestsPerHost
+    }
+
     /**
      * Decide in runtime which okhttp client to be returned
      */
@@ -50,7 +100,6 @@ class OkHttpProvider @Inject constructor(
         loggingLevel: HttpLoggingInterceptor.Level,
         connectionSpecs: List<ConnectionSpec>,
         serverTimeInterceptor: ServerTimeInterceptor?,
-        retryRequestInterceptor: RetryRequestInterceptor,
         cookieStore: ProtonCookieStore?
     ): ProtonOkHttpClient {
         if (okHttpClients.containsKey(id)) {
@@ -58,6 +107,7 @@ class OkHttpProvider @Inject constructor(
         }
         okHttpClients[id] = if (endpointUri == baseUrl) {
             DefaultOkHttpClient(
+                rootClient,
                 connectTimeout,
                 readTimeout,
                 writeTimeout,
@@ -65,12 +115,12 @@ class OkHttpProvider @Inject constructor(
                 loggingLevel,
                 connectionSpecs,
                 serverTimeInterceptor,
-                retryRequestInterceptor,
                 baseUrl,
                 cookieStore
             )
         } else {
             ProxyOkHttpClient(
+                rootClient,
                 connectTimeout,
                 readTimeout,
                 writeTimeout,
@@ -78,7 +128,6 @@ class OkHttpProvider @Inject constructor(
                 loggingLevel,
                 connectionSpecs,
                 serverTimeInterceptor,
-                retryRequestInterceptor,
                 endpointUri,
                 pinnedKeyHashes,
                 cookieStore
@@ -18,7 +18,6 @@
  */
 package ch.protonmail.android.api
 
-import ch.protonmail.android.api.interceptors.RetryRequestInterceptor
 import ch.protonmail.android.utils.AppUtil
 import ch.protonmail.android.utils.crypto.ServerTimeInterceptor
 import com.datatheorem.android.trustkit.TrustKit
@@ -31,9 +30,11 @@ import okhttp3.logging.HttpLoggingInterceptor
 import java.net.URL
 import java.security.cert.CertificateException
 import java.security.cert.X509Certificate
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
 import javax.net.ssl.HostnameVerifier
 import javax.net.ssl.SSLContext
+import javax.net.ssl.SSLSocketFactory
 import javax.net.ssl.X509TrustManager
 
 // region constants
@@ -44,10 +45,12 @@ const val TLS = "TLS"
 
 /**
  *
+ * @param rootClient The client this one is derived from, sharing its connection pool and dispatcher.
  * @param cookieStore The cookie store. If set to null, a default InMemory cookie store will be used. Otherwise, for
  * permanent Cookie Store please use instance of [ProtonCookieStore].
  */
 sealed class ProtonOkHttpClient(
+    rootClient: OkHttpClient,
     connectTimeout: Long,
     readTimeout: Long,
     writeTimeout: Long,
@@ -55,13 +58,12 @@ sealed class ProtonOkHttpClient(
     loggingLevel: HttpLoggingInterceptor.Level,
     connectionSpecs: List<ConnectionSpec>,
     serverTimeInterceptor: ServerTimeInterceptor?,
-    retryRequestInterceptor: RetryRequestInterceptor,
     baseUrl: String,
     cookieStore: ProtonCookieStore? = null
 ) {
 
     // the OkHttp builder instance
-    val okClientBuilder = OkHttpClient.Builder()
+    val okClientBuilder = rootClient.newBuilder()
     // TLS Certificate Pinning
     val trustKit = TrustKit.getInstance()
     // val serverHostname = URL(Constants.ENDPOINT_URI).host
@@ -86,7 +88,6 @@ sealed class ProtonOkHttpClient(
         if (serverTimeInterceptor != null) {
             okClientBuilder.addInterceptor(serverTimeInterceptor)
         }
-        okClientBuilder.addInterceptor(retryRequestInterceptor)
         okClientBuilder.connectionSpecs(connectionSpecs)
     }
 }
@@ -95,6 +96,7 @@ sealed class ProtonOkHttpClient(
  * This class defines and configures the OkHttpClient that is used by default.
  */
 class DefaultOkHttpClient(
+    rootClient: OkHttpClient,
     connectTimeout: Long,
     readTimeout: Long,
     writeTimeout: Long,
@@ -102,10 +104,10 @@ class DefaultOkHttpClient(
     loggingLevel: HttpLoggingInterceptor.Level,
     connectionSpecs: List<ConnectionSpec>,
     serverTimeInterceptor: ServerTimeInterceptor?,
-    retryRequestInterceptor: RetryRequestInterceptor,
     baseUrl: String,
     cookieStore: ProtonCookieStore?
 ) : ProtonOkHttpClient(
+    rootClient,
     connectTimeout,
     readTimeout,
     writeTimeout,
@@ -113,16 +115,21 @@ class DefaultOkHttpClient(
     loggingLevel,
     connectionSpecs,
     serverTimeInterceptor,
-    retryRequestInterceptor,
     baseUrl,
     cookieStore
 ) {
 
     init {
-        okClientBuilder.sslSocketFactory(
-            trustKit.getSSLSocketFactory(serverHostname),
-            trustKit.getTrustManager(serverHostname)
-        )
+        // The same factory is used for every client of the host, so they share the TLS sessions
+        val sslSocketFactory = sslSocketFactoriesByHost.getOrPut(serverHostname) {
+            trustKit.getSSLSocketFactory(serverHostname)
+        }
+        okClientBuilder.sslSocketFactory(sslSocketFactory, trustKit.getTrustManager(serverHostname))
+    }
+
+    private companion object {
+
+        val sslSocketFactoriesByHost = ConcurrentHashMap<String, SSLSocketFactory>()
     }
 }
 
@@ -131,6 +138,7 @@ class DefaultOkHttpClient(
  * is not available (api not accessible or banned).
  */
 class ProxyOkHttpClient(
+    rootClient: OkHttpClient,
     connectTimeout: Long,
     readTimeout: Long,
     writeTimeout: Long,
@@ -138,11 +146,11 @@ class ProxyOkHttpClient(
     loggingLevel: HttpLoggingInterceptor.Level,
     connectionSpecs: List<ConnectionSpec>,
     serverTimeInterceptor: ServerTimeInterceptor?,
-    retryRequestInterceptor: RetryRequestInterceptor,
     endpointUri: String,
     pinnedKeyHashes: List<String>,
     cookieStore: ProtonCookieStore?
 ) : ProtonOkHttpClient(
+    rootClient,
     connectTimeout,
     readTimeout,
     writeTimeout,
@@ -150,20 +158,20 @@ class ProxyOkHttpClient(
     loggingLevel,
     connectionSpecs,
     serverTimeInterceptor,
-    retryRequestInterceptor,
     endpointUri,
     cookieStore
 ) {
 
     init {
-        val trustManager = PinningTrustManager(pinnedKeyHashes)
-        val sslContext = SSLContext.getInstance(TLS)
-        sslContext.init(null, arrayOf(trustManager), null)
-        okClientBuilder.sslSocketFactory(sslContext.socketFactory, trustManager)
-        okClientBuilder.hostnameVerifier(
-            // Verification is based solely on SPKI pinning of leaf certificate
-            HostnameVerifier { _, _ -> true }
-        )
+        // The same factory is used for every client of the proxy, so they share the TLS sessions
+        val (sslSocketFactory, trustManager) = sslSocketFactoriesByProxy.getOrPut(endpointUri to pinnedKeyHashes) {
+            val trustManager = PinningTrustManager(pinnedKeyHashes)
+            val sslContext = SSLContext.getInstance(TLS)
+            sslContext.init(null, arrayOf(trustManager), null)
+            sslContext.socketFactory to trustManager
+        }
+        okClientBuilder.sslSocketFactory(sslSocketFactory, trustManager)
+        okClientBuilder.hostnameVerifier(pinningHostnameVerifier)
     }
 
     class PinningTrustManager(pinnedKeyHashes: List<String>) : X509TrustManager {
@@ -184,4 +192,16 @@ class ProxyOkHttpClient(
 
         override fun getAcceptedIssuers(): Array<X509Certificate?>? = arrayOfNulls(0)
     }
+
+    private companion object {
+
+        val sslSocketFactoriesByProxy =
+            ConcurrentHashMap<Pair<String, List<String>>, Pair<SSLSocketFactory, PinningTrustManager>>()
+
+        /**
+         * Verification is based solely on SPKI pinning of leaf certificate.
+         * A single instance is shared, as the pooled connections are only reused by clients with an equal verifier
+         */
+        val pinningHostnameVerifier = HostnameVerifier { _, _ -> true }
+    }
 }
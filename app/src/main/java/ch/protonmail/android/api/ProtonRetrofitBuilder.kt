@@ -19,13 +19,14 @@
 package ch.protonmail.android.api
 
 import ch.protonmail.android.api.interceptors.ProtonMailRequestInterceptor
-import ch.protonmail.android.api.interceptors.RetryRequestInterceptor
 import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.api.retry.RetryCallAdapterFactory
 import ch.protonmail.android.api.segments.ATTACH_PATH
 import ch.protonmail.android.api.segments.EXTEND_PATH
 import ch.protonmail.android.api.segments.ONE_MINUTE
 import ch.protonmail.android.api.segments.THIRTY_SECONDS
 import ch.protonmail.android.api.segments.THREE_SECONDS
+import ch.protonmail.android.api.utils.ResponseTypeAdapterFactory
 import ch.protonmail.android.api.utils.StringConverterFactory
 import ch.protonmail.android.core.QueueNetworkUtil
 import ch.protonmail.android.core.UserManager
@@ -62,7 +63,7 @@ class ProtonRetrofitBuilder @Inject constructor(
     private val cookieStore: ProtonCookieStore?,
     private val userNotifier: UserNotifier,
     private val sessionManager: SessionManager,
-    private val retryRequestInterceptor: RetryRequestInterceptor
+    private val retryCallAdapterFactory: RetryCallAdapterFactory
 ) {
 
     private val cache = HashMap<RetrofitType, Retrofit>()
@@ -83,7 +84,7 @@ class ProtonRetrofitBuilder @Inject constructor(
                         cookieStore,
                         userNotifier,
                         sessionManager,
-                        retryRequestInterceptor
+                        retryCallAdapterFactory
                     ).build(endpointUri).build()
                 }
                 RetrofitType.PING -> {
@@ -96,7 +97,7 @@ class ProtonRetrofitBuilder @Inject constructor(
                         cookieStore,
                         userNotifier,
                         sessionManager,
-                        retryRequestInterceptor
+                        retryCallAdapterFactory
                     ).build(endpointUri).build()
                 }
                 RetrofitType.EXTENDED_TIMEOUT -> {
@@ -109,7 +110,7 @@ class ProtonRetrofitBuilder @Inject constructor(
                         cookieStore,
                         userNotifier,
                         sessionManager,
-                        retryRequestInterceptor
+                        retryCallAdapterFactory
                     ).buildExtended(endpointUri).build()
                 }
                 RetrofitType.ATTACHMENTS -> {
@@ -122,7 +123,7 @@ class ProtonRetrofitBuilder @Inject constructor(
                         cookieStore,
                         userNotifier,
                         sessionManager,
-                        retryRequestInterceptor
+                        retryCallAdapterFactory
                     ).build(endpointUri).build()
                 }
                 else -> { // secure is default
@@ -135,7 +136,7 @@ class ProtonRetrofitBuilder @Inject constructor(
                         cookieStore,
                         userNotifier,
                         sessionManager,
-                        retryRequestInterceptor
+                        retryCallAdapterFactory
                     ).build(endpointUri).build()
                 }
             }
@@ -161,7 +162,7 @@ sealed class ProtonRetrofit(
     networkUtil: QueueNetworkUtil,
     userNotifier: UserNotifier,
     sessionManager: SessionManager,
-    val retryRequestInterceptor: RetryRequestInterceptor
+    private val retryCallAdapterFactory: RetryCallAdapterFactory
 ) {
 
     private val defaultInterceptor =
@@ -184,6 +185,7 @@ sealed class ProtonRetrofit(
         .registerTypeAdapter(MessageRecipient::class.java, MessageRecipient.MessageRecipientSerializer())
         .registerTypeAdapter(MessageRecipient::class.java, MessageRecipient.MessageRecipientDeserializer())
         .registerTypeAdapter(AttachmentHeaders::class.java, AttachmentHeaders.AttachmentHeadersDeserializer())
+        .registerTypeAdapterFactory(ResponseTypeAdapterFactory())
         .excludeFieldsWithModifiers(Modifier.TRANSIENT, Modifier.STATIC)
         .create()
     // endregion
@@ -198,6 +200,7 @@ sealed class ProtonRetrofit(
             .baseUrl(endpointUri)
             .client(configureOkHttp(endpointUri, defaultInterceptor))
             .addConverterFactory(GsonConverterFactory.create(gsonUcc))
+            .addCallAdapterFactory(retryCallAdapterFactory)
             .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
     }
 
@@ -207,6 +210,7 @@ sealed class ProtonRetrofit(
             .client(configureOkHttp(endpointUri, defaultInterceptor))
             .addConverterFactory(StringConverterFactory.create())
             .addConverterFactory(GsonConverterFactory.create(gsonUcc))
+            .addCallAdapterFactory(retryCallAdapterFactory)
             .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
     }
 }
@@ -220,8 +224,16 @@ class ProtonRetrofitPublic(
     private val cookieStore: ProtonCookieStore?,
     userNotifier: UserNotifier,
     sessionManager: SessionManager,
-    retryRequestInterceptor: RetryRequestInterceptor
-) : ProtonRetrofit(userManager, jobManager, serverTimeListener, networkUtil, userNotifier, sessionManager, retryRequestInterceptor) {
+    retryCallAdapterFactory: RetryCallAdapterFactory
+) : ProtonRetrofit(
+    userManager,
+    jobManager,
+    serverTimeListener,
+    networkUtil,
+    userNotifier,
+    sessionManager,
+    retryCallAdapterFactory
+) {
 
     override fun configureOkHttp(
         endpointUri: String,
@@ -237,7 +249,6 @@ class ProtonRetrofitPublic(
             HttpLoggingInterceptor.Level.HEADERS,
             spec,
             serverTimeInterceptor,
-            retryRequestInterceptor,
             cookieStore
         )
         return okHttpClient.okClientBuilder.build()
@@ -253,8 +264,16 @@ class ProtonRetrofitPing(
     private val cookieStore: ProtonCookieStore?,
     userNotifier: UserNotifier,
     sessionManager: SessionManager,
-    retryRequestInterceptor: RetryRequestInterceptor
-) : ProtonRetrofit(userManager, jobManager, serverTimeListener, networkUtil, userNotifier, sessionManager, retryRequestInterceptor) {
+    retryCallAdapterFactory: RetryCallAdapterFactory
+) : ProtonRetrofit(
+    userManager,
+    jobManager,
+    serverTimeListener,
+    networkUtil,
+    userNotifier,
+    sessionManager,
+    retryCallAdapterFactory
+) {
 
     override fun configureOkHttp(
         endpointUri: String,
@@ -270,7 +289,6 @@ class ProtonRetrofitPing(
             HttpLoggingInterceptor.Level.HEADERS,
             spec,
             serverTimeInterceptor,
-            retryRequestInterceptor,
             cookieStore
         )
         return okHttpClient.okClientBuilder.build()
@@ -286,8 +304,16 @@ class ProtonRetrofitExtended(
     private val cookieStore: ProtonCookieStore?,
     userNotifier: UserNotifier,
     sessionManager: SessionManager,
-    retryRequestInterceptor: RetryRequestInterceptor
-) : ProtonRetrofit(userManager, jobManager, serverTimeListener, networkUtil, userNotifier, sessionManager, retryRequestInterceptor) {
+    retryCallAdapterFactory: RetryCallAdapterFactory
+) : ProtonRetrofit(
+    userManager,
+    jobManager,
+    serverTimeListener,
+    networkUtil,
+    userNotifier,
+    sessionManager,
+    retryCallAdapterFactory
+) {
 
     override fun configureOkHttp(
         endpointUri: String,
@@ -303,7 +329,6 @@ class ProtonRetrofitExtended(
             HttpLoggingInterceptor.Level.HEADERS,
             spec,
             serverTimeInterceptor,
-            retryRequestInterceptor,
             cookieStore
         )
         return okHttpClient.okClientBuilder.build()
@@ -319,8 +344,16 @@ class ProtonRetrofitAttachments(
     private val cookieStore: ProtonCookieStore?,
     userNotifier: UserNotifier,
     sessionManager: SessionManager,
-    retryRequestInterceptor: RetryRequestInterceptor
-) : ProtonRetrofit(userManager, jobManager, serverTimeListener, networkUtil, userNotifier, sessionManager, retryRequestInterceptor) {
+    retryCallAdapterFactory: RetryCallAdapterFactory
+) : ProtonRetrofit(
+    userManager,
+    jobManager,
+    serverTimeListener,
+    networkUtil,
+    userNotifier,
+    sessionManager,
+    retryCallAdapterFactory
+) {
 
     override fun configureOkHttp(
         endpointUri: String,
@@ -336,7 +369,6 @@ class ProtonRetrofitAttachments(
             HttpLoggingInterceptor.Level.BASIC,
             spec,
             serverTimeInterceptor,
-            retryRequestInterceptor,
             cookieStore
         )
         return okHttpClient.okClientBuilder.build()
@@ -352,8 +384,16 @@ class ProtonRetrofitSecure(
     private val cookieStore: ProtonCookieStore?,
     userNotifier: UserNotifier,
     sessionManager: SessionManager,
-    retryRequestInterceptor: RetryRequestInterceptor
-) : ProtonRetrofit(userManager, jobManager, serverTimeListener, networkUtil, userNotifier, sessionManager, retryRequestInterceptor) {
+    retryCallAdapterFactory: RetryCallAdapterFactory
+) : ProtonRetrofit(
+    userManager,
+    jobManager,
+    serverTimeListener,
+    networkUtil,
+    userNotifier,
+    sessionManager,
+    retryCallAdapterFactory
+) {
 
     override fun configureOkHttp(
         endpointUri: String,
@@ -369,7 +409,6 @@ class ProtonRetrofitSecure(
             HttpLoggingInterceptor.Level.BASIC,
             spec,
             serverTimeInterceptor,
-            retryRequestInterceptor,
             cookieStore
         )
         return okHttpClient.okClientBuilder.build()
@@ -43,13 +43,13 @@ import ch.protonmail.android.api.utils.ProtonHeaders
 import ch.protonmail.android.core.ProtonMailApplication
 import ch.protonmail.android.core.QueueNetworkUtil
 import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.events.RequestTimeoutEvent
 import ch.protonmail.android.utils.AppUtil
 import ch.protonmail.android.utils.notifier.UserNotifier
 import com.birbit.android.jobqueue.JobManager
 import com.google.gson.Gson
 import com.google.gson.JsonSyntaxException
-import kotlinx.coroutines.runBlocking
 import me.proton.core.accountmanager.domain.SessionManager
 import me.proton.core.domain.entity.UserId
 import me.proton.core.network.domain.session.SessionId
@@ -139,7 +139,7 @@ abstract class BaseRequestInterceptor(
                     val refresh = runCatching {
                         // Execute a request that is handled by Core Network (ApiProvider/SessionProvider).
                         // This will start a refresh session tokens procedure (mutual exclusive).
-                        runBlocking { sessionManager.refreshScopes(sessionId) }
+                        runBlockingMonitored { sessionManager.refreshScopes(sessionId) }
                     }
                     if (refresh.isSuccess) {
                         response.closeQuietly()
@@ -217,7 +217,9 @@ abstract class BaseRequestInterceptor(
     }
 
     private fun Request.Builder.setSessionHeadersFor(userId: UserId) {
-        val session = runBlocking { sessionManager.getSessionId(userId)?.let { sessionManager.getSession(it) } }
+        val session = runBlockingMonitored {
+            sessionManager.getSessionId(userId)?.let { sessionManager.getSession(it) }
+        }
         if (session != null) setSessionHeaders(session)
     }
 }
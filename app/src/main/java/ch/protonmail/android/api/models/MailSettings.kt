@@ -21,8 +21,8 @@ package ch.protonmail.android.api.models
 import android.content.SharedPreferences
 import androidx.core.content.edit
 import ch.protonmail.android.api.models.enumerations.PackageType
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import com.google.gson.annotations.SerializedName
-import kotlinx.coroutines.runBlocking
 import java.io.Serializable
 
 private const val FIELD_DISPLAY_NAME = "DisplayName"
@@ -182,7 +182,7 @@ class MailSettings : Serializable {
 
     @Deprecated("Use suspend function", ReplaceWith("save(userPreferences)"))
     fun saveBlocking(userPreferences: SharedPreferences) {
-        runBlocking { save(userPreferences) }
+        runBlockingMonitored { save(userPreferences) }
     }
 
     @Suppress("TooManyFunctions") // It would be nice to have them as extension functions, but sadly this code
@@ -32,12 +32,18 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Objects;
 
+import ch.protonmail.android.api.utils.JsonReaders;
+
 
 public class MessageRecipient implements Serializable, Comparable<MessageRecipient> {
     @ColumnInfo(name = COLUMN_CONTACT_DATA_NAME)
@@ -202,6 +208,49 @@ public class MessageRecipient implements Serializable, Comparable<MessageRecipie
         }
     }
 
+    /**
+     * Reads a {@link MessageRecipient} like {@link MessageRecipientDeserializer}, streaming the JSON instead of
+     * building a tree of it first. Writing is left to {@code delegate}.
+     */
+    public static class MessageRecipientTypeAdapter extends TypeAdapter<MessageRecipient> {
+
+        private final TypeAdapter<MessageRecipient> delegate;
+
+        public MessageRecipientTypeAdapter(TypeAdapter<MessageRecipient> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public MessageRecipient read(JsonReader in) throws IOException {
+            String name = null;
+            String address = null;
+            String group = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "Name":
+                        name = JsonReaders.nextStringOrNull(in);
+                        break;
+                    case "Address":
+                        address = JsonReaders.nextStringOrNull(in);
+                        break;
+                    case "Group":
+                        group = JsonReaders.nextStringOrNull(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new MessageRecipient(name, address, group);
+        }
+
+        @Override
+        public void write(JsonWriter out, MessageRecipient value) throws IOException {
+            delegate.write(out, value);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
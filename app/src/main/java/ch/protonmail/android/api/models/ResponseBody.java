@@ -22,12 +22,18 @@ package ch.protonmail.android.api.models;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Map;
 
 import ch.protonmail.android.api.utils.Fields;
+import ch.protonmail.android.api.utils.JsonReaders;
 
 public class ResponseBody implements Parcelable {
     @SerializedName(Fields.Response.CODE)
@@ -69,6 +75,35 @@ public class ResponseBody implements Parcelable {
         return details;
     }
 
+    /**
+     * Reads one of the fields common to all the responses, for the hand-written type adapters of the subclasses.
+     *
+     * @return {@code true} if the field named {@code name} is a common one and its value has been read
+     */
+    public final boolean readField(
+            String name,
+            JsonReader in,
+            TypeAdapter<Map<String, Object>> detailsAdapter
+    ) throws IOException {
+        switch (name) {
+            case Fields.Response.CODE:
+                code = JsonReaders.nextIntOrZero(in);
+                return true;
+            case Fields.Response.ERROR:
+                error = JsonReaders.nextStringOrNull(in);
+                return true;
+            case Fields.Response.ERROR_DETAILS:
+                details = detailsAdapter.read(in);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static TypeAdapter<Map<String, Object>> getDetailsAdapter(Gson gson) {
+        return gson.getAdapter(new TypeToken<Map<String, Object>>() {});
+    }
+
     @Override
     public int describeContents() {
         return 0;
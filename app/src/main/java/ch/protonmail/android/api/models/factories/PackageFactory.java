@@ -64,6 +64,7 @@ public class PackageFactory {
     private final HTMLToMDConverter htmlToMDConverter;
     private final AuthRepository authRepository;
     private AddressCrypto crypto;
+    private String plaintextBody;
 
     @Inject
     public PackageFactory(
@@ -87,6 +88,7 @@ public class PackageFactory {
     ) throws Exception {
         final Map<MIMEType, MessageSendPackage> packageMap = new HashMap<>();
         crypto = addressCryptoFactory.create(userId, new AddressId(message.getAddressID()));
+        plaintextBody = null;
 
         Set<String> recipients = getMessageRecipients(message);
         for (SendPreference sendPref : preferences) {
@@ -159,7 +161,7 @@ public class PackageFactory {
         String html = messageMime == MIMEType.HTML ? message.getDecryptedHTML() : null;
         String plaintext = messageMime == MIMEType.PLAINTEXT ? message.getDecryptedBody() : null;
         String mimeString = mimeBuilder
-                .loadHTML(html)
+                .loadHTML(html, html != null ? getPlaintextBody(message) : null)
                 .loadPlaintext(plaintext)
                 .loadAttachments(message.getAttachments())
                 .buildString();
@@ -168,9 +170,17 @@ public class PackageFactory {
     }
 
     private CipherText generatePlaintextBody(Message message) throws Exception {
-        String html = message.getDecryptedHTML();
-        String plaintext = htmlToMDConverter.convert(html);
-        return crypto.encrypt(plaintext, true);
+        return crypto.encrypt(getPlaintextBody(message), true);
+    }
+
+    /**
+     * The html body is parsed and converted only once per send, as both the plaintext and the MIME packages need it
+     */
+    private String getPlaintextBody(Message message) {
+        if (plaintextBody == null) {
+            plaintextBody = htmlToMDConverter.convert(message.getDecryptedHTML());
+        }
+        return plaintextBody;
     }
 
     private void addAddress(
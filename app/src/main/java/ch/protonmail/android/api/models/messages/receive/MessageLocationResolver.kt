@@ -19,10 +19,10 @@
 package ch.protonmail.android.api.models.messages.receive
 
 import ch.protonmail.android.core.Constants
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.labels.domain.LabelRepository
 import ch.protonmail.android.labels.domain.model.LabelId
 import ch.protonmail.android.labels.domain.model.LabelType
-import kotlinx.coroutines.runBlocking
 import javax.inject.Inject
 
 class MessageLocationResolver @Inject constructor(
@@ -95,7 +95,7 @@ class MessageLocationResolver @Inject constructor(
     }
 
     private fun resolveLabelType(labelId: String): Constants.MessageLocationType {
-        return runBlocking {
+        return runBlockingMonitored {
             val label = labelRepository?.findLabel(LabelId(labelId))
             if (label != null && label.type == LabelType.FOLDER) {
                 Constants.MessageLocationType.LABEL_FOLDER
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.models.messages.receive
+
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.api.models.ResponseBody
+import ch.protonmail.android.api.models.messages.ParsedHeaders
+import ch.protonmail.android.api.utils.Fields
+import ch.protonmail.android.api.utils.nextIntOrZero
+import ch.protonmail.android.api.utils.nextListOrNull
+import ch.protonmail.android.api.utils.nextLongOrZero
+import ch.protonmail.android.api.utils.nextStringListOrNull
+import ch.protonmail.android.api.utils.nextStringOrNull
+import ch.protonmail.android.api.utils.readObject
+import com.google.gson.Gson
+import com.google.gson.TypeAdapter
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+import me.proton.core.util.kotlin.EMPTY_STRING
+
+/**
+ * Reads a [MessagesResponse] streaming its Messages through [ServerMessageTypeAdapter]
+ */
+internal class MessagesResponseTypeAdapter(
+    gson: Gson,
+    private val delegate: TypeAdapter<MessagesResponse>
+) : TypeAdapter<MessagesResponse>() {
+
+    private val detailsAdapter = ResponseBody.getDetailsAdapter(gson)
+    private val messageAdapter = gson.getAdapter(ServerMessage::class.java)
+
+    override fun read(reader: JsonReader): MessagesResponse {
+        val response = MessagesResponse()
+        reader.readObject { name ->
+            when (name) {
+                "Messages" -> response.serverMessages = reader.nextListOrNull(messageAdapter)
+                else -> return@readObject response.readField(name, reader, detailsAdapter)
+            }
+            true
+        }
+        return response
+    }
+
+    override fun write(writer: JsonWriter, value: MessagesResponse?) {
+        delegate.write(writer, value)
+    }
+}
+
+/**
+ * Reads a [ServerMessage] without reflection. Fields missing from the JSON are `null` or `0`, as they were when
+ *  [ServerMessage] was created by the reflective adapter
+ */
+internal class ServerMessageTypeAdapter(
+    gson: Gson,
+    private val delegate: TypeAdapter<ServerMessage>
+) : TypeAdapter<ServerMessage>() {
+
+    private val senderAdapter = gson.getAdapter(ServerMessageSender::class.java)
+    private val recipientAdapter = gson.getAdapter(MessageRecipient::class.java)
+    private val parsedHeadersAdapter = gson.getAdapter(ParsedHeaders::class.java)
+    private val attachmentAdapter = gson.getAdapter(ServerAttachment::class.java)
+
+    @Suppress("ComplexMethod", "LongMethod")
+    override fun read(reader: JsonReader): ServerMessage {
+        var id: String? = null
+        var conversationId: String? = null
+        var subject: String? = null
+        var order = 0L
+        var unread = 0
+        var type = 0
+        var sender: ServerMessageSender? = null
+        var flags = 0L
+        var time = 0L
+        var size = 0L
+        var folderLocation: String? = null
+        var starred = 0
+        var numAttachments = 0
+        var expirationTime = 0L
+        var spamScore = 0
+        var addressId: String? = null
+        var body: String? = null
+        var mimeType: String? = null
+        var labelIds: List<String>? = null
+        var labelIdsAdded: List<String>? = null
+        var labelIdsRemoved: List<String>? = null
+        var toList: List<MessageRecipient>? = null
+        var ccList: List<MessageRecipient>? = null
+        var bccList: List<MessageRecipient>? = null
+        var replyTos: List<MessageRecipient>? = null
+        var header: String? = null
+        var parsedHeaders: ParsedHeaders? = null
+        var attachments: List<ServerAttachment>? = null
+        var embeddedImages: List<String>? = null
+
+        reader.readObject { name ->
+            when (name) {
+                "ID" -> id = reader.nextStringOrNull()
+                "ConversationID" -> conversationId = reader.nextStringOrNull()
+                "Subject" -> subject = reader.nextStringOrNull()
+                "Order" -> order = reader.nextLongOrZero()
+                "Unread" -> unread = reader.nextIntOrZero()
+                "Type" -> type = reader.nextIntOrZero()
+                "Sender" -> sender = senderAdapter.read(reader)
+                "Flags" -> flags = reader.nextLongOrZero()
+                "Time" -> time = reader.nextLongOrZero()
+                "Size" -> size = reader.nextLongOrZero()
+                "FolderLocation" -> folderLocation = reader.nextStringOrNull()
+                "Starred" -> starred = reader.nextIntOrZero()
+                "NumAttachments" -> numAttachments = reader.nextIntOrZero()
+                "ExpirationTime" -> expirationTime = reader.nextLongOrZero()
+                "SpamScore" -> spamScore = reader.nextIntOrZero()
+                "AddressID" -> addressId = reader.nextStringOrNull()
+                "Body" -> body = reader.nextStringOrNull()
+                "MIMEType" -> mimeType = reader.nextStringOrNull()
+                "LabelIDs" -> labelIds = reader.nextStringListOrNull()
+                "LabelIDsAdded" -> labelIdsAdded = reader.nextStringListOrNull()
+                "LabelIDsRemoved" -> labelIdsRemoved = reader.nextStringListOrNull()
+                "ToList" -> toList = reader.nextListOrNull(recipientAdapter)
+                "CCList" -> ccList = reader.nextListOrNull(recipientAdapter)
+                "BCCList" -> bccList = reader.nextListOrNull(recipientAdapter)
+                "ReplyTos" -> replyTos = reader.nextListOrNull(recipientAdapter)
+                "Header" -> header = reader.nextStringOrNull()
+                "ParsedHeaders" -> parsedHeaders = parsedHeadersAdapter.read(reader)
+                "Attachments" -> attachments = reader.nextListOrNull(attachmentAdapter)
+                "EmbeddedImagesArray" -> embeddedImages = reader.nextStringListOrNull()
+                else -> return@readObject false
+            }
+            true
+        }
+
+        return ServerMessage(
+            id = id,
+            // Partial Messages, like the ones of the events updating the flags, have no ConversationID
+            ConversationID = conversationId ?: EMPTY_STRING,
+            Subject = subject,
+            Order = order,
+            Unread = unread,
+            Type = type,
+            Sender = sender,
+            flags = flags,
+            time = time,
+            Size = size,
+            FolderLocation = folderLocation,
+            Starred = starred,
+            NumAttachments = numAttachments,
+            ExpirationTime = expirationTime,
+            SpamScore = spamScore,
+            AddressID = addressId,
+            Body = body,
+            MIMEType = mimeType,
+            LabelIDs = labelIds,
+            LabelIDsAdded = labelIdsAdded,
+            LabelIDsRemoved = labelIdsRemoved,
+            ToList = toList,
+            CCList = ccList,
+            BCCList = bccList,
+            ReplyTos = replyTos,
+            Header = header,
+            parsedHeaders = parsedHeaders,
+            Attachments = attachments,
+            embeddedImagesArray = embeddedImages
+        )
+    }
+
+    override fun write(writer: JsonWriter, value: ServerMessage?) {
+        delegate.write(writer, value)
+    }
+}
+
+internal class ServerMessageSenderTypeAdapter(
+    private val delegate: TypeAdapter<ServerMessageSender>
+) : TypeAdapter<ServerMessageSender>() {
+
+    override fun read(reader: JsonReader): ServerMessageSender {
+        var name: String? = null
+        var address: String? = null
+        var isProton = 0
+        reader.readObject { field ->
+            when (field) {
+                Fields.Message.Sender.NAME -> name = reader.nextStringOrNull()
+                Fields.Message.Sender.ADDRESS -> address = reader.nextStringOrNull()
+                "IsProton" -> isProton = reader.nextIntOrZero()
+                else -> return@readObject false
+            }
+            true
+        }
+        return ServerMessageSender(
+            name = name,
+            address = address ?: EMPTY_STRING,
+            isProton = isProton
+        )
+    }
+
+    override fun write(writer: JsonWriter, value: ServerMessageSender?) {
+        delegate.write(writer, value)
+    }
+}
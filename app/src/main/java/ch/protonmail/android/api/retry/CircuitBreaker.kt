@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.retry
+
+import timber.log.Timber
+import java.util.concurrent.TimeUnit
+
+private const val FAILURE_THRESHOLD = 5
+private val OPEN_DURATION_MS = TimeUnit.SECONDS.toMillis(30)
+
+/**
+ * Circuit breaker of a single endpoint.
+ *
+ * After [FAILURE_THRESHOLD] consecutive failures the circuit opens, and the calls fail fast for [OPEN_DURATION_MS].
+ *  After that, a single call is let through: if it succeeds the circuit closes, otherwise it opens again.
+ */
+internal class CircuitBreaker(
+    val endpoint: String,
+    private val metrics: HttpRetryMetrics,
+    private val currentTimeMillis: () -> Long = System::currentTimeMillis
+) {
+
+    private var state = State.CLOSED
+    private var consecutiveFailures = 0
+    private var openedAt = 0L
+
+    /**
+     * @return `true` if the call can be executed, in which case one of [onSuccess], [onFailure] or [onCanceled] must
+     *  be called when it completes
+     */
+    @Synchronized
+    fun tryAcquire(): Boolean {
+        val canExecute = when (state) {
+            State.CLOSED -> true
+            State.OPEN -> if (currentTimeMillis() - openedAt >= OPEN_DURATION_MS) {
+                state = State.HALF_OPEN
+                true
+            } else {
+                false
+            }
+            // A trial call is already running
+            State.HALF_OPEN -> false
+        }
+        if (!canExecute) metrics.onCallRejected()
+        return canExecute
+    }
+
+    @Synchronized
+    fun onSuccess() {
+        if (state != State.CLOSED) {
+            Timber.i("Circuit closed for $endpoint")
+            metrics.onCircuitClosed()
+        }
+        state = State.CLOSED
+        consecutiveFailures = 0
+    }
+
+    @Synchronized
+    fun onFailure() {
+        consecutiveFailures++
+        when (state) {
+            State.CLOSED -> if (consecutiveFailures >= FAILURE_THRESHOLD) {
+                Timber.w("Circuit opened for $endpoint")
+                metrics.onCircuitOpened()
+                open()
+            }
+            State.HALF_OPEN -> open()
+            State.OPEN -> Unit
+        }
+    }
+
+    /**
+     * The call has been canceled, so it tells nothing about the health of the endpoint
+     */
+    @Synchronized
+    fun onCanceled() {
+        // Let the next call try again
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN
+            openedAt = currentTimeMillis() - OPEN_DURATION_MS
+        }
+    }
+
+    private fun open() {
+        state = State.OPEN
+        openedAt = currentTimeMillis()
+    }
+
+    private enum class State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -17,8 +17,11 @@
  * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
  */
 
-package ch.protonmail.android.events
+package ch.protonmail.android.api.retry
 
-import ch.protonmail.android.data.local.model.Message
+import java.io.IOException
 
-data class SearchResultEvent(val results: List<Message>)
+/**
+ * The call has not been executed, because the circuit of its endpoint is open
+ */
+class CircuitOpenException(endpoint: String) : IOException("Circuit open for $endpoint")
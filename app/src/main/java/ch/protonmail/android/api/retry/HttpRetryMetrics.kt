@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.retry
+
+import timber.log.Timber
+import java.util.concurrent.atomic.AtomicLong
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.time.Duration
+
+/**
+ * Metrics of the retries and of the circuit breakers of the API calls.
+ * They are exported to the logs every time they change
+ */
+@Singleton
+class HttpRetryMetrics @Inject constructor() {
+
+    private val retryCount = AtomicLong()
+    private val backoffMillis = AtomicLong()
+    private val openedCircuitsCount = AtomicLong()
+    private val openCircuitsCount = AtomicLong()
+    private val rejectedCallsCount = AtomicLong()
+
+    /**
+     * Count of the calls retried
+     */
+    val retries: Long
+        get() = retryCount.get()
+
+    /**
+     * Total time spent waiting before retrying the calls
+     */
+    val backoffTimeMillis: Long
+        get() = backoffMillis.get()
+
+    /**
+     * Count of the times a circuit has been opened
+     */
+    val circuitsOpened: Long
+        get() = openedCircuitsCount.get()
+
+    /**
+     * Count of the circuits that are currently open
+     */
+    val openCircuits: Long
+        get() = openCircuitsCount.get()
+
+    /**
+     * Count of the calls that failed fast, because their circuit was open
+     */
+    val rejectedCalls: Long
+        get() = rejectedCallsCount.get()
+
+    internal fun onRetry(backoff: Duration) {
+        retryCount.incrementAndGet()
+        backoffMillis.addAndGet(backoff.inWholeMilliseconds)
+        log()
+    }
+
+    internal fun onCircuitOpened() {
+        openedCircuitsCount.incrementAndGet()
+        openCircuitsCount.incrementAndGet()
+        log()
+    }
+
+    internal fun onCircuitClosed() {
+        openCircuitsCount.decrementAndGet()
+        log()
+    }
+
+    internal fun onCallRejected() {
+        rejectedCallsCount.incrementAndGet()
+        log()
+    }
+
+    private fun log() {
+        Timber.d("HTTP retry metrics: $this")
+    }
+
+    override fun toString(): String =
+        "retries: $retries, backoff: ${backoffTimeMillis}ms, circuits opened: $circuitsOpened, " +
+            "open circuits: $openCircuits, rejected calls: $rejectedCalls"
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.retry
+
+import ch.protonmail.android.utils.extensions.exponentialDelay
+import ch.protonmail.android.utils.extensions.isCanceledRequestException
+import ch.protonmail.android.utils.extensions.isRetryableError
+import ch.protonmail.android.utils.extensions.isRetryableNetworkError
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import retrofit2.Call
+import retrofit2.CallAdapter
+import retrofit2.Callback
+import retrofit2.Response
+import retrofit2.Retrofit
+import retrofit2.http.DELETE
+import retrofit2.http.GET
+import retrofit2.http.HEAD
+import retrofit2.http.HTTP
+import retrofit2.http.OPTIONS
+import retrofit2.http.PATCH
+import retrofit2.http.POST
+import retrofit2.http.PUT
+import java.io.IOException
+import java.lang.reflect.Type
+import java.util.concurrent.ConcurrentHashMap
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.seconds
+
+private const val NUMBER_OF_RETRIES = 2
+private const val BACKOFF_EXPONENTIAL_BASE = 1.2
+private val BACKOFF_DURATION = 500.milliseconds
+
+private const val HEADER_RETRY_AFTER = "Retry-After"
+
+/** Responses asking to wait longer than this are not retried */
+private val MAX_RETRY_AFTER = 10.seconds
+
+/**
+ * A [CallAdapter.Factory] that retries the failed calls with an exponential backoff, and makes them fail fast while
+ *  their endpoint is unhealthy, through a [CircuitBreaker] for every endpoint.
+ * Endpoints are identified by the HTTP method and the path template of the Retrofit method, e.g.
+ *  `GET mail/v4/messages/{id}`, so there is one [CircuitBreaker] per API method, not per requested resource.
+ *
+ * It decorates the [Call] given to the next [CallAdapter], so it works for both suspend functions and Rx types.
+ * Asynchronous calls wait for the backoff in [scope], without holding any thread.
+ */
+@Singleton
+class RetryCallAdapterFactory @Inject constructor(
+    private val scope: CoroutineScope,
+    private val metrics: HttpRetryMetrics
+) : CallAdapter.Factory() {
+
+    private val circuitBreakers = ConcurrentHashMap<String, CircuitBreaker>()
+
+    override fun get(returnType: Type, annotations: Array<Annotation>, retrofit: Retrofit): CallAdapter<*, *> {
+        @Suppress("UNCHECKED_CAST")
+        val delegate = retrofit.nextCallAdapter(this, returnType, annotations) as CallAdapter<Any, Any>
+        val endpoint = annotations.endpointTemplate()
+        return object : CallAdapter<Any, Any> {
+            override fun responseType(): Type = delegate.responseType()
+            override fun adapt(call: Call<Any>): Any = delegate.adapt(RetryingCall(call, endpoint))
+        }
+    }
+
+    private fun circuitBreakerFor(endpoint: String): CircuitBreaker =
+        circuitBreakers.getOrPut(endpoint) { CircuitBreaker(endpoint, metrics) }
+
+    /**
+     * @param endpoint the templated endpoint of the call, or `null` if it's not known, e.g. for methods taking the
+     *  whole URL as parameter, in which case the host of the request is used
+     */
+    private inner class RetryingCall<T>(
+        private val originalCall: Call<T>,
+        private val endpoint: String?
+    ) : Call<T> {
+
+        private val circuitBreaker by lazy { circuitBreakerFor(endpoint ?: originalCall.request().url.host) }
+
+        @Volatile
+        private var currentCall: Call<T> = originalCall
+
+        @Volatile
+        private var canceled = false
+
+        override fun enqueue(callback: Callback<T>) {
+            if (!circuitBreaker.tryAcquire()) {
+                callback.onFailure(this, CircuitOpenException(circuitBreaker.endpoint))
+                return
+            }
+            enqueue(originalCall, retryCount = 0, callback)
+        }
+
+        private fun enqueue(call: Call<T>, retryCount: Int, callback: Callback<T>) {
+            currentCall = call
+            call.enqueue(object : Callback<T> {
+
+                override fun onResponse(call: Call<T>, response: Response<T>) {
+                    val backoff = backoffFor(retryCount, response)
+                    if (backoff == null) {
+                        onCompleted(response)
+                        callback.onResponse(this@RetryingCall, response)
+                    } else {
+                        response.errorBody()?.close()
+                        scheduleRetry(retryCount, backoff, callback)
+                    }
+                }
+
+                override fun onFailure(call: Call<T>, t: Throwable) {
+                    val backoff = backoffFor(retryCount, t)
+                    if (backoff == null) {
+                        onCompleted(t)
+                        callback.onFailure(this@RetryingCall, t)
+                    } else {
+                        scheduleRetry(retryCount, backoff, callback)
+                    }
+                }
+            })
+        }
+
+        private fun scheduleRetry(retryCount: Int, backoff: Duration, callback: Callback<T>) {
+            metrics.onRetry(backoff)
+            scope.launch {
+                delay(backoff)
+                if (canceled) {
+                    circuitBreaker.onCanceled()
+                    callback.onFailure(this@RetryingCall, IOException("Canceled"))
+                } else {
+                    enqueue(currentCall.clone(), retryCount + 1, callback)
+                }
+            }
+        }
+
+        override fun execute(): Response<T> {
+            if (!circuitBreaker.tryAcquire()) throw CircuitOpenException(circuitBreaker.endpoint)
+
+            // Synchronous calls already hold the caller's thread, so they wait for the backoff in it
+            var call = originalCall
+            var retryCount = 0
+            while (true) {
+                currentCall = call
+                val result = try {
+                    call.execute()
+                } catch (e: Exception) {
+                    e
+                }
+                val backoff = backoffFor(retryCount, result)
+                if (backoff == null || canceled) {
+                    onCompleted(result)
+                    return if (result is Response<*>) {
+                        @Suppress("UNCHECKED_CAST")
+                        result as Response<T>
+                    } else {
+                        throw result as Exception
+                    }
+                }
+                (result as? Response<*>)?.errorBody()?.close()
+                metrics.onRetry(backoff)
+                Thread.sleep(backoff.inWholeMilliseconds)
+                if (canceled) {
+                    circuitBreaker.onCanceled()
+                    throw IOException("Canceled")
+                }
+                call = call.clone()
+                retryCount++
+            }
+        }
+
+        /**
+         * @param result either a [Response] or a [Throwable]
+         * @return the time to wait before retrying the call, or `null` if it must not be retried
+         */
+        private fun backoffFor(retryCount: Int, result: Any): Duration? {
+            if (canceled || retryCount >= NUMBER_OF_RETRIES) return null
+            val retryAfter = when (result) {
+                is Response<*> -> if (result.raw().isRetryableError()) result.retryAfter() else return null
+                is CircuitOpenException -> return null
+                is Exception -> if (result.isRetryableNetworkError()) Duration.ZERO else return null
+                else -> return null
+            }
+            if (retryAfter > MAX_RETRY_AFTER) return null
+            val backoff = BACKOFF_DURATION.exponentialDelay(retryCount, BACKOFF_EXPONENTIAL_BASE)
+            return maxOf(backoff, retryAfter)
+        }
+
+        private fun onCompleted(result: Any) {
+            when {
+                result is Response<*> && result.raw().isRetryableError() -> circuitBreaker.onFailure()
+                result is Response<*> -> circuitBreaker.onSuccess()
+                canceled || result is Exception && result.isCanceledRequestException() -> circuitBreaker.onCanceled()
+                result is Exception && result.isRetryableNetworkError() -> circuitBreaker.onFailure()
+                else -> circuitBreaker.onSuccess()
+            }
+        }
+
+        override fun isExecuted(): Boolean = originalCall.isExecuted
+
+        override fun cancel() {
+            // A pending retry will notice it after its backoff, and report the failure to the callback
+            canceled = true
+            currentCall.cancel()
+        }
+
+        override fun isCanceled(): Boolean = canceled || currentCall.isCanceled
+
+        override fun clone(): Call<T> = RetryingCall(originalCall.clone(), endpoint)
+
+        override fun request() = originalCall.request()
+
+        override fun timeout() = originalCall.timeout()
+    }
+}
+
+/**
+ * @return the HTTP method and the relative URL template declared by the annotations of a Retrofit method, or `null`
+ *  if the relative URL is not declared
+ */
+private fun Array<Annotation>.endpointTemplate(): String? {
+    val (method, template) = firstNotNullOfOrNull { annotation ->
+        when (annotation) {
+            is GET -> "GET" to annotation.value
+            is POST -> "POST" to annotation.value
+            is PUT -> "PUT" to annotation.value
+            is PATCH -> "PATCH" to annotation.value
+            is DELETE -> "DELETE" to annotation.value
+            is HEAD -> "HEAD" to annotation.value
+            is OPTIONS -> "OPTIONS" to annotation.value
+            is HTTP -> annotation.method to annotation.path
+            else -> null
+        }
+    } ?: return null
+    return if (template.isNotBlank()) "$method $template" else null
+}
+
+/**
+ * @return the time the server asked to wait before retrying, from the `Retry-After` header
+ */
+private fun Response<*>.retryAfter(): Duration {
+    val value = headers()[HEADER_RETRY_AFTER] ?: return Duration.ZERO
+    value.toLongOrNull()?.let { seconds -> return seconds.coerceAtLeast(0).seconds }
+    val date = headers().getDate(HEADER_RETRY_AFTER) ?: return Duration.ZERO
+    return (date.time - System.currentTimeMillis()).coerceAtLeast(0).milliseconds
+}
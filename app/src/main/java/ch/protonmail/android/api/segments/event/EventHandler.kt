@@ -32,12 +32,15 @@ import ch.protonmail.android.api.segments.RESPONSE_CODE_MESSAGE_DOES_NOT_EXIST
 import ch.protonmail.android.api.segments.RESPONSE_CODE_MESSAGE_READING_RESTRICTED
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.crypto.VerificationKeysCache
 import ch.protonmail.android.data.local.ContactDao
 import ch.protonmail.android.data.local.MessageDao
 import ch.protonmail.android.data.local.model.ContactData
 import ch.protonmail.android.data.local.model.Message
 import ch.protonmail.android.data.local.model.MessageSender
 import ch.protonmail.android.details.data.MessageFlagsToEncryptionMapper
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.event.data.remote.model.EventResponse
 import ch.protonmail.android.event.domain.model.ActionType
 import ch.protonmail.android.labels.data.mapper.LabelEntityApiMapper
@@ -67,7 +70,6 @@ import com.squareup.inject.assisted.Assisted
 import com.squareup.inject.assisted.AssistedInject
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
 import me.proton.core.domain.entity.UserId
 import me.proton.core.usersettings.domain.usecase.GetUserSettings
 import me.proton.core.util.kotlin.EMPTY_STRING
@@ -95,7 +97,9 @@ class EventHandler @AssistedInject constructor(
     private val messageFlagsToEncryptionMapper: MessageFlagsToEncryptionMapper,
     private val labelRepository: LabelRepository,
     private val labelEventApiMapper: LabelEventApiMapper,
-    private val getUserSettings: GetUserSettings
+    private val getUserSettings: GetUserSettings,
+    private val verificationKeysCache: VerificationKeysCache,
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache
 ) {
 
     private val messageDetailsRepository = messageDetailsRepositoryFactory.create(userId)
@@ -115,6 +119,7 @@ class EventHandler @AssistedInject constructor(
             clearContactDataCache()
             clearContactEmailsCache()
         }
+        verificationKeysCache.invalidateAll(userId)
         fetchContactEmails.enqueue()
         fetchContactsData.enqueue()
         externalScope.launch {
@@ -132,6 +137,8 @@ class EventHandler @AssistedInject constructor(
             clearMessagesCache()
             clearAttachmentsCache()
         }
+        // Observers of the unread counters reconcile them with the server once they find them empty
+        unreadCounterDao.clear()
         launchInitialDataFetch(
             userId,
             shouldRefreshDetails = false,
@@ -216,7 +223,7 @@ class EventHandler @AssistedInject constructor(
         response: EventResponse
     ) {
 
-        val savedUser = runBlocking { userManager.getLegacyUser(userId) }
+        val savedUser = runBlockingMonitored { userManager.getLegacyUser(userId) }
 
         if (response.usedSpace > 0) {
             savedUser.setAndSaveUsedSpace(response.usedSpace)
@@ -236,6 +243,10 @@ class EventHandler @AssistedInject constructor(
         val conversationCounts = response.conversationCounts
         val addresses = response.addresses
 
+        // Verification keys come from the contacts and from the user's addresses
+        if (contacts != null || contactsEmails != null || addresses != null || user != null) {
+            verificationKeysCache.invalidateAll(userId)
+        }
         if (labels != null) {
             writeLabelsUpdates(labels)
         }
@@ -244,8 +255,9 @@ class EventHandler @AssistedInject constructor(
             writeMessagesUpdates(messageDao, pendingActionDao, messages)
         }
         if (conversations != null) {
-            externalScope.launch {
-                changeToConversations.invoke(userId, conversations)
+            // Applied before returning, so the event id is persisted only once the conversations are written too
+            runBlockingMonitored {
+                changeToConversations(userId, conversations)
             }
         }
         if (contacts != null) {
@@ -335,6 +347,7 @@ class EventHandler @AssistedInject constructor(
                 if (message != null) {
                     externalScope.launch {
                         messageDetailsRepository.deleteAllAttachments(message.attachments)
+                        prefetchedMessageBodyCache.remove(userId, messageId)
                     }
                     messageDao.deleteMessage(message)
 
@@ -455,6 +468,7 @@ class EventHandler @AssistedInject constructor(
             if (expired) {
                 externalScope.launch {
                     messageDetailsRepository.deleteAllAttachments(message.attachments)
+                    prefetchedMessageBodyCache.remove(userId, messageId)
                 }
                 messageDetailsRepository.deleteMessage(message)
             } else {
@@ -605,7 +619,7 @@ class EventHandler @AssistedInject constructor(
 
     private fun writeUnreadCountersUpdates(messageCounts: List<CountsApiModel>, type: Type) {
         val databaseModels = apiToDatabaseUnreadCounterMapper.toDatabaseModels(messageCounts, userId, type)
-        runBlocking {
+        runBlockingMonitored {
             unreadCounterDao.insertOrUpdate(databaseModels)
         }
     }
@@ -25,11 +25,11 @@ import ch.protonmail.android.api.ProtonMailApiManager
 import ch.protonmail.android.api.exceptions.ApiException
 import ch.protonmail.android.api.interceptors.UserIdTag
 import ch.protonmail.android.core.Constants
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.event.data.remote.model.EventResponse
 import ch.protonmail.android.prefs.SecureSharedPreferences
 import kotlinx.coroutines.ObsoleteCoroutinesApi
 import kotlinx.coroutines.newSingleThreadContext
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import me.proton.core.domain.entity.UserId
 import timber.log.Timber
@@ -125,7 +125,7 @@ class EventManager @Inject constructor(
         ReplaceWith("consumeEventsFor(loggedInUsers)")
     )
     fun consumeEventsForBlocking(loggedInUsers: Collection<UserId>) =
-        runBlocking { consumeEventsFor(loggedInUsers) }
+        runBlockingMonitored { consumeEventsFor(loggedInUsers) }
 
     /**
      * Clears the state of the EventManager for all users
@@ -28,6 +28,7 @@ import ch.protonmail.android.api.segments.contact.ContactEmailsManager
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.NetworkResults
 import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.events.MailboxLoadedEvent
 import ch.protonmail.android.events.MailboxNoMessagesEvent
 import ch.protonmail.android.events.Status
@@ -38,7 +39,6 @@ import ch.protonmail.android.pendingaction.data.PendingActionDatabase
 import ch.protonmail.android.utils.AppUtil
 import com.birbit.android.jobqueue.JobManager
 import dagger.hilt.android.AndroidEntryPoint
-import kotlinx.coroutines.runBlocking
 import me.proton.core.domain.entity.UserId
 import me.proton.core.util.kotlin.takeIfNotBlank
 import timber.log.Timber
@@ -120,7 +120,7 @@ internal class MessagesService : JobIntentService() {
         refreshMessages: Boolean
     ) {
         try {
-            val messages = runBlocking {
+            val messages = runBlockingMonitored {
                 mApi.getMessages(GetAllMessagesParameters(currentUserId, labelId = location.asLabelId()))
             }
             if (messages.code == Constants.RESPONSE_CODE_OK)
@@ -147,7 +147,7 @@ internal class MessagesService : JobIntentService() {
         refreshMessages: Boolean
     ) {
         try {
-            val messagesResponse = runBlocking {
+            val messagesResponse = runBlockingMonitored {
                 val labelId = labelId.takeIfNotBlank()?.let(::LabelId)
                 mApi.getMessages(GetAllMessagesParameters(currentUserId, labelId = labelId))
             }
@@ -216,7 +216,7 @@ internal class MessagesService : JobIntentService() {
             }.filterNotNull()
                 .toList()
                 .let { list ->
-                    runBlocking {
+                    runBlockingMonitored {
                         messageDetailsRepository.saveMessagesInOneTransaction(list)
                     }
                 }
@@ -285,7 +285,7 @@ internal class MessagesService : JobIntentService() {
             }.filterNotNull()
                 .toList()
                 .let { list ->
-                    runBlocking {
+                    runBlockingMonitored {
                         messageDetailsRepository.saveMessagesInOneTransaction(list)
                     }
                 }
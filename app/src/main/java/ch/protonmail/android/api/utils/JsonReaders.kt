@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+@file:JvmName("JsonReaders")
+
+package ch.protonmail.android.api.utils
+
+import com.google.gson.TypeAdapter
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+
+/*
+ * Helpers for the hand-written type adapters, reading a value or `null` when the JSON value is `null`, in the same
+ *  way the reflective adapters of Gson would
+ */
+
+fun JsonReader.nextStringOrNull(): String? {
+    if (peek() == JsonToken.NULL) {
+        nextNull()
+        return null
+    }
+    return nextString()
+}
+
+fun JsonReader.nextIntOrZero(): Int {
+    if (peek() == JsonToken.NULL) {
+        nextNull()
+        return 0
+    }
+    return nextInt()
+}
+
+fun JsonReader.nextLongOrZero(): Long {
+    if (peek() == JsonToken.NULL) {
+        nextNull()
+        return 0
+    }
+    return nextLong()
+}
+
+fun <T> JsonReader.nextListOrNull(adapter: TypeAdapter<T>): List<T>? {
+    if (peek() == JsonToken.NULL) {
+        nextNull()
+        return null
+    }
+    val list = ArrayList<T>()
+    beginArray()
+    while (hasNext()) {
+        list.add(adapter.read(this))
+    }
+    endArray()
+    return list
+}
+
+fun JsonReader.nextStringListOrNull(): List<String>? {
+    if (peek() == JsonToken.NULL) {
+        nextNull()
+        return null
+    }
+    val list = ArrayList<String>()
+    beginArray()
+    while (hasNext()) {
+        list.add(nextString())
+    }
+    endArray()
+    return list
+}
+
+/**
+ * Reads a JSON object calling [readField] for each of its field names. [readField] must consume the value or
+ *  return `false`, in which case the value is skipped without being parsed
+ */
+inline fun JsonReader.readObject(readField: (name: String) -> Boolean) {
+    beginObject()
+    while (hasNext()) {
+        if (readField(nextName()).not()) {
+            skipValue()
+        }
+    }
+    endObject()
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.utils
+
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.api.models.messages.receive.MessagesResponse
+import ch.protonmail.android.api.models.messages.receive.MessagesResponseTypeAdapter
+import ch.protonmail.android.api.models.messages.receive.ServerMessage
+import ch.protonmail.android.api.models.messages.receive.ServerMessageSender
+import ch.protonmail.android.api.models.messages.receive.ServerMessageSenderTypeAdapter
+import ch.protonmail.android.api.models.messages.receive.ServerMessageTypeAdapter
+import ch.protonmail.android.details.data.remote.model.ConversationResponse
+import ch.protonmail.android.details.data.remote.model.ConversationResponseTypeAdapter
+import ch.protonmail.android.event.data.remote.model.ConversationsEventResponse
+import ch.protonmail.android.event.data.remote.model.ConversationsEventResponseTypeAdapter
+import ch.protonmail.android.event.data.remote.model.EventResponse
+import ch.protonmail.android.mailbox.data.remote.model.ConversationApiModel
+import ch.protonmail.android.mailbox.data.remote.model.ConversationApiModelTypeAdapter
+import ch.protonmail.android.mailbox.data.remote.model.ConversationsResponse
+import ch.protonmail.android.mailbox.data.remote.model.ConversationsResponseTypeAdapter
+import ch.protonmail.android.mailbox.data.remote.model.CorrespondentApiModel
+import ch.protonmail.android.mailbox.data.remote.model.CorrespondentApiModelTypeAdapter
+import ch.protonmail.android.mailbox.data.remote.model.LabelContextApiModel
+import ch.protonmail.android.mailbox.data.remote.model.LabelContextApiModelTypeAdapter
+import com.google.gson.Gson
+import com.google.gson.TypeAdapter
+import com.google.gson.TypeAdapterFactory
+import com.google.gson.reflect.TypeToken
+
+/**
+ * Provides hand-written type adapters for the events, messages and conversations responses, and for the models
+ *  they are made of. They stream the JSON into the models without reflection, nor intermediate trees, while the
+ *  other models keep using the reflective adapters of Gson.
+ *
+ * Writing is delegated to the adapter that Gson would have used without this factory, so it must be registered
+ *  after the type adapters it overrides, as Gson gives precedence to the last registered ones
+ */
+class ResponseTypeAdapterFactory : TypeAdapterFactory {
+
+    override fun <T> create(gson: Gson, type: TypeToken<T>): TypeAdapter<T>? {
+        @Suppress("UNCHECKED_CAST")
+        val adapter = when (type.rawType) {
+            EventResponse::class.java -> EventResponse.EventResponseTypeAdapter(gson, delegate(gson, type))
+            ConversationsEventResponse::class.java -> ConversationsEventResponseTypeAdapter(gson, delegate(gson, type))
+            MessagesResponse::class.java -> MessagesResponseTypeAdapter(gson, delegate(gson, type))
+            ServerMessage::class.java -> ServerMessageTypeAdapter(gson, delegate(gson, type))
+            ServerMessageSender::class.java -> ServerMessageSenderTypeAdapter(delegate(gson, type))
+            MessageRecipient::class.java -> MessageRecipient.MessageRecipientTypeAdapter(delegate(gson, type))
+            ConversationsResponse::class.java -> ConversationsResponseTypeAdapter(gson, delegate(gson, type))
+            ConversationResponse::class.java -> ConversationResponseTypeAdapter(gson, delegate(gson, type))
+            ConversationApiModel::class.java -> ConversationApiModelTypeAdapter(gson, delegate(gson, type))
+            CorrespondentApiModel::class.java -> CorrespondentApiModelTypeAdapter(delegate(gson, type))
+            LabelContextApiModel::class.java -> LabelContextApiModelTypeAdapter(delegate(gson, type))
+            else -> return null
+        } as TypeAdapter<T>
+        return adapter.nullSafe()
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun <T, R> delegate(gson: Gson, type: TypeToken<T>): TypeAdapter<R> =
+        gson.getDelegateAdapter(this, type) as TypeAdapter<R>
+}
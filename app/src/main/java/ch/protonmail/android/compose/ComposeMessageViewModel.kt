@@ -57,6 +57,7 @@ import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.model.Attachment
 import ch.protonmail.android.data.local.model.LocalAttachment
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.events.FetchMessageDetailEvent
 import ch.protonmail.android.events.Status
 import ch.protonmail.android.feature.account.allLoggedInBlocking
@@ -95,7 +96,6 @@ import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.launchIn
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import me.proton.core.accountmanager.domain.AccountManager
 import me.proton.core.domain.entity.UserId
@@ -342,7 +342,7 @@ class ComposeMessageViewModel @Inject constructor(
             }
 
         if (_messageDataResult.isPGPMime) {
-            runBlocking {
+            runBlockingMonitored {
                 parentMessageAsync().await()?.let { parentMessage ->
                     _messageDataResult = composeMessageRepository.prepareMessageData(
                         _messageDataResult,
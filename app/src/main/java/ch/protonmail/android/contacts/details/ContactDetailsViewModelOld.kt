@@ -32,6 +32,7 @@ import ch.protonmail.android.contacts.details.data.ContactDetailsRepository
 import ch.protonmail.android.contacts.details.presentation.model.ContactLabelUiModel
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.model.ContactEmail
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.domain.usecase.DownloadFile
 import ch.protonmail.android.exceptions.BadImageUrlException
 import ch.protonmail.android.exceptions.ImageNotFoundException
@@ -42,7 +43,6 @@ import dagger.hilt.android.lifecycle.HiltViewModel
 import io.reactivex.Observable
 import kotlinx.coroutines.TimeoutCancellationException
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
 import me.proton.core.util.kotlin.DispatcherProvider
 import studio.forface.viewstatestore.ViewStateStore
 import java.io.FileNotFoundException
@@ -83,7 +83,7 @@ open class ContactDetailsViewModelOld @Inject constructor(
         val userId = userManager.requireCurrentUserId()
         Observable.zip(
             Observable.fromCallable {
-                runBlocking {
+                runBlockingMonitored {
                     contactDetailsRepository.getContactGroups(userId)
                 }
             }
@@ -142,7 +142,7 @@ open class ContactDetailsViewModelOld @Inject constructor(
                         type = entity.type,
                         path = entity.path,
                         parentId = entity.parentId,
-                        contactEmailsCount = runBlocking {
+                        contactEmailsCount = runBlockingMonitored {
                             contactDetailsRepository.getContactEmailsCount(userId, entity.id)
                         }
                     )
@@ -20,11 +20,11 @@ package ch.protonmail.android.contacts.groups.jobs
 
 import ch.protonmail.android.api.models.contacts.send.LabelContactsBody
 import ch.protonmail.android.core.Constants
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.jobs.Priority
 import ch.protonmail.android.jobs.ProtonMailBaseJob
 import ch.protonmail.android.labels.domain.LabelRepository
 import com.birbit.android.jobqueue.Params
-import kotlinx.coroutines.runBlocking
 
 class SetMembersForContactGroupJob(
     private val contactGroupId: String,
@@ -35,7 +35,7 @@ class SetMembersForContactGroupJob(
 
     override fun onRun() {
         var id = contactGroupId
-        runBlocking {
+        runBlockingMonitored {
             if (id.isEmpty()) {
                 val contactLabel = labelRepository.findLabelByName(contactGroupName, requireNotNull(userId))
                 id = contactLabel?.id?.id ?: ""
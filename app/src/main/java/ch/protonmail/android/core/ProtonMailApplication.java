@@ -26,6 +26,7 @@ import static ch.protonmail.android.core.Constants.Prefs.PREF_TIME_AND_DATE_CHAN
 import static ch.protonmail.android.core.Constants.PrefsType.BACKUP_PREFS_NAME;
 import static ch.protonmail.android.core.UserManagerKt.PREF_SHOW_STORAGE_LIMIT_REACHED;
 import static ch.protonmail.android.core.UserManagerKt.PREF_SHOW_STORAGE_LIMIT_WARNING;
+import static java.util.Collections.singletonList;
 
 import android.app.Activity;
 import android.app.AlertDialog;
@@ -76,6 +77,7 @@ import ch.protonmail.android.api.models.OrganizationResponse;
 import ch.protonmail.android.api.segments.event.AlarmReceiver;
 import ch.protonmail.android.api.segments.event.EventManager;
 import ch.protonmail.android.di.DefaultSharedPreferences;
+import ch.protonmail.android.diagnostics.BlockingCallMonitor;
 import ch.protonmail.android.events.ApiOfflineEvent;
 import ch.protonmail.android.events.DownloadedAttachmentEvent;
 import ch.protonmail.android.events.ForceUpgradeEvent;
@@ -96,12 +98,15 @@ import ch.protonmail.android.security.presentation.SecurityManagerInitializer;
 import ch.protonmail.android.sentry.SentryInitializer;
 import ch.protonmail.android.sentry.SentryTree;
 import ch.protonmail.android.settings.domain.usecase.ApplyAppThemeFromSettings;
+import ch.protonmail.android.startup.StartupOrchestrator;
+import ch.protonmail.android.startup.StartupTask.Mode;
 import ch.protonmail.android.utils.CoreTimberLogger;
 import ch.protonmail.android.utils.CustomLocale;
 import ch.protonmail.android.utils.DownloadUtils;
 import ch.protonmail.android.utils.FileUtils;
 import ch.protonmail.android.utils.UiUtil;
 import ch.protonmail.android.utils.crypto.OpenPGP;
+import ch.protonmail.android.utils.webview.WebViewPool;
 import ch.protonmail.android.worker.FetchContactsDataWorker;
 import ch.protonmail.android.worker.FetchContactsEmailsWorker;
 import dagger.hilt.android.HiltAndroidApp;
@@ -159,6 +164,12 @@ public class ProtonMailApplication extends Application implements androidx.work.
     @Inject
     AddStartOnboardingObserverIfNeeded addStartOnboardingObserverIfNeeded;
 
+    @Inject
+    StartupOrchestrator startupOrchestrator;
+
+    @Inject
+    WebViewPool webViewPool;
+
     private Bus mBus;
     private boolean appInBackground;
     private Snackbar apiOfflineSnackBar;
@@ -203,41 +214,59 @@ public class ProtonMailApplication extends Application implements androidx.work.
 
         if (BuildConfig.DEBUG) {
             Timber.plant(new Timber.DebugTree());
+            BlockingCallMonitor.INSTANCE.enable();
             if (BuildConfig.FLAVOR != "uiAutomation") enableStrictMode();
         } else {
             appInitializer.initializeComponent(SentryInitializer.class);
             Timber.plant(new SentryTree());
         }
 
+        // Needed by the network clients, which are created while injecting the dependencies
         TrustKit.initializeWithNetworkSecurityConfiguration(this);
 
         ViewStateStoreConfig.INSTANCE
                 .setErrorStateGenerator(ErrorStateGeneratorsKt.getErrorStateGenerator());
 
-        FileUtils.createDownloadsDir(this);
-        setupNotificationChannels();
-
         super.onCreate();
 
-        // Try to upgrade TLS Provider if needed
-        upgradeTlsProviderIfNeeded();
-
-        applyAppThemeFromSettings.blocking();
-
-        accountManagerUserIdMigration.blocking();
-        coreAccountManagerMigration.migrateBlocking();
-
-        // Start internal mandatory Account state handling (after coreAccountManagerMigration).
-        appInitializer.initializeComponent(AccountStateHandlerInitializer.class);
-        appInitializer.initializeComponent(CryptoValidatorInitializer.class);
-        appInitializer.initializeComponent(SecurityManagerInitializer.class);
-        appInitializer.initializeComponent(HumanVerificationInitializer.class);
-        appInitializer.initializeComponent(MissingScopeInitializer.class);
-        appInitializer.initializeComponent(UnredeemedPurchaseInitializer.class);
-        appInitializer.initializeComponent(UnAuthSessionFetcherInitializer.class);
-        appInitializer.initializeComponent(FeatureFlagsInitializer.class);
-
-        checkForUpdateAndClearCache();
+        startupOrchestrator
+                // The first network requests need the upgraded TLS provider and the API error handlers
+                .add("upgradeTlsProvider", Mode.CRITICAL, this::upgradeTlsProviderIfNeeded)
+                .add("applyAppTheme", Mode.CRITICAL, () -> applyAppThemeFromSettings.blocking())
+                .add("accountManagerUserIdMigration", Mode.CRITICAL, () -> accountManagerUserIdMigration.blocking())
+                .add("coreAccountManagerMigration", Mode.CRITICAL, singletonList("accountManagerUserIdMigration"),
+                        () -> coreAccountManagerMigration.migrateBlocking())
+                // Start internal mandatory Account state handling (after coreAccountManagerMigration).
+                .add("accountStateHandler", Mode.CRITICAL, singletonList("coreAccountManagerMigration"),
+                        () -> appInitializer.initializeComponent(AccountStateHandlerInitializer.class))
+                .add("humanVerification", Mode.CRITICAL,
+                        () -> appInitializer.initializeComponent(HumanVerificationInitializer.class))
+                .add("missingScope", Mode.CRITICAL,
+                        () -> appInitializer.initializeComponent(MissingScopeInitializer.class))
+                // Observes the Activities, so it must be ready before the first one is created
+                .add("securityManager", Mode.CRITICAL,
+                        () -> appInitializer.initializeComponent(SecurityManagerInitializer.class))
+                // The update migrations reset the events and move preferences the first screen already reads
+                .add("checkForUpdateAndClearCache", Mode.CRITICAL, singletonList("accountStateHandler"),
+                        this::checkForUpdateAndClearCache)
+                // Notifications can be posted by services started without any Activity
+                .add("notificationChannels", Mode.CRITICAL, this::setupNotificationChannels)
+
+                .add("createDownloadsDir", Mode.DEFERRED_BACKGROUND, () -> FileUtils.createDownloadsDir(this))
+                .add("cryptoValidator", Mode.DEFERRED_MAIN_THREAD,
+                        () -> appInitializer.initializeComponent(CryptoValidatorInitializer.class))
+                .add("unredeemedPurchase", Mode.DEFERRED_MAIN_THREAD,
+                        () -> appInitializer.initializeComponent(UnredeemedPurchaseInitializer.class))
+                .add("unAuthSessionFetcher", Mode.DEFERRED_MAIN_THREAD,
+                        () -> appInitializer.initializeComponent(UnAuthSessionFetcherInitializer.class))
+                .add("featureFlags", Mode.DEFERRED_MAIN_THREAD,
+                        () -> appInitializer.initializeComponent(FeatureFlagsInitializer.class))
+                // WebViews for the message bodies are created when the main thread is idle
+                .add("webViewPool", Mode.DEFERRED_MAIN_THREAD, () -> {
+                    registerComponentCallbacks(webViewPool);
+                    webViewPool.prewarm();
+                })
+                .start(this);
     }
 
     private void upgradeTlsProviderIfNeeded() {
@@ -27,6 +27,7 @@ import ch.protonmail.android.api.models.User
 import ch.protonmail.android.di.AppCoroutineScope
 import ch.protonmail.android.di.BackupSharedPreferences
 import ch.protonmail.android.di.DefaultSharedPreferences
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.domain.util.orThrow
 import ch.protonmail.android.feature.account.primaryId
 import ch.protonmail.android.feature.account.primaryLegacyUser
@@ -42,7 +43,6 @@ import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.channels.BufferOverflow
 import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.StateFlow
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import me.proton.core.accountmanager.domain.AccountManager
 import me.proton.core.crypto.common.keystore.EncryptedByteArray
@@ -108,7 +108,7 @@ class UserManager @Inject constructor(
 
     init {
         // Workaround to make sure we have fresh value and get them from main thread without impacting performances.
-        runBlocking {
+        runBlockingMonitored {
             refreshPrimary.emit(Unit)
             primaryUserId = coreAccountManager.primaryUserId(scope)
             primaryId = coreAccountManager.primaryId(scope)
@@ -163,11 +163,11 @@ class UserManager @Inject constructor(
         }
     }
 
-    fun getLegacyUserBlocking(userId: UserId) = runBlocking {
+    fun getLegacyUserBlocking(userId: UserId) = runBlockingMonitored {
         getLegacyUser(userId)
     }
 
-    fun getUserBlocking(userId: UserId): NewUser = runBlocking {
+    fun getUserBlocking(userId: UserId): NewUser = runBlockingMonitored {
         getUser(userId)
     }
 
@@ -181,7 +181,7 @@ class UserManager @Inject constructor(
 
     @Deprecated("Use suspend function", ReplaceWith("getCurrentUserMailSettings()"))
     fun getCurrentUserMailSettingsBlocking(): MailSettings? =
-        runBlocking { getCurrentUserMailSettings() }
+        runBlockingMonitored { getCurrentUserMailSettings() }
 
     @Deprecated("Use suspend function", ReplaceWith("getCurrentUserMailSettings()"))
     fun requireCurrentUserMailSettingsBlocking(): MailSettings =
@@ -193,10 +193,10 @@ class UserManager @Inject constructor(
 
     @Deprecated("Use suspend function", ReplaceWith("getMailSettings(userId)"))
     fun getMailSettingsBlocking(userId: UserId): MailSettings =
-        runBlocking { getMailSettings(userId) }
+        runBlockingMonitored { getMailSettings(userId) }
 
     val snoozeSettings: SnoozeSettings?
-        get() = runBlocking { currentUserId?.let { SnoozeSettings.load(preferencesFor(it)) } }
+        get() = runBlockingMonitored { currentUserId?.let { SnoozeSettings.load(preferencesFor(it)) } }
 
     val isFirstMailboxLoad: Boolean
         get() = prefs.getBoolean(PREF_IS_FIRST_MAILBOX_LOAD_AFTER_LOGIN, true)
@@ -241,7 +241,7 @@ class UserManager @Inject constructor(
     // keep saving, saving can be super slow on users with a lot of accounts!
     @Deprecated("Use suspend function", ReplaceWith("isSnoozeQuickEnabled"))
     fun isSnoozeQuickEnabledBlocking(): Boolean =
-        runBlocking { isSnoozeQuickEnabled() }
+        runBlockingMonitored { isSnoozeQuickEnabled() }
 
     fun firstMailboxLoadDone() {
         prefs.edit().putBoolean(PREF_IS_FIRST_MAILBOX_LOAD_AFTER_LOGIN, false).apply()
@@ -328,7 +328,7 @@ class UserManager @Inject constructor(
         endTimeMinute: Int,
         repeatingDays: String
     ) {
-        runBlocking {
+        runBlockingMonitored {
             setSnoozeScheduled(isOn, startTimeHour, startTimeMinute, endTimeHour, endTimeMinute, repeatingDays)
         }
     }
@@ -352,7 +352,7 @@ class UserManager @Inject constructor(
      */
     @Deprecated("Use suspend function", ReplaceWith("setSnoozeQuick(isOn, minutesFromNow)"))
     fun setSnoozeQuickBlocking(isOn: Boolean, minutesFromNow: Int) {
-        runBlocking { setSnoozeQuick(isOn, minutesFromNow) }
+        runBlockingMonitored { setSnoozeQuick(isOn, minutesFromNow) }
     }
 
     fun didReachLabelsThreshold(numberOfLabels: Int): Boolean = getMaxLabelsAllowed() < numberOfLabels
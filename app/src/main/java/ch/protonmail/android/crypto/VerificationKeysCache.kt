@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.crypto
+
+import android.content.Context
+import ch.protonmail.android.utils.crypto.KeyInformation
+import kotlinx.coroutines.withContext
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.builtins.MapSerializer
+import kotlinx.serialization.builtins.serializer
+import kotlinx.serialization.json.Json
+import me.proton.core.crypto.common.keystore.KeyStoreCrypto
+import me.proton.core.domain.entity.UserId
+import me.proton.core.util.kotlin.DispatcherProvider
+import okio.ByteString.Companion.decodeBase64
+import okio.ByteString.Companion.toByteString
+import timber.log.Timber
+import java.io.File
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val DIR_VERIFICATION_KEYS = "verification_keys"
+private const val MAX_ENTRIES_PER_USER = 100
+private val ENTRY_TTL_MS = TimeUnit.HOURS.toMillis(24)
+
+/**
+ * Cache for the verification keys of the senders, by user and email address.
+ *
+ * Every user has an in-memory LRU of at most [MAX_ENTRIES_PER_USER] entries, backed by a file in the cache directory,
+ *  encrypted with [KeyStoreCrypto], so repeated senders don't need a network call after the app is restarted.
+ * Entries expire [ENTRY_TTL_MS] after they have been written, and are invalidated by the contacts and keys events.
+ */
+@Singleton
+class VerificationKeysCache @Inject constructor(
+    private val context: Context,
+    private val keyStoreCrypto: KeyStoreCrypto,
+    private val dispatchers: DispatcherProvider
+) {
+
+    private val entriesByUser = mutableMapOf<UserId, LinkedHashMap<String, Entry>>()
+    private val hitCount = AtomicLong()
+    private val missCount = AtomicLong()
+
+    /**
+     * Count of the calls to [get] that returned cached keys
+     */
+    val hits: Long
+        get() = hitCount.get()
+
+    /**
+     * Count of the calls to [get] that returned `null`
+     */
+    val misses: Long
+        get() = missCount.get()
+
+    suspend fun get(userId: UserId, email: String): List<KeyInformation>? = withContext(dispatchers.Io) {
+        val entry = synchronized(this@VerificationKeysCache) {
+            val entries = entries(userId)
+            val entry = entries[email.toKey()]
+            if (entry?.isExpired() == true) {
+                entries.remove(email.toKey())
+                null
+            } else {
+                entry
+            }
+        }
+        if (entry != null) {
+            hitCount.incrementAndGet()
+            entry.keys.map { it.toKeyInformation() }
+        } else {
+            missCount.incrementAndGet()
+            null
+        }
+    }
+
+    suspend fun put(userId: UserId, email: String, keys: List<KeyInformation>) {
+        withContext(dispatchers.Io) {
+            synchronized(this@VerificationKeysCache) {
+                val entries = entries(userId)
+                entries[email.toKey()] = Entry(System.currentTimeMillis(), keys.map { it.toCachedKey() })
+                while (entries.size > MAX_ENTRIES_PER_USER) {
+                    entries.remove(entries.keys.first())
+                }
+                persist(userId, entries)
+            }
+        }
+    }
+
+    /**
+     * Drop all the keys cached for the given user.
+     * It is blocking, as it is meant to be called while handling the events
+     */
+    @Synchronized
+    fun invalidateAll(userId: UserId) {
+        Timber.v("Invalidating verification keys for user $userId")
+        entriesByUser.remove(userId)
+        userFile(userId).delete()
+    }
+
+    /**
+     * @return the entries of the given user, ordered from the least to the most recently accessed, loading them
+     *  from the file if needed
+     */
+    private fun entries(userId: UserId): LinkedHashMap<String, Entry> =
+        entriesByUser.getOrPut(userId) {
+            LinkedHashMap<String, Entry>(MAX_ENTRIES_PER_USER, 0.75f, true).apply {
+                putAll(load(userId).filterValues { it.isExpired().not() })
+            }
+        }
+
+    private fun load(userId: UserId): Map<String, Entry> {
+        val file = userFile(userId)
+        if (file.exists().not()) return emptyMap()
+        return runCatching {
+            Json.decodeFromString(entriesSerializer, keyStoreCrypto.decrypt(file.readText()))
+        }.onFailure {
+            Timber.w(it, "Cannot read cached verification keys")
+            file.delete()
+        }.getOrDefault(emptyMap())
+    }
+
+    private fun persist(userId: UserId, entries: Map<String, Entry>) {
+        runCatching {
+            val json = Json.encodeToString(entriesSerializer, entries)
+            userFile(userId).writeText(keyStoreCrypto.encrypt(json))
+        }.onFailure {
+            Timber.w(it, "Cannot write cached verification keys")
+        }
+    }
+
+    private fun userFile(userId: UserId): File {
+        val directory = File(context.cacheDir, DIR_VERIFICATION_KEYS).apply { mkdirs() }
+        // User ids are base64 encoded, so we replace the only character that is not allowed in a file name
+        return File(directory, userId.id.replace('/', '_'))
+    }
+
+    private fun String.toKey() = lowercase()
+
+    private fun Entry.isExpired() =
+        System.currentTimeMillis() - savedAt > ENTRY_TTL_MS
+
+    private fun KeyInformation.toCachedKey() = CachedKey(
+        publicKey = publicKey?.toByteString()?.base64(),
+        fingerprint = fingerprint,
+        isValid = isValid,
+        isExpired = isExpired,
+        canEncrypt = canEncrypt(),
+        isCompromised = isCompromised
+    )
+
+    private fun CachedKey.toKeyInformation() = KeyInformation(
+        publicKey?.decodeBase64()?.toByteArray(),
+        null,
+        isValid,
+        fingerprint,
+        isExpired,
+        canEncrypt
+    ).also { if (isCompromised) it.flagAsCompromised() }
+
+    @Serializable
+    private data class Entry(
+        val savedAt: Long,
+        val keys: List<CachedKey>
+    )
+
+    /**
+     * Public part of a [KeyInformation], private keys are never cached
+     */
+    @Serializable
+    private data class CachedKey(
+        val publicKey: String?,
+        val fingerprint: String?,
+        val isValid: Boolean,
+        val isExpired: Boolean,
+        val canEncrypt: Boolean,
+        val isCompromised: Boolean
+    )
+
+    private companion object {
+
+        val entriesSerializer = MapSerializer(String.serializer(), Entry.serializer())
+    }
+}
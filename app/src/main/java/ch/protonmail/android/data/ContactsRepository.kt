@@ -39,6 +39,9 @@ class ContactsRepository @Inject constructor(
     suspend fun findContactEmailByEmail(userId: UserId, email: String): ContactEmail? =
         contactDao(userId).findContactEmailByEmail(email)
 
+    suspend fun findContactEmailsByEmails(userId: UserId, emails: List<String>): List<ContactEmail> =
+        contactDao(userId).findContactEmailsByEmails(emails)
+
     fun findAllContactEmails(userId: UserId): Flow<List<ContactEmail>> =
         contactDao(userId).findAllContactsEmails()
 
@@ -24,16 +24,26 @@ import ch.protonmail.android.data.remote.OfflineDataResult
 import ch.protonmail.android.domain.LoadMoreFlow
 import ch.protonmail.android.domain.asLoadMoreFlow
 import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.NonCancellable
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.ensureActive
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.filterNot
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.onStart
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.withContext
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.arch.ResponseSource
 import me.proton.core.domain.arch.mapSuccess
 import me.proton.core.domain.arch.onSuccess
 import me.proton.core.util.kotlin.invoke
 import timber.log.Timber
+import kotlin.time.Duration
 
 /**
  * [ProtonStore] works in a similar manner as [com.dropbox.android.external.store4.Store] but provide us a more
@@ -58,6 +68,15 @@ import timber.log.Timber
  *
  * @param connectivityManager if set, will skipp calls to [fetcher] when
  *  [NetworkConnectivityManager.isInternetConnectionPossible] is `false`, and directly emit [OfflineDataResult]
+ *
+ * @param freshnessTtl how long the result of a [fetcher] call is considered fresh for its [Key]. While fresh, the
+ *  result is returned without calling [fetcher] again, unless the refresh is explicit, as for [fresh].
+ *  Defaults to [Duration.ZERO], which disables the feature
+ *
+ * @param revalidationScope if set, a result that is not fresh anymore is still returned, while it's revalidated in
+ *  background on this scope, so that the Database is kept up to date, while the caller doesn't wait for the network
+ *
+ * @param clock returns the current time in milliseconds, used to measure [freshnessTtl]
  */
 class ProtonStore<Key : Any, ApiModel : Any, DatabaseModel : Any, DomainModel : Any>(
     private val fetcher: suspend (Key) -> ApiModel,
@@ -67,9 +86,21 @@ class ProtonStore<Key : Any, ApiModel : Any, DatabaseModel : Any, DomainModel :
     private val apiToDomainMapper: ProtonStoreMapper<Key, ApiModel, List<DomainModel>>,
     private val databaseToDomainMapper: ProtonStoreMapper<Key, DatabaseModel, DomainModel>,
     private val apiToDatabaseMapper: ProtonStoreMapper<Key, ApiModel, List<DatabaseModel>>,
-    private val connectivityManager: NetworkConnectivityManager? = null
+    private val connectivityManager: NetworkConnectivityManager? = null,
+    private val freshnessTtl: Duration = Duration.ZERO,
+    private val revalidationScope: CoroutineScope? = null,
+    private val clock: () -> Long = System::currentTimeMillis
 ) {
 
+    private val mutex = Mutex()
+    private val inFlightRequests = mutableMapOf<Key, CompletableDeferred<DataResult<ApiModel>>>()
+    private val cachedResults = object : LinkedHashMap<Key, CachedResult<ApiModel>>(
+        MAX_CACHED_RESULTS, DEFAULT_LOAD_FACTOR, true
+    ) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, CachedResult<ApiModel>>) =
+            size > MAX_CACHED_RESULTS
+    }
+
     /**
      * Return a [Flow] that emits [ResponseSource.Local] and [ResponseSource.Remote] data.
      *  Note that [DataResult] with source [ResponseSource.Remote] should not be displayed in the UI, as they may
@@ -89,13 +120,20 @@ class ProtonStore<Key : Any, ApiModel : Any, DatabaseModel : Any, DomainModel :
      *  contains less Data that the one present in Database
      *  @see filterRemoteSuccess for ignore that elements
      *
-     * @param refreshAtStart if `true` call [fresh] and emit its result at start.
+     * @param refreshAtStart if `true` load the first page and emit its result at start.
      *  This has the same effect as calling [LoadMoreFlow.loadMore]
+     *
+     * @param ignoreFreshness if `true` every page is fetched, even if a fresh result is available, e.g. when the
+     *  user explicitly asks to refresh
      */
-    fun loadMoreFlow(key: Key, refreshAtStart: Boolean): LoadMoreFlow<DataResult<List<DomainModel>>> =
+    fun loadMoreFlow(
+        key: Key,
+        refreshAtStart: Boolean,
+        ignoreFreshness: Boolean = false
+    ): LoadMoreFlow<DataResult<List<DomainModel>>> =
         flow(key, refresh = false)
             .asLoadMoreFlow(initialBookmark = key, loadAtStart = refreshAtStart) { newKey ->
-                val freshAsApiModelDataResult = freshAsApiModel(newKey)
+                val freshAsApiModelDataResult = freshAsApiModel(newKey, ignoreFreshness)
                 emit(freshAsApiModelDataResult.toDomainModelsDataResult(newKey))
 
                 freshAsApiModelDataResult.valueOrNull()
@@ -103,18 +141,70 @@ class ProtonStore<Key : Any, ApiModel : Any, DatabaseModel : Any, DomainModel :
             }
 
     /**
-     * Return fresh data from [fetcher], also store to [writer]
+     * Return fresh data from [fetcher], also store to [writer].
+     *  This is an explicit refresh, so a result that is still fresh is ignored
      * @return [DataResult] of [DomainModel]
      */
     suspend fun fresh(key: Key): DataResult<List<DomainModel>> =
-        freshAsApiModel(key).toDomainModelsDataResult(key)
+        freshAsApiModel(key, ignoreFreshness = true).toDomainModelsDataResult(key)
 
-    private suspend fun freshAsApiModel(key: Key): DataResult<ApiModel> {
+    private suspend fun freshAsApiModel(key: Key, ignoreFreshness: Boolean): DataResult<ApiModel> {
         if (connectivityManager?.isInternetConnectionPossible() == false) {
             Timber.i("Fetching skipped. Reason: Offline. Key: $key")
             return OfflineDataResult
         }
 
+        val cachedResult = if (ignoreFreshness) null else cachedResultOrNull(key)
+        if (cachedResult != null && isFresh(cachedResult)) {
+            Timber.i("Fetching skipped. Reason: fresh result. Key: $key")
+            return cachedResult.result
+        }
+        if (cachedResult != null && revalidationScope != null) {
+            Timber.i("Revalidating in background. Key: $key")
+            revalidationScope.launch {
+                runCatching { fetchShared(key) }
+                    .onFailure { Timber.w(it, "Revalidation failed for: $key") }
+            }
+            return cachedResult.result
+        }
+
+        return fetchShared(key)
+    }
+
+    /**
+     * Call [fetchAndWrite] for the given [key], or join the call already in flight for an equal [key]
+     */
+    @Suppress("TooGenericExceptionCaught")
+    private suspend fun fetchShared(key: Key): DataResult<ApiModel> {
+        val (request, isOwner) = mutex.withLock {
+            inFlightRequests[key]?.let { it to false }
+                ?: CompletableDeferred<DataResult<ApiModel>>().also { inFlightRequests[key] = it } to true
+        }
+
+        if (isOwner.not()) {
+            Timber.i("Joining in flight fetch for: $key")
+            return try {
+                request.await()
+            } catch (e: CancellationException) {
+                // The owner of the request has been cancelled: if we are still active, we fetch on our own
+                currentCoroutineContext().ensureActive()
+                fetchShared(key)
+            }
+        }
+
+        try {
+            val result = fetchAndWrite(key)
+            removeInFlightRequest(key, request)
+            request.complete(result)
+            return result
+        } catch (t: Throwable) {
+            withContext(NonCancellable) { removeInFlightRequest(key, request) }
+            request.completeExceptionally(t)
+            throw t
+        }
+    }
+
+    private suspend fun fetchAndWrite(key: Key): DataResult<ApiModel> {
         Timber.i("Fetching for: $key")
         @Suppress("TooGenericExceptionCaught")
         val apiResult = try {
@@ -128,6 +218,23 @@ class ProtonStore<Key : Any, ApiModel : Any, DatabaseModel : Any, DomainModel :
         return apiResult.onSuccess {
             val databaseModel = apiToDatabaseMapper { it.toOut(key) }
             writer(key, databaseModel)
+            if (freshnessTtl.isPositive()) {
+                mutex.withLock { cachedResults[key] = CachedResult(apiResult, clock()) }
+            }
+        }
+    }
+
+    private suspend fun cachedResultOrNull(key: Key): CachedResult<ApiModel>? {
+        if (freshnessTtl.isPositive().not()) return null
+        return mutex.withLock { cachedResults[key] }
+    }
+
+    private fun isFresh(cachedResult: CachedResult<ApiModel>): Boolean =
+        clock() - cachedResult.timestamp < freshnessTtl.inWholeMilliseconds
+
+    private suspend fun removeInFlightRequest(key: Key, request: CompletableDeferred<DataResult<ApiModel>>) {
+        mutex.withLock {
+            if (inFlightRequests[key] === request) inFlightRequests.remove(key)
         }
     }
 
@@ -139,6 +246,17 @@ class ProtonStore<Key : Any, ApiModel : Any, DatabaseModel : Any, DomainModel :
             val domainModels = apiToDomainMapper { result.value.toOut(key) }
             DataResult.Success(result.source, domainModels)
         }
+
+    private data class CachedResult<T>(
+        val result: DataResult<T>,
+        val timestamp: Long
+    )
+
+    private companion object {
+
+        const val MAX_CACHED_RESULTS = 32
+        const val DEFAULT_LOAD_FACTOR = 0.75f
+    }
 }
 
 /**
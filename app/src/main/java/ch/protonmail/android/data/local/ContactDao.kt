@@ -117,6 +117,9 @@ interface ContactDao {
     @Query("SELECT * FROM $TABLE_CONTACT_EMAILS WHERE $COLUMN_CONTACT_EMAILS_EMAIL IN (:emails)")
     fun findContactsByEmail(emails: List<String>): Flow<List<ContactEmail>>
 
+    @Query("SELECT * FROM $TABLE_CONTACT_EMAILS WHERE $COLUMN_CONTACT_EMAILS_EMAIL IN (:emails)")
+    suspend fun findContactEmailsByEmails(emails: List<String>): List<ContactEmail>
+
     @Query("SELECT * FROM $TABLE_CONTACT_EMAILS ORDER BY $COLUMN_CONTACT_EMAILS_EMAIL")
     fun findAllContactsEmailsAsync(): LiveData<List<ContactEmail>>
 
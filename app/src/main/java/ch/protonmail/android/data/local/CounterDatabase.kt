@@ -25,6 +25,10 @@ import ch.protonmail.android.data.local.model.TotalLocationCounter
 import ch.protonmail.android.data.local.model.UnreadLabelCounter
 import ch.protonmail.android.data.local.model.UnreadLocationCounter
 
+/**
+ * Former store of the unread counters, replaced by [ch.protonmail.android.mailbox.data.local.UnreadCounterDao].
+ * Only kept so existing databases are deleted together with the other ones of the user
+ */
 @Database(
     entities = [
         UnreadLabelCounter::class,
@@ -36,8 +40,6 @@ import ch.protonmail.android.data.local.model.UnreadLocationCounter
 )
 abstract class CounterDatabase : RoomDatabase() {
 
-    abstract fun getDao(): CounterDao
-
     companion object : DatabaseFactory<CounterDatabase>(
         CounterDatabase::class,
         "UnreadCountersDatabase.db"
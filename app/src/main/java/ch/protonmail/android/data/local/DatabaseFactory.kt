@@ -38,6 +38,11 @@ open class DatabaseFactory<T : RoomDatabase>(
 
     private val cache = mutableMapOf<UserId, T>()
 
+    /**
+     * Callback applied to every built database, for schema objects Room can't declare, like triggers
+     */
+    protected open val callback: RoomDatabase.Callback? = null
+
     @Synchronized
     fun getInstance(context: Context, userId: UserId): T =
         cache.getOrPut(userId) { buildDatabase(context, userId) }
@@ -67,6 +72,7 @@ open class DatabaseFactory<T : RoomDatabase>(
         return Room.databaseBuilder(context.applicationContext, databaseClass.java, baseFileName)
             .fallbackToDestructiveMigration()
             .addMigrations(*migrations)
+            .apply { callback?.let(::addCallback) }
             .build()
     }
 
@@ -107,5 +113,6 @@ open class DatabaseFactory<T : RoomDatabase>(
     fun buildInMemoryDatabase(context: Context) =
         Room.inMemoryDatabaseBuilder(context.applicationContext, databaseClass.java)
             .fallbackToDestructiveMigration()
+            .apply { callback?.let(::addCallback) }
             .build()
 }
@@ -26,6 +26,7 @@ import androidx.room.Insert
 import androidx.room.OnConflictStrategy
 import androidx.room.Query
 import androidx.room.Transaction
+import ch.protonmail.android.core.Constants
 import ch.protonmail.android.data.local.model.Attachment
 import ch.protonmail.android.data.local.model.COLUMN_ATTACHMENT_ID
 import ch.protonmail.android.data.local.model.COLUMN_ATTACHMENT_MESSAGE_ID
@@ -41,9 +42,22 @@ import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_SENDER_NAME
 import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_SUBJECT
 import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_TIME
 import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_UNREAD
+import ch.protonmail.android.data.local.model.MESSAGE_LIST_ITEM_COLUMNS
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.data.local.model.MessageBodyEntity
+import ch.protonmail.android.data.local.model.MessageBodyEntity.Companion.COLUMN_BODY_MESSAGE_ID
+import ch.protonmail.android.data.local.model.MessageBodyEntity.Companion.TABLE_MESSAGE_BODIES
+import ch.protonmail.android.data.local.model.MessageListItem
+import ch.protonmail.android.data.local.model.MessageUnreadState
 import ch.protonmail.android.data.local.model.TABLE_ATTACHMENTS
 import ch.protonmail.android.data.local.model.TABLE_MESSAGES
+import ch.protonmail.android.data.local.model.toBodyEntityOrNull
+import ch.protonmail.android.mailbox.data.local.UnreadCounterDeltas
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_COLUMN_LABEL_ID
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_COLUMN_TYPE
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_COLUMN_UNREAD_COUNT
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_TABLE_NAME
+import ch.protonmail.android.mailbox.data.local.model.UnreadCounterEntity
 import io.reactivex.Flowable
 import io.reactivex.Single
 import kotlinx.coroutines.flow.Flow
@@ -59,9 +73,12 @@ abstract class MessageDao : BaseDao<Message>() {
     fun searchMessages(keyword: String): Flow<List<Message>> =
         searchMessages(keyword, keyword, keyword)
 
+    fun searchMessages(subject: String, senderName: String, senderEmail: String): Flow<List<Message>> =
+        searchMessageListItems(subject, senderName, senderEmail).toMessages()
+
     @Query(
         """
-        SELECT *
+        SELECT $MESSAGE_LIST_ITEM_COLUMNS
         FROM $TABLE_MESSAGES
         WHERE $COLUMN_MESSAGE_SUBJECT LIKE '%'||:subject||'%'
           OR ${COLUMN_MESSAGE_PREFIX_SENDER + COLUMN_MESSAGE_SENDER_NAME} LIKE '%'||:senderName||'%'
@@ -69,8 +86,11 @@ abstract class MessageDao : BaseDao<Message>() {
         ORDER BY $COLUMN_MESSAGE_TIME DESC
     """
     )
-    @Transaction
-    abstract fun searchMessages(subject: String, senderName: String, senderEmail: String): Flow<List<Message>>
+    protected abstract fun searchMessageListItems(
+        subject: String,
+        senderName: String,
+        senderEmail: String
+    ): Flow<List<MessageListItem>>
 
     @Query("SELECT COUNT($COLUMN_MESSAGE_ID) FROM $TABLE_MESSAGES WHERE $COLUMN_MESSAGE_LOCATION = :location ")
     abstract fun getMessagesCountByLocation(location: Int): Int
@@ -86,8 +106,8 @@ abstract class MessageDao : BaseDao<Message>() {
     abstract suspend fun getMessageIdsByLabelId(label: String): List<String>
 
     fun observeMessages(label: String, unread: Boolean? = null, newestFirst: Boolean = true): Flow<List<Message>> =
-        if (unread == null) observeMessages(label, newestFirst)
-        else observeMessagesWithUnreadStatus(label, unread, newestFirst)
+        if (unread == null) observeMessageListItems(label, newestFirst).toMessages()
+        else observeMessageListItemsWithUnreadStatus(label, unread, newestFirst).toMessages()
 
     /**
      * Since we have decided to use this query to also retrieve messages that are SENT now the query looks for the
@@ -98,7 +118,7 @@ abstract class MessageDao : BaseDao<Message>() {
      **/
     @Query(
         """
-        SELECT *
+        SELECT $MESSAGE_LIST_ITEM_COLUMNS
         FROM $TABLE_MESSAGES
         WHERE 
           ($COLUMN_MESSAGE_LABELS LIKE :label
@@ -110,8 +130,10 @@ abstract class MessageDao : BaseDao<Message>() {
           CASE WHEN NOT :newestFirst THEN $COLUMN_MESSAGE_TIME END ASC
     """
     )
-    @Transaction
-    protected abstract fun observeMessages(label: String, newestFirst: Boolean = true): Flow<List<Message>>
+    protected abstract fun observeMessageListItems(
+        label: String,
+        newestFirst: Boolean = true
+    ): Flow<List<MessageListItem>>
 
     /**
      * Since we have decided to use this query to also retrieve messages that are SENT now the query looks for the
@@ -122,7 +144,7 @@ abstract class MessageDao : BaseDao<Message>() {
      **/
     @Query(
         """
-        SELECT *
+        SELECT $MESSAGE_LIST_ITEM_COLUMNS
         FROM $TABLE_MESSAGES
         WHERE 
           ($COLUMN_MESSAGE_LABELS LIKE :label
@@ -136,10 +158,32 @@ abstract class MessageDao : BaseDao<Message>() {
           CASE WHEN NOT :newestFirst THEN $COLUMN_MESSAGE_TIME END ASC
     """
     )
-    @Transaction
-    protected abstract fun observeMessagesWithUnreadStatus(
-        label: String, unread: Boolean, newestFirst: Boolean = true
-    ): Flow<List<Message>>
+    protected abstract fun observeMessageListItemsWithUnreadStatus(
+        label: String,
+        unread: Boolean,
+        newestFirst: Boolean = true
+    ): Flow<List<MessageListItem>>
+
+    /**
+     * @return the ids of the [limit] most recent unread Messages with the given [label]
+     * @see observeMessages for the format of $COLUMN_MESSAGE_LABELS
+     */
+    @Query(
+        """
+        SELECT $COLUMN_MESSAGE_ID
+        FROM $TABLE_MESSAGES
+        WHERE 
+          ($COLUMN_MESSAGE_LABELS LIKE :label
+          OR $COLUMN_MESSAGE_LABELS LIKE :label || ';%'
+          OR $COLUMN_MESSAGE_LABELS LIKE '%;' || :label
+          OR $COLUMN_MESSAGE_LABELS LIKE '%;' || :label || ';%')
+        AND
+          $COLUMN_MESSAGE_UNREAD = 1
+        ORDER BY $COLUMN_MESSAGE_TIME DESC
+        LIMIT :limit
+    """
+    )
+    abstract suspend fun findMostRecentUnreadMessageIds(label: String, limit: Int): List<String>
 
     @Query(
         """SELECT COUNT($COLUMN_MESSAGE_ID) 
@@ -155,26 +199,46 @@ abstract class MessageDao : BaseDao<Message>() {
         .onEach { message ->
             message ?: return@onEach
             message.attachments = message.attachments(this)
+            message.setBody(findMessageBody(messageId))
         }
 
     suspend fun findMessageByIdOnce(messageId: String): Message? = findMessageInfoByIdOnce(messageId)?.also { message ->
         message.attachments = findAttachmentByMessageId(messageId)
+        message.setBody(findMessageBody(messageId))
+    }
+
+    /**
+     * Finds all the Messages with the given ids, with their Attachments and bodies, using a single query for the
+     *  Messages, a single query for the Attachments and a single query for the bodies
+     */
+    suspend fun findMessagesByIdsOnce(messageIds: List<String>): List<Message> {
+        val messages = findMessagesInfoByIdsOnce(messageIds)
+        val attachmentsByMessageId = findAttachmentsByMessageIds(messageIds).groupBy { it.messageId }
+        val bodiesByMessageId = findMessageBodies(messageIds).associateBy { it.messageId }
+        return messages.onEach { message ->
+            message.attachments = attachmentsByMessageId[message.messageId].orEmpty()
+            message.setBody(bodiesByMessageId[message.messageId])
+        }
     }
 
     @Deprecated("Use Flow variant", ReplaceWith("findMessageById(messageId).first()"))
     fun findMessageByIdBlocking(messageId: String): Message? = findMessageInfoByIdBlocking(messageId)
         ?.also { message ->
             message.attachments = message.attachmentsBlocking(this)
+            message.setBody(findMessageBodyBlocking(messageId))
         }
 
-    fun findMessageByIdSingle(messageId: String) = findMessageInfoByIdSingle(messageId)
+    fun findMessageByIdSingle(messageId: String): Single<Message> = findMessageInfoByIdSingle(messageId)
+        .map { message -> message.apply { setBody(findMessageBodyBlocking(messageId)) } }
 
-    fun findMessageByIdObservable(messageId: String) = findMessageInfoByIdObservable(messageId)
+    fun findMessageByIdObservable(messageId: String): Flowable<Message> = findMessageInfoByIdObservable(messageId)
+        .map { message -> message.apply { setBody(findMessageBodyBlocking(messageId)) } }
 
     fun findMessageByDatabaseId(messageDbId: Long): Flow<Message?> = findMessageInfoByDbId(messageDbId)
         .onEach { message ->
             message ?: return@onEach
             message.attachments = message.attachmentsBlocking(this)
+            message.setBody(message.messageId?.let { findMessageBody(it) })
         }
 
     fun findAllMessageByLastMessageAccessTime(laterThan: Long = 0): Flow<List<Message>> =
@@ -191,6 +255,26 @@ abstract class MessageDao : BaseDao<Message>() {
     @Query("SELECT * FROM $TABLE_MESSAGES WHERE $COLUMN_MESSAGE_ID = :messageId")
     abstract suspend fun findMessageInfoByIdOnce(messageId: String): Message?
 
+    @Query("SELECT * FROM $TABLE_MESSAGES WHERE $COLUMN_MESSAGE_ID IN (:messageIds)")
+    abstract suspend fun findMessagesInfoByIdsOnce(messageIds: List<String>): List<Message>
+
+    /**
+     * Finds the Messages with the given ids, without their Attachments and bodies, using a query for every
+     *  [Constants.MAX_SQL_ARGUMENTS] of them
+     */
+    suspend fun findMessagesInfoByIds(messageIds: List<String>): List<Message> =
+        messageIds.chunked(Constants.MAX_SQL_ARGUMENTS).flatMap { findMessagesInfoByIdsOnce(it) }
+
+    /**
+     * Finds all the Messages of the given Conversations, without their Attachments and bodies, using a query for
+     *  every [Constants.MAX_SQL_ARGUMENTS] Conversations
+     */
+    suspend fun findMessagesInfoByConversationIds(conversationIds: List<String>): List<Message> =
+        conversationIds.chunked(Constants.MAX_SQL_ARGUMENTS).flatMap { findMessagesInfoByConversationIdsChunk(it) }
+
+    @Query("SELECT * FROM $TABLE_MESSAGES WHERE $COLUMN_CONVERSATION_ID IN (:conversationIds)")
+    protected abstract suspend fun findMessagesInfoByConversationIdsChunk(conversationIds: List<String>): List<Message>
+
     @Deprecated("Use Flow variant", ReplaceWith("findMessageInfoById(messageId).first()"))
     @Query("SELECT * FROM $TABLE_MESSAGES WHERE $COLUMN_MESSAGE_ID = :messageId")
     abstract fun findMessageInfoByIdBlocking(messageId: String): Message?
@@ -215,15 +299,20 @@ abstract class MessageDao : BaseDao<Message>() {
     @Transaction
     abstract fun observeAllMessagesInfoByLastMessageAccessTime(laterThan: Long = 0): Flow<List<Message>>
 
+    fun observeAllMessagesInfoFromConversation(conversationId: String): Flow<List<Message>> =
+        observeMessageListItemsFromConversation(conversationId).toMessages()
+
     @Query(
         """
-        SELECT *
+        SELECT $MESSAGE_LIST_ITEM_COLUMNS
         FROM $TABLE_MESSAGES
         WHERE $COLUMN_CONVERSATION_ID = :conversationId
         ORDER BY $COLUMN_MESSAGE_TIME DESC
     """
     )
-    abstract fun observeAllMessagesInfoFromConversation(conversationId: String): Flow<List<Message>>
+    protected abstract fun observeMessageListItemsFromConversation(
+        conversationId: String
+    ): Flow<List<MessageListItem>>
 
     @Query(
         """
@@ -235,13 +324,19 @@ abstract class MessageDao : BaseDao<Message>() {
     )
     abstract suspend fun findAllConversationMessagesSortedByNewest(conversationId: String): List<Message>
 
-    suspend fun saveMessage(message: Message): Long {
+    @Transaction
+    open suspend fun saveMessage(message: Message): Long {
         Timber.d(
             "saveMessage %s, location: %s, labels: %s, isRead: %s",
             message.messageId, message.location, message.allLabelIDs, message.isRead
         )
         processMessageAttachments(message)
-        return saveMessageInfo(message)
+        restoreColumnsMissingFromListItems(listOf(message))
+        val unreadCounterDeltas = findUnreadCounterDeltas(listOf(message))
+        val dbId = saveMessageInfo(message)
+        saveMessageBodies(listOf(message))
+        updateUnreadCounters(unreadCounterDeltas)
+        return dbId
     }
 
     private suspend fun processMessageAttachments(message: Message) {
@@ -315,14 +410,177 @@ abstract class MessageDao : BaseDao<Message>() {
         message.attachments = preservedAttachments
     }
 
-    suspend fun saveMessages(messages: List<Message>) {
+    @Transaction
+    open suspend fun saveMessages(messages: List<Message>) {
         Timber.d("saveMessages ${messages.map { it.messageId }}")
         messages.forEach {
             processMessageAttachments(it)
         }
-        return saveMessagesInfo(messages)
+        restoreColumnsMissingFromListItems(messages)
+        val unreadCounterDeltas = findUnreadCounterDeltas(messages)
+        saveMessagesInfo(messages)
+        saveMessageBodies(messages)
+        updateUnreadCounters(unreadCounterDeltas)
     }
 
+    /**
+     * Updates the labels, location and read and starred states of [messages], that must be already stored, and the
+     *  unread counters they affect in a single transaction. Unlike [saveMessages], their Attachments and bodies are
+     *  left untouched, so the Messages can be loaded without them
+     */
+    @Transaction
+    open suspend fun updateMessagesInfo(messages: List<Message>) {
+        if (messages.isEmpty()) return
+        restoreColumnsMissingFromListItems(messages)
+        val unreadCounterDeltas = findUnreadCounterDeltas(messages)
+        update(*messages.toTypedArray())
+        updateUnreadCounters(unreadCounterDeltas)
+    }
+
+    /**
+     * Marks all the Messages of the given Conversations as read or unread, with a statement for every
+     *  [Constants.MAX_SQL_ARGUMENTS] Conversations, and updates the unread counters in the same transaction
+     */
+    @Transaction
+    open suspend fun updateUnreadByConversationIds(conversationIds: List<String>, unread: Boolean) {
+        val deltas = UnreadCounterDeltas()
+        // The unread state is bound as an argument too
+        conversationIds.chunked(Constants.MAX_SQL_ARGUMENTS - 1).forEach { ids ->
+            findMessagesUnreadStatesByConversationIds(ids).forEach { storedState ->
+                deltas.onChange(storedState.unread, storedState.labelIds, unread, storedState.labelIds)
+            }
+            saveUnreadByConversationIds(ids, unread)
+        }
+        updateUnreadCounters(deltas)
+    }
+
+    /**
+     * Compute how saving [messages] changes the unread counters. Only the Messages already stored are taken into
+     *  account, as the ones saved for the first time come from the server and are already part of its counts
+     */
+    private suspend fun findUnreadCounterDeltas(messages: List<Message>): UnreadCounterDeltas {
+        val messageIds = messages.mapNotNull { it.messageId }
+        val storedStatesById = messageIds.chunked(Constants.MAX_SQL_ARGUMENTS)
+            .flatMap { findMessagesUnreadStates(it) }
+            .associateBy { it.messageId }
+        val deltas = UnreadCounterDeltas()
+        for (message in messages) {
+            val storedState = storedStatesById[message.messageId] ?: continue
+            deltas.onChange(storedState.unread, storedState.labelIds, !message.isRead, message.allLabelIDs)
+        }
+        return deltas
+    }
+
+    private suspend fun updateUnreadCounters(deltas: UnreadCounterDeltas) {
+        deltas.toMap().forEach { (labelId, delta) ->
+            incrementUnreadCounter(UnreadCounterEntity.Type.MESSAGES, labelId, delta)
+        }
+    }
+
+    /**
+     * Save the bodies and headers carried by the given Messages. Messages loaded without them, like the ones from
+     *  the list queries, leave the stored ones untouched
+     */
+    /**
+     * Messages read from a [MessageListItem] miss some columns, which are copied from the stored Messages, so saving
+     *  them doesn't overwrite those columns with their default values
+     */
+    private suspend fun restoreColumnsMissingFromListItems(messages: List<Message>) {
+        val listItems = messages.filter { it.isListItemProjection }
+        if (listItems.isEmpty()) return
+
+        val storedById = findMessagesInfoByIds(listItems.mapNotNull { it.messageId }).associateBy { it.messageId }
+        for (message in listItems) {
+            val stored = storedById[message.messageId] ?: continue
+            message.messageEncryption = stored.messageEncryption
+            message.localId = stored.localId
+            message.mimeType = stored.mimeType
+            message.spamScore = stored.spamScore
+            message.accessTime = stored.accessTime
+            message.parsedHeaders = stored.parsedHeaders
+            message.replyTos = stored.replyTos
+            message.isListItemProjection = false
+        }
+    }
+
+    private suspend fun saveMessageBodies(messages: List<Message>) {
+        val bodies = messages.mapNotNull { it.toBodyEntityOrNull() }
+        if (bodies.isEmpty()) return
+
+        val partialBodiesIds = bodies.filter { it.body == null || it.header == null }.map { it.messageId }
+        val storedBodiesById = findMessageBodies(partialBodiesIds).associateBy { it.messageId }
+        val mergedBodies = bodies.map { body ->
+            val storedBody = storedBodiesById[body.messageId] ?: return@map body
+            body.copy(body = body.body ?: storedBody.body, header = body.header ?: storedBody.header)
+        }
+        saveMessageBodyEntities(mergedBodies)
+    }
+
+    private suspend fun findMessageBodies(messageIds: List<String>): List<MessageBodyEntity> =
+        messageIds.chunked(Constants.MAX_SQL_ARGUMENTS).flatMap { findMessageBodiesChunk(it) }
+
+    private fun Message.setBody(bodyEntity: MessageBodyEntity?) {
+        bodyEntity ?: return
+        messageBody = bodyEntity.body
+        header = bodyEntity.header
+    }
+
+    private fun Flow<List<MessageListItem>>.toMessages(): Flow<List<Message>> =
+        map { items -> items.map { it.toMessage() } }
+
+    @Query("SELECT * FROM $TABLE_MESSAGE_BODIES WHERE $COLUMN_BODY_MESSAGE_ID = :messageId")
+    protected abstract suspend fun findMessageBody(messageId: String): MessageBodyEntity?
+
+    @Query("SELECT * FROM $TABLE_MESSAGE_BODIES WHERE $COLUMN_BODY_MESSAGE_ID = :messageId")
+    protected abstract fun findMessageBodyBlocking(messageId: String): MessageBodyEntity?
+
+    @Query("SELECT * FROM $TABLE_MESSAGE_BODIES WHERE $COLUMN_BODY_MESSAGE_ID IN (:messageIds)")
+    protected abstract suspend fun findMessageBodiesChunk(messageIds: List<String>): List<MessageBodyEntity>
+
+    @Query(
+        """
+        SELECT $COLUMN_MESSAGE_ID, $COLUMN_MESSAGE_UNREAD, $COLUMN_MESSAGE_LABELS
+        FROM $TABLE_MESSAGES
+        WHERE $COLUMN_MESSAGE_ID IN (:messageIds)
+        """
+    )
+    protected abstract suspend fun findMessagesUnreadStates(messageIds: List<String>): List<MessageUnreadState>
+
+    @Query(
+        """
+        SELECT $COLUMN_MESSAGE_ID, $COLUMN_MESSAGE_UNREAD, $COLUMN_MESSAGE_LABELS
+        FROM $TABLE_MESSAGES
+        WHERE $COLUMN_CONVERSATION_ID IN (:conversationIds)
+        """
+    )
+    protected abstract suspend fun findMessagesUnreadStatesByConversationIds(
+        conversationIds: List<String>
+    ): List<MessageUnreadState>
+
+    @Query(
+        """
+        UPDATE $TABLE_MESSAGES
+        SET $COLUMN_MESSAGE_UNREAD = :unread
+        WHERE $COLUMN_CONVERSATION_ID IN (:conversationIds)
+        """
+    )
+    protected abstract suspend fun saveUnreadByConversationIds(conversationIds: List<String>, unread: Boolean)
+
+    /**
+     * The database belongs to a single user, so the counters are matched only by their type and label
+     */
+    @Query(
+        """
+        UPDATE $UNREAD_COUNTER_TABLE_NAME
+        SET $UNREAD_COUNTER_COLUMN_UNREAD_COUNT = $UNREAD_COUNTER_COLUMN_UNREAD_COUNT + :delta
+        WHERE $UNREAD_COUNTER_COLUMN_TYPE = :type AND $UNREAD_COUNTER_COLUMN_LABEL_ID = :labelId
+        """
+    )
+    protected abstract suspend fun incrementUnreadCounter(type: UnreadCounterEntity.Type, labelId: String, delta: Int)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract suspend fun saveMessageBodyEntities(bodies: List<MessageBodyEntity>)
+
     @Query("DELETE FROM $TABLE_MESSAGES WHERE $COLUMN_MESSAGE_LOCATION = :location")
     abstract fun deleteMessagesByLocation(location: Int)
 
@@ -352,10 +610,10 @@ abstract class MessageDao : BaseDao<Message>() {
     abstract suspend fun deleteMessagesByIds(ids: List<String>)
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    abstract suspend fun saveMessageInfo(message: Message): Long
+    protected abstract suspend fun saveMessageInfo(message: Message): Long
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    abstract suspend fun saveMessagesInfo(messages: List<Message>)
+    protected abstract suspend fun saveMessagesInfo(messages: List<Message>)
 
     @Query("DELETE FROM $TABLE_MESSAGES")
     abstract fun clearMessagesCache()
@@ -372,6 +630,9 @@ abstract class MessageDao : BaseDao<Message>() {
     @Query("SELECT * FROM $TABLE_ATTACHMENTS WHERE $COLUMN_ATTACHMENT_MESSAGE_ID = :messageId")
     abstract suspend fun findAttachmentByMessageId(messageId: String): List<Attachment>
 
+    @Query("SELECT * FROM $TABLE_ATTACHMENTS WHERE $COLUMN_ATTACHMENT_MESSAGE_ID IN (:messageIds)")
+    abstract suspend fun findAttachmentsByMessageIds(messageIds: List<String>): List<Attachment>
+
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     abstract suspend fun saveAttachment(attachment: Attachment): Long
 
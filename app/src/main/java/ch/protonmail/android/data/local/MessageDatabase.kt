@@ -22,10 +22,12 @@ import androidx.room.AutoMigration
 import androidx.room.Database
 import androidx.room.RoomDatabase
 import androidx.room.TypeConverters
+import androidx.sqlite.db.SupportSQLiteDatabase
 import ch.protonmail.android.data.ProtonMailConverters
 import ch.protonmail.android.data.local.model.Attachment
 import ch.protonmail.android.data.local.model.AttachmentTypesConverter
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.data.local.model.MessageBodyEntity
 import ch.protonmail.android.data.local.model.MessagePreferenceEntity
 import ch.protonmail.android.data.local.model.MessagesTypesConverter
 import ch.protonmail.android.mailbox.data.local.ConversationDao
@@ -40,6 +42,7 @@ import me.proton.core.data.room.db.CommonConverters
         Attachment::class,
         ConversationDatabaseModel::class,
         Message::class,
+        MessageBodyEntity::class,
         MessagePreferenceEntity::class,
         UnreadCounterEntity::class
     ],
@@ -50,7 +53,7 @@ import me.proton.core.data.room.db.CommonConverters
         AutoMigration(from = 18, to = 19),
         AutoMigration(from = 19, to = 20)
     ],
-    version = 20
+    version = 22
 )
 @TypeConverters(
     value = [
@@ -74,6 +77,17 @@ internal abstract class MessageDatabase : RoomDatabase() {
 
     companion object Factory : DatabaseFactory<MessageDatabase>(
         MessageDatabase::class,
-        "MessagesDatabase.db"
-    )
+        "MessagesDatabase.db",
+        MessageDatabaseMigrations.MIGRATION_20_21,
+        MessageDatabaseMigrations.MIGRATION_21_22
+    ) {
+
+        override val callback = object : RoomDatabase.Callback() {
+
+            // The tables are created after onDestructiveMigration, so the trigger is only ensured once they exist
+            override fun onOpen(db: SupportSQLiteDatabase) {
+                db.execSQL(MessageBodyEntity.CREATE_DELETE_TRIGGER)
+            }
+        }
+    }
 }
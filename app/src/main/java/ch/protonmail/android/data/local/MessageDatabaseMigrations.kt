@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.data.local
+
+import android.content.ContentValues
+import android.database.sqlite.SQLiteDatabase
+import androidx.room.migration.Migration
+import androidx.sqlite.db.SupportSQLiteDatabase
+import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_BCC_LIST
+import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_CC_LIST
+import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_REPLY_TOS
+import ch.protonmail.android.data.local.model.COLUMN_MESSAGE_TO_LIST
+import ch.protonmail.android.data.local.model.CompactColumnCodec
+import ch.protonmail.android.data.local.model.MessageBodyEntity
+import ch.protonmail.android.data.local.model.TABLE_MESSAGES
+import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.COLUMN_LABELS
+import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.COLUMN_RECIPIENTS
+import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.COLUMN_SENDERS
+import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.TABLE_CONVERSATIONS
+import timber.log.Timber
+
+internal object MessageDatabaseMigrations {
+
+    /**
+     * Rewrite the recipients, senders and label contexts columns, written with Java serialization and Gson, using
+     *  [CompactColumnCodec]
+     */
+    val MIGRATION_20_21 = object : Migration(20, 21) {
+        override fun migrate(database: SupportSQLiteDatabase) {
+            val messageRecipientColumns = listOf(
+                COLUMN_MESSAGE_TO_LIST,
+                COLUMN_MESSAGE_CC_LIST,
+                COLUMN_MESSAGE_BCC_LIST,
+                COLUMN_MESSAGE_REPLY_TOS
+            )
+            database.rewriteColumns(TABLE_MESSAGES, messageRecipientColumns) { value ->
+                CompactColumnCodec.encodeRecipients(CompactColumnCodec.decodeRecipients(value))
+            }
+            database.rewriteColumns(TABLE_CONVERSATIONS, listOf(COLUMN_RECIPIENTS)) { value ->
+                CompactColumnCodec.encodeRecipients(CompactColumnCodec.decodeRecipients(value))
+            }
+            database.rewriteColumns(TABLE_CONVERSATIONS, listOf(COLUMN_SENDERS)) { value ->
+                CompactColumnCodec.encodeSenders(CompactColumnCodec.decodeSenders(value))
+            }
+            database.rewriteColumns(TABLE_CONVERSATIONS, listOf(COLUMN_LABELS)) { value ->
+                CompactColumnCodec.encodeLabelContexts(CompactColumnCodec.decodeLabelContexts(value))
+            }
+        }
+    }
+
+    /**
+     * Move the bodies and headers of the Messages into [MessageBodyEntity], so the list queries never load them
+     */
+    val MIGRATION_21_22 = object : Migration(21, 22) {
+        override fun migrate(database: SupportSQLiteDatabase) {
+            database.execSQL(
+                """
+                CREATE TABLE IF NOT EXISTS `message_bodies` (
+                  `MessageID` TEXT NOT NULL, `Body` TEXT, `Header` TEXT, PRIMARY KEY(`MessageID`)
+                )
+                """
+            )
+            database.execSQL(
+                """
+                INSERT OR REPLACE INTO `message_bodies` (`MessageID`, `Body`, `Header`)
+                SELECT `ID`, `Body`, `Header` FROM `messagev3`
+                WHERE `ID` IS NOT NULL AND (`Body` IS NOT NULL OR `Header` IS NOT NULL)
+                """
+            )
+
+            // SQLite can't drop columns before 3.35, so the table is rebuilt without them
+            database.execSQL(
+                """
+                CREATE TABLE IF NOT EXISTS `messagev3_new` (
+                  `ID` TEXT, `ConversationID` TEXT, `Subject` TEXT, `Unread` INTEGER NOT NULL, `Type` INTEGER NOT NULL,
+                  `Time` INTEGER NOT NULL, `Size` INTEGER NOT NULL, `Location` INTEGER NOT NULL, `FolderLocation` TEXT,
+                  `Starred` INTEGER, `NumAttachments` INTEGER NOT NULL, `IsEncrypted` INTEGER NOT NULL,
+                  `ExpirationTime` INTEGER NOT NULL, `IsReplied` INTEGER, `IsRepliedAll` INTEGER, `IsForwarded` INTEGER,
+                  `IsDownloaded` INTEGER NOT NULL, `AddressID` TEXT, `InlineResponse` INTEGER NOT NULL,
+                  `NewServerId` TEXT, `MIMEType` TEXT, `SpamScore` INTEGER NOT NULL, `AccessTime` INTEGER NOT NULL,
+                  `ParsedHeaders` TEXT, `LabelIDs` TEXT NOT NULL, `ToList` TEXT NOT NULL, `ReplyTos` TEXT NOT NULL,
+                  `CCList` TEXT NOT NULL, `BCCList` TEXT NOT NULL, `Flags` INTEGER NOT NULL DEFAULT 0,
+                  `Order` INTEGER NOT NULL DEFAULT 9223372036854775807, `_id` INTEGER PRIMARY KEY AUTOINCREMENT,
+                  `Sender_SenderName` TEXT, `Sender_SenderSerialized` TEXT, `Sender_IsProton` INTEGER DEFAULT 0
+                )
+                """
+            )
+            val columns = listOf(
+                "ID", "ConversationID", "Subject", "Unread", "Type", "Time", "Size", "Location", "FolderLocation",
+                "Starred", "NumAttachments", "IsEncrypted", "ExpirationTime", "IsReplied", "IsRepliedAll",
+                "IsForwarded", "IsDownloaded", "AddressID", "InlineResponse", "NewServerId", "MIMEType", "SpamScore",
+                "AccessTime", "ParsedHeaders", "LabelIDs", "ToList", "ReplyTos", "CCList", "BCCList", "Flags",
+                "Order", "_id", "Sender_SenderName", "Sender_SenderSerialized", "Sender_IsProton"
+            ).joinToString { column -> "`$column`" }
+            database.execSQL("INSERT INTO `messagev3_new` ($columns) SELECT $columns FROM `messagev3`")
+            database.execSQL("DROP TABLE `messagev3`")
+            database.execSQL("ALTER TABLE `messagev3_new` RENAME TO `messagev3`")
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_messagev3_ID` ON `messagev3` (`ID`)")
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_messagev3_Location` ON `messagev3` (`Location`)")
+            database.execSQL(
+                "CREATE INDEX IF NOT EXISTS `index_messagev3_ConversationID` ON `messagev3` (`ConversationID`)"
+            )
+
+            database.execSQL(MessageBodyEntity.CREATE_DELETE_TRIGGER)
+        }
+    }
+
+    private fun SupportSQLiteDatabase.rewriteColumns(
+        table: String,
+        columns: List<String>,
+        reencode: (String) -> String
+    ) {
+        var rewrittenRows = 0
+        val projection = columns.joinToString { column -> "`$column`" }
+        query("SELECT rowid, $projection FROM `$table`").use { cursor ->
+            while (cursor.moveToNext()) {
+                val values = ContentValues(columns.size)
+                columns.forEachIndexed { index, column ->
+                    val value = cursor.getString(index + 1)
+                    if (value != null && CompactColumnCodec.isCompact(value).not()) {
+                        values.put(column, reencode(value))
+                    }
+                }
+                if (values.size() > 0) {
+                    update(table, SQLiteDatabase.CONFLICT_NONE, values, "rowid = ?", arrayOf(cursor.getLong(0)))
+                    rewrittenRows++
+                }
+            }
+        }
+        Timber.v("Rewritten $rewrittenRows rows of $table")
+    }
+}
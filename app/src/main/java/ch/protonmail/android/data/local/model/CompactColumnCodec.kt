@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.data.local.model
+
+import android.util.Base64
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.mailbox.data.local.model.LabelContextDatabaseModel
+import com.google.gson.Gson
+import timber.log.Timber
+import java.io.ByteArrayInputStream
+import java.io.ObjectInputStream
+
+private const val MARKER = '~'
+private const val VERSION = '1'
+private const val NULL = '_'
+private const val LENGTH_SEPARATOR = ':'
+private const val NUMBER_TERMINATOR = ';'
+private const val ESTIMATED_ITEM_LENGTH = 48
+
+/**
+ * Versioned text codec for the list columns of Messages and Conversations.
+ *
+ * An encoded value starts with [MARKER] followed by [VERSION] and the number of items, then the fields of each item in
+ *  a fixed order. Strings are written as `<length>:<chars>`, numbers as `<digits>;` and nulls as [NULL], so reading a
+ *  value is a single scan with no reflection and no escaping.
+ *
+ * Values that don't start with [MARKER] were written by the previous converters (Base64 Java serialization for
+ *  recipients, Gson for senders and label contexts) and are decoded with them, so rows not yet migrated stay readable.
+ */
+internal object CompactColumnCodec {
+
+    private val legacyGson by lazy { Gson() }
+
+    fun encodeRecipients(recipients: List<MessageRecipient>): String =
+        encode(recipients) { writeRecipient(it) }
+
+    fun decodeRecipients(value: String): List<MessageRecipient> =
+        if (isCompact(value)) decode(value) { readRecipient() }
+        else decodeLegacyRecipients(value)
+
+    fun encodeSenders(senders: List<MessageSender>): String =
+        encode(senders) { sender ->
+            writeString(sender.name)
+            writeString(sender.emailAddress)
+            writeBoolean(sender.isProton)
+        }
+
+    fun decodeSenders(value: String): List<MessageSender> =
+        if (isCompact(value)) decode(value) { MessageSender(readString(), readString(), readBoolean()) }
+        else decodeLegacyJson(value, Array<MessageSender>::class.java)
+
+    fun encodeLabelContexts(labelContexts: List<LabelContextDatabaseModel>): String =
+        encode(labelContexts) { labelContext ->
+            writeString(labelContext.id)
+            writeLong(labelContext.contextNumUnread.toLong())
+            writeLong(labelContext.contextNumMessages.toLong())
+            writeLong(labelContext.contextTime)
+            writeLong(labelContext.contextSize.toLong())
+            writeLong(labelContext.contextNumAttachments.toLong())
+        }
+
+    fun decodeLabelContexts(value: String): List<LabelContextDatabaseModel> =
+        if (isCompact(value)) decode(value) {
+            LabelContextDatabaseModel(
+                id = requireNotNull(readString()),
+                contextNumUnread = readLong().toInt(),
+                contextNumMessages = readLong().toInt(),
+                contextTime = readLong(),
+                contextSize = readLong().toInt(),
+                contextNumAttachments = readLong().toInt()
+            )
+        }
+        else decodeLegacyJson(value, Array<LabelContextDatabaseModel>::class.java)
+
+    fun isCompact(value: String) =
+        value.isNotEmpty() && value[0] == MARKER
+
+    // Every field is written, as Java serialization did, so drafts keep their groups once reloaded
+    private fun Writer.writeRecipient(recipient: MessageRecipient) {
+        writeString(recipient.name)
+        writeString(recipient.emailAddress)
+        writeString(recipient.group)
+        writeLong(recipient.groupIcon.toLong())
+        writeLong(recipient.groupColor.toLong())
+        writeRecipients(recipient.groupRecipients)
+        writeLong(recipient.icon.toLong())
+        writeLong(recipient.iconColor.toLong())
+        writeLong(recipient.description.toLong())
+        writeBoolean(recipient.isPGP)
+        writeBoolean(recipient.isSelected)
+    }
+
+    private fun Writer.writeRecipients(recipients: List<MessageRecipient>?) {
+        if (recipients == null) {
+            writeNull()
+            return
+        }
+        writeLong(recipients.size.toLong())
+        recipients.forEach { writeRecipient(it) }
+    }
+
+    private fun Reader.readRecipient(): MessageRecipient =
+        MessageRecipient(readString(), readString(), readString()).apply {
+            groupIcon = readLong().toInt()
+            groupColor = readLong().toInt()
+            groupRecipients = readRecipients()
+            icon = readLong().toInt()
+            iconColor = readLong().toInt()
+            description = readLong().toInt()
+            setIsPGP(readBoolean())
+            isSelected = readBoolean()
+        }
+
+    private fun Reader.readRecipients(): List<MessageRecipient>? {
+        if (readNull()) return null
+        val size = readLong().toInt()
+        return List(size) { readRecipient() }
+    }
+
+    private inline fun <T> encode(items: List<T>, writeItem: Writer.(T) -> Unit): String {
+        val writer = Writer(StringBuilder(items.size * ESTIMATED_ITEM_LENGTH + 8))
+        writer.writeHeader(items.size)
+        for (item in items) {
+            writer.writeItem(item)
+        }
+        return writer.toString()
+    }
+
+    private inline fun <T> decode(value: String, readItem: Reader.() -> T): List<T> =
+        try {
+            val reader = Reader(value)
+            val size = reader.readHeader()
+            List(size) { reader.readItem() }
+        } catch (e: IllegalArgumentException) {
+            Timber.i(e, "Decoding of column value failed")
+            emptyList()
+        } catch (e: IndexOutOfBoundsException) {
+            Timber.i(e, "Decoding of column value failed")
+            emptyList()
+        }
+
+    private fun decodeLegacyRecipients(value: String): List<MessageRecipient> =
+        try {
+            val decoded = Base64.decode(value, Base64.DEFAULT)
+            @Suppress("UNCHECKED_CAST")
+            ObjectInputStream(ByteArrayInputStream(decoded)).use { it.readObject() as List<MessageRecipient> }
+        } catch (e: Exception) {
+            Timber.i(e, "Deserialization of recipients failed")
+            emptyList()
+        }
+
+    private fun <T> decodeLegacyJson(value: String, arrayClass: Class<Array<T>>): List<T> =
+        legacyGson.fromJson(value, arrayClass)?.asList() ?: emptyList()
+
+    private class Writer(private val builder: StringBuilder) {
+
+        fun writeHeader(size: Int) {
+            builder.append(MARKER).append(VERSION)
+            writeLong(size.toLong())
+        }
+
+        fun writeString(value: String?) {
+            if (value == null) {
+                writeNull()
+                return
+            }
+            builder.append(value.length).append(LENGTH_SEPARATOR).append(value)
+        }
+
+        fun writeLong(value: Long) {
+            builder.append(value).append(NUMBER_TERMINATOR)
+        }
+
+        fun writeBoolean(value: Boolean) {
+            writeLong(if (value) 1 else 0)
+        }
+
+        fun writeNull() {
+            builder.append(NULL)
+        }
+
+        override fun toString() = builder.toString()
+    }
+
+    private class Reader(private val value: String) {
+
+        private var position = 0
+
+        fun readHeader(): Int {
+            require(value[position++] == MARKER) { "Missing marker" }
+            val version = value[position++]
+            require(version == VERSION) { "Unsupported version $version" }
+            return readLong().toInt()
+        }
+
+        fun readString(): String? {
+            if (readNull()) return null
+            val length = readNumber(LENGTH_SEPARATOR).toInt()
+            val start = position
+            position += length
+            return value.substring(start, position)
+        }
+
+        fun readLong(): Long =
+            readNumber(NUMBER_TERMINATOR)
+
+        fun readBoolean(): Boolean =
+            readLong() != 0L
+
+        fun readNull(): Boolean {
+            if (value[position] != NULL) return false
+            position++
+            return true
+        }
+
+        private fun readNumber(terminator: Char): Long {
+            val negative = value[position] == '-'
+            if (negative) position++
+            var result = 0L
+            var char = value[position++]
+            while (char != terminator) {
+                require(char in '0'..'9') { "Unexpected character '$char' at ${position - 1}" }
+                result = result * 10 + (char - '0')
+                char = value[position++]
+            }
+            return if (negative) -result else result
+        }
+    }
+}
@@ -46,20 +46,19 @@ import ch.protonmail.android.crypto.AddressCrypto
 import ch.protonmail.android.crypto.CipherText
 import ch.protonmail.android.crypto.Crypto
 import ch.protonmail.android.data.local.MessageDao
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.domain.util.checkNotBlank
 import ch.protonmail.android.labels.domain.LabelRepository
 import ch.protonmail.android.labels.domain.model.LabelId
 import ch.protonmail.android.labels.domain.model.LabelType
 import ch.protonmail.android.utils.MessageUtils
-import ch.protonmail.android.utils.UiUtil
+import ch.protonmail.android.utils.PlainTextHtmlRenderer
 import ch.protonmail.android.utils.crypto.KeyInformation
 import com.google.gson.annotations.SerializedName
 import kotlinx.coroutines.flow.first
-import kotlinx.coroutines.runBlocking
 import me.proton.core.domain.entity.UserId
 import me.proton.core.user.domain.entity.AddressId
 import me.proton.core.util.kotlin.toInt
-import org.apache.commons.lang3.StringEscapeUtils
 import timber.log.Timber
 import java.io.Serializable
 import java.util.concurrent.TimeUnit
@@ -159,7 +158,8 @@ data class Message @JvmOverloads constructor(
     @ColumnInfo(name = COLUMN_MESSAGE_IS_FORWARDED)
     var isForwarded: Boolean? = null,
 
-    @ColumnInfo(name = COLUMN_MESSAGE_BODY)
+    // Stored in MessageBodyEntity, so the list queries never read it
+    @Ignore
     var messageBody: String? = null,
 
     @ColumnInfo(name = COLUMN_MESSAGE_IS_DOWNLOADED)
@@ -183,7 +183,8 @@ data class Message @JvmOverloads constructor(
     @ColumnInfo(name = COLUMN_MESSAGE_ACCESS_TIME)
     var accessTime: Long = 0,
 
-    @ColumnInfo(name = COLUMN_MESSAGE_HEADER)
+    // Stored in MessageBodyEntity, together with the body
+    @Ignore
     var header: String? = null,
 
     @SerializedName(COLUMN_MESSAGE_PARSED_HEADERS)
@@ -230,6 +231,13 @@ data class Message @JvmOverloads constructor(
     @Ignore
     var decryptedBody: String? = null
 
+    /**
+     * `true` if [decryptedHTML] has already been processed by the default HTML transformer, e.g. when it has been
+     *  prefetched
+     */
+    @Ignore
+    var isDecryptedHtmlSanitized: Boolean = false
+
     @Ignore
     var hasValidSignature: Boolean = false
 
@@ -239,6 +247,14 @@ data class Message @JvmOverloads constructor(
     @Ignore
     var embeddedImageIds = listOf<String>()
 
+    /**
+     * `true` if it has been read from a [MessageListItem], so it misses some columns, which are kept from the stored
+     *  Message when it's saved
+     */
+    @Ignore
+    var isListItemProjection: Boolean = false
+        internal set
+
     @PrimaryKey(autoGenerate = true)
     @ColumnInfo(name = BaseColumns._ID)
     var dbId: Long? = null
@@ -340,6 +356,17 @@ data class Message @JvmOverloads constructor(
         }
     }
 
+    /**
+     * A copy of this Message that also carries the fields that are not part of the constructor, so it can be decrypted
+     *  without touching this instance
+     */
+    fun copyForDecryption(): Message = copy().also { message ->
+        message.dbId = dbId
+        message.senderDisplayName = senderDisplayName
+        message.embeddedImageIds = embeddedImageIds
+        message.setAttachmentList(attachments)
+    }
+
     fun setEmbeddedImagesArray(decryptedMessage: String) {
         val pattern = Pattern.compile("cid:[\\w$&+,:;=?@#|'<>.^*()%!\\-]*")
         val matcher = pattern.matcher(decryptedMessage)
@@ -358,7 +385,7 @@ data class Message @JvmOverloads constructor(
 
     @WorkerThread
     @Deprecated("We target removing all logic from Models. `MessageDao` can be used to get attachments instead")
-    fun attachmentsBlocking(messageDao: MessageDao): List<Attachment> = runBlocking {
+    fun attachmentsBlocking(messageDao: MessageDao): List<Attachment> = runBlockingMonitored {
         attachments(messageDao)
     }
 
@@ -452,9 +479,7 @@ data class Message @JvmOverloads constructor(
 
         decryptedBody = body
         if (Constants.MIME_TYPE_PLAIN_TEXT == mimetype) {
-            body = StringEscapeUtils.escapeHtml4(body)
-            body = body!!.replace("(\r\n|\r|\n|\n\r)".toRegex(), "<br>")
-            body = UiUtil.createLinks(body)
+            body = PlainTextHtmlRenderer.render(body!!)
         }
 
         setEmbeddedImagesArray(body!!)
@@ -509,9 +534,7 @@ data class Message @JvmOverloads constructor(
         val mimeType = this.mimeType
 
         if (Constants.MIME_TYPE_PLAIN_TEXT == mimeType) {
-            decryptedMessage = StringEscapeUtils.escapeHtml4(decryptedMessage)
-            decryptedMessage = decryptedMessage.replace("(\r\n|\r|\n|\n\r)".toRegex(), "<br>")
-            decryptedMessage = UiUtil.createLinks(decryptedMessage)
+            decryptedMessage = PlainTextHtmlRenderer.render(decryptedMessage)
         }
 
         setEmbeddedImagesArray(decryptedMessage)
@@ -536,7 +559,7 @@ data class Message @JvmOverloads constructor(
 
     fun setFolderLocation(labelRepository: LabelRepository) {
         for (labelId in allLabelIDs) {
-            runBlocking {
+            runBlockingMonitored {
                 val label = labelRepository.findLabel(LabelId(labelId))
                 if (label != null && label.type == LabelType.FOLDER) {
                     folderLocation = label.id.id
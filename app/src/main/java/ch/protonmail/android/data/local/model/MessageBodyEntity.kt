@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.data.local.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+import ch.protonmail.android.data.local.model.MessageBodyEntity.Companion.TABLE_MESSAGE_BODIES
+
+/**
+ * The encrypted body and the raw headers of a [Message], kept apart from the Messages table so the queries for the
+ *  mailbox never read them. Rows are deleted together with their Message by [CREATE_DELETE_TRIGGER]
+ */
+@Entity(
+    tableName = TABLE_MESSAGE_BODIES
+)
+data class MessageBodyEntity(
+
+    @PrimaryKey
+    @ColumnInfo(name = COLUMN_BODY_MESSAGE_ID)
+    val messageId: String,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_BODY)
+    val body: String?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_HEADER)
+    val header: String?
+) {
+
+    companion object {
+
+        const val TABLE_MESSAGE_BODIES = "message_bodies"
+        const val COLUMN_BODY_MESSAGE_ID = "MessageID"
+
+        /**
+         * Deletes the body when its Message is deleted. Rows replaced by an insert with `REPLACE` conflict strategy
+         *  don't fire delete triggers, so saving a Message without its body keeps the stored one
+         */
+        const val CREATE_DELETE_TRIGGER = """
+            CREATE TRIGGER IF NOT EXISTS `delete_message_body`
+            AFTER DELETE ON `$TABLE_MESSAGES`
+            BEGIN
+              DELETE FROM `$TABLE_MESSAGE_BODIES` WHERE `$COLUMN_BODY_MESSAGE_ID` = OLD.`$COLUMN_MESSAGE_ID`;
+            END
+        """
+    }
+}
+
+internal fun Message.toBodyEntityOrNull(): MessageBodyEntity? {
+    val messageId = messageId ?: return null
+    if (messageBody == null && header == null) return null
+    return MessageBodyEntity(messageId, messageBody, header)
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.data.local.model
+
+import android.provider.BaseColumns
+import androidx.room.ColumnInfo
+import androidx.room.Embedded
+import ch.protonmail.android.api.models.MessageRecipient
+
+/**
+ * Columns of [TABLE_MESSAGES] read by [MessageListItem], to be used in the `SELECT` of the list queries
+ */
+const val MESSAGE_LIST_ITEM_COLUMNS = """
+    ${BaseColumns._ID}, $COLUMN_MESSAGE_ID, $COLUMN_CONVERSATION_ID, $COLUMN_MESSAGE_SUBJECT, $COLUMN_MESSAGE_UNREAD,
+    $COLUMN_MESSAGE_TYPE, $COLUMN_MESSAGE_TIME, $COLUMN_MESSAGE_SIZE, $COLUMN_MESSAGE_LOCATION,
+    $COLUMN_MESSAGE_FOLDER_LOCATION, $COLUMN_MESSAGE_IS_STARRED, $COLUMN_MESSAGE_NUM_ATTACHMENTS,
+    $COLUMN_MESSAGE_EXPIRATION_TIME, $COLUMN_MESSAGE_IS_REPLIED, $COLUMN_MESSAGE_IS_REPLIED_ALL,
+    $COLUMN_MESSAGE_IS_FORWARDED, $COLUMN_MESSAGE_IS_DOWNLOADED, $COLUMN_MESSAGE_ADDRESS_ID,
+    $COLUMN_MESSAGE_INLINE_RESPONSE, $COLUMN_MESSAGE_LABELS, $COLUMN_MESSAGE_TO_LIST, $COLUMN_MESSAGE_CC_LIST,
+    $COLUMN_MESSAGE_BCC_LIST, $COLUMN_MESSAGE_FLAGS, `$COLUMN_MESSAGE_ORDER`,
+    ${COLUMN_MESSAGE_PREFIX_SENDER + COLUMN_MESSAGE_SENDER_NAME},
+    ${COLUMN_MESSAGE_PREFIX_SENDER + COLUMN_MESSAGE_SENDER_EMAIL},
+    ${COLUMN_MESSAGE_PREFIX_SENDER + COLUMN_MESSAGE_SENDER_IS_PROTON}
+"""
+
+/**
+ * Projection of a [Message] with only what the mailbox and the search render, so listing Messages doesn't read
+ *  their parsed headers, reply-to recipients nor other details
+ */
+data class MessageListItem(
+
+    @ColumnInfo(name = BaseColumns._ID)
+    val dbId: Long?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_ID)
+    val messageId: String?,
+
+    @ColumnInfo(name = COLUMN_CONVERSATION_ID)
+    val conversationId: String?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_SUBJECT)
+    val subject: String?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_UNREAD)
+    val unread: Boolean,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_TYPE)
+    val type: Message.MessageType,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_TIME)
+    val time: Long,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_SIZE)
+    val totalSize: Long,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_LOCATION)
+    val location: Int,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_FOLDER_LOCATION)
+    val folderLocation: String?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_IS_STARRED)
+    val isStarred: Boolean?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_NUM_ATTACHMENTS)
+    val numAttachments: Int,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_EXPIRATION_TIME)
+    val expirationTime: Long,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_IS_REPLIED)
+    val isReplied: Boolean?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_IS_REPLIED_ALL)
+    val isRepliedAll: Boolean?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_IS_FORWARDED)
+    val isForwarded: Boolean?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_IS_DOWNLOADED)
+    val isDownloaded: Boolean,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_ADDRESS_ID)
+    val addressId: String?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_INLINE_RESPONSE)
+    val isInline: Boolean,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_LABELS)
+    val allLabelIds: List<String>,
+
+    @JvmSuppressWildcards
+    @ColumnInfo(name = COLUMN_MESSAGE_TO_LIST)
+    val toList: List<MessageRecipient>,
+
+    @JvmSuppressWildcards
+    @ColumnInfo(name = COLUMN_MESSAGE_CC_LIST)
+    val ccList: List<MessageRecipient>,
+
+    @JvmSuppressWildcards
+    @ColumnInfo(name = COLUMN_MESSAGE_BCC_LIST)
+    val bccList: List<MessageRecipient>,
+
+    @Embedded(prefix = COLUMN_MESSAGE_PREFIX_SENDER)
+    val sender: MessageSender?,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_FLAGS)
+    val flags: Long,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_ORDER)
+    val order: Long
+) {
+
+    /**
+     * @return a [Message] with the fields of this projection, its body, headers and other details are not set, but
+     *  saving it keeps the stored ones
+     */
+    fun toMessage() = Message(
+        messageId = messageId,
+        conversationId = conversationId,
+        subject = subject,
+        Unread = unread,
+        Type = type,
+        time = time,
+        totalSize = totalSize,
+        location = location,
+        folderLocation = folderLocation,
+        isStarred = isStarred,
+        numAttachments = numAttachments,
+        expirationTime = expirationTime,
+        isReplied = isReplied,
+        isRepliedAll = isRepliedAll,
+        isForwarded = isForwarded,
+        isDownloaded = isDownloaded,
+        addressID = addressId,
+        isInline = isInline,
+        allLabelIDs = allLabelIds,
+        toList = toList,
+        ccList = ccList,
+        bccList = bccList,
+        sender = sender,
+        flags = flags,
+        order = order
+    ).also { message ->
+        message.dbId = dbId
+        message.isListItemProjection = true
+    }
+}
@@ -17,9 +17,21 @@
  * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
  */
 
-package ch.protonmail.android.details.domain.model
+package ch.protonmail.android.data.local.model
 
-data class MessageEmbeddedImagesWithOutputStream(
+import androidx.room.ColumnInfo
+
+/**
+ * Projection of a [Message] with what its contribution to the unread counters depends on
+ */
+data class MessageUnreadState(
+
+    @ColumnInfo(name = COLUMN_MESSAGE_ID)
     val messageId: String,
-    val images: List<EmbeddedImageWithOutputStream>
+
+    @ColumnInfo(name = COLUMN_MESSAGE_UNREAD)
+    val unread: Boolean,
+
+    @ColumnInfo(name = COLUMN_MESSAGE_LABELS)
+    val labelIds: List<String>
 )
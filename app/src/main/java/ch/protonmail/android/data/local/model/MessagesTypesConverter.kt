@@ -18,17 +18,12 @@
  */
 package ch.protonmail.android.data.local.model
 
-import android.util.Base64
 import androidx.room.TypeConverter
 import ch.protonmail.android.api.models.MessageRecipient
 import ch.protonmail.android.api.models.enumerations.MessageEncryption
 import ch.protonmail.android.api.models.messages.ParsedHeaders
-import ch.protonmail.android.utils.FileUtils
 import me.proton.core.util.kotlin.deserialize
 import me.proton.core.util.kotlin.serialize
-import timber.log.Timber
-import java.io.ByteArrayInputStream
-import java.io.ObjectInputStream
 
 class MessagesTypesConverter {
 
@@ -49,24 +44,11 @@ class MessagesTypesConverter {
 
     @TypeConverter
     fun messageRecipientsListToString(messageRecipient: List<MessageRecipient>?): String? =
-        messageRecipient?.let(FileUtils::toString)
+        messageRecipient?.let(CompactColumnCodec::encodeRecipients)
 
     @TypeConverter
-    fun stringToMessageRecipientsList(messageRecipientString: String?): List<MessageRecipient>? {
-        messageRecipientString ?: return null
-
-        val decoded = Base64.decode(messageRecipientString.toByteArray(), Base64.DEFAULT)
-        val inputStream = ByteArrayInputStream(decoded)
-
-        return try {
-            @Suppress("UNCHECKED_CAST")
-            ObjectInputStream(inputStream).readObject() as List<MessageRecipient>
-
-        } catch (e: Exception) {
-            Timber.i(e, "Deserialization of recipients failed")
-            emptyList()
-        }
-    }
+    fun stringToMessageRecipientsList(messageRecipientString: String?): List<MessageRecipient>? =
+        messageRecipientString?.let(CompactColumnCodec::decodeRecipients)
 
     @TypeConverter
     fun messageTypeToInt(messageType: Message.MessageType): Int =
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.local
+
+import android.graphics.Bitmap
+import android.util.Base64
+import ch.protonmail.android.activities.messageDetails.ImageDecoder
+import ch.protonmail.android.di.AttachmentsDirectory
+import ch.protonmail.android.jobs.helper.EmbeddedImage
+import me.proton.core.domain.entity.UserId
+import timber.log.Timber
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.InputStream
+import java.util.UUID
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/** Scheme of the URLs of the embedded images, it's private to the app so it never reaches the network */
+const val EMBEDDED_IMAGE_URL_SCHEME = "pm-embedded-image"
+
+private const val EMBEDDED_IMAGE_URL_PREFIX = "$EMBEDDED_IMAGE_URL_SCHEME://"
+
+/** Max number of images that can be served at the same time */
+private const val MAX_REGISTERED_IMAGES = 500
+
+/** A count of bytes representing the maximum size of a single image to serve without downscaling it */
+private const val MAX_IMAGE_SINGLE_SIZE = 1_048_576 // 1 MB
+
+/** A count of bytes representing the maximum total size of the downscaled images kept in memory */
+private const val MAX_DOWNSCALED_IMAGES_TOTAL_SIZE = 9_437_184 // 9 MB
+
+/**
+ * Serves the embedded images of the messages, from the decrypted attachments in [AttachmentsDirectory], to the
+ *  WebView that displays the message body.
+ *
+ * Embedded images are [Scope.register]ed with a URL, that is set in the message body in place of their `cid:`, and
+ *  their content is [Scope.open]ed only when the WebView requests it, so the body doesn't need to contain the images.
+ * Registrations belong to a [Scope], one for each user and renderer, and their URLs are made of random tokens, so a
+ *  message body can neither guess them nor load the images registered by another [Scope].
+ * Images bigger than [MAX_IMAGE_SINGLE_SIZE] are downscaled when first requested, and kept in memory.
+ * The URLs are only understood by the WebViews that intercept them, so bodies that leave the message details, e.g.
+ *  when printing or quoting the message, must go through [Scope.inlineAsDataUris] first.
+ */
+@Singleton
+class EmbeddedImagesStore @Inject internal constructor(
+    @AttachmentsDirectory private val attachmentsDirectory: File,
+    private val imageDecoder: ImageDecoder
+) {
+
+    private val registrationsByUrl = object : LinkedHashMap<String, Registration>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Registration>) =
+            size > MAX_REGISTERED_IMAGES
+    }
+
+    private val downscaledImagesByUrl = LinkedHashMap<String, ByteArray>(16, 0.75f, true)
+    private var downscaledImagesTotalSize = 0
+
+    /**
+     * @return a new [Scope] for the images displayed by a single renderer, for the user with the given [userId]
+     */
+    fun newScope(userId: UserId) = Scope(userId, randomToken())
+
+    fun isEmbeddedImageUrl(url: String) =
+        url.startsWith(EMBEDDED_IMAGE_URL_PREFIX, ignoreCase = true)
+
+    @Synchronized
+    private fun registerIn(scope: Scope, image: EmbeddedImage): String {
+        val url = scope.urlPrefix + randomToken()
+        registrationsByUrl[url] = Registration(scope.userId, image)
+        return url
+    }
+
+    private fun openIn(scope: Scope, url: String): EmbeddedImageContent? {
+        val image = findIn(scope, url) ?: return null
+        val file = image.localFileName
+            ?.let { File(File(attachmentsDirectory, image.messageId), it) }
+            ?.takeIf { it.exists() && it.length() > 0 }
+            ?: return null
+
+        if (file.length() <= MAX_IMAGE_SINGLE_SIZE) {
+            return EmbeddedImageContent(image.contentType.formatContentType(), file.inputStream().buffered())
+        }
+
+        val downscaled = synchronized(this) { downscaledImagesByUrl[url] }
+            ?: downscale(file)?.also { cacheDownscaled(url, it) }
+            ?: return null
+        return EmbeddedImageContent(DOWNSCALED_IMAGE_CONTENT_TYPE, ByteArrayInputStream(downscaled))
+    }
+
+    @Synchronized
+    private fun findIn(scope: Scope, url: String): EmbeddedImage? {
+        if (!url.startsWith(scope.urlPrefix)) return null
+        return registrationsByUrl[url]?.takeIf { it.userId == scope.userId }?.image
+    }
+
+    @Synchronized
+    private fun removeAllIn(scope: Scope) {
+        registrationsByUrl.keys.removeAll { it.startsWith(scope.urlPrefix) }
+        val downscaled = downscaledImagesByUrl.entries.filter { it.key.startsWith(scope.urlPrefix) }
+        downscaled.forEach { (url, bytes) ->
+            downscaledImagesByUrl.remove(url)
+            downscaledImagesTotalSize -= bytes.size
+        }
+    }
+
+    private fun downscale(file: File): ByteArray? = try {
+        ByteArrayOutputStream().use { stream ->
+            // The file could be corrupted even if exists and it's not empty
+            val bitmap = imageDecoder(file, MAX_IMAGE_SINGLE_SIZE)
+            bitmap.compress(Bitmap.CompressFormat.WEBP, DOWNSCALED_IMAGE_QUALITY, stream)
+            bitmap.recycle()
+            stream.toByteArray()
+        }
+    } catch (t: Throwable) {
+        Timber.i(t, "Cannot downscale embedded image")
+        null
+    }
+
+    @Synchronized
+    private fun cacheDownscaled(url: String, bytes: ByteArray) {
+        downscaledImagesByUrl.put(url, bytes)?.let { downscaledImagesTotalSize -= it.size }
+        downscaledImagesTotalSize += bytes.size
+        val iterator = downscaledImagesByUrl.values.iterator()
+        while (downscaledImagesTotalSize > MAX_DOWNSCALED_IMAGES_TOTAL_SIZE && iterator.hasNext()) {
+            downscaledImagesTotalSize -= iterator.next().size
+            iterator.remove()
+        }
+    }
+
+    private fun randomToken() = UUID.randomUUID().toString()
+    private fun String.formatContentId() = trimStart('<').trimEnd('>')
+    private fun String.formatContentType() = lowercase()
+        .replace("\r", "").replace("\n", "")
+        .replaceFirst(";.*$".toRegex(), "")
+
+    /**
+     * Images registered by a single renderer for the user with the given [userId]. Only the WebViews of that renderer
+     *  must be given the [Scope], and it must be [close]d when the renderer is not used anymore
+     */
+    inner class Scope internal constructor(
+        val userId: UserId,
+        token: String
+    ) {
+
+        internal val urlPrefix = "$EMBEDDED_IMAGE_URL_PREFIX$token/"
+
+        /** Matches the URLs of the images of this scope */
+        private val urlRegex = "${Regex.escape(urlPrefix)}[\\w-]+".toRegex()
+
+        /**
+         * @return the URL that serves the content of the given [image]
+         */
+        fun register(image: EmbeddedImage): String = registerIn(this, image)
+
+        fun isEmbeddedImageUrl(url: String) = this@EmbeddedImagesStore.isEmbeddedImageUrl(url)
+
+        /**
+         * Opens the content of the image registered with the given [url] in this scope.
+         * It is blocking, as it is meant to be called from the WebView's thread for intercepting requests
+         *
+         * @return [EmbeddedImageContent] or `null` if no image is registered with the given [url] in this scope, or
+         *  it's not available
+         */
+        fun open(url: String): EmbeddedImageContent? = openIn(this, url)
+
+        /**
+         * Replaces the URLs of the embedded images in the given [html] with `data:` URIs holding their content, as the
+         *  images used to be inlined before being served on demand.
+         * Images that are not available anymore get back their `cid:` reference.
+         * It is blocking, as it reads the images from the storage
+         */
+        fun inlineAsDataUris(html: String): String =
+            urlRegex.replace(html) { match ->
+                val image = findIn(this, match.value) ?: return@replace match.value
+                val content = open(match.value)
+                    ?: return@replace "cid:${image.contentId.formatContentId()}"
+                val base64 = content.inputStream.use { Base64.encodeToString(it.readBytes(), Base64.NO_WRAP) }
+                "data:${content.mimeType};base64,$base64"
+            }
+
+        /** Unregisters all the images of this scope */
+        fun close() {
+            removeAllIn(this)
+        }
+    }
+
+    private class Registration(
+        val userId: UserId,
+        val image: EmbeddedImage
+    )
+
+    private companion object {
+
+        const val DOWNSCALED_IMAGE_CONTENT_TYPE = "image/webp"
+        const val DOWNSCALED_IMAGE_QUALITY = 80
+    }
+}
+
+/**
+ * @property inputStream the content of the image, it must be closed by the receiver
+ */
+class EmbeddedImageContent(
+    val mimeType: String,
+    val inputStream: InputStream
+)
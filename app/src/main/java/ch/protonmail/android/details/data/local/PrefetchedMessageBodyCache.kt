@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.local
+
+import android.content.Context
+import ch.protonmail.android.details.domain.model.PrefetchedMessageBody
+import kotlinx.coroutines.withContext
+import kotlinx.serialization.json.Json
+import me.proton.core.crypto.common.keystore.KeyStoreCrypto
+import me.proton.core.domain.entity.UserId
+import me.proton.core.util.kotlin.DispatcherProvider
+import timber.log.Timber
+import java.io.File
+import java.util.concurrent.TimeUnit
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val DIR_PREFETCHED_MESSAGE_BODIES = "prefetched_message_bodies"
+private const val MAX_ENTRIES_PER_USER = 20
+private val ENTRY_TTL_MS = TimeUnit.MINUTES.toMillis(30)
+
+/**
+ * Short lived cache for the Message bodies decrypted ahead of time.
+ *
+ * Entries are stored in the cache directory, encrypted with [KeyStoreCrypto], and they expire [ENTRY_TTL_MS]
+ *  after they have been written. At most [MAX_ENTRIES_PER_USER] entries are kept for each user.
+ */
+@Singleton
+class PrefetchedMessageBodyCache @Inject constructor(
+    private val context: Context,
+    private val keyStoreCrypto: KeyStoreCrypto,
+    private val dispatchers: DispatcherProvider
+) {
+
+    suspend fun get(userId: UserId, messageId: String): PrefetchedMessageBody? = withContext(dispatchers.Io) {
+        val file = entryFile(userId, messageId)
+        if (file.exists().not()) return@withContext null
+        if (file.isExpired()) {
+            file.delete()
+            return@withContext null
+        }
+
+        runCatching {
+            Json.decodeFromString(PrefetchedMessageBody.serializer(), keyStoreCrypto.decrypt(file.readText()))
+        }.onFailure {
+            Timber.w(it, "Cannot read prefetched body for message $messageId")
+            file.delete()
+        }.getOrNull()
+    }
+
+    suspend fun contains(userId: UserId, messageId: String): Boolean = withContext(dispatchers.Io) {
+        val file = entryFile(userId, messageId)
+        file.exists() && file.isExpired().not()
+    }
+
+    suspend fun put(userId: UserId, body: PrefetchedMessageBody) {
+        withContext(dispatchers.Io) {
+            val json = Json.encodeToString(PrefetchedMessageBody.serializer(), body)
+            entryFile(userId, body.messageId).writeText(keyStoreCrypto.encrypt(json))
+            trim(userId)
+        }
+    }
+
+    suspend fun remove(userId: UserId, messageId: String) {
+        withContext(dispatchers.Io) {
+            entryFile(userId, messageId).delete()
+        }
+    }
+
+    suspend fun clear(userId: UserId) {
+        withContext(dispatchers.Io) {
+            userDirectory(userId).deleteRecursively()
+        }
+    }
+
+    /**
+     * Delete the expired entries and the oldest ones exceeding [MAX_ENTRIES_PER_USER]
+     */
+    private fun trim(userId: UserId) {
+        val (expired, valid) = userDirectory(userId).listFiles().orEmpty().partition { it.isExpired() }
+        expired.forEach { it.delete() }
+        valid.sortedByDescending { it.lastModified() }
+            .drop(MAX_ENTRIES_PER_USER)
+            .forEach { it.delete() }
+    }
+
+    private fun entryFile(userId: UserId, messageId: String) =
+        File(userDirectory(userId), messageId.toFileName())
+
+    private fun userDirectory(userId: UserId) =
+        File(File(context.cacheDir, DIR_PREFETCHED_MESSAGE_BODIES), userId.id.toFileName()).apply { mkdirs() }
+
+    // Ids are base64 encoded, so we replace the only character that is not allowed in a file name
+    private fun String.toFileName() = replace('/', '_')
+
+    private fun File.isExpired() =
+        System.currentTimeMillis() - lastModified() > ENTRY_TTL_MS
+}
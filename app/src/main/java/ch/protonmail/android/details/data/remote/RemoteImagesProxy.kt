@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.remote
+
+import android.content.Context
+import ch.protonmail.android.api.OkHttpProvider
+import me.proton.core.domain.entity.UserId
+import okhttp3.Call
+import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
+import okhttp3.Request
+import okio.ByteString.Companion.encodeUtf8
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val DIR_REMOTE_IMAGES = "remote_images"
+
+/** A count of bytes representing the maximum size of the images cached for a single user */
+private const val MAX_CACHE_SIZE_PER_USER = 52_428_800L // 50 MB
+
+/** A count of bytes representing the maximum size of a single resource loaded through the proxy */
+private const val MAX_RESOURCE_SIZE = 5_242_880L // 5 MB
+
+/** Max number of resources fetched from the network at the same time */
+private const val MAX_CONCURRENT_FETCHES = 4
+
+private const val TIMEOUT_SECONDS = 30L
+
+/**
+ * Loads the remote resources of the message bodies, once the user allowed remote content, so they don't need to be
+ *  downloaded again every time a message is opened.
+ *
+ * Resources are fetched with a client derived from [OkHttpProvider.rootClient], without cookies, referrer nor any
+ *  header from the WebView, and at most [MAX_CONCURRENT_FETCHES] at the same time; concurrent requests for the same
+ *  resource share the same fetch.
+ * Images are stored into a disk cache, of at most [MAX_CACHE_SIZE_PER_USER] per user, evicting the least recently
+ *  used ones.
+ */
+@Singleton
+class RemoteImagesProxy internal constructor(
+    private val cacheDirectory: File,
+    private val callFactory: Call.Factory
+) {
+
+    @Inject
+    constructor(context: Context, okHttpProvider: OkHttpProvider) : this(
+        File(context.cacheDir, DIR_REMOTE_IMAGES),
+        okHttpProvider.rootClient.newBuilder()
+            .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .build()
+    )
+
+    private val fetchPermits = Semaphore(MAX_CONCURRENT_FETCHES)
+    private val inFlightLoads = ConcurrentHashMap<String, FutureTask<RemoteResource?>>()
+    private val hitCount = AtomicLong()
+    private val missCount = AtomicLong()
+
+    /**
+     * Count of the calls to [load] that returned a cached image
+     */
+    val hits: Long
+        get() = hitCount.get()
+
+    /**
+     * Count of the calls to [load] that needed to fetch the resource
+     */
+    val misses: Long
+        get() = missCount.get()
+
+    /**
+     * Summary of [hits] and [misses], for logging
+     */
+    val cacheStats: String
+        get() = "cache hits: $hits, misses: $misses"
+
+    /**
+     * Loads the resource at the given [url], from the cache of the given user if available.
+     * It is blocking, as it is meant to be called from the WebView's thread for intercepting requests
+     *
+     * @return [RemoteResource] or `null` if [url] is not an http(s) URL or the resource cannot be loaded, in which
+     *  case the WebView should load it by itself
+     */
+    fun load(userId: UserId, url: String): RemoteResource? {
+        val httpUrl = url.toHttpUrlOrNull() ?: return null
+        val file = cacheFile(userId, url)
+
+        read(file)?.let { cached ->
+            hitCount.incrementAndGet()
+            Timber.v("Remote resource loaded from the cache, $cacheStats")
+            return cached
+        }
+        missCount.incrementAndGet()
+        Timber.v("Remote resource not cached, $cacheStats")
+
+        val load = FutureTask<RemoteResource?> { fetch(httpUrl.toString())?.also { write(userId, file, it) } }
+        val inFlightLoad = inFlightLoads.putIfAbsent(file.path, load)
+        return try {
+            if (inFlightLoad == null) {
+                load.run()
+                load.get()
+            } else {
+                inFlightLoad.get()
+            }
+        } catch (e: ExecutionException) {
+            Timber.i(e.cause, "Cannot load remote resource")
+            null
+        } finally {
+            if (inFlightLoad == null) inFlightLoads.remove(file.path)
+        }
+    }
+
+    private fun fetch(url: String): RemoteResource? {
+        // Only the URL is forwarded, the WebView's headers could identify the user
+        val request = Request.Builder()
+            .url(url)
+            .header("Accept", "image/*,*/*;q=0.8")
+            .build()
+
+        fetchPermits.acquire()
+        try {
+            callFactory.newCall(request).execute().use { response ->
+                val body = response.body
+                if (!response.isSuccessful || body == null) return null
+                val source = body.source()
+                if (body.contentLength() > MAX_RESOURCE_SIZE || source.request(MAX_RESOURCE_SIZE + 1)) {
+                    Timber.v("Remote resource is too big to be proxied")
+                    return null
+                }
+                val mimeType = body.contentType()?.let { "${it.type}/${it.subtype}" } ?: DEFAULT_MIME_TYPE
+                return RemoteResource(mimeType, source.buffer.readByteArray())
+            }
+        } catch (e: IOException) {
+            Timber.i(e, "Cannot fetch remote resource")
+            return null
+        } finally {
+            fetchPermits.release()
+        }
+    }
+
+    private fun read(file: File): RemoteResource? {
+        if (!file.exists()) return null
+        return try {
+            val bytes = file.readBytes()
+            val separatorIndex = bytes.indexOf(MIME_TYPE_SEPARATOR)
+            if (separatorIndex < 0) throw IOException("Missing mime type")
+            // Keep track of the access, for evicting the least recently used
+            file.setLastModified(System.currentTimeMillis())
+            RemoteResource(
+                mimeType = String(bytes, 0, separatorIndex, Charsets.UTF_8),
+                content = bytes.copyOfRange(separatorIndex + 1, bytes.size)
+            )
+        } catch (e: IOException) {
+            Timber.w(e, "Cannot read cached remote image")
+            file.delete()
+            null
+        }
+    }
+
+    private fun write(userId: UserId, file: File, resource: RemoteResource) {
+        // Other resources, like stylesheets, are small and rarely shared across messages
+        if (!resource.mimeType.startsWith(IMAGE_MIME_TYPE_PREFIX)) return
+        try {
+            file.parentFile?.mkdirs()
+            val tempFile = File(file.path + TEMP_FILE_SUFFIX)
+            tempFile.outputStream().use { stream ->
+                stream.write(resource.mimeType.toByteArray(Charsets.UTF_8))
+                stream.write(MIME_TYPE_SEPARATOR.toInt())
+                stream.write(resource.content)
+            }
+            if (!tempFile.renameTo(file)) tempFile.delete()
+            trim(userId)
+        } catch (e: IOException) {
+            Timber.w(e, "Cannot cache remote image")
+        }
+    }
+
+    /**
+     * Delete the least recently used images of the given user, until their size fits [MAX_CACHE_SIZE_PER_USER]
+     */
+    @Synchronized
+    private fun trim(userId: UserId) {
+        val files = userDirectory(userId).listFiles { file -> !file.name.endsWith(TEMP_FILE_SUFFIX) }
+            ?: return
+        var totalSize = files.sumOf { it.length() }
+        if (totalSize <= MAX_CACHE_SIZE_PER_USER) return
+
+        for (file in files.sortedBy { it.lastModified() }) {
+            if (totalSize <= MAX_CACHE_SIZE_PER_USER) break
+            val size = file.length()
+            if (file.delete()) totalSize -= size
+        }
+    }
+
+    private fun userDirectory(userId: UserId) =
+        File(cacheDirectory, userId.id.encodeUtf8().sha256().hex())
+
+    private fun cacheFile(userId: UserId, url: String) =
+        File(userDirectory(userId), url.encodeUtf8().sha256().hex())
+
+    private companion object {
+
+        const val DEFAULT_MIME_TYPE = "application/octet-stream"
+        const val IMAGE_MIME_TYPE_PREFIX = "image/"
+        const val MIME_TYPE_SEPARATOR: Byte = '\n'.code.toByte()
+        const val TEMP_FILE_SUFFIX = ".tmp"
+    }
+}
+
+class RemoteResource(
+    val mimeType: String,
+    val content: ByteArray
+)
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.remote.model
+
+import ch.protonmail.android.api.models.messages.receive.ServerMessage
+import ch.protonmail.android.api.utils.nextIntOrZero
+import ch.protonmail.android.api.utils.nextListOrNull
+import ch.protonmail.android.api.utils.readObject
+import ch.protonmail.android.mailbox.data.remote.model.ConversationApiModel
+import com.google.gson.Gson
+import com.google.gson.JsonParseException
+import com.google.gson.TypeAdapter
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+
+internal class ConversationResponseTypeAdapter(
+    gson: Gson,
+    private val delegate: TypeAdapter<ConversationResponse>
+) : TypeAdapter<ConversationResponse>() {
+
+    private val conversationAdapter = gson.getAdapter(ConversationApiModel::class.java)
+    private val messageAdapter = gson.getAdapter(ServerMessage::class.java)
+
+    override fun read(reader: JsonReader): ConversationResponse {
+        var total = 0
+        var conversation: ConversationApiModel? = null
+        var messages: List<ServerMessage>? = null
+        reader.readObject { name ->
+            when (name) {
+                "Total" -> total = reader.nextIntOrZero()
+                "Conversation" -> conversation = conversationAdapter.read(reader)
+                "Messages" -> messages = reader.nextListOrNull(messageAdapter)
+                else -> return@readObject false
+            }
+            true
+        }
+        return ConversationResponse(
+            total = total,
+            conversation = conversation ?: throw JsonParseException("Response without Conversation"),
+            messages = messages.orEmpty()
+        )
+    }
+
+    override fun write(writer: JsonWriter, value: ConversationResponse?) {
+        delegate.write(writer, value)
+    }
+}
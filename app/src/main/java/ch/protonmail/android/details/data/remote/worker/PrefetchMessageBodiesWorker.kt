@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.remote.worker
+
+import android.content.Context
+import androidx.hilt.work.HiltWorker
+import androidx.work.Constraints
+import androidx.work.CoroutineWorker
+import androidx.work.ExistingWorkPolicy
+import androidx.work.NetworkType
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.Operation
+import androidx.work.WorkManager
+import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import ch.protonmail.android.api.models.DatabaseProvider
+import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
+import ch.protonmail.android.details.domain.MessageBodyDecryptor
+import ch.protonmail.android.details.domain.model.MessageBodyPrefetchConfig
+import ch.protonmail.android.details.domain.model.PrefetchedMessageBody
+import ch.protonmail.android.repository.MessageRepository
+import ch.protonmail.android.usecase.fetch.FetchVerificationKeys
+import ch.protonmail.android.utils.HTMLTransformer.DefaultTransformer
+import dagger.assisted.Assisted
+import dagger.assisted.AssistedInject
+import me.proton.core.domain.entity.UserId
+import org.jsoup.Jsoup
+import timber.log.Timber
+import javax.inject.Inject
+import kotlin.coroutines.cancellation.CancellationException
+
+const val KEY_PREFETCH_BODIES_WORKER_USER_ID = "UserId"
+const val KEY_PREFETCH_BODIES_WORKER_LABEL_ID = "LabelId"
+const val KEY_PREFETCH_BODIES_WORKER_COUNT = "Count"
+const val KEY_PREFETCH_BODIES_WORKER_ERROR_DESCRIPTION = "ErrorDescription"
+private const val PREFETCH_BODIES_WORK_NAME_PREFIX = "prefetchMessageBodies-"
+
+/**
+ * A worker that fetches, decrypts and sanitizes the bodies of the most recent unread Messages in a label, and stores
+ *  them into [PrefetchedMessageBodyCache], so opening one of them doesn't have to wait for the network nor for the
+ *  decryption
+ */
+@HiltWorker
+class PrefetchMessageBodiesWorker @AssistedInject constructor(
+    @Assisted context: Context,
+    @Assisted workerParameters: WorkerParameters,
+    private val userManager: UserManager,
+    private val databaseProvider: DatabaseProvider,
+    private val messageRepository: MessageRepository,
+    private val fetchVerificationKeys: FetchVerificationKeys,
+    private val decryptMessageBody: MessageBodyDecryptor,
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache
+) : CoroutineWorker(context, workerParameters) {
+
+    override suspend fun doWork(): Result {
+        val userId = inputData.getString(KEY_PREFETCH_BODIES_WORKER_USER_ID)?.let(::UserId)
+        val labelId = inputData.getString(KEY_PREFETCH_BODIES_WORKER_LABEL_ID)
+        val count = inputData.getInt(KEY_PREFETCH_BODIES_WORKER_COUNT, 0)
+
+        if (userId == null || labelId.isNullOrEmpty() || count <= 0) {
+            return Result.failure(
+                workDataOf(KEY_PREFETCH_BODIES_WORKER_ERROR_DESCRIPTION to "Input data is not complete")
+            )
+        }
+
+        // Message bodies can only be decrypted for the current user
+        if (userId != userManager.currentUserId) {
+            Timber.d("Skipping prefetch of message bodies for a user that is not the current one")
+            return Result.success()
+        }
+
+        val messageIds = databaseProvider.provideMessageDao(userId).findMostRecentUnreadMessageIds(labelId, count)
+        Timber.v("Prefetching bodies for ${messageIds.size} messages in label $labelId")
+        for (messageId in messageIds) {
+            if (prefetchedMessageBodyCache.contains(userId, messageId)) continue
+
+            runCatching {
+                prefetch(userId, messageId)
+            }.onFailure { throwable ->
+                if (throwable is CancellationException) {
+                    throw throwable
+                }
+                Timber.w(throwable, "Cannot prefetch body for message $messageId")
+            }
+        }
+        return Result.success()
+    }
+
+    private suspend fun prefetch(userId: UserId, messageId: String) {
+        val message = messageRepository.getMessage(userId, messageId, shouldFetchMessageDetails = true)
+            ?: return
+        // Attachments of PGP/MIME messages are part of the decrypted body, we let them be decrypted on demand
+        if (message.isPGPMime) return
+
+        val verificationKeys = runCatching {
+            fetchVerificationKeys(userId, message.senderEmail)
+        }.getOrNull()
+        if (decryptMessageBody(message, verificationKeys).not()) return
+
+        val decryptedBody = message.decryptedBody ?: return
+        val decryptedHtml = message.decryptedHTML ?: return
+        val sanitizedHtml = DefaultTransformer().transform(Jsoup.parse(decryptedHtml)).toString()
+
+        prefetchedMessageBodyCache.put(
+            userId,
+            PrefetchedMessageBody(
+                messageId = messageId,
+                decryptedBody = decryptedBody,
+                sanitizedHtml = sanitizedHtml,
+                hasValidSignature = message.hasValidSignature,
+                hasInvalidSignature = message.hasInvalidSignature,
+                embeddedImageIds = message.embeddedImageIds
+            )
+        )
+    }
+
+    class Enqueuer @Inject constructor(private val workManager: WorkManager) {
+
+        fun enqueue(
+            userId: UserId,
+            labelId: String,
+            config: MessageBodyPrefetchConfig = MessageBodyPrefetchConfig()
+        ): Operation {
+            val networkType =
+                if (config.requireUnmeteredNetwork) NetworkType.UNMETERED
+                else NetworkType.CONNECTED
+            val constraints = Constraints.Builder()
+                .setRequiredNetworkType(networkType)
+                .setRequiresBatteryNotLow(config.requireBatteryNotLow)
+                .setRequiresStorageNotLow(config.requireStorageNotLow)
+                .build()
+
+            val data = workDataOf(
+                KEY_PREFETCH_BODIES_WORKER_USER_ID to userId.id,
+                KEY_PREFETCH_BODIES_WORKER_LABEL_ID to labelId,
+                KEY_PREFETCH_BODIES_WORKER_COUNT to config.count
+            )
+
+            val request = OneTimeWorkRequestBuilder<PrefetchMessageBodiesWorker>()
+                .setConstraints(constraints)
+                .setInputData(data)
+                .build()
+
+            // Only the label currently displayed is relevant, so a new request replaces the pending one
+            return workManager.enqueueUniqueWork(
+                PREFETCH_BODIES_WORK_NAME_PREFIX + userId.id,
+                ExistingWorkPolicy.REPLACE,
+                request
+            )
+        }
+    }
+}
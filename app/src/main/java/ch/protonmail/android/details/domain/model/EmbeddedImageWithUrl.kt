@@ -22,9 +22,9 @@ package ch.protonmail.android.details.domain.model
 import ch.protonmail.android.jobs.helper.EmbeddedImage
 
 /**
- * @property content Base64 String representation of the image content
+ * @property url URL that serves the image content, from [ch.protonmail.android.details.data.local.EmbeddedImagesStore]
  */
-data class EmbeddedImageWithContent(
+data class EmbeddedImageWithUrl(
     val image: EmbeddedImage,
-    val content: String
+    val url: String
 )
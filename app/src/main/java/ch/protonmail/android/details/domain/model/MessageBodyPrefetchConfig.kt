@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.domain.model
+
+private const val DEFAULT_PREFETCH_COUNT = 5
+
+/**
+ * Limits for decrypting Message bodies ahead of time
+ *
+ * @property count how many of the most recent unread Messages are prefetched
+ * @property requireUnmeteredNetwork if `true`, bodies are only prefetched on an unmetered network, e.g. Wi-Fi
+ * @property requireBatteryNotLow if `true`, bodies are not prefetched while the battery is low
+ * @property requireStorageNotLow if `true`, bodies are not prefetched while the storage is low
+ */
+data class MessageBodyPrefetchConfig(
+    val count: Int = DEFAULT_PREFETCH_COUNT,
+    val requireUnmeteredNetwork: Boolean = true,
+    val requireBatteryNotLow: Boolean = true,
+    val requireStorageNotLow: Boolean = true
+)
@@ -19,7 +19,7 @@
 
 package ch.protonmail.android.details.domain.model
 
-data class MessageEmbeddedImagesWithContent(
+data class MessageEmbeddedImagesWithUrls(
     val messageId: String,
-    val images: List<EmbeddedImageWithContent>
+    val images: List<EmbeddedImageWithUrl>
 )
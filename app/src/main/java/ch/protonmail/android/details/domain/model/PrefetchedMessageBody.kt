@@ -19,10 +19,21 @@
 
 package ch.protonmail.android.details.domain.model
 
-import ch.protonmail.android.jobs.helper.EmbeddedImage
-import java.io.ByteArrayOutputStream
+import kotlinx.serialization.Serializable
 
-data class EmbeddedImageWithOutputStream(
-    val image: EmbeddedImage,
-    val stream: ByteArrayOutputStream
+/**
+ * The body of a Message, decrypted and sanitized ahead of time, so it can be shown without waiting for the network
+ *  or the decryption
+ *
+ * @property decryptedBody the decrypted body, as returned by the decryption
+ * @property sanitizedHtml the decrypted body as HTML, already processed by the default HTML transformer
+ */
+@Serializable
+data class PrefetchedMessageBody(
+    val messageId: String,
+    val decryptedBody: String,
+    val sanitizedHtml: String,
+    val hasValidSignature: Boolean,
+    val hasInvalidSignature: Boolean,
+    val embeddedImageIds: List<String>
 )
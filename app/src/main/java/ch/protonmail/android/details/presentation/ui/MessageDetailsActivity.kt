@@ -54,6 +54,7 @@ import ch.protonmail.android.activities.messageDetails.viewmodel.MessageDetailsV
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.data.local.model.Attachment
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.details.data.remote.RemoteImagesProxy
 import ch.protonmail.android.details.presentation.mapper.MessageEncryptionUiModelMapper
 import ch.protonmail.android.details.presentation.mapper.MessageToMessageDetailsListItemMapper
 import ch.protonmail.android.details.presentation.model.ConversationUiModel
@@ -81,6 +82,7 @@ import ch.protonmail.android.utils.ui.dialogs.DialogUtils.Companion.showDeleteCo
 import ch.protonmail.android.utils.ui.dialogs.DialogUtils.Companion.showTwoButtonInfoDialog
 import ch.protonmail.android.utils.ui.screen.RenderDimensionsProvider
 import ch.protonmail.android.utils.webview.SetUpWebViewDarkModeHandlingIfSupported
+import ch.protonmail.android.utils.webview.WebViewPool
 import ch.protonmail.android.views.messageDetails.BottomActionsView
 import com.google.android.material.appbar.AppBarLayout
 import com.google.android.material.snackbar.Snackbar
@@ -120,9 +122,15 @@ internal class MessageDetailsActivity : BaseStoragePermissionActivity() {
     @Inject
     lateinit var protonCalendarUtil: ProtonCalendarUtil
 
+    @Inject
+    lateinit var webViewPool: WebViewPool
+
     @Inject
     lateinit var accountSettingsRepository: AccountSettingsRepository
 
+    @Inject
+    lateinit var remoteImagesProxy: RemoteImagesProxy
+
     @Inject
     lateinit var mailboxScreenViewRepository: MailboxScreenViewInMemoryRepository
 
@@ -264,8 +272,11 @@ internal class MessageDetailsActivity : BaseStoragePermissionActivity() {
             messageToMessageDetailsListItemMapper = messageToMessageDetailsListItemMapper,
             userManager = mUserManager,
             accountSettingsRepository = accountSettingsRepository,
+            embeddedImages = viewModel.embeddedImages,
+            remoteImagesProxy = remoteImagesProxy,
             messageEncryptionUiModelMapper = messageEncryptionUiModelMapper,
             setUpWebViewDarkModeHandlingIfSupported = setUpWebViewDarkModeHandlingIfSupported,
+            webViewPool = webViewPool,
             onLoadEmbeddedImagesClicked = ::onLoadEmbeddedImagesClicked,
             onDisplayRemoteContentClicked = ::onDisplayRemoteContentClicked,
             protonCalendarUtil = protonCalendarUtil,
@@ -362,6 +373,13 @@ internal class MessageDetailsActivity : BaseStoragePermissionActivity() {
         mApp.bus.unregister(this)
     }
 
+    override fun onDestroy() {
+        if (::messageExpandableAdapter.isInitialized) {
+            messageExpandableAdapter.releaseWebViews()
+        }
+        super.onDestroy()
+    }
+
     override fun onBackPressed() {
         mailboxScreenViewRepository.recordScreenView()
         super.onBackPressed()
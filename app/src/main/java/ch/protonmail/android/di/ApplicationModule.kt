@@ -31,10 +31,10 @@ import ch.protonmail.android.api.DnsOverHttpsProviderRFC8484
 import ch.protonmail.android.api.OkHttpProvider
 import ch.protonmail.android.api.ProtonMailApi
 import ch.protonmail.android.api.ProtonRetrofitBuilder
-import ch.protonmail.android.api.interceptors.RetryRequestInterceptor
 import ch.protonmail.android.api.models.doh.Proxies
 import ch.protonmail.android.api.models.messages.receive.AttachmentFactory
 import ch.protonmail.android.api.models.messages.receive.IAttachmentFactory
+import ch.protonmail.android.api.retry.RetryCallAdapterFactory
 import ch.protonmail.android.api.segments.event.AlarmReceiver
 import ch.protonmail.android.attachments.Armorer
 import ch.protonmail.android.attachments.OpenPgpArmorer
@@ -170,7 +170,7 @@ object ApplicationModule {
         userNotifier: UserNotifier,
         sessionManager: SessionManager,
         @BaseUrl baseUrl: String,
-        retryRequestInterceptor: RetryRequestInterceptor
+        retryCallAdapterFactory: RetryCallAdapterFactory
     ): ProtonRetrofitBuilder {
 
         // userManager.user.allowSecureConnectionsViaThirdParties)
@@ -188,7 +188,7 @@ object ApplicationModule {
             cookieStore,
             userNotifier,
             sessionManager,
-            retryRequestInterceptor
+            retryCallAdapterFactory
         ).apply { rebuildMapFor(okHttpProvider, dnsOverHttpsHost) }
     }
 
@@ -205,7 +205,7 @@ object ApplicationModule {
         userNotifier: UserNotifier,
         sessionManager: SessionManager,
         @BaseUrl baseUrl: String,
-        retryRequestInterceptor: RetryRequestInterceptor
+        retryCallAdapterFactory: RetryCallAdapterFactory
     ): ProtonRetrofitBuilder {
 
         return ProtonRetrofitBuilder(
@@ -216,7 +216,7 @@ object ApplicationModule {
             cookieStore,
             userNotifier,
             sessionManager,
-            retryRequestInterceptor
+            retryCallAdapterFactory
         ).apply { rebuildMapFor(okHttpProvider, baseUrl) }
     }
 
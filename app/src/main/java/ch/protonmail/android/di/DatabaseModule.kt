@@ -25,8 +25,6 @@ import ch.protonmail.android.data.local.AttachmentMetadataDao
 import ch.protonmail.android.data.local.AttachmentMetadataDatabase
 import ch.protonmail.android.data.local.ContactDao
 import ch.protonmail.android.data.local.ContactDatabase
-import ch.protonmail.android.data.local.CounterDao
-import ch.protonmail.android.data.local.CounterDatabase
 import ch.protonmail.android.data.local.MessageDao
 import ch.protonmail.android.data.local.MessageDatabase
 import ch.protonmail.android.labels.data.local.LabelDao
@@ -77,16 +75,6 @@ internal object DatabaseModule {
     fun provideContactDao(factory: ContactDatabase): ContactDao =
         factory.getDao()
 
-    @Provides
-    fun provideCounterDatabase(
-        context: Context,
-        @CurrentUserId userId: UserId
-    ): CounterDatabase = CounterDatabase.getInstance(context, userId)
-
-    @Provides
-    fun provideCounterDao(database: CounterDatabase): CounterDao =
-        database.getDao()
-
     @Provides
     fun provideMessageDatabaseFactory(): MessageDatabase.Factory =
         MessageDatabase.Factory
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.diagnostics
+
+import android.os.Looper
+import timber.log.Timber
+
+/**
+ * Frame budget at 60 fps, a blocking call on the main thread longer than this drops at least one frame
+ */
+private const val MAIN_THREAD_WARNING_THRESHOLD_MS = 16L
+
+/**
+ * Opt-in instrumentation of the blocking bridges between the main thread world and the suspending one.
+ *
+ * Once [enable]d, every call going through [runBlockingMonitored] is recorded with its duration, thread and call
+ *  site, and the ones on the main looper are logged when they are long enough to drop a frame. When disabled, which
+ *  is the default and the case for release builds, the calls are only checked against a volatile flag.
+ *
+ * The aggregated [report] can be shared from the Settings of a debug build, or asserted on in instrumented tests.
+ */
+object BlockingCallMonitor {
+
+    @Volatile
+    var isEnabled: Boolean = false
+        private set
+
+    private val recorder = BlockingCallRecorder(
+        isMainThread = { Looper.myLooper() == Looper.getMainLooper() },
+        onMainThreadCall = { callSite, durationMs ->
+            if (durationMs >= MAIN_THREAD_WARNING_THRESHOLD_MS) {
+                Timber.w("Blocking call took $durationMs ms on the main thread at ${callSite.joinToString(" <- ")}")
+            }
+        }
+    )
+
+    fun enable() {
+        isEnabled = true
+    }
+
+    fun disable() {
+        isEnabled = false
+    }
+
+    fun <T> record(block: () -> T): T =
+        if (isEnabled) recorder.record(block)
+        else block()
+
+    fun report(): BlockingCallsReport = recorder.report()
+
+    fun reset() {
+        recorder.reset()
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.diagnostics
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+private const val CALL_SITE_DEPTH = 4
+
+/**
+ * Records the blocking calls it is asked to [record], attributing each of them to the frames of the call site and
+ *  aggregating them into a [BlockingCallsReport]
+ *
+ * @param isMainThread tells whether the current thread is the one of the main looper
+ * @param nanoTime source of the monotonic time used to measure the calls
+ * @param onMainThreadCall invoked after a call that ran on the main thread, with its call site and duration in ms
+ */
+internal class BlockingCallRecorder(
+    private val isMainThread: () -> Boolean,
+    private val nanoTime: () -> Long = System::nanoTime,
+    private val onMainThreadCall: (callSite: List<String>, durationMs: Long) -> Unit = { _, _ -> }
+) {
+
+    private val stats = ConcurrentHashMap<List<String>, BlockingCallStats>()
+
+    fun <T> record(block: () -> T): T {
+        val callSite = findCallSite()
+        val isMain = isMainThread()
+        val threadName = Thread.currentThread().name
+        val start = nanoTime()
+        try {
+            return block()
+        } finally {
+            val durationNanos = nanoTime() - start
+            stats.getOrPut(callSite) { BlockingCallStats() }.add(durationNanos, threadName, isMain)
+            if (isMain) {
+                onMainThreadCall(callSite, TimeUnit.NANOSECONDS.toMillis(durationNanos))
+            }
+        }
+    }
+
+    fun report(): BlockingCallsReport {
+        val entries = stats.map { (callSite, callStats) -> callStats.toEntry(callSite) }
+            .sortedWith(
+                compareByDescending<BlockingCallsReport.Entry> { it.mainThreadCount > 0 }
+                    .thenByDescending { it.totalDurationMs }
+            )
+        return BlockingCallsReport(entries)
+    }
+
+    fun reset() {
+        stats.clear()
+    }
+
+    /**
+     * The first frames that don't belong to the monitoring itself: the blocking bridge, followed by its callers
+     */
+    private fun findCallSite(): List<String> =
+        Throwable().stackTrace.asSequence()
+            .filterNot { frame -> frame.isMonitoring() }
+            .take(CALL_SITE_DEPTH)
+            .map { frame -> "${frame.className}.${frame.methodName}(${frame.fileName}:${frame.lineNumber})" }
+            .toList()
+
+    private fun StackTraceElement.isMonitoring() =
+        MONITORING_CLASSES.any { monitoringClass ->
+            className == monitoringClass || className.startsWith("$monitoringClass$")
+        }
+
+    private class BlockingCallStats {
+
+        private var count = 0
+        private var mainThreadCount = 0
+        private var totalNanos = 0L
+        private var maxNanos = 0L
+        private val threadNames = mutableSetOf<String>()
+
+        @Synchronized
+        fun add(durationNanos: Long, threadName: String, isMainThread: Boolean) {
+            count++
+            if (isMainThread) mainThreadCount++
+            totalNanos += durationNanos
+            maxNanos = maxOf(maxNanos, durationNanos)
+            threadNames += threadName
+        }
+
+        @Synchronized
+        fun toEntry(callSite: List<String>) = BlockingCallsReport.Entry(
+            callSite = callSite,
+            count = count,
+            mainThreadCount = mainThreadCount,
+            totalDurationMs = TimeUnit.NANOSECONDS.toMillis(totalNanos),
+            maxDurationMs = TimeUnit.NANOSECONDS.toMillis(maxNanos),
+            threadNames = threadNames.toSet()
+        )
+    }
+
+    private companion object {
+
+        val MONITORING_CLASSES = listOf(
+            BlockingCallRecorder::class.java.name,
+            BlockingCallMonitor::class.java.name,
+            "ch.protonmail.android.diagnostics.RunBlockingMonitoredKt"
+        )
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.diagnostics
+
+/**
+ * Aggregation of the blocking calls recorded by [BlockingCallMonitor], one [Entry] per call site, with the call
+ *  sites reached from the main thread first
+ */
+data class BlockingCallsReport(
+    val entries: List<Entry>
+) {
+
+    val mainThreadEntries: List<Entry>
+        get() = entries.filter { it.mainThreadCount > 0 }
+
+    /**
+     * Plain text representation of the report, meant to be shared from a debug build or attached to a test failure
+     */
+    fun export(): String = buildString {
+        appendLine("Blocking calls: ${entries.sumOf { it.count }} at ${entries.size} call sites")
+        appendLine("On the main thread: ${mainThreadEntries.sumOf { it.mainThreadCount }}")
+        for (entry in entries) {
+            appendLine()
+            appendLine(
+                "count=${entry.count} main=${entry.mainThreadCount} " +
+                    "total=${entry.totalDurationMs}ms max=${entry.maxDurationMs}ms " +
+                    "threads=${entry.threadNames.sorted().joinToString()}"
+            )
+            entry.callSite.forEach { frame -> appendLine("    at $frame") }
+        }
+    }
+
+    /**
+     * @property callSite the blocking bridge, followed by its callers
+     * @property threadNames the names of all the threads the call site has been reached from
+     */
+    data class Entry(
+        val callSite: List<String>,
+        val count: Int,
+        val mainThreadCount: Int,
+        val totalDurationMs: Long,
+        val maxDurationMs: Long,
+        val threadNames: Set<String>
+    )
+}
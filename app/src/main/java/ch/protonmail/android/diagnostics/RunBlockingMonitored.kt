@@ -17,21 +17,17 @@
  * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
  */
 
-package ch.protonmail.android.data.local
+package ch.protonmail.android.diagnostics
 
-import me.proton.core.domain.entity.UserId
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.runBlocking
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.EmptyCoroutineContext
 
-interface CounterRepository {
-
-    suspend fun updateMessageLabelCounter(
-        userId: UserId,
-        labelId: String,
-        messageIds: List<String>,
-        modificationMethod: CounterModificationMethod
-    )
-
-
-    enum class CounterModificationMethod {
-        INCREMENT, DECREMENT
-    }
-}
+/**
+ * Drop-in replacement of [runBlocking] that lets [BlockingCallMonitor] record the call
+ */
+fun <T> runBlockingMonitored(
+    context: CoroutineContext = EmptyCoroutineContext,
+    block: suspend CoroutineScope.() -> T
+): T = BlockingCallMonitor.record { runBlocking(context, block) }
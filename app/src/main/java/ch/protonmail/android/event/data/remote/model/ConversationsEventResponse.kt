@@ -27,8 +27,9 @@ data class ConversationsEventResponse(
     val id: String,
     @SerializedName(ACTION)
     val action: Int,
+    // Deletion events have no Conversation
     @SerializedName(CONVERSATION)
-    val conversation: ConversationApiModel
+    val conversation: ConversationApiModel?
 ) {
 
     companion object {
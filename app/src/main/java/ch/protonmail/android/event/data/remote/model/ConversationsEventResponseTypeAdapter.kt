@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.event.data.remote.model
+
+import ch.protonmail.android.api.utils.nextIntOrZero
+import ch.protonmail.android.api.utils.nextStringOrNull
+import ch.protonmail.android.api.utils.readObject
+import ch.protonmail.android.mailbox.data.remote.model.ConversationApiModel
+import com.google.gson.Gson
+import com.google.gson.TypeAdapter
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+import me.proton.core.util.kotlin.EMPTY_STRING
+
+internal class ConversationsEventResponseTypeAdapter(
+    gson: Gson,
+    private val delegate: TypeAdapter<ConversationsEventResponse>
+) : TypeAdapter<ConversationsEventResponse>() {
+
+    private val conversationAdapter = gson.getAdapter(ConversationApiModel::class.java)
+
+    override fun read(reader: JsonReader): ConversationsEventResponse {
+        var id: String? = null
+        var action = 0
+        var conversation: ConversationApiModel? = null
+        reader.readObject { name ->
+            when (name) {
+                "ID" -> id = reader.nextStringOrNull()
+                "Action" -> action = reader.nextIntOrZero()
+                "Conversation" -> conversation = conversationAdapter.read(reader)
+                else -> return@readObject false
+            }
+            true
+        }
+        return ConversationsEventResponse(id ?: EMPTY_STRING, action, conversation)
+    }
+
+    override fun write(writer: JsonWriter, value: ConversationsEventResponse?) {
+        delegate.write(writer, value)
+    }
+}
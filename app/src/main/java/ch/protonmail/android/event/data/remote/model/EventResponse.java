@@ -20,9 +20,17 @@ package ch.protonmail.android.event.data.remote.model;
 
 import androidx.annotation.Nullable;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import ch.protonmail.android.api.models.MailSettings;
 import ch.protonmail.android.api.models.ResponseBody;
@@ -30,6 +38,7 @@ import ch.protonmail.android.api.models.User;
 import ch.protonmail.android.api.models.address.Address;
 import ch.protonmail.android.api.models.messages.receive.ServerMessage;
 import ch.protonmail.android.api.utils.Fields;
+import ch.protonmail.android.api.utils.JsonReaders;
 import ch.protonmail.android.data.local.model.ContactEmail;
 import ch.protonmail.android.data.local.model.FullContactDetails;
 import ch.protonmail.android.data.local.model.FullContactDetailsFactory;
@@ -257,6 +266,263 @@ public class EventResponse extends ResponseBody {
         }
     }
 
+    /**
+     * Reads an {@link EventResponse} streaming each of its sections, without reflection for the envelope and the
+     * Messages and Conversations, and skipping the fields that are not used without parsing them. Writing is left to
+     * {@code delegate}.
+     */
+    public static class EventResponseTypeAdapter extends TypeAdapter<EventResponse> {
+
+        private final TypeAdapter<EventResponse> delegate;
+        private final TypeAdapter<Map<String, Object>> detailsAdapter;
+        private final TypeAdapter<ServerMessage> messageAdapter;
+        private final TypeAdapter<ConversationsEventResponse> conversationAdapter;
+        private final TypeAdapter<ServerFullContactDetails> contactAdapter;
+        private final TypeAdapter<ContactEmail> contactEmailAdapter;
+        private final TypeAdapter<LabelEventModel> labelAdapter;
+        private final TypeAdapter<Address> addressAdapter;
+        private final TypeAdapter<User> userAdapter;
+        private final TypeAdapter<MailSettings> mailSettingsAdapter;
+        private final TypeAdapter<Object> userSettingsAdapter;
+        private final TypeAdapter<CountsApiModel> countsAdapter;
+
+        public EventResponseTypeAdapter(Gson gson, TypeAdapter<EventResponse> delegate) {
+            this.delegate = delegate;
+            detailsAdapter = getDetailsAdapter(gson);
+            messageAdapter = gson.getAdapter(ServerMessage.class);
+            conversationAdapter = gson.getAdapter(ConversationsEventResponse.class);
+            contactAdapter = gson.getAdapter(ServerFullContactDetails.class);
+            contactEmailAdapter = gson.getAdapter(ContactEmail.class);
+            labelAdapter = gson.getAdapter(LabelEventModel.class);
+            addressAdapter = gson.getAdapter(Address.class);
+            userAdapter = gson.getAdapter(User.class);
+            mailSettingsAdapter = gson.getAdapter(MailSettings.class);
+            userSettingsAdapter = gson.getAdapter(Object.class);
+            countsAdapter = gson.getAdapter(CountsApiModel.class);
+        }
+
+        @Override
+        public EventResponse read(JsonReader in) throws IOException {
+            EventResponse response = new EventResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case Fields.Events.EVENT_ID:
+                        response.eventID = JsonReaders.nextStringOrNull(in);
+                        break;
+                    case Fields.Events.MORE:
+                        response.more = JsonReaders.nextIntOrZero(in);
+                        break;
+                    case Fields.Events.REFRESH:
+                        response.refresh = JsonReaders.nextIntOrZero(in);
+                        break;
+                    case Fields.Events.MESSAGES:
+                        response.messages = readMessages(in, response);
+                        break;
+                    case Fields.Events.CONVERSATIONS:
+                        response.conversations = JsonReaders.nextListOrNull(in, conversationAdapter);
+                        break;
+                    case Fields.Events.CONTACTS:
+                        response.contacts = readContacts(in, response);
+                        break;
+                    case Fields.Events.CONTACT_EMAILS:
+                        response.contactEmails = readContactEmails(in, response);
+                        break;
+                    case Fields.Events.LABELS:
+                        response.labels = readLabels(in, response);
+                        break;
+                    case Fields.Events.USER:
+                        response.user = userAdapter.read(in);
+                        break;
+                    case Fields.Events.MAIL_SETTINGS:
+                        response.mailSettings = mailSettingsAdapter.read(in);
+                        break;
+                    case Fields.Events.USER_SETTINGS:
+                        response.userSettings = userSettingsAdapter.read(in);
+                        break;
+                    case Fields.Events.MESSAGE_COUNTS:
+                        response.messageCounts = JsonReaders.nextListOrNull(in, countsAdapter);
+                        break;
+                    case Fields.Events.CONVERSATION_COUNTS:
+                        response.conversationCounts = JsonReaders.nextListOrNull(in, countsAdapter);
+                        break;
+                    case Fields.Events.USED_SPACE:
+                        response.usedSpace = JsonReaders.nextLongOrZero(in);
+                        break;
+                    case Fields.Events.ADDRESSES:
+                        response.addresses = readAddresses(in, response);
+                        break;
+                    default:
+                        if (!response.readField(name, in, detailsAdapter)) {
+                            in.skipValue();
+                        }
+                }
+            }
+            in.endObject();
+            return response;
+        }
+
+        @Override
+        public void write(JsonWriter out, EventResponse value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        private List<MessageEventBody> readMessages(JsonReader in, EventResponse response) throws IOException {
+            if (skipNull(in)) return null;
+            List<MessageEventBody> events = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                MessageEventBody event = response.new MessageEventBody();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case Fields.Events.ID:
+                            event.id = JsonReaders.nextStringOrNull(in);
+                            break;
+                        case Fields.Events.ACTION:
+                            event.action = JsonReaders.nextIntOrZero(in);
+                            break;
+                        case Fields.Events.MESSAGE:
+                            event.message = messageAdapter.read(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                events.add(event);
+            }
+            in.endArray();
+            return events;
+        }
+
+        private List<ContactEventBody> readContacts(JsonReader in, EventResponse response) throws IOException {
+            if (skipNull(in)) return null;
+            List<ContactEventBody> events = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                ContactEventBody event = response.new ContactEventBody();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case Fields.Events.ID:
+                            event.id = JsonReaders.nextStringOrNull(in);
+                            break;
+                        case Fields.Events.ACTION:
+                            event.action = JsonReaders.nextIntOrZero(in);
+                            break;
+                        case Fields.Events.CONTACT:
+                            event.contact = contactAdapter.read(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                events.add(event);
+            }
+            in.endArray();
+            return events;
+        }
+
+        private List<ContactEmailEventBody> readContactEmails(
+                JsonReader in,
+                EventResponse response
+        ) throws IOException {
+            if (skipNull(in)) return null;
+            List<ContactEmailEventBody> events = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                ContactEmailEventBody event = response.new ContactEmailEventBody();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case Fields.Events.ID:
+                            event.id = JsonReaders.nextStringOrNull(in);
+                            break;
+                        case Fields.Events.ACTION:
+                            event.action = JsonReaders.nextIntOrZero(in);
+                            break;
+                        case Fields.Events.CONTACT_EMAIL:
+                            event.contactEmail = contactEmailAdapter.read(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                events.add(event);
+            }
+            in.endArray();
+            return events;
+        }
+
+        private List<LabelsEventBody> readLabels(JsonReader in, EventResponse response) throws IOException {
+            if (skipNull(in)) return null;
+            List<LabelsEventBody> events = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                LabelsEventBody event = response.new LabelsEventBody();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case Fields.Events.ID:
+                            event.id = JsonReaders.nextStringOrNull(in);
+                            break;
+                        case Fields.Events.ACTION:
+                            event.action = JsonReaders.nextIntOrZero(in);
+                            break;
+                        case Fields.Events.LABEL:
+                            event.label = labelAdapter.read(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                events.add(event);
+            }
+            in.endArray();
+            return events;
+        }
+
+        private List<AddressEventBody> readAddresses(JsonReader in, EventResponse response) throws IOException {
+            if (skipNull(in)) return null;
+            List<AddressEventBody> events = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                AddressEventBody event = response.new AddressEventBody();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case Fields.Events.ID:
+                            event.id = JsonReaders.nextStringOrNull(in);
+                            break;
+                        case Fields.Events.ACTION:
+                            event.action = JsonReaders.nextIntOrZero(in);
+                            break;
+                        case Fields.Events.ADDRESS:
+                            event.address = addressAdapter.read(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                events.add(event);
+            }
+            in.endArray();
+            return events;
+        }
+
+        private static boolean skipNull(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.NULL) return false;
+            in.nextNull();
+            return true;
+        }
+    }
+
     enum RefreshStatus {
         OK(0), MAIL(1), CONTACTS(1 << 1), ALL(0xFF);
 
@@ -20,6 +20,7 @@
 package ch.protonmail.android.feature.account
 
 import ch.protonmail.android.api.models.User
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.StateFlow
@@ -27,7 +28,6 @@ import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.firstOrNull
 import kotlinx.coroutines.flow.mapLatest
 import kotlinx.coroutines.flow.stateIn
-import kotlinx.coroutines.runBlocking
 import me.proton.core.account.domain.entity.AccountState
 import me.proton.core.accountmanager.domain.AccountManager
 import me.proton.core.accountmanager.domain.getAccounts
@@ -35,7 +35,7 @@ import me.proton.core.domain.entity.UserId
 import ch.protonmail.android.domain.entity.user.User as NewUser
 
 @Deprecated("Replaced by Core AccountManager", ReplaceWith("Core AccountManager"))
-fun AccountManager.allLoggedInBlocking() = runBlocking { allLoggedIn() }
+fun AccountManager.allLoggedInBlocking() = runBlockingMonitored { allLoggedIn() }
 
 @Deprecated("Replaced by Core AccountManager", ReplaceWith("Core AccountManager"))
 suspend fun AccountManager.allLoggedIn() =
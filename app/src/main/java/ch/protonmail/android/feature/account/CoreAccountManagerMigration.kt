@@ -29,11 +29,11 @@ import ch.protonmail.android.api.models.address.Address
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.PREF_CURRENT_USER_ID
 import ch.protonmail.android.di.DefaultSharedPreferences
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.domain.util.orThrow
 import ch.protonmail.android.domain.util.requireNotBlank
 import ch.protonmail.android.prefs.SecureSharedPreferences
 import ch.protonmail.android.usecase.LoadLegacyUser
-import kotlinx.coroutines.runBlocking
 import me.proton.core.account.domain.entity.Account
 import me.proton.core.account.domain.entity.AccountDetails
 import me.proton.core.account.domain.entity.AccountState
@@ -78,7 +78,7 @@ class CoreAccountManagerMigration @Inject constructor(
         val passphrase: String
     )
 
-    fun migrateBlocking() = runBlocking {
+    fun migrateBlocking() = runBlockingMonitored {
         val loggedInUserIds = oldAccountManager.getLoggedIn().map { UserId(it) }
         if (loggedInUserIds.isNotEmpty()) {
             val currentUserId = appPrefs.getString(PREF_CURRENT_USER_ID)?.let { UserId(it) }
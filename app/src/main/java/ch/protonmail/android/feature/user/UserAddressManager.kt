@@ -19,7 +19,7 @@
 
 package ch.protonmail.android.feature.user
 
-import kotlinx.coroutines.runBlocking
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import me.proton.core.domain.entity.UserId
 import me.proton.core.user.domain.UserAddressManager
 import me.proton.core.user.domain.entity.AddressId
@@ -30,7 +30,7 @@ fun UserAddressManager.updateAddressBlocking(
     addressId: AddressId,
     displayName: String? = null,
     signature: String? = null
-) = runBlocking {
+) = runBlockingMonitored {
     updateAddress(userId, addressId, displayName, signature)
 }
 
@@ -38,6 +38,6 @@ fun UserAddressManager.updateAddressBlocking(
 fun UserAddressManager.updateOrderBlocking(
     userId: UserId,
     addressIds: List<UserId>
-) = runBlocking {
+) = runBlockingMonitored {
     updateOrder(userId, addressIds.map { AddressId(it.id) })
 }
@@ -21,7 +21,7 @@ package ch.protonmail.android.feature.user
 
 import ch.protonmail.android.api.models.Keys
 import ch.protonmail.android.api.models.address.Address
-import kotlinx.coroutines.runBlocking
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import me.proton.core.crypto.common.keystore.EncryptedByteArray
 import me.proton.core.domain.entity.UserId
 import me.proton.core.key.domain.extension.primary
@@ -34,13 +34,13 @@ import me.proton.core.util.kotlin.toInt
 
 @Deprecated("Replaced by Core UserManager", ReplaceWith("Core UserManager"))
 @Throws(ApiException::class)
-fun UserManager.getUserBlocking(userId: UserId): User = runBlocking {
+fun UserManager.getUserBlocking(userId: UserId): User = runBlockingMonitored {
     getUser(userId)
 }
 
 @Deprecated("Replaced by Core UserManager", ReplaceWith("Core UserManager"))
 @Throws(ApiException::class)
-fun UserManager.getAddressesBlocking(userId: UserId): List<UserAddress> = runBlocking {
+fun UserManager.getAddressesBlocking(userId: UserId): List<UserAddress> = runBlockingMonitored {
     // Refresh only if we have no address.
     getAddresses(userId, refresh = getAddresses(userId).isEmpty())
 }
@@ -42,6 +42,7 @@ import ch.protonmail.android.crypto.Crypto
 import ch.protonmail.android.data.local.ContactDao
 import ch.protonmail.android.data.local.ContactDatabase
 import ch.protonmail.android.data.local.model.ContactData
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.events.ContactEvent
 import ch.protonmail.android.events.ContactProgressEvent
 import ch.protonmail.android.labels.data.mapper.LabelEntityApiMapper
@@ -59,7 +60,6 @@ import ezvcard.property.Address
 import ezvcard.property.Email
 import ezvcard.property.Telephone
 import ezvcard.property.Uid
-import kotlinx.coroutines.runBlocking
 import me.proton.core.network.domain.ApiResult
 import me.proton.core.util.kotlin.toInt
 import timber.log.Timber
@@ -280,7 +280,7 @@ class ConvertLocalContactsJob(
         val currentUser = getUserManager().requireCurrentUserId()
 
         localGroups.forEach {
-            runBlocking {
+            runBlockingMonitored {
                 val requestBody = LabelRequestBody(
                     it.value,
                     defaultColor,
@@ -314,7 +314,7 @@ class ConvertLocalContactsJob(
         }
 
         if (someGroupsAlreadyExist) { // at least one local group already exist on server, we fetch all of them to get IDs
-            runBlocking {
+            runBlockingMonitored {
                 val serverGroups = getApi().getContactGroups(currentUser).valueOrThrow.labels
                 localGroups.filterNot { result.containsKey(it.value) }.forEach { localGroupEntry ->
                     serverGroups.find { it.name == localGroupEntry.value }?.run {
@@ -349,7 +349,7 @@ class ConvertLocalContactsJob(
                 contactDao.saveAllContactsEmailsBlocking(contact.emails!!)
                 contactGroupIds.forEach { contactGroupId ->
                     val emailsList = contact.emails!!.map { it.contactEmailId }
-                    runBlocking {
+                    runBlockingMonitored {
                         getApi().labelContacts(LabelContactsBody(contactGroupId, emailsList))
                     }
                 }
@@ -28,10 +28,7 @@ import java.util.List;
 
 import ch.protonmail.android.api.models.IDList;
 import ch.protonmail.android.core.Constants;
-import ch.protonmail.android.data.local.CounterDao;
-import ch.protonmail.android.data.local.CounterDatabase;
 import ch.protonmail.android.data.local.model.Message;
-import ch.protonmail.android.data.local.model.UnreadLocationCounter;
 import ch.protonmail.android.labels.domain.model.Label;
 import ch.protonmail.android.labels.domain.model.LabelId;
 import ch.protonmail.android.labels.domain.model.LabelType;
@@ -50,44 +47,20 @@ public class MoveToFolderJob extends ProtonMailBaseJob {
 
     @Override
     public void onAdded() {
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-        int totalUnread = 0;
         for (String id : mMessageIds) {
             final Message message = getMessageDetailsRepository().findMessageByIdBlocking(id);
             if (message != null) {
-                if (markMessageLocally(counterDao, message)) {
-                    totalUnread++;
-                }
+                markMessageLocally(message);
             }
         }
-
-        UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(Constants.MessageLocationType.SPAM.getMessageLocationTypeValue());
-        if (unreadLocationCounter == null) {
-            return;
-        }
-        unreadLocationCounter.increment(totalUnread);
-        counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
     }
 
-    private boolean markMessageLocally(CounterDao counterDao, Message message) {
-        boolean unreadIncrease = false;
-
-
+    private void markMessageLocally(Message message) {
         if (!TextUtils.isEmpty(mLabelId)) {
             message.addLabels(Collections.singletonList(mLabelId));
             removeOldFolderIds(message);
         }
 
-        if (!message.isRead()) {
-            UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(message.getLocation());
-            if (unreadLocationCounter != null) {
-                unreadLocationCounter.decrement();
-                counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
-            }
-            unreadIncrease = true;
-        }
         Constants.MessageLocationType location = Constants.MessageLocationType.Companion.fromInt(message.getLocation());
         if (location == Constants.MessageLocationType.SENT || location == Constants.MessageLocationType.ALL_SENT) {
             message.addLabels(Collections.singletonList(mLabelId));
@@ -98,7 +71,6 @@ public class MoveToFolderJob extends ProtonMailBaseJob {
         message.setFolderLocation(getLabelRepository());
         Timber.d("Move message id: %s, location: %s, labels: %s", message.getMessageId(), message.getLocation(), message.getAllLabelIDs());
         getMessageDetailsRepository().saveMessageBlocking(message);
-        return unreadIncrease;
     }
 
     private void removeOldFolderIds(Message message) {
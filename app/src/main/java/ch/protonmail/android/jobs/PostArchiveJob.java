@@ -28,14 +28,11 @@ import java.util.List;
 
 import ch.protonmail.android.api.models.IDList;
 import ch.protonmail.android.core.Constants;
-import ch.protonmail.android.data.local.CounterDao;
-import ch.protonmail.android.data.local.CounterDatabase;
 import ch.protonmail.android.data.local.model.Message;
-import ch.protonmail.android.data.local.model.UnreadLocationCounter;
 import timber.log.Timber;
 
 @Deprecated // replaced with MoveMessageToLocationWorker
-public class PostArchiveJob extends ProtonMailCounterJob {
+public class PostArchiveJob extends ProtonMailEndlessJob {
 
     private final List<String> mMessageIds;
     private final List<String> mFolderIds;
@@ -54,39 +51,16 @@ public class PostArchiveJob extends ProtonMailCounterJob {
 
     @Override
     public void onAdded() {
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-        int totalUnread = 0;
         for (String id : mMessageIds) {
             final Message message = getMessageDetailsRepository().findMessageByIdBlocking(id);
             if (message != null) {
                 Timber.d("Post to ARCHIVE message: %s", message.getMessageId());
-                if (updateMessageLocally(counterDao, message)) {
-                    totalUnread++;
-                }
+                updateMessageLocally(message);
             }
         }
-
-        UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(Constants.MessageLocationType.ARCHIVE.getMessageLocationTypeValue());
-        if (unreadLocationCounter == null) {
-            return;
-        }
-        unreadLocationCounter.increment(totalUnread);
-        counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
     }
 
-    private boolean updateMessageLocally(CounterDao counterDao,
-                                         Message message) {
-        boolean unreadIncrease = false;
-        if (!message.isRead()) {
-            UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(message.getLocation());
-            if (unreadLocationCounter != null) {
-                unreadLocationCounter.decrement();
-                counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
-            }
-            unreadIncrease = true;
-        }
+    private void updateMessageLocally(Message message) {
         Constants.MessageLocationType location = Constants.MessageLocationType.Companion.fromInt(message.getLocation());
         if (location == Constants.MessageLocationType.SENT || location == Constants.MessageLocationType.ALL_SENT) {
             message.addLabels(Collections.singletonList(String.valueOf(Constants.MessageLocationType.ALL_SENT.getMessageLocationTypeValue())));
@@ -102,21 +76,10 @@ public class PostArchiveJob extends ProtonMailCounterJob {
         }
         Timber.d("Archive message id: %s, location: %s, labels: %s", message.getMessageId(), message.getLocation(), message.getAllLabelIDs());
         getMessageDetailsRepository().saveMessageBlocking(message);
-        return unreadIncrease;
     }
 
     @Override
     public void onRun() throws Throwable {
         getApi().labelMessages(new IDList(String.valueOf(Constants.MessageLocationType.ARCHIVE.getMessageLocationTypeValue()), mMessageIds));
     }
-
-    @Override
-    protected List<String> getMessageIds() {
-        return mMessageIds;
-    }
-
-    @Override
-    protected Constants.MessageLocationType getMessageLocation() {
-        return Constants.MessageLocationType.ARCHIVE;
-    }
 }
@@ -28,17 +28,14 @@ import java.util.List;
 
 import ch.protonmail.android.api.models.IDList;
 import ch.protonmail.android.core.Constants;
-import ch.protonmail.android.data.local.CounterDao;
-import ch.protonmail.android.data.local.CounterDatabase;
 import ch.protonmail.android.data.local.model.Message;
-import ch.protonmail.android.data.local.model.UnreadLocationCounter;
 import ch.protonmail.android.labels.domain.model.Label;
 import ch.protonmail.android.labels.domain.model.LabelId;
 import ch.protonmail.android.labels.domain.model.LabelType;
 import timber.log.Timber;
 
 @Deprecated // replaced with MoveMessageToLocationWorker
-public class PostInboxJob extends ProtonMailCounterJob {
+public class PostInboxJob extends ProtonMailEndlessJob {
 
     private final List<String> mMessageIds;
     private final List<String> mFolderIds;
@@ -51,23 +48,10 @@ public class PostInboxJob extends ProtonMailCounterJob {
 
     @Override
     public void onAdded() {
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-
-        int totalUnread = 0;
         for (String id : mMessageIds) {
             final Message message = getMessageDetailsRepository().findMessageByIdBlocking(id);
             if (message != null) {
                 Timber.d("Post to INBOX message: %s", message.getMessageId());
-                if (!message.isRead()) {
-                    UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(message.getLocation());
-                    if (unreadLocationCounter != null) {
-                        unreadLocationCounter.decrement();
-                        counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
-                    }
-                    totalUnread++;
-                }
                 message.addLabels(Collections.singletonList(String.valueOf(Constants.MessageLocationType.INBOX.getMessageLocationTypeValue())));
                 if (mFolderIds != null) {
                     for (String folderId : mFolderIds) {
@@ -80,13 +64,6 @@ public class PostInboxJob extends ProtonMailCounterJob {
                 getMessageDetailsRepository().saveMessageBlocking(message);
             }
         }
-
-        UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(Constants.MessageLocationType.INBOX.getMessageLocationTypeValue());
-        if (unreadLocationCounter == null) {
-            return;
-        }
-        unreadLocationCounter.increment(totalUnread);
-        counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
     }
 
     private void removeOldFolderIds(Message message) {
@@ -111,14 +88,4 @@ public class PostInboxJob extends ProtonMailCounterJob {
     public void onRun() {
         getApi().labelMessages(new IDList(String.valueOf(Constants.MessageLocationType.INBOX.getMessageLocationTypeValue()), mMessageIds));
     }
-
-    @Override
-    protected List<String> getMessageIds() {
-        return mMessageIds;
-    }
-
-    @Override
-    protected Constants.MessageLocationType getMessageLocation() {
-        return Constants.MessageLocationType.INBOX;
-    }
 }
@@ -27,13 +27,10 @@ import java.util.List;
 
 import ch.protonmail.android.api.models.IDList;
 import ch.protonmail.android.core.Constants;
-import ch.protonmail.android.data.local.CounterDao;
-import ch.protonmail.android.data.local.CounterDatabase;
 import ch.protonmail.android.data.local.model.Message;
-import ch.protonmail.android.data.local.model.UnreadLocationCounter;
 import timber.log.Timber;
 
-public class PostSpamJob extends ProtonMailCounterJob {
+public class PostSpamJob extends ProtonMailEndlessJob {
 
     private final List<String> mMessageIds;
     private final String mFolderId;
@@ -52,59 +49,26 @@ public class PostSpamJob extends ProtonMailCounterJob {
 
     @Override
     public void onAdded() {
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-        int totalUnread = 0;
         for (String id : mMessageIds) {
             final Message message = getMessageDetailsRepository().findMessageByIdBlocking(id);
             if (message != null) {
                 Timber.d("Post to SPAM message: %s", message.getMessageId());
-                if (markMessageLocally(counterDao, message)) {
-                    totalUnread++;
-                }
+                markMessageLocally(message);
                 if (!TextUtils.isEmpty(mFolderId)) {
                     message.removeLabels(Arrays.asList(mFolderId));
                 }
             }
         }
-
-        UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(Constants.MessageLocationType.SPAM.getMessageLocationTypeValue());
-        if (unreadLocationCounter == null) {
-            return;
-        }
-        unreadLocationCounter.increment(totalUnread);
-        counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
     }
 
-    private boolean markMessageLocally(CounterDao counterDao, Message message) {
-        boolean unreadIncrease = false;
-        if (!message.isRead()) {
-            UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(message.getLocation());
-            if (unreadLocationCounter != null) {
-                unreadLocationCounter.decrement();
-                counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
-            }
-            unreadIncrease = true;
-        }
+    private void markMessageLocally(Message message) {
         message.setLocation(Constants.MessageLocationType.SPAM.getMessageLocationTypeValue());
         message.setLabelIDs(Arrays.asList(String.valueOf(Constants.MessageLocationType.SPAM.getMessageLocationTypeValue()), String.valueOf(Constants.MessageLocationType.ALL_MAIL.getMessageLocationTypeValue())));
         getMessageDetailsRepository().saveMessageBlocking(message);
-        return unreadIncrease;
     }
 
     @Override
     public void onRun() throws Throwable {
         getApi().labelMessages(new IDList(String.valueOf(Constants.MessageLocationType.SPAM.getMessageLocationTypeValue()), mMessageIds));
     }
-
-    @Override
-    protected List<String> getMessageIds() {
-        return mMessageIds;
-    }
-
-    @Override
-    protected Constants.MessageLocationType getMessageLocation() {
-        return Constants.MessageLocationType.SPAM;
-    }
 }
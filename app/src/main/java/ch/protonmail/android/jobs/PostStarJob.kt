@@ -20,9 +20,9 @@ package ch.protonmail.android.jobs
 
 import ch.protonmail.android.api.models.IDList
 import ch.protonmail.android.core.Constants
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import com.birbit.android.jobqueue.Params
 import kotlinx.coroutines.flow.firstOrNull
-import kotlinx.coroutines.runBlocking
 import timber.log.Timber
 import java.util.ArrayList
 
@@ -43,11 +43,11 @@ class PostStarJob(private val messageIds: List<String>) : ProtonMailEndlessJob(
     }
 
     private fun starLocalMessage(messageId: String) {
-        runBlocking {
+        runBlockingMonitored {
             val message = getMessageDetailsRepository().findMessageById(messageId).firstOrNull()
             if (message == null) {
                 Timber.d("Trying to star message which was not found in the DB. messageId = $messageId")
-                return@runBlocking
+                return@runBlockingMonitored
             }
 
             message.addLabels(listOf(Constants.MessageLocationType.STARRED.messageLocationTypeValue.toString()))
@@ -28,17 +28,14 @@ import java.util.List;
 
 import ch.protonmail.android.api.models.IDList;
 import ch.protonmail.android.core.Constants;
-import ch.protonmail.android.data.local.CounterDao;
-import ch.protonmail.android.data.local.CounterDatabase;
 import ch.protonmail.android.data.local.model.Message;
-import ch.protonmail.android.data.local.model.UnreadLocationCounter;
 import ch.protonmail.android.labels.domain.model.Label;
 import ch.protonmail.android.labels.domain.model.LabelId;
 import ch.protonmail.android.labels.domain.model.LabelType;
 import timber.log.Timber;
 
 @Deprecated // replaced with MoveMessageToLocationWorker
-public class PostTrashJobV2 extends ProtonMailCounterJob {
+public class PostTrashJobV2 extends ProtonMailEndlessJob {
 
     private final List<String> mMessageIds;
     private final List<String> mFolderIds;
@@ -54,21 +51,9 @@ public class PostTrashJobV2 extends ProtonMailCounterJob {
     @Override
     public void onAdded() {
         Timber.v("Post to Trash ids: %s onAdded", mMessageIds);
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-        int totalUnread = 0;
         for (String id : mMessageIds) {
             Message message = getMessageDetailsRepository().findMessageByIdBlocking(id);
             if (message != null) {
-                if (!message.isRead()) {
-                    UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(message.getLocation());
-                    if (unreadLocationCounter != null) {
-                        unreadLocationCounter.decrement();
-                        counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
-                    }
-                    totalUnread++;
-                }
                 Constants.MessageLocationType location = Constants.MessageLocationType.Companion.fromInt(message.getLocation());
                 if (location == Constants.MessageLocationType.SENT || location == Constants.MessageLocationType.ALL_SENT) {
                     message.setLocation(Constants.MessageLocationType.TRASH.getMessageLocationTypeValue());
@@ -92,14 +77,6 @@ public class PostTrashJobV2 extends ProtonMailCounterJob {
                 getMessageDetailsRepository().saveMessageBlocking(message);
             }
         }
-
-        UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(Constants.MessageLocationType.TRASH.getMessageLocationTypeValue());
-        if (unreadLocationCounter == null) {
-            return;
-        }
-        unreadLocationCounter.increment(totalUnread);
-        counterDao.insertUnreadLocationBlocking(unreadLocationCounter);
-
     }
 
     private void removeOldFolderIds(Message message) {
@@ -122,14 +99,4 @@ public class PostTrashJobV2 extends ProtonMailCounterJob {
         List<String> messageIds = new ArrayList<>(mMessageIds);
         getApi().labelMessages(new IDList(String.valueOf(Constants.MessageLocationType.TRASH.getMessageLocationTypeValue()), messageIds));
     }
-
-    @Override
-    protected List<String> getMessageIds() {
-        return new ArrayList<>(mMessageIds);
-    }
-
-    @Override
-    protected Constants.MessageLocationType getMessageLocation() {
-        return Constants.MessageLocationType.TRASH;
-    }
 }
@@ -25,10 +25,7 @@ import java.util.List;
 
 import ch.protonmail.android.api.models.IDList;
 import ch.protonmail.android.core.Constants;
-import ch.protonmail.android.data.local.CounterDao;
-import ch.protonmail.android.data.local.CounterDatabase;
 import ch.protonmail.android.data.local.model.Message;
-import ch.protonmail.android.data.local.model.UnreadLocationCounter;
 import timber.log.Timber;
 
 public class PostUnreadJob extends ProtonMailEndlessJob {
@@ -43,38 +40,13 @@ public class PostUnreadJob extends ProtonMailEndlessJob {
     @Override
     public void onAdded() {
         Timber.d("markUnRead %s", mMessageIds);
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-        Constants.MessageLocationType messageLocation = Constants.MessageLocationType.INVALID;
-        boolean starred = false;
         for (String id : mMessageIds) {
             final Message message = getMessageDetailsRepository().findMessageByIdBlocking(id);
             if (message != null) {
-                starred = message.isStarred() != null && message.isStarred();
-                messageLocation = Constants.MessageLocationType.Companion.fromInt(message.getLocation());
                 message.setIsRead(false);
                 getMessageDetailsRepository().saveMessageBlocking(message);
             }
         }
-
-        if (messageLocation != Constants.MessageLocationType.INVALID) {
-            UnreadLocationCounter unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(messageLocation.getMessageLocationTypeValue());
-            if (unreadLocationCounter == null) {
-                return;
-            }
-            unreadLocationCounter.increment(mMessageIds.size());
-            List<UnreadLocationCounter> countersToUpdate = new ArrayList<>();
-            countersToUpdate.add(unreadLocationCounter);
-            if (starred) {
-                UnreadLocationCounter starredUnread = counterDao.findUnreadLocationByIdBlocking(Constants.MessageLocationType.STARRED.getMessageLocationTypeValue());
-                if (starredUnread != null) {
-                    starredUnread.increment();
-                    countersToUpdate.add(starredUnread);
-                }
-            }
-            counterDao.insertAllUnreadLocations(countersToUpdate);
-        }
     }
 
     @Override
@@ -21,13 +21,10 @@ package ch.protonmail.android.jobs
 import ch.protonmail.android.api.models.IDList
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.Constants.MessageLocationType
-import ch.protonmail.android.core.Constants.MessageLocationType.Companion.fromInt
-import ch.protonmail.android.data.local.CounterDatabase
 import ch.protonmail.android.data.local.model.Message
-import ch.protonmail.android.data.local.model.UnreadLocationCounter
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import com.birbit.android.jobqueue.Params
 import kotlinx.coroutines.flow.firstOrNull
-import kotlinx.coroutines.runBlocking
 import timber.log.Timber
 import java.util.ArrayList
 
@@ -37,19 +34,15 @@ class PostUnstarJob(private val messageIds: List<String>) : ProtonMailEndlessJob
 
     override fun onAdded() {
         messageIds.forEach { messageId ->
-            val message = runBlocking { getMessageDetailsRepository().findMessageById(messageId).firstOrNull() }
+            val message = runBlockingMonitored {
+                getMessageDetailsRepository().findMessageById(messageId).firstOrNull()
+            }
             if (message == null) {
                 Timber.d("Trying to unstar a message which was not found in the DB. messageId = $messageId")
                 return
             }
 
             unstarLocalMessage(message)
-
-            val messageLocation = fromInt(message.location)
-            val isUnread = !message.isRead
-            if (messageLocation !== MessageLocationType.INVALID && isUnread) {
-                updateUnreadMessagesCounter(messageLocation)
-            }
         }
     }
 
@@ -59,30 +52,10 @@ class PostUnstarJob(private val messageIds: List<String>) : ProtonMailEndlessJob
     }
 
     private fun unstarLocalMessage(message: Message) {
-        runBlocking {
+        runBlockingMonitored {
             message.removeLabels(listOf(MessageLocationType.STARRED.messageLocationTypeValue.toString()))
             message.isStarred = false
             getMessageDetailsRepository().saveMessage(message)
         }
     }
-
-    private fun updateUnreadMessagesCounter(messageLocation: MessageLocationType) {
-        val counterDao = CounterDatabase
-            .getInstance(applicationContext, userId!!)
-            .getDao()
-
-        val locationId = messageLocation.messageLocationTypeValue
-        val unreadLocationCounter = counterDao.findUnreadLocationByIdBlocking(locationId) ?: return
-        unreadLocationCounter.increment(messageIds.size)
-
-        val countersToUpdate: MutableList<UnreadLocationCounter> = ArrayList()
-        countersToUpdate.add(unreadLocationCounter)
-
-        val starredUnread = counterDao.findUnreadLocationByIdBlocking(MessageLocationType.STARRED.messageLocationTypeValue)
-        if (starredUnread != null) {
-            starredUnread.increment()
-            countersToUpdate.add(starredUnread)
-        }
-        counterDao.insertAllUnreadLocations(countersToUpdate)
-    }
 }
@@ -18,18 +18,12 @@
  */
 package ch.protonmail.android.jobs;
 
-import androidx.annotation.Nullable;
-
 import com.birbit.android.jobqueue.Params;
 
 import java.util.List;
 
 import ch.protonmail.android.api.models.IDList;
 import ch.protonmail.android.core.Constants;
-import ch.protonmail.android.data.local.CounterDao;
-import ch.protonmail.android.data.local.CounterDatabase;
-import ch.protonmail.android.data.local.model.Message;
-import ch.protonmail.android.data.local.model.UnreadLabelCounter;
 
 @Deprecated // replaced with RemoveLabelWorker
 public class RemoveLabelJob extends ProtonMailBaseJob {
@@ -43,55 +37,6 @@ public class RemoveLabelJob extends ProtonMailBaseJob {
         this.labelId = labelId;
     }
 
-    @Override
-    protected void onProtonCancel(int cancelReason, @Nullable Throwable throwable) {
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-        int totalUnread = 0;
-        for (String messageId : messageIds) {
-            Message message = getMessageDetailsRepository().findMessageByIdBlocking(messageId);
-            if (message == null) {
-                continue;
-            }
-            if (message.isRead()) {
-                totalUnread++;
-            }
-        }
-
-        UnreadLabelCounter unreadLabelCounter = counterDao.findUnreadLabelById(labelId);
-        if (unreadLabelCounter == null) {
-            return;
-        }
-        unreadLabelCounter.increment(totalUnread);
-        counterDao.insertUnreadLabel(unreadLabelCounter);
-    }
-
-    @Override
-    public void onAdded() {
-        final CounterDao counterDao = CounterDatabase.Companion
-                .getInstance(getApplicationContext(), getUserId())
-                .getDao();
-
-        int totalUnread = 0;
-        for (String messageId : messageIds) {
-            Message message = getMessageDetailsRepository().findMessageByIdBlocking(messageId);
-            if (message == null) {
-                continue;
-            }
-            if (!message.isRead()) {
-                totalUnread++;
-            }
-        }
-
-        UnreadLabelCounter unreadLabelCounter = counterDao.findUnreadLabelById(labelId);
-        if (unreadLabelCounter == null) {
-            return;
-        }
-        unreadLabelCounter.decrement(totalUnread);
-        counterDao.insertUnreadLabel(unreadLabelCounter);
-    }
-
     @Override
     public void onRun() throws Throwable {
         getApi().unlabelMessages(new IDList(labelId, messageIds));
@@ -18,11 +18,11 @@
  */
 package ch.protonmail.android.jobs
 
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.events.PostPhishingReportEvent
 import ch.protonmail.android.events.Status
 import ch.protonmail.android.utils.AppUtil
 import com.birbit.android.jobqueue.Params
-import kotlinx.coroutines.runBlocking
 import me.proton.core.network.domain.ApiResult
 
 class ReportPhishingJob(
@@ -40,7 +40,7 @@ class ReportPhishingJob(
 
     @Throws(Throwable::class)
     override fun onRun() {
-        runBlocking {
+        runBlockingMonitored {
             val response = getApi().postPhishingReport(messageId, body, mimeType, requireNotNull(userId))
             if (response is ApiResult.Success) {
                 AppUtil.postEventOnUi(PostPhishingReportEvent(Status.SUCCESS))
@@ -19,13 +19,13 @@
 package ch.protonmail.android.jobs.organizations
 
 import ch.protonmail.android.core.Constants
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.events.Status
 import ch.protonmail.android.events.organizations.OrganizationEvent
 import ch.protonmail.android.jobs.Priority
 import ch.protonmail.android.jobs.ProtonMailBaseJob
 import ch.protonmail.android.utils.AppUtil
 import com.birbit.android.jobqueue.Params
-import kotlinx.coroutines.runBlocking
 import me.proton.core.network.domain.ApiResult
 import timber.log.Timber
 
@@ -34,7 +34,7 @@ class GetOrganizationJob : ProtonMailBaseJob(
 ) {
     @Throws(Throwable::class)
     override fun onRun() {
-        runBlocking {
+        runBlockingMonitored {
             val userId = requireNotNull(userId)
             val response = getApi().fetchOrganization(userId)
             val keysResponse = if (response is ApiResult.Success) {
@@ -24,6 +24,7 @@ import androidx.paging.DataSource
 import androidx.work.WorkInfo
 import ch.protonmail.android.api.ProtonMailApi
 import ch.protonmail.android.core.NetworkConnectivityManager
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.labels.data.local.LabelDao
 import ch.protonmail.android.labels.data.local.model.LabelEntity
 import ch.protonmail.android.labels.data.mapper.LabelEntityApiMapper
@@ -48,7 +49,6 @@ import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.flow.onStart
-import kotlinx.coroutines.runBlocking
 import me.proton.core.domain.entity.UserId
 import me.proton.core.network.domain.ApiResult
 import me.proton.core.network.domain.onError
@@ -117,7 +117,7 @@ internal class LabelRepositoryImpl @Inject constructor(
         observeLabel(labelId).first()
 
     override fun findLabelBlocking(labelId: LabelId): Label? {
-        return runBlocking {
+        return runBlockingMonitored {
             findLabel(labelId)
         }
     }
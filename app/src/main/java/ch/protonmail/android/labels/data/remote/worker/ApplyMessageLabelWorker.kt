@@ -32,13 +32,9 @@ import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApi
 import ch.protonmail.android.api.models.IDList
-import ch.protonmail.android.data.local.CounterRepository
 import ch.protonmail.android.worker.KEY_WORKER_ERROR_DESCRIPTION
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
-import kotlinx.coroutines.flow.filterNotNull
-import kotlinx.coroutines.flow.first
-import me.proton.core.accountmanager.domain.AccountManager
 import timber.log.Timber
 import java.util.concurrent.CancellationException
 import javax.inject.Inject
@@ -49,8 +45,6 @@ internal const val KEY_INPUT_DATA_MESSAGES_IDS = "KeyInputDataMessagesIds"
 internal class ApplyMessageLabelWorker @AssistedInject constructor(
     @Assisted context: Context,
     @Assisted params: WorkerParameters,
-    private val accountManager: AccountManager,
-    private val counterRepository: CounterRepository,
     private val protonMailApi: ProtonMailApi
 ) : CoroutineWorker(context, params) {
 
@@ -59,7 +53,6 @@ internal class ApplyMessageLabelWorker @AssistedInject constructor(
             "Message IDs are missing, cannot apply labels without it!"
         }
         val labelId = inputData.getString(KEY_INPUT_DATA_LABEL_ID)
-        val userId = accountManager.getPrimaryUserId().filterNotNull().first()
         Timber.v("Apply label $labelId for messages: $messageIds")
 
         if (messageIds.isEmpty() || labelId == null) {
@@ -73,15 +66,7 @@ internal class ApplyMessageLabelWorker @AssistedInject constructor(
         return runCatching {
             protonMailApi.labelMessages(idList)
         }.fold(
-            onSuccess = {
-                counterRepository.updateMessageLabelCounter(
-                    userId,
-                    labelId,
-                    messageIds.asList(),
-                    CounterRepository.CounterModificationMethod.INCREMENT
-                )
-                Result.success()
-            },
+            onSuccess = { Result.success() },
             onFailure = { throwable ->
                 if (throwable is CancellationException) {
                     throw throwable
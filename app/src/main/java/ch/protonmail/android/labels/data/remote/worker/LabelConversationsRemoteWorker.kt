@@ -30,7 +30,10 @@ import androidx.work.WorkManager
 import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApiManager
+import ch.protonmail.android.core.Constants
 import ch.protonmail.android.mailbox.data.remote.model.ConversationIdsRequestBody
+import ch.protonmail.android.utils.extensions.enqueueChain
+import ch.protonmail.android.utils.extensions.giveUpChainedWork
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
 import me.proton.core.domain.entity.UserId
@@ -60,9 +63,7 @@ class LabelConversationsRemoteWorker @AssistedInject constructor(
         val userId = inputData.getString(KEY_LABEL_WORKER_USER_ID)
 
         if (conversationIds.isNullOrEmpty() || labelId.isNullOrEmpty() || userId.isNullOrEmpty()) {
-            return Result.failure(
-                workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Input data is not complete")
-            )
+            return giveUpChainedWork(KEY_LABEL_WORKER_ERROR_DESCRIPTION, "Input data is not complete")
         }
 
         val requestBody = ConversationIdsRequestBody(labelId, conversationIds.asList())
@@ -80,9 +81,7 @@ class LabelConversationsRemoteWorker @AssistedInject constructor(
                     throw throwable
                 }
                 if (runAttemptCount > MAX_RUN_ATTEMPTS) {
-                    Result.failure(
-                        workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Run attempts exceeded the limit")
-                    )
+                    giveUpChainedWork(KEY_LABEL_WORKER_ERROR_DESCRIPTION, "Run attempts exceeded the limit")
                 } else {
                     Result.retry()
                 }
@@ -92,23 +91,29 @@ class LabelConversationsRemoteWorker @AssistedInject constructor(
 
     class Enqueuer @Inject constructor(private val workManager: WorkManager) {
 
+        /**
+         * Enqueues a request for every [Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS] Conversations, as a chain that runs
+         *  them one after the other
+         */
         fun enqueue(conversationIds: List<String>, labelId: String, userId: UserId): Operation {
             val constraints = Constraints.Builder()
                 .setRequiredNetworkType(NetworkType.CONNECTED)
                 .build()
 
-            val data = workDataOf(
-                KEY_LABEL_WORKER_CONVERSATION_IDS to conversationIds.toTypedArray(),
-                KEY_LABEL_WORKER_LABEL_ID to labelId,
-                KEY_LABEL_WORKER_USER_ID to userId.id
-            )
+            val requests = conversationIds.chunked(Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS).map { chunkIds ->
+                val data = workDataOf(
+                    KEY_LABEL_WORKER_CONVERSATION_IDS to chunkIds.toTypedArray(),
+                    KEY_LABEL_WORKER_LABEL_ID to labelId,
+                    KEY_LABEL_WORKER_USER_ID to userId.id
+                )
 
-            val request = OneTimeWorkRequestBuilder<LabelConversationsRemoteWorker>()
-                .setConstraints(constraints)
-                .setInputData(data)
-                .build()
+                OneTimeWorkRequestBuilder<LabelConversationsRemoteWorker>()
+                    .setConstraints(constraints)
+                    .setInputData(data)
+                    .build()
+            }
 
-            return workManager.enqueue(request)
+            return workManager.enqueueChain(requests)
         }
     }
 }
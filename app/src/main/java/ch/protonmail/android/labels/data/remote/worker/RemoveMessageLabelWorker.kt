@@ -32,8 +32,6 @@ import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApi
 import ch.protonmail.android.api.models.IDList
-import ch.protonmail.android.core.UserManager
-import ch.protonmail.android.data.local.CounterRepository
 import ch.protonmail.android.worker.KEY_WORKER_ERROR_DESCRIPTION
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
@@ -45,13 +43,10 @@ import javax.inject.Inject
 internal class RemoveMessageLabelWorker @AssistedInject constructor(
     @Assisted context: Context,
     @Assisted params: WorkerParameters,
-    private val userManager: UserManager,
-    private val counterRepository: CounterRepository,
     private val protonMailApi: ProtonMailApi
 ) : CoroutineWorker(context, params) {
 
     override suspend fun doWork(): Result {
-        val userId = requireNotNull(userManager.currentUserId)
         val messageIds = requireNotNull(inputData.getStringArray(KEY_INPUT_DATA_MESSAGES_IDS)) {
             "Cannot continue without message ids!"
         }
@@ -68,15 +63,7 @@ internal class RemoveMessageLabelWorker @AssistedInject constructor(
             val idList = IDList(labelId, messageIds.asList())
             protonMailApi.unlabelMessages(idList)
         }.fold(
-            onSuccess = {
-                counterRepository.updateMessageLabelCounter(
-                    userId,
-                    labelId,
-                    messageIds.asList(),
-                    CounterRepository.CounterModificationMethod.DECREMENT
-                )
-                Result.success()
-            },
+            onSuccess = { Result.success() },
             onFailure = { throwable ->
                 if (throwable is CancellationException) {
                     throw throwable
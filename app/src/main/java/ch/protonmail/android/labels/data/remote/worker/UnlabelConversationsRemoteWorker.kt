@@ -30,7 +30,10 @@ import androidx.work.WorkManager
 import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApiManager
+import ch.protonmail.android.core.Constants
 import ch.protonmail.android.mailbox.data.remote.model.ConversationIdsRequestBody
+import ch.protonmail.android.utils.extensions.enqueueChain
+import ch.protonmail.android.utils.extensions.giveUpChainedWork
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
 import me.proton.core.domain.entity.UserId
@@ -59,9 +62,7 @@ class UnlabelConversationsRemoteWorker @AssistedInject constructor(
         val userId = inputData.getString(KEY_UNLABEL_WORKER_USER_ID)
 
         if (conversationIds.isNullOrEmpty() || labelId.isNullOrEmpty() || userId.isNullOrEmpty()) {
-            return Result.failure(
-                workDataOf(KEY_UNLABEL_WORKER_ERROR_DESCRIPTION to "Input data is not complete")
-            )
+            return giveUpChainedWork(KEY_UNLABEL_WORKER_ERROR_DESCRIPTION, "Input data is not complete")
         }
 
         val requestBody = ConversationIdsRequestBody(labelId, conversationIds.asList())
@@ -77,9 +78,7 @@ class UnlabelConversationsRemoteWorker @AssistedInject constructor(
                     throw throwable
                 }
                 if (runAttemptCount > MAX_RUN_ATTEMPTS) {
-                    Result.failure(
-                        workDataOf(KEY_UNLABEL_WORKER_ERROR_DESCRIPTION to "Run attempts exceeded the limit")
-                    )
+                    giveUpChainedWork(KEY_UNLABEL_WORKER_ERROR_DESCRIPTION, "Run attempts exceeded the limit")
                 } else {
                     Result.retry()
                 }
@@ -89,23 +88,29 @@ class UnlabelConversationsRemoteWorker @AssistedInject constructor(
 
     class Enqueuer @Inject constructor(private val workManager: WorkManager) {
 
+        /**
+         * Enqueues a request for every [Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS] Conversations, as a chain that runs
+         *  them one after the other
+         */
         fun enqueue(conversationIds: List<String>, labelId: String, userId: UserId): Operation {
             val constraints = Constraints.Builder()
                 .setRequiredNetworkType(NetworkType.CONNECTED)
                 .build()
 
-            val data = workDataOf(
-                KEY_UNLABEL_WORKER_CONVERSATION_IDS to conversationIds.toTypedArray(),
-                KEY_UNLABEL_WORKER_LABEL_ID to labelId,
-                KEY_UNLABEL_WORKER_USER_ID to userId.id
-            )
+            val requests = conversationIds.chunked(Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS).map { chunkIds ->
+                val data = workDataOf(
+                    KEY_UNLABEL_WORKER_CONVERSATION_IDS to chunkIds.toTypedArray(),
+                    KEY_UNLABEL_WORKER_LABEL_ID to labelId,
+                    KEY_UNLABEL_WORKER_USER_ID to userId.id
+                )
 
-            val request = OneTimeWorkRequestBuilder<UnlabelConversationsRemoteWorker>()
-                .setConstraints(constraints)
-                .setInputData(data)
-                .build()
+                OneTimeWorkRequestBuilder<UnlabelConversationsRemoteWorker>()
+                    .setConstraints(constraints)
+                    .setInputData(data)
+                    .build()
+            }
 
-            return workManager.enqueue(request)
+            return workManager.enqueueChain(requests)
         }
     }
 }
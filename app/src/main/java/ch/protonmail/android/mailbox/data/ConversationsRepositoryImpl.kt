@@ -28,6 +28,7 @@ import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.ProtonStore
 import ch.protonmail.android.data.local.MessageDao
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
 import ch.protonmail.android.details.data.remote.model.ConversationResponse
 import ch.protonmail.android.details.data.toDomainModelList
 import ch.protonmail.android.domain.LoadMoreFlow
@@ -41,6 +42,7 @@ import ch.protonmail.android.mailbox.data.local.UnreadCounterDao
 import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel
 import ch.protonmail.android.mailbox.data.local.model.LabelContextDatabaseModel
 import ch.protonmail.android.mailbox.data.local.model.UnreadCounterEntity
+import ch.protonmail.android.mailbox.data.local.reconcileWhenDrifted
 import ch.protonmail.android.mailbox.data.mapper.ApiToDatabaseUnreadCounterMapper
 import ch.protonmail.android.mailbox.data.mapper.ConversationApiModelToConversationDatabaseModelMapper
 import ch.protonmail.android.mailbox.data.mapper.ConversationDatabaseModelToConversationMapper
@@ -66,6 +68,7 @@ import com.dropbox.android.external.store4.StoreBuilder
 import com.dropbox.android.external.store4.StoreRequest
 import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.channels.BufferOverflow
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.catch
@@ -75,7 +78,6 @@ import kotlinx.coroutines.flow.flatMapLatest
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.onStart
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.yield
 import me.proton.core.data.arch.toDataResult
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.arch.DataResult.Error
@@ -87,9 +89,12 @@ import me.proton.core.util.kotlin.toInt
 import timber.log.Timber
 import javax.inject.Inject
 import kotlin.math.max
+import kotlin.time.Duration.Companion.seconds
 
 // For non-custom locations such as: Inbox, Sent, Archive etc.
 private const val MAX_LOCATION_ID_LENGTH = 2
+// A page of conversations fetched within this time is shown without waiting for the network
+private val CONVERSATIONS_FRESHNESS_TTL = 30.seconds
 
 @Suppress("LongParameterList") // Every new parameter adds a new issue and breaks the build
 internal class ConversationsRepositoryImpl @Inject constructor(
@@ -110,6 +115,7 @@ internal class ConversationsRepositoryImpl @Inject constructor(
     private val unlabelConversationsRemoteWorker: UnlabelConversationsRemoteWorker.Enqueuer,
     private val deleteConversationsRemoteWorker: DeleteConversationsRemoteWorker.Enqueuer,
     private val markUnreadLatestNonDraftMessageInLocation: MarkUnreadLatestNonDraftMessageInLocation,
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache,
     connectivityManager: NetworkConnectivityManager,
     private val externalScope: CoroutineScope
 ) : ConversationsRepository {
@@ -123,7 +129,8 @@ internal class ConversationsRepositoryImpl @Inject constructor(
     private val unreadCounterDao: UnreadCounterDao
         get() = databaseProvider.provideUnreadCounterDao(userManager.requireCurrentUserId())
 
-    private val refreshUnreadCountersTrigger = MutableSharedFlow<Unit>(replay = 1)
+    private val refreshUnreadCountersTrigger =
+        MutableSharedFlow<Unit>(extraBufferCapacity = 1, onBufferOverflow = BufferOverflow.DROP_OLDEST)
 
     private val allConversationsStore by lazy {
         ProtonStore(
@@ -134,7 +141,9 @@ internal class ConversationsRepositoryImpl @Inject constructor(
             apiToDomainMapper = responseToConversationsMapper,
             databaseToDomainMapper = databaseToConversationMapper,
             apiToDatabaseMapper = responseToDatabaseConversationsMapper,
-            connectivityManager = connectivityManager
+            connectivityManager = connectivityManager,
+            freshnessTtl = CONVERSATIONS_FRESHNESS_TTL,
+            revalidationScope = externalScope
         )
     }
 
@@ -162,8 +171,9 @@ internal class ConversationsRepositoryImpl @Inject constructor(
     override fun observeConversations(
         params: GetAllConversationsParameters,
         refreshAtStart: Boolean,
+        ignoreFreshness: Boolean
     ): LoadMoreFlow<DataResult<List<Conversation>>> =
-        allConversationsStore.loadMoreFlow(params, refreshAtStart)
+        allConversationsStore.loadMoreFlow(params, refreshAtStart, ignoreFreshness)
 
     override fun getConversation(
         userId: UserId,
@@ -173,18 +183,37 @@ internal class ConversationsRepositoryImpl @Inject constructor(
             .map { it.toDataResult() }
             .onStart { Timber.i("getConversation conversationId: $conversationId") }
 
+    /**
+     * The counters are kept up to date locally, by [ConversationDao] when Conversations change their unread state
+     *  or labels and by the event loop. They are fetched from the server only when [refreshUnreadCounters] is called
+     *  or when the stored ones drifted
+     */
     override fun getUnreadCounters(userId: UserId): Flow<DataResult<List<UnreadCounter>>> =
-        refreshUnreadCountersTrigger.flatMapLatest {
-            observeUnreadCountersFromDatabase(userId)
-                .onStart { fetchAndSaveUnreadCounters(userId) }
-                .catch { exception ->
-                    if (exception is CancellationException) {
-                        throw exception
-                    } else {
-                        emit(Error.Remote(exception.message, exception))
+        refreshUnreadCountersTrigger
+            .map { true }
+            .onStart { emit(false) }
+            .flatMapLatest { forceRefresh ->
+                observeUnreadCountersFromDatabase(userId)
+                    .onStart {
+                        // A failed refresh is reported, but the stored counters keep being observed
+                        if (forceRefresh) {
+                            runCatching { fetchAndSaveUnreadCounters(userId) }
+                                .onFailure { exception ->
+                                    if (exception is CancellationException) {
+                                        throw exception
+                                    }
+                                    emit(Error.Remote(exception.message, exception))
+                                }
+                        }
                     }
-                }
-        }.onStart { refreshUnreadCounters() }
+                    .catch { exception ->
+                        if (exception is CancellationException) {
+                            throw exception
+                        } else {
+                            emit(Error.Remote(exception.message, exception))
+                        }
+                    }
+            }
 
 
     override fun refreshUnreadCounters() {
@@ -210,26 +239,27 @@ internal class ConversationsRepositoryImpl @Inject constructor(
         conversationDao.deleteConversations(userId = userId.id, *conversationIds.toTypedArray())
     }
 
+    override suspend fun saveAndDeleteConversations(
+        userId: UserId,
+        conversations: List<ConversationApiModel>,
+        deletedConversationIds: List<String>
+    ) {
+        val databaseModels = apiToDatabaseConversationMapper.toDatabaseModels(conversations, userId)
+        conversationDao.applyConversationsChanges(userId.id, databaseModels, deletedConversationIds)
+    }
+
     override suspend fun clearConversations() = conversationDao.clear()
 
     override suspend fun markRead(
         conversationIds: List<String>,
         userId: UserId
     ): ConversationsActionResult {
-        conversationIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                markConversationsReadWorker.enqueue(ids, userId)
-            }
+        if (conversationIds.isEmpty()) return ConversationsActionResult.Success
+        markConversationsReadWorker.enqueue(conversationIds, userId)
 
-        conversationIds.forEach { conversationId ->
-            conversationDao.updateNumUnreadMessages(conversationId, 0)
-            // All the messages from the conversation are marked as read
-            getAllConversationMessagesSortedByNewest(conversationId).forEach { message ->
-                yield()
-                messageDao.saveMessage(message.apply { setIsRead(true) })
-            }
-        }
+        conversationDao.updateConversationsNumUnreadMessages(conversationIds, 0)
+        // All the messages from the conversations are marked as read
+        messageDao.updateUnreadByConversationIds(conversationIds, unread = false)
 
         return ConversationsActionResult.Success
     }
@@ -275,7 +305,7 @@ internal class ConversationsRepositoryImpl @Inject constructor(
             } else {
                 conversation.numUnread + 1
             }
-            conversationDao.update(
+            conversationDao.updateConversation(
                 conversation.copy(
                     numUnread = numUnread
                 )
@@ -287,64 +317,44 @@ internal class ConversationsRepositoryImpl @Inject constructor(
         conversationIds: List<String>,
         userId: UserId
     ): ConversationsActionResult {
+        if (conversationIds.isEmpty()) return ConversationsActionResult.Success
         val starredLabelId = Constants.MessageLocationType.STARRED.messageLocationTypeValue.toString()
+        labelConversationsRemoteWorker.enqueue(conversationIds, starredLabelId, userId)
 
-        conversationIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                labelConversationsRemoteWorker.enqueue(ids, starredLabelId, userId)
-            }
-
-        conversationIds.forEach { conversationId ->
-            Timber.v("Star conversation $conversationId")
-            var lastMessageTime = 0L
-            val starredMessages = getAllConversationMessagesSortedByNewest(conversationId).map { message ->
-                yield()
+        Timber.v("Star ${conversationIds.size} conversations")
+        return updateConversationsLocally(
+            conversationIds,
+            userId,
+            changeMessage = { message ->
                 message.addLabels(listOf(starredLabelId))
                 message.isStarred = true
-                lastMessageTime = max(lastMessageTime, message.time)
-                return@map message
-            }
-            messageDao.saveMessages(starredMessages)
-
-            val result = addLabelsToConversation(conversationId, userId, listOf(starredLabelId), lastMessageTime)
-            if (result is ConversationsActionResult.Error) {
-                return result
+            },
+            changeConversation = { conversation, lastMessageTime ->
+                conversation.withLabels(listOf(starredLabelId), lastMessageTime)
             }
-        }
-
-        return ConversationsActionResult.Success
+        )
     }
 
     override suspend fun unstar(
         conversationIds: List<String>,
         userId: UserId
     ): ConversationsActionResult {
+        if (conversationIds.isEmpty()) return ConversationsActionResult.Success
         val starredLabelId = Constants.MessageLocationType.STARRED.messageLocationTypeValue.toString()
+        unlabelConversationsRemoteWorker.enqueue(conversationIds, starredLabelId, userId)
 
-        conversationIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                unlabelConversationsRemoteWorker.enqueue(ids, starredLabelId, userId)
-            }
-
-        conversationIds.forEach { conversationId ->
-            Timber.v("UnStar conversation $conversationId")
-            val unstarredMessages = getAllConversationMessagesSortedByNewest(conversationId).map { message ->
-                yield()
+        Timber.v("UnStar ${conversationIds.size} conversations")
+        return updateConversationsLocally(
+            conversationIds,
+            userId,
+            changeMessage = { message ->
                 message.removeLabels(listOf(starredLabelId))
                 message.isStarred = false
-                return@map message
-            }
-            messageDao.saveMessages(unstarredMessages)
-
-            val result = removeLabelsFromConversation(conversationId, userId, listOf(starredLabelId))
-            if (result is ConversationsActionResult.Error) {
-                return result
+            },
+            changeConversation = { conversation, _ ->
+                conversation.withoutLabels(listOf(starredLabelId))
             }
-        }
-
-        return ConversationsActionResult.Success
+        )
     }
 
     override suspend fun updateConvosBasedOnMessagesStarredStatus(
@@ -365,7 +375,7 @@ internal class ConversationsRepositoryImpl @Inject constructor(
                 action == ChangeMessagesStarredStatus.Action.ACTION_STAR
             )
 
-            conversationDao.update(
+            conversationDao.updateConversation(
                 conversation.copy(
                     labels = labels
                 )
@@ -378,56 +388,30 @@ internal class ConversationsRepositoryImpl @Inject constructor(
         userId: UserId,
         folderId: String
     ): ConversationsActionResult {
-        conversationIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                labelConversationsRemoteWorker.enqueue(ids, folderId, userId)
-            }
-
-        conversationIds.forEach { conversationId ->
-            Timber.v("Move conversation $conversationId to folder: $folderId")
-            var lastMessageTime = 0L
-            val messagesToUpdate = getAllConversationMessagesSortedByNewest(conversationId).map { message ->
-                yield()
+        if (conversationIds.isEmpty()) return ConversationsActionResult.Success
+        labelConversationsRemoteWorker.enqueue(conversationIds, folderId, userId)
+
+        Timber.v("Move ${conversationIds.size} conversations to folder: $folderId")
+        val isFolder = cachedIsFolderLookup()
+        return updateConversationsLocally(
+            conversationIds,
+            userId,
+            changeMessage = { message ->
                 val labelsToAddToMessage = getLabelIdsForAddingWhenMovingToFolder(folderId, message.allLabelIDs)
-                val labelsToRemoveFromMessage = getLabelIdsForRemovingWhenMovingToFolder(message.allLabelIDs)
+                val labelsToRemoveFromMessage = getLabelIdsForRemovingWhenMovingToFolder(message.allLabelIDs, isFolder)
                 message.addLabels(labelsToAddToMessage.toList())
                 message.removeLabels(labelsToRemoveFromMessage.toList())
-                Timber.v("Remove labels $labelsToRemoveFromMessage, add labels: $labelsToAddToMessage")
-                lastMessageTime = max(lastMessageTime, message.time)
-                message
-            }
-            // save all updated messages from a conversation in one go
-            messageDao.saveMessages(messagesToUpdate)
-
-            val conversation = conversationDao.findConversation(userId.id, conversationId)
-            if (conversation == null) {
-                Timber.d("Conversation with id $conversationId could not be found in DB")
-                return ConversationsActionResult.Error
-            }
-            val labelsToRemoveFromConversation = getLabelIdsForRemovingWhenMovingToFolder(
-                conversation.labels.map { it.id }
-            )
-            val removeLabelsResult = removeLabelsFromConversation(
-                conversationId,
-                userId,
-                labelsToRemoveFromConversation
-            )
-            val addLabelsResult = addLabelsToConversation(
-                conversationId,
-                userId,
-                listOf(folderId),
-                lastMessageTime
-            )
-            if (
-                removeLabelsResult is ConversationsActionResult.Error ||
-                addLabelsResult is ConversationsActionResult.Error
-            ) {
-                return ConversationsActionResult.Error
+            },
+            changeConversation = { conversation, lastMessageTime ->
+                val labelsToRemoveFromConversation = getLabelIdsForRemovingWhenMovingToFolder(
+                    conversation.labels.map { it.id },
+                    isFolder
+                )
+                conversation
+                    .withoutLabels(labelsToRemoveFromConversation)
+                    .withLabels(listOf(folderId), lastMessageTime)
             }
-        }
-
-        return ConversationsActionResult.Success
+        )
     }
 
     override suspend fun updateConvosBasedOnMessagesLocation(
@@ -456,7 +440,7 @@ internal class ConversationsRepositoryImpl @Inject constructor(
                 shouldAddMessageToLabel = true
             )
 
-            conversationDao.update(conversation.copy(labels = labels))
+            conversationDao.updateConversation(conversation.copy(labels = labels))
         }
     }
 
@@ -479,6 +463,7 @@ internal class ConversationsRepositoryImpl @Inject constructor(
                     .filter { currentFolderId in it.allLabelIDs }
                     .mapNotNull { it.messageId }
                 messageDao.deleteMessagesByIds(messagesToDelete)
+                messagesToDelete.forEach { prefetchedMessageBodyCache.remove(userId, it) }
 
                 // If all the messages of the conversation are in the current folder, then delete the conversation
                 // Else remove the current location from the conversation's labels list
@@ -524,7 +509,7 @@ internal class ConversationsRepositoryImpl @Inject constructor(
                         false
                     )
                 }
-                conversationDao.update(
+                conversationDao.updateConversation(
                     conversation.copy(
                         numMessages = numMessages,
                         numUnread = numUnread,
@@ -546,29 +531,17 @@ internal class ConversationsRepositoryImpl @Inject constructor(
         userId: UserId,
         labelId: String
     ): ConversationsActionResult {
-        conversationIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                labelConversationsRemoteWorker.enqueue(ids, labelId, userId)
-            }
-
-        conversationIds.forEach { conversationId ->
-            var lastMessageTime = 0L
-            val labeledMessages = messageDao.findAllConversationMessagesSortedByNewest(conversationId).map { message ->
-                yield()
-                message.addLabels(listOf(labelId))
-                lastMessageTime = max(lastMessageTime, message.time)
-                return@map message
-            }
-            messageDao.saveMessages(labeledMessages)
-
-            val result = addLabelsToConversation(conversationId, userId, listOf(labelId), lastMessageTime)
-            if (result is ConversationsActionResult.Error) {
-                return result
+        if (conversationIds.isEmpty()) return ConversationsActionResult.Success
+        labelConversationsRemoteWorker.enqueue(conversationIds, labelId, userId)
+
+        return updateConversationsLocally(
+            conversationIds,
+            userId,
+            changeMessage = { message -> message.addLabels(listOf(labelId)) },
+            changeConversation = { conversation, lastMessageTime ->
+                conversation.withLabels(listOf(labelId), lastMessageTime)
             }
-        }
-
-        return ConversationsActionResult.Success
+        )
     }
 
     override suspend fun unlabel(
@@ -576,27 +549,15 @@ internal class ConversationsRepositoryImpl @Inject constructor(
         userId: UserId,
         labelId: String
     ): ConversationsActionResult {
-        conversationIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                unlabelConversationsRemoteWorker.enqueue(ids, labelId, userId)
-            }
-
-        conversationIds.forEach { conversationId ->
-            val unlabeledMessages = messageDao.findAllConversationMessagesSortedByNewest(conversationId).map { message ->
-                yield()
-                message.removeLabels(listOf(labelId))
-                return@map message
-            }
-            messageDao.saveMessages(unlabeledMessages)
-
-            val result = removeLabelsFromConversation(conversationId, userId, listOf(labelId))
-            if (result is ConversationsActionResult.Error) {
-                return result
-            }
-        }
-
-        return ConversationsActionResult.Success
+        if (conversationIds.isEmpty()) return ConversationsActionResult.Success
+        unlabelConversationsRemoteWorker.enqueue(conversationIds, labelId, userId)
+
+        return updateConversationsLocally(
+            conversationIds,
+            userId,
+            changeMessage = { message -> message.removeLabels(listOf(labelId)) },
+            changeConversation = { conversation, _ -> conversation.withoutLabels(listOf(labelId)) }
+        )
     }
 
     override suspend fun updateConversationBasedOnMessageLabels(
@@ -627,7 +588,7 @@ internal class ConversationsRepositoryImpl @Inject constructor(
                 false
             )
         }
-        conversationDao.update(conversation.copy(labels = labels))
+        conversationDao.updateConversation(conversation.copy(labels = labels))
     }
 
     private fun observeAllConversationsFromDatabase(
@@ -680,10 +641,13 @@ internal class ConversationsRepositoryImpl @Inject constructor(
      * Filter out the non-exclusive labels and locations like: ALL_DRAFT, ALL_SENT, ALL_MAIL, that shouldn't be
      * removed when moving a conversation to folder.
      */
-    private suspend fun getLabelIdsForRemovingWhenMovingToFolder(labelIds: Collection<String>): Collection<String> {
+    private suspend fun getLabelIdsForRemovingWhenMovingToFolder(
+        labelIds: Collection<String>,
+        isFolder: suspend (labelId: String) -> Boolean
+    ): Collection<String> {
         return labelIds.filter { labelId ->
             val isLabelExclusive = if (labelId.length > MAX_LOCATION_ID_LENGTH) {
-                labelsRepository.findLabel(LabelId(labelId))?.type == LabelType.FOLDER
+                isFolder(labelId)
             } else {
                 true
             }
@@ -708,53 +672,74 @@ internal class ConversationsRepositoryImpl @Inject constructor(
         unreadCounterDao.insertOrUpdate(counts)
     }
 
-    private suspend fun addLabelsToConversation(
-        conversationId: String,
+    /**
+     * Applies [changeMessage] to all the Messages of the given Conversations and [changeConversation] to the
+     *  Conversations themselves, reading and writing each table once for the whole selection, rather than once per
+     *  Conversation
+     *
+     * @return [ConversationsActionResult.Error] if any of the Conversations could not be found in DB
+     */
+    private suspend fun updateConversationsLocally(
+        conversationIds: List<String>,
         userId: UserId,
-        labelIds: Collection<String>,
-        lastMessageTime: Long
+        changeMessage: suspend (Message) -> Unit,
+        changeConversation: suspend (
+            conversation: ConversationDatabaseModel,
+            lastMessageTime: Long
+        ) -> ConversationDatabaseModel
     ): ConversationsActionResult {
-        val conversation = conversationDao.findConversation(userId.id, conversationId)
-        if (conversation == null) {
-            Timber.d("Conversation with id $conversationId could not be found in DB")
+        val messages = messageDao.findMessagesInfoByConversationIds(conversationIds)
+        messages.forEach { message -> changeMessage(message) }
+        messageDao.updateMessagesInfo(messages)
+
+        val lastMessageTimeByConversationId = messages.groupBy { it.conversationId }
+            .mapValues { (_, conversationMessages) -> conversationMessages.maxOf { it.time } }
+        val conversations = conversationDao.findConversations(userId.id, conversationIds)
+        val updatedConversations = conversations.map { conversation ->
+            changeConversation(conversation, lastMessageTimeByConversationId[conversation.id] ?: 0L)
+        }
+        conversationDao.updateConversations(updatedConversations)
+
+        val missingConversationIds = conversationIds - conversations.map { it.id }.toSet()
+        if (missingConversationIds.isNotEmpty()) {
+            Timber.d("Conversations with ids $missingConversationIds could not be found in DB")
             return ConversationsActionResult.Error
         }
-        val newLabels = mutableListOf<LabelContextDatabaseModel>()
-        labelIds.forEach { labelId ->
-            val newLabel = LabelContextDatabaseModel(
+        return ConversationsActionResult.Success
+    }
+
+    /**
+     * @return whether a label is a folder, looking up each label only once, so it can be shared by all the items of
+     *  a bulk action
+     */
+    private fun cachedIsFolderLookup(): suspend (labelId: String) -> Boolean {
+        val isFolderByLabelId = mutableMapOf<String, Boolean>()
+        return { labelId ->
+            isFolderByLabelId.getOrPut(labelId) {
+                labelsRepository.findLabel(LabelId(labelId))?.type == LabelType.FOLDER
+            }
+        }
+    }
+
+    private fun ConversationDatabaseModel.withLabels(
+        labelIds: Collection<String>,
+        lastMessageTime: Long
+    ): ConversationDatabaseModel {
+        val newLabels = labelIds.map { labelId ->
+            LabelContextDatabaseModel(
                 labelId,
-                conversation.numUnread,
-                conversation.numMessages,
+                numUnread,
+                numMessages,
                 lastMessageTime,
-                conversation.size.toInt(),
-                conversation.numAttachments
+                size.toInt(),
+                numAttachments
             )
-            newLabels.add(newLabel)
         }
-        val labels = conversation.labels.toMutableList()
-
-        labels.removeAll { it.id in labelIds }
-        labels.addAll(newLabels)
-        Timber.v("Update labels: $labels conversation: $conversationId")
-        conversationDao.updateLabels(conversationId, labels)
-        return ConversationsActionResult.Success
+        return copy(labels = labels.filterNot { it.id in labelIds } + newLabels)
     }
 
-    private suspend fun removeLabelsFromConversation(
-        conversationId: String,
-        userId: UserId,
-        labelIds: Collection<String>
-    ): ConversationsActionResult {
-        val conversation = conversationDao.findConversation(userId.id, conversationId)
-        if (conversation == null) {
-            Timber.d("Conversation with id $conversationId could not be found in DB")
-            return ConversationsActionResult.Error
-        }
-        val labels = conversation.labels.toMutableList()
-        labels.removeAll { it.id in labelIds }
-        conversationDao.updateLabels(conversationId, labels)
-        return ConversationsActionResult.Success
-    }
+    private fun ConversationDatabaseModel.withoutLabels(labelIds: Collection<String>): ConversationDatabaseModel =
+        copy(labels = labels.filterNot { it.id in labelIds })
 
     private suspend fun getContextTimeFromMessagesInConversation(
         conversationId: String,
@@ -815,9 +800,11 @@ internal class ConversationsRepositoryImpl @Inject constructor(
 
 
     private fun observeUnreadCountersFromDatabase(userId: UserId): Flow<DataResult<List<UnreadCounter>>> =
-        unreadCounterDao.observeConversationsUnreadCounters(userId).map { list ->
-            val domainModels = databaseToDomainUnreadCounterMapper.toDomainModels(list)
-            Success(ResponseSource.Local, domainModels)
-        }
+        unreadCounterDao.observeConversationsUnreadCounters(userId)
+            .reconcileWhenDrifted { fetchAndSaveUnreadCounters(userId) }
+            .map { list ->
+                val domainModels = databaseToDomainUnreadCounterMapper.toDomainModels(list)
+                Success(ResponseSource.Local, domainModels)
+            }
 
 }
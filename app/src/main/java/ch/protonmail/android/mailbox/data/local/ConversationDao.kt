@@ -21,6 +21,8 @@ package ch.protonmail.android.mailbox.data.local
 
 import androidx.room.Dao
 import androidx.room.Query
+import androidx.room.Transaction
+import ch.protonmail.android.core.Constants
 import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel
 import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.COLUMN_ID
 import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.COLUMN_LABELS
@@ -28,6 +30,11 @@ import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.
 import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.COLUMN_USER_ID
 import ch.protonmail.android.mailbox.data.local.model.ConversationDatabaseModel.Companion.TABLE_CONVERSATIONS
 import ch.protonmail.android.mailbox.data.local.model.LabelContextDatabaseModel
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_COLUMN_LABEL_ID
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_COLUMN_TYPE
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_COLUMN_UNREAD_COUNT
+import ch.protonmail.android.mailbox.data.local.model.UNREAD_COUNTER_TABLE_NAME
+import ch.protonmail.android.mailbox.data.local.model.UnreadCounterEntity
 import kotlinx.coroutines.flow.Flow
 import me.proton.core.data.room.db.BaseDao
 
@@ -84,9 +91,170 @@ abstract class ConversationDao : BaseDao<ConversationDatabaseModel>() {
     )
     abstract suspend fun deleteConversations(userId: String, vararg conversationIds: String)
 
+    /**
+     * Inserts or updates [conversations] and deletes the ones with [deletedConversationIds] in a single
+     *  transaction, so observers of the conversations are notified once for the whole batch
+     */
+    @Transaction
+    open suspend fun applyConversationsChanges(
+        userId: String,
+        conversations: List<ConversationDatabaseModel>,
+        deletedConversationIds: List<String>
+    ) {
+        if (conversations.isNotEmpty()) {
+            insertOrUpdate(*conversations.toTypedArray())
+        }
+        // The user id is bound as an argument too
+        deletedConversationIds.chunked(Constants.MAX_SQL_ARGUMENTS - 1).forEach { ids ->
+            deleteConversations(userId, *ids.toTypedArray())
+        }
+    }
+
     @Query("DELETE FROM $TABLE_CONVERSATIONS")
     abstract fun clear()
 
+    /**
+     * Updates [conversation] and, in the same transaction, the unread counters of the labels it enters or leaves
+     */
+    @Transaction
+    open suspend fun updateConversation(conversation: ConversationDatabaseModel) {
+        val storedConversation = findConversation(conversation.userId, conversation.id)
+        update(conversation)
+        updateUnreadCounters(storedConversation, conversation)
+    }
+
+    /**
+     * Updates the number of unread Messages of a Conversation and, in the same transaction, the unread counters
+     *  of its labels
+     */
+    @Transaction
+    open suspend fun updateNumUnreadMessages(conversationId: String, numUnreadMessages: Int) {
+        val storedConversation = findConversationById(conversationId) ?: return
+        saveNumUnreadMessages(conversationId, numUnreadMessages)
+        updateUnreadCounters(storedConversation, storedConversation.copy(numUnread = numUnreadMessages))
+    }
+
+    /**
+     * Updates the labels of a Conversation and, in the same transaction, the unread counters of the labels it enters
+     *  or leaves
+     */
+    @Transaction
+    open suspend fun updateLabels(
+        conversationId: String,
+        labels: List<LabelContextDatabaseModel>
+    ) {
+        val storedConversation = findConversationById(conversationId) ?: return
+        saveLabels(conversationId, labels)
+        updateUnreadCounters(storedConversation, storedConversation.copy(labels = labels))
+    }
+
+    /**
+     * Finds the Conversations with the given ids, using a query for every [Constants.MAX_SQL_ARGUMENTS] of them
+     */
+    suspend fun findConversations(userId: String, conversationIds: List<String>): List<ConversationDatabaseModel> =
+        // The user id is bound as an argument too
+        conversationIds.chunked(Constants.MAX_SQL_ARGUMENTS - 1).flatMap { ids ->
+            findConversationsChunk(userId, ids)
+        }
+
+    /**
+     * Updates all the given [conversations], that must be already stored, and the unread counters of the labels
+     *  they enter or leave in a single transaction, so a bulk action is written and observed once
+     */
+    @Transaction
+    open suspend fun updateConversations(conversations: List<ConversationDatabaseModel>) {
+        if (conversations.isEmpty()) return
+        val storedConversationsById = conversations.map { it.id }
+            .chunked(Constants.MAX_SQL_ARGUMENTS)
+            .flatMap { findConversationsByIds(it) }
+            .associateBy { it.id }
+        update(*conversations.toTypedArray())
+        val deltas = UnreadCounterDeltas()
+        for (conversation in conversations) {
+            val storedConversation = storedConversationsById[conversation.id] ?: continue
+            deltas.onConversationChange(storedConversation, conversation)
+        }
+        updateUnreadCounters(deltas)
+    }
+
+    /**
+     * Sets the number of unread Messages of all the given Conversations with a statement for every
+     *  [Constants.MAX_SQL_ARGUMENTS] of them and, in the same transaction, updates the unread counters of their labels
+     */
+    @Transaction
+    open suspend fun updateConversationsNumUnreadMessages(conversationIds: List<String>, numUnreadMessages: Int) {
+        val deltas = UnreadCounterDeltas()
+        // The number of unread Messages is bound as an argument too
+        conversationIds.chunked(Constants.MAX_SQL_ARGUMENTS - 1).forEach { ids ->
+            findConversationsByIds(ids).forEach { storedConversation ->
+                deltas.onConversationChange(storedConversation, storedConversation.copy(numUnread = numUnreadMessages))
+            }
+            saveNumUnreadMessages(ids, numUnreadMessages)
+        }
+        updateUnreadCounters(deltas)
+    }
+
+    /**
+     * A Conversation counts as unread in each of its labels as long as it has any unread Message. Conversations
+     *  saved for the first time come from the server and are already part of its counts, so they are not counted
+     */
+    private suspend fun updateUnreadCounters(
+        storedConversation: ConversationDatabaseModel?,
+        conversation: ConversationDatabaseModel
+    ) {
+        storedConversation ?: return
+        val deltas = UnreadCounterDeltas()
+        deltas.onConversationChange(storedConversation, conversation)
+        updateUnreadCounters(deltas)
+    }
+
+    private fun UnreadCounterDeltas.onConversationChange(
+        storedConversation: ConversationDatabaseModel,
+        conversation: ConversationDatabaseModel
+    ) {
+        onChange(
+            wasUnread = storedConversation.numUnread > 0,
+            previousLabelIds = storedConversation.labels.map { it.id },
+            isUnread = conversation.numUnread > 0,
+            labelIds = conversation.labels.map { it.id }
+        )
+    }
+
+    private suspend fun updateUnreadCounters(deltas: UnreadCounterDeltas) {
+        deltas.toMap().forEach { (labelId, delta) ->
+            incrementUnreadCounter(UnreadCounterEntity.Type.CONVERSATIONS, labelId, delta)
+        }
+    }
+
+    @Query(
+        """
+            SELECT * FROM $TABLE_CONVERSATIONS
+            WHERE $COLUMN_ID IN (:conversationIds) AND $COLUMN_USER_ID = :userId
+        """
+    )
+    protected abstract suspend fun findConversationsChunk(
+        userId: String,
+        conversationIds: List<String>
+    ): List<ConversationDatabaseModel>
+
+    @Query(
+        """
+            SELECT * FROM $TABLE_CONVERSATIONS
+            WHERE $COLUMN_ID IN (:conversationIds)
+        """
+    )
+    protected abstract suspend fun findConversationsByIds(
+        conversationIds: List<String>
+    ): List<ConversationDatabaseModel>
+
+    @Query(
+        """
+            SELECT * FROM $TABLE_CONVERSATIONS
+            WHERE $COLUMN_ID = :conversationId
+        """
+    )
+    protected abstract suspend fun findConversationById(conversationId: String): ConversationDatabaseModel?
+
     @Query(
         """
             UPDATE $TABLE_CONVERSATIONS
@@ -94,7 +262,16 @@ abstract class ConversationDao : BaseDao<ConversationDatabaseModel>() {
             WHERE $COLUMN_ID = :conversationId
         """
     )
-    abstract suspend fun updateNumUnreadMessages(conversationId: String, numUnreadMessages: Int)
+    protected abstract suspend fun saveNumUnreadMessages(conversationId: String, numUnreadMessages: Int)
+
+    @Query(
+        """
+            UPDATE $TABLE_CONVERSATIONS
+            SET $COLUMN_NUM_UNREAD = :numUnreadMessages
+            WHERE $COLUMN_ID IN (:conversationIds)
+        """
+    )
+    protected abstract suspend fun saveNumUnreadMessages(conversationIds: List<String>, numUnreadMessages: Int)
 
     @Query(
         """
@@ -103,8 +280,17 @@ abstract class ConversationDao : BaseDao<ConversationDatabaseModel>() {
             WHERE $COLUMN_ID = :conversationId
         """
     )
-    abstract suspend fun updateLabels(
-        conversationId: String,
-        labels: List<LabelContextDatabaseModel>
+    protected abstract suspend fun saveLabels(conversationId: String, labels: List<LabelContextDatabaseModel>)
+
+    /**
+     * The database belongs to a single user, so the counters are matched only by their type and label
+     */
+    @Query(
+        """
+            UPDATE $UNREAD_COUNTER_TABLE_NAME
+            SET $UNREAD_COUNTER_COLUMN_UNREAD_COUNT = $UNREAD_COUNTER_COLUMN_UNREAD_COUNT + :delta
+            WHERE $UNREAD_COUNTER_COLUMN_TYPE = :type AND $UNREAD_COUNTER_COLUMN_LABEL_ID = :labelId
+        """
     )
+    protected abstract suspend fun incrementUnreadCounter(type: UnreadCounterEntity.Type, labelId: String, delta: Int)
 }
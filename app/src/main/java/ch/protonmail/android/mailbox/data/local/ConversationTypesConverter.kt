@@ -20,29 +20,25 @@
 package ch.protonmail.android.mailbox.data.local
 
 import androidx.room.TypeConverter
+import ch.protonmail.android.data.local.model.CompactColumnCodec
 import ch.protonmail.android.data.local.model.MessageSender
 import ch.protonmail.android.mailbox.data.local.model.LabelContextDatabaseModel
-import com.google.gson.Gson
 
 class ConversationTypesConverter {
 
     @TypeConverter
     fun messageRecipientsListToString(messageSenders: List<MessageSender>?): String? =
-        Gson().toJson(messageSenders)
+        messageSenders?.let(CompactColumnCodec::encodeSenders)
 
     @TypeConverter
-    fun stringToMessageSendersList(messageSendersString: String?): List<MessageSender>? {
-        messageSendersString ?: return null
-        return Gson().fromJson(messageSendersString, Array<MessageSender>::class.java).asList()
-    }
+    fun stringToMessageSendersList(messageSendersString: String?): List<MessageSender>? =
+        messageSendersString?.let(CompactColumnCodec::decodeSenders)
 
     @TypeConverter
     fun labelsContextListToString(labelsContext: List<LabelContextDatabaseModel>?): String? =
-        Gson().toJson(labelsContext)
+        labelsContext?.let(CompactColumnCodec::encodeLabelContexts)
 
     @TypeConverter
-    fun stringToLabelsContextList(labelContextString: String?): List<LabelContextDatabaseModel>? {
-        labelContextString ?: return null
-        return Gson().fromJson(labelContextString, Array<LabelContextDatabaseModel>::class.java).asList()
-    }
+    fun stringToLabelsContextList(labelContextString: String?): List<LabelContextDatabaseModel>? =
+        labelContextString?.let(CompactColumnCodec::decodeLabelContexts)
 }
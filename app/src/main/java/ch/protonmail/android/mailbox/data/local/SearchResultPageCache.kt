@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.data.local
+
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.usecase.GetElapsedRealTimeMillis
+import me.proton.core.domain.entity.UserId
+import java.util.concurrent.TimeUnit
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val MAX_CACHED_PAGES = 30
+private val PAGE_TTL_MS = TimeUnit.MINUTES.toMillis(5)
+
+/**
+ * In memory cache for the pages of Messages returned by the remote search, so loading more results and running the
+ *  same query again don't hit the network.
+ *
+ * Pages expire [PAGE_TTL_MS] after they have been fetched and at most [MAX_CACHED_PAGES] pages are kept, dropping the
+ *  least recently used first.
+ */
+@Singleton
+class SearchResultPageCache @Inject constructor(
+    private val getElapsedRealTimeMillis: GetElapsedRealTimeMillis
+) {
+
+    private val pages = object : LinkedHashMap<Key, Entry>(MAX_CACHED_PAGES, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, Entry>) = size > MAX_CACHED_PAGES
+    }
+
+    @Synchronized
+    fun get(userId: UserId, query: String, page: Int): List<Message>? {
+        val key = Key(userId, query, page)
+        val entry = pages[key] ?: return null
+        if (getElapsedRealTimeMillis() - entry.fetchedAt > PAGE_TTL_MS) {
+            pages.remove(key)
+            return null
+        }
+        return entry.messages
+    }
+
+    @Synchronized
+    fun put(userId: UserId, query: String, page: Int, messages: List<Message>) {
+        pages[Key(userId, query, page)] = Entry(messages, getElapsedRealTimeMillis())
+    }
+
+    @Synchronized
+    fun clear() {
+        pages.clear()
+    }
+
+    private data class Key(val userId: UserId, val query: String, val page: Int)
+
+    private class Entry(val messages: List<Message>, val fetchedAt: Long)
+}
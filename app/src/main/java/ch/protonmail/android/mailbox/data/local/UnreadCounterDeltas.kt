@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.data.local
+
+/**
+ * Changes to the unread counters of each label, caused by Messages or Conversations changing their unread state or
+ *  their labels, so [UnreadCounterDao]'s counters can be updated in the same transaction as the change itself,
+ *  without asking the server for new counts
+ */
+class UnreadCounterDeltas {
+
+    private val deltasByLabelId = mutableMapOf<String, Int>()
+
+    /**
+     * Record an item going from being [wasUnread] in [previousLabelIds] to being [isUnread] in [labelIds]
+     */
+    fun onChange(
+        wasUnread: Boolean,
+        previousLabelIds: Collection<String>,
+        isUnread: Boolean,
+        labelIds: Collection<String>
+    ) {
+        if (wasUnread) previousLabelIds.toSet().forEach { labelId -> add(labelId, -1) }
+        if (isUnread) labelIds.toSet().forEach { labelId -> add(labelId, 1) }
+    }
+
+    /**
+     * @return the delta of each label whose counter changed
+     */
+    fun toMap(): Map<String, Int> =
+        deltasByLabelId.filterValues { it != 0 }
+
+    private fun add(labelId: String, delta: Int) {
+        deltasByLabelId[labelId] = (deltasByLabelId[labelId] ?: 0) + delta
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.data.local
+
+import ch.protonmail.android.mailbox.data.local.model.UnreadCounterEntity
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import timber.log.Timber
+import kotlin.coroutines.cancellation.CancellationException
+
+/**
+ * Emits the counters kept up to date locally, calling [reconcile] to fetch them from the server only when they
+ *  drifted: none are stored, like on the first start or after the event loop dropped the local data, or one went
+ *  below zero because of a change the server counted differently.
+ * A drift that [reconcile] cannot fix is emitted as it is, so it doesn't loop on the server. If [reconcile] fails,
+ *  e.g. while offline, the stored counters are emitted anyway and the next change in the database tries again
+ */
+internal fun Flow<List<UnreadCounterEntity>>.reconcileWhenDrifted(
+    reconcile: suspend () -> Unit
+): Flow<List<UnreadCounterEntity>> = flow {
+    var isReconciling = false
+    collect { counters ->
+        val hasDrifted = counters.isEmpty() || counters.any { it.unreadCount < 0 }
+        if (hasDrifted && isReconciling.not()) {
+            Timber.d("Unread counters drifted, reconciling with the server")
+            isReconciling = true
+            // Saving the fetched counters makes the database emit again
+            if (tryReconcile(reconcile)) return@collect
+            isReconciling = false
+            emit(counters.clamped())
+            return@collect
+        }
+        isReconciling = hasDrifted
+        emit(counters.clamped())
+    }
+}
+
+private suspend fun tryReconcile(reconcile: suspend () -> Unit): Boolean =
+    runCatching { reconcile() }
+        .onFailure { throwable ->
+            if (throwable is CancellationException) {
+                throw throwable
+            }
+            Timber.w(throwable, "Unable to reconcile the unread counters")
+        }
+        .isSuccess
+
+private fun List<UnreadCounterEntity>.clamped() =
+    map { it.copy(unreadCount = it.unreadCount.coerceAtLeast(0)) }
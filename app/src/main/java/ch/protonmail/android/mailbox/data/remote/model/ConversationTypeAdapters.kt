@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.data.remote.model
+
+import ch.protonmail.android.api.utils.nextIntOrZero
+import ch.protonmail.android.api.utils.nextListOrNull
+import ch.protonmail.android.api.utils.nextLongOrZero
+import ch.protonmail.android.api.utils.nextStringOrNull
+import ch.protonmail.android.api.utils.readObject
+import com.google.gson.Gson
+import com.google.gson.TypeAdapter
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonWriter
+import me.proton.core.util.kotlin.EMPTY_STRING
+
+/**
+ * Reads a [ConversationsResponse] streaming its Conversations through [ConversationApiModelTypeAdapter]
+ */
+internal class ConversationsResponseTypeAdapter(
+    gson: Gson,
+    private val delegate: TypeAdapter<ConversationsResponse>
+) : TypeAdapter<ConversationsResponse>() {
+
+    private val conversationAdapter = gson.getAdapter(ConversationApiModel::class.java)
+
+    override fun read(reader: JsonReader): ConversationsResponse {
+        var total = 0
+        var conversations: List<ConversationApiModel>? = null
+        reader.readObject { name ->
+            when (name) {
+                "Total" -> total = reader.nextIntOrZero()
+                "Conversations" -> conversations = reader.nextListOrNull(conversationAdapter)
+                else -> return@readObject false
+            }
+            true
+        }
+        return ConversationsResponse(total, conversations.orEmpty())
+    }
+
+    override fun write(writer: JsonWriter, value: ConversationsResponse?) {
+        delegate.write(writer, value)
+    }
+}
+
+internal class ConversationApiModelTypeAdapter(
+    gson: Gson,
+    private val delegate: TypeAdapter<ConversationApiModel>
+) : TypeAdapter<ConversationApiModel>() {
+
+    private val correspondentAdapter = gson.getAdapter(CorrespondentApiModel::class.java)
+    private val labelContextAdapter = gson.getAdapter(LabelContextApiModel::class.java)
+
+    override fun read(reader: JsonReader): ConversationApiModel {
+        var id: String? = null
+        var order = 0L
+        var subject: String? = null
+        var senders: List<CorrespondentApiModel>? = null
+        var recipients: List<CorrespondentApiModel>? = null
+        var numMessages = 0
+        var numUnread = 0
+        var numAttachments = 0
+        var expirationTime = 0L
+        var size = 0L
+        var labels: List<LabelContextApiModel>? = null
+        var contextTime = 0L
+
+        reader.readObject { name ->
+            when (name) {
+                "ID" -> id = reader.nextStringOrNull()
+                "Order" -> order = reader.nextLongOrZero()
+                "Subject" -> subject = reader.nextStringOrNull()
+                "Senders" -> senders = reader.nextListOrNull(correspondentAdapter)
+                "Recipients" -> recipients = reader.nextListOrNull(correspondentAdapter)
+                "NumMessages" -> numMessages = reader.nextIntOrZero()
+                "NumUnread" -> numUnread = reader.nextIntOrZero()
+                "NumAttachments" -> numAttachments = reader.nextIntOrZero()
+                "ExpirationTime" -> expirationTime = reader.nextLongOrZero()
+                "Size" -> size = reader.nextLongOrZero()
+                "Labels" -> labels = reader.nextListOrNull(labelContextAdapter)
+                "ContextTime" -> contextTime = reader.nextLongOrZero()
+                else -> return@readObject false
+            }
+            true
+        }
+
+        return ConversationApiModel(
+            id = id ?: EMPTY_STRING,
+            order = order,
+            subject = subject ?: EMPTY_STRING,
+            senders = senders.orEmpty(),
+            recipients = recipients.orEmpty(),
+            numMessages = numMessages,
+            numUnread = numUnread,
+            numAttachments = numAttachments,
+            expirationTime = expirationTime,
+            size = size,
+            labels = labels.orEmpty(),
+            contextTime = contextTime
+        )
+    }
+
+    override fun write(writer: JsonWriter, value: ConversationApiModel?) {
+        delegate.write(writer, value)
+    }
+}
+
+internal class CorrespondentApiModelTypeAdapter(
+    private val delegate: TypeAdapter<CorrespondentApiModel>
+) : TypeAdapter<CorrespondentApiModel>() {
+
+    override fun read(reader: JsonReader): CorrespondentApiModel {
+        var name: String? = null
+        var address: String? = null
+        reader.readObject { field ->
+            when (field) {
+                "Name" -> name = reader.nextStringOrNull()
+                "Address" -> address = reader.nextStringOrNull()
+                else -> return@readObject false
+            }
+            true
+        }
+        return CorrespondentApiModel(name ?: EMPTY_STRING, address ?: EMPTY_STRING)
+    }
+
+    override fun write(writer: JsonWriter, value: CorrespondentApiModel?) {
+        delegate.write(writer, value)
+    }
+}
+
+internal class LabelContextApiModelTypeAdapter(
+    private val delegate: TypeAdapter<LabelContextApiModel>
+) : TypeAdapter<LabelContextApiModel>() {
+
+    override fun read(reader: JsonReader): LabelContextApiModel {
+        var id: String? = null
+        var contextNumUnread = 0
+        var contextNumMessages = 0
+        var contextTime = 0L
+        var contextSize = 0
+        var contextNumAttachments = 0
+        reader.readObject { name ->
+            when (name) {
+                "ID" -> id = reader.nextStringOrNull()
+                "ContextNumUnread" -> contextNumUnread = reader.nextIntOrZero()
+                "ContextNumMessages" -> contextNumMessages = reader.nextIntOrZero()
+                "ContextTime" -> contextTime = reader.nextLongOrZero()
+                "ContextSize" -> contextSize = reader.nextIntOrZero()
+                "ContextNumAttachments" -> contextNumAttachments = reader.nextIntOrZero()
+                else -> return@readObject false
+            }
+            true
+        }
+        return LabelContextApiModel(
+            id = id ?: EMPTY_STRING,
+            contextNumUnread = contextNumUnread,
+            contextNumMessages = contextNumMessages,
+            contextTime = contextTime,
+            contextSize = contextSize,
+            contextNumAttachments = contextNumAttachments
+        )
+    }
+
+    override fun write(writer: JsonWriter, value: LabelContextApiModel?) {
+        delegate.write(writer, value)
+    }
+}
@@ -30,7 +30,10 @@ import androidx.work.WorkManager
 import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApiManager
+import ch.protonmail.android.core.Constants
 import ch.protonmail.android.mailbox.data.remote.model.ConversationIdsRequestBody
+import ch.protonmail.android.utils.extensions.enqueueChain
+import ch.protonmail.android.utils.extensions.giveUpChainedWork
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
 import me.proton.core.domain.entity.UserId
@@ -57,13 +60,9 @@ class MarkConversationsReadRemoteWorker @AssistedInject constructor(
 
     override suspend fun doWork(): Result {
         val conversationIds = inputData.getStringArray(KEY_MARK_READ_WORKER_CONVERSATION_IDS)
-            ?: return Result.failure(
-                workDataOf(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION to "Conversation ids list is null")
-            )
+            ?: return giveUpChainedWork(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION, "Conversation ids list is null")
         val userId = inputData.getString(KEY_MARK_READ_WORKER_USER_ID)
-            ?: return Result.failure(
-                workDataOf(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION to "User id is null")
-            )
+            ?: return giveUpChainedWork(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION, "User id is null")
 
         val requestBody = ConversationIdsRequestBody(ids = conversationIds.asList())
 
@@ -85,9 +84,7 @@ class MarkConversationsReadRemoteWorker @AssistedInject constructor(
                     throw throwable
                 }
                 if (runAttemptCount > MAX_RUN_ATTEMPTS) {
-                    Result.failure(
-                        workDataOf(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION to "Run attempts exceeded the limit")
-                    )
+                    giveUpChainedWork(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION, "Run attempts exceeded the limit")
                 } else {
                     Result.retry()
                 }
@@ -97,22 +94,28 @@ class MarkConversationsReadRemoteWorker @AssistedInject constructor(
 
     class Enqueuer @Inject constructor(private val workManager: WorkManager) {
 
+        /**
+         * Enqueues a request for every [Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS] Conversations, as a chain that runs
+         *  them one after the other
+         */
         fun enqueue(conversationIds: List<String>, userId: UserId): Operation {
             val constraints = Constraints.Builder()
                 .setRequiredNetworkType(NetworkType.CONNECTED)
                 .build()
 
-            val data = workDataOf(
-                KEY_MARK_READ_WORKER_CONVERSATION_IDS to conversationIds.toTypedArray(),
-                KEY_MARK_READ_WORKER_USER_ID to userId.id
-            )
+            val requests = conversationIds.chunked(Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS).map { chunkIds ->
+                val data = workDataOf(
+                    KEY_MARK_READ_WORKER_CONVERSATION_IDS to chunkIds.toTypedArray(),
+                    KEY_MARK_READ_WORKER_USER_ID to userId.id
+                )
 
-            val request = OneTimeWorkRequestBuilder<MarkConversationsReadRemoteWorker>()
-                .setConstraints(constraints)
-                .setInputData(data)
-                .build()
+                OneTimeWorkRequestBuilder<MarkConversationsReadRemoteWorker>()
+                    .setConstraints(constraints)
+                    .setInputData(data)
+                    .build()
+            }
 
-            return workManager.enqueue(request)
+            return workManager.enqueueChain(requests)
         }
     }
 }
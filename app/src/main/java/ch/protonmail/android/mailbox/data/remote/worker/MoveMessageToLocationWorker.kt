@@ -33,6 +33,8 @@ import ch.protonmail.android.api.ProtonMailApiManager
 import ch.protonmail.android.api.models.IDList
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.labels.data.remote.worker.KEY_LABEL_WORKER_ERROR_DESCRIPTION
+import ch.protonmail.android.utils.extensions.enqueueChain
+import ch.protonmail.android.utils.extensions.giveUpChainedWork
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
 import kotlinx.coroutines.CancellationException
@@ -65,9 +67,7 @@ class MoveMessageToLocationWorker @AssistedInject constructor(
         val customLocationId = inputData.getString(KEY_POST_WORKER_CUSTOM_LOCATION_ID)
 
         if (ids.isNullOrEmpty() || locationId < 0 && customLocationId.isNullOrEmpty()) {
-            return Result.failure(
-                workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Input data is not complete")
-            )
+            return giveUpChainedWork(KEY_LABEL_WORKER_ERROR_DESCRIPTION, "Input data is not complete")
         }
 
         val locationIdString = if (!customLocationId.isNullOrEmpty()) {
@@ -95,9 +95,7 @@ class MoveMessageToLocationWorker @AssistedInject constructor(
                     throw throwable
                 }
                 if (runAttemptCount > MAX_RUN_ATTEMPTS) {
-                    Result.failure(
-                        workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Run attempts exceeded the limit")
-                    )
+                    giveUpChainedWork(KEY_LABEL_WORKER_ERROR_DESCRIPTION, "Run attempts exceeded the limit")
                 } else {
                     Result.retry()
                 }
@@ -107,6 +105,10 @@ class MoveMessageToLocationWorker @AssistedInject constructor(
 
     class Enqueuer @Inject constructor(private val workManager: WorkManager) {
 
+        /**
+         * Enqueues a request for every [Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS] Messages, as a chain that runs
+         *  them one after the other
+         */
         fun enqueue(
             userId: UserId,
             ids: List<String>,
@@ -117,19 +119,21 @@ class MoveMessageToLocationWorker @AssistedInject constructor(
                 .setRequiredNetworkType(NetworkType.CONNECTED)
                 .build()
 
-            val data = workDataOf(
-                KEY_POST_WORKER_USER_ID to userId.id,
-                KEY_POST_WORKER_MESSAGE_ID to ids.toTypedArray(),
-                KEY_POST_WORKER_LOCATION_ID to newLocation?.messageLocationTypeValue,
-                KEY_POST_WORKER_CUSTOM_LOCATION_ID to newCustomLocation,
-            )
+            val requests = ids.chunked(Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS).map { chunkIds ->
+                val data = workDataOf(
+                    KEY_POST_WORKER_USER_ID to userId.id,
+                    KEY_POST_WORKER_MESSAGE_ID to chunkIds.toTypedArray(),
+                    KEY_POST_WORKER_LOCATION_ID to newLocation?.messageLocationTypeValue,
+                    KEY_POST_WORKER_CUSTOM_LOCATION_ID to newCustomLocation,
+                )
 
-            val request = OneTimeWorkRequestBuilder<MoveMessageToLocationWorker>()
-                .setConstraints(constraints)
-                .setInputData(data)
-                .build()
+                OneTimeWorkRequestBuilder<MoveMessageToLocationWorker>()
+                    .setConstraints(constraints)
+                    .setInputData(data)
+                    .build()
+            }
 
-            return workManager.enqueue(request)
+            return workManager.enqueueChain(requests)
         }
     }
 }
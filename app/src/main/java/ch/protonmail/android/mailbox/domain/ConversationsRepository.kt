@@ -37,7 +37,8 @@ interface ConversationsRepository {
 
     fun observeConversations(
         params: GetAllConversationsParameters,
-        refreshAtStart: Boolean = true
+        refreshAtStart: Boolean = true,
+        ignoreFreshness: Boolean = false
     ): LoadMoreFlow<DataResult<List<Conversation>>>
 
     /**
@@ -81,6 +82,16 @@ interface ConversationsRepository {
      */
     suspend fun deleteConversations(conversationIds: List<String>, userId: UserId)
 
+    /**
+     * Saves [conversations] and deletes the ones with [deletedConversationIds] from the local storage in a single
+     *  transaction
+     */
+    suspend fun saveAndDeleteConversations(
+        userId: UserId,
+        conversations: List<ConversationApiModel>,
+        deletedConversationIds: List<String>
+    )
+
     suspend fun markRead(conversationIds: List<String>, userId: UserId): ConversationsActionResult
 
     suspend fun markUnread(
@@ -21,6 +21,7 @@ package ch.protonmail.android.mailbox.domain
 
 import ch.protonmail.android.event.data.remote.model.ConversationsEventResponse
 import ch.protonmail.android.event.domain.model.ActionType
+import ch.protonmail.android.mailbox.data.remote.model.ConversationApiModel
 import kotlinx.coroutines.withContext
 import me.proton.core.domain.entity.UserId
 import me.proton.core.util.kotlin.DispatcherProvider
@@ -33,29 +34,32 @@ class HandleChangeToConversations @Inject constructor(
 ) {
 
     /**
+     * Applies all the changes of an event page at once: only the last change of each conversation is kept, then
+     *  the created and updated conversations are saved and the deleted ones are removed in a single transaction
+     *
      * @param userId Id of the user who is currently logged in
-     * @param conversations list oof conversation that we need to handle a change for
+     * @param conversations list of conversation that we need to handle a change for
      */
     suspend operator fun invoke(
         userId: UserId,
         conversations: List<ConversationsEventResponse>
     ) = withContext(dispatchers.Io) {
-        conversations.forEach { response ->
+        val lastChangeByConversationId = conversations.associateBy { it.id }
 
+        val savedConversations = mutableListOf<ConversationApiModel>()
+        val deletedConversationIds = mutableListOf<String>()
+        lastChangeByConversationId.values.forEach { response ->
             when (ActionType.fromInt(response.action)) {
                 ActionType.CREATE,
                 ActionType.UPDATE,
-                ActionType.UPDATE_FLAGS -> {
-                    conversationRepository.saveConversationsApiModels(
-                        userId,
-                        listOf(response.conversation)
-                    )
-                }
-                ActionType.DELETE -> {
-                    conversationRepository.deleteConversations(listOf(response.id), userId)
-                }
+                ActionType.UPDATE_FLAGS -> response.conversation?.let(savedConversations::add)
+                ActionType.DELETE -> deletedConversationIds.add(response.id)
                 else -> Timber.v("Unhandled ActionType ${response.action}")
             }
         }
+
+        if (savedConversations.isEmpty() && deletedConversationIds.isEmpty()) return@withContext
+        Timber.v("Saving ${savedConversations.size} and deleting ${deletedConversationIds.size} conversations")
+        conversationRepository.saveAndDeleteConversations(userId, savedConversations, deletedConversationIds)
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.domain.model
+
+import ch.protonmail.android.data.local.model.Message
+
+/**
+ * A snapshot of the results of a search for a single page
+ *
+ * @property messages the matching Messages, deduplicated by id and sorted by time descending
+ * @property isLoadingRemote `true` while the remote results for the page are still being fetched
+ * @property hasMorePages `true` if the server may have more results for the next page
+ */
+data class SearchMessagesResult(
+    val messages: List<Message>,
+    val isLoadingRemote: Boolean,
+    val hasMorePages: Boolean
+)
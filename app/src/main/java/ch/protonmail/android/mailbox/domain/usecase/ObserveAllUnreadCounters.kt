@@ -23,20 +23,13 @@ import ch.protonmail.android.mailbox.domain.ConversationsRepository
 import ch.protonmail.android.mailbox.domain.model.AllUnreadCounters
 import ch.protonmail.android.mailbox.domain.model.UnreadCounter
 import ch.protonmail.android.repository.MessageRepository
-import kotlinx.coroutines.currentCoroutineContext
-import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.FlowCollector
 import kotlinx.coroutines.flow.combineTransform
-import kotlinx.coroutines.flow.flow
-import kotlinx.coroutines.isActive
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.arch.ResponseSource
 import me.proton.core.domain.entity.UserId
 import javax.inject.Inject
-import kotlin.time.Duration
-import kotlin.time.DurationUnit
-import kotlin.time.toDuration
 
 /**
  * Emit [AllUnreadCounters]
@@ -45,36 +38,24 @@ import kotlin.time.toDuration
  * * **one** [DataResult.Success] if we have success for Messages Counters and Conversations Counters
  * * **one** [DataResult.Success] and **one** [DataResult.Error] if only one if one of the above is successfully
  * * **two** [DataResult.Error] if none of the above is successfully
+ *
+ * The counters are kept up to date by the repositories and the event loop, so they are not polled from the server
  */
 internal class ObserveAllUnreadCounters @Inject constructor(
     private val messagesRepository: MessageRepository,
     private val conversationsRepository: ConversationsRepository
 ) {
 
-    operator fun invoke(
-        userId: UserId,
-        refreshInterval: Duration = DEFAULT_REFRESH_INTERVAL
-    ): Flow<DataResult<AllUnreadCounters>> {
-        val refreshFlow = flow {
-            emit(Unit)
-            while (currentCoroutineContext().isActive) {
-                delay(refreshInterval)
-                messagesRepository.refreshUnreadCounters()
-                conversationsRepository.refreshUnreadCounters()
-            }
-        }
-
-        return combineTransform(
-            refreshFlow,
+    operator fun invoke(userId: UserId): Flow<DataResult<AllUnreadCounters>> =
+        combineTransform(
             messagesRepository.getUnreadCounters(userId),
             conversationsRepository.getUnreadCounters(userId)
-        ) { _, messagesCounters, conversationsCounters ->
+        ) { messagesCounters, conversationsCounters ->
             emitAllUnreadCounters(
                 messagesCounters = messagesCounters,
                 conversationsCounters = conversationsCounters
             )
         }
-    }
 
     private suspend fun FlowCollector<DataResult<AllUnreadCounters>>.emitAllUnreadCounters(
         messagesCounters: DataResult<List<UnreadCounter>>,
@@ -94,9 +75,4 @@ internal class ObserveAllUnreadCounters @Inject constructor(
 
     private fun DataResult<List<UnreadCounter>>.valueOrEmpty(): List<UnreadCounter> =
         if (this is DataResult.Success) value else emptyList()
-
-    companion object {
-
-        val DEFAULT_REFRESH_INTERVAL = 30.toDuration(DurationUnit.SECONDS)
-    }
 }
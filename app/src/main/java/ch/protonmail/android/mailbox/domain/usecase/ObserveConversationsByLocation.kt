@@ -39,8 +39,14 @@ class ObserveConversationsByLocation @Inject constructor(
     private val conversationRepository: ConversationsRepository
 ) {
 
-    operator fun invoke(params: GetAllConversationsParameters): LoadMoreFlow<GetConversationsResult> =
-        conversationRepository.observeConversations(params)
+    /**
+     * @param isRefresh `true` if the user explicitly asked to refresh, so cached results are not used
+     */
+    operator fun invoke(
+        params: GetAllConversationsParameters,
+        isRefresh: Boolean = false
+    ): LoadMoreFlow<GetConversationsResult> =
+        conversationRepository.observeConversations(params, ignoreFreshness = isRefresh)
             .mapToResult()
             .loadMoreCatch {
                 emit(GetConversationsResult.Error(it))
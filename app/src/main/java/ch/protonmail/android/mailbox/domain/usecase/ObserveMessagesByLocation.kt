@@ -42,8 +42,11 @@ internal class ObserveMessagesByLocation @Inject constructor(
     private val messageRepository: MessageRepository
 ) {
 
-    operator fun invoke(params: GetAllMessagesParameters): LoadMoreFlow<GetMessagesResult> {
-        return messageRepository.observeMessages(params)
+    /**
+     * @param isRefresh `true` if the user explicitly asked to refresh, so cached results are not used
+     */
+    operator fun invoke(params: GetAllMessagesParameters, isRefresh: Boolean = false): LoadMoreFlow<GetMessagesResult> {
+        return messageRepository.observeMessages(params, ignoreFreshness = isRefresh)
             .mapToResult()
             .loadMoreCatch {
                 emit(GetMessagesResult.Error(it))
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.domain.usecase
+
+import ch.protonmail.android.api.ProtonMailApiManager
+import ch.protonmail.android.api.models.DatabaseProvider
+import ch.protonmail.android.core.QueueNetworkUtil
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.mailbox.data.local.SearchResultPageCache
+import ch.protonmail.android.mailbox.domain.model.GetAllMessagesParameters
+import ch.protonmail.android.mailbox.domain.model.SearchMessagesResult
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import me.proton.core.domain.entity.UserId
+import me.proton.core.util.kotlin.DispatcherProvider
+import timber.log.Timber
+import javax.inject.Inject
+import kotlin.coroutines.cancellation.CancellationException
+
+/**
+ * Use case for searching Messages by keyword.
+ *
+ * The first page emits the local matches right away, then the same list merged with the remote matches once they
+ *  arrive. Following pages only come from remote, as the local search already returns every local match.
+ * Remote pages are kept in [SearchResultPageCache], so re-running a query or paginating it again is instant.
+ */
+internal class SearchMessages @Inject constructor(
+    private val databaseProvider: DatabaseProvider,
+    private val api: ProtonMailApiManager,
+    private val queueNetworkUtil: QueueNetworkUtil,
+    private val searchResultPageCache: SearchResultPageCache,
+    private val dispatchers: DispatcherProvider
+) {
+
+    operator fun invoke(userId: UserId, query: String, page: Int): Flow<SearchMessagesResult> = flow {
+        val localMessages = if (page == 0) searchLocal(userId, query) else emptyList()
+
+        val cachedRemoteMessages = searchResultPageCache.get(userId, query, page)
+        if (cachedRemoteMessages != null) {
+            emit(result(localMessages, cachedRemoteMessages))
+            return@flow
+        }
+
+        if (queueNetworkUtil.isConnected().not()) {
+            emit(SearchMessagesResult(localMessages.sortedByTime(), isLoadingRemote = false, hasMorePages = false))
+            return@flow
+        }
+
+        if (page == 0) {
+            emit(SearchMessagesResult(localMessages.sortedByTime(), isLoadingRemote = true, hasMorePages = false))
+        }
+        val remoteMessages = searchRemote(userId, query, page)
+        if (remoteMessages == null) {
+            emit(SearchMessagesResult(localMessages.sortedByTime(), isLoadingRemote = false, hasMorePages = false))
+        } else {
+            searchResultPageCache.put(userId, query, page, remoteMessages)
+            emit(result(localMessages, remoteMessages))
+        }
+    }.flowOn(dispatchers.Io)
+
+    private suspend fun searchLocal(userId: UserId, query: String): List<Message> =
+        databaseProvider.provideMessageDao(userId).searchMessages(query).first()
+
+    private suspend fun searchRemote(userId: UserId, query: String, page: Int): List<Message>? =
+        runCatching {
+            api.getMessages(
+                GetAllMessagesParameters(
+                    userId = userId,
+                    page = page,
+                    pageSize = SEARCH_PAGE_SIZE,
+                    keyword = query
+                )
+            ).messages
+        }.onFailure { throwable ->
+            if (throwable is CancellationException) {
+                throw throwable
+            }
+            Timber.w(throwable, "Error searching messages")
+        }.getOrNull()
+
+    private fun result(localMessages: List<Message>, remoteMessages: List<Message>) = SearchMessagesResult(
+        messages = mergeById(localMessages, remoteMessages),
+        isLoadingRemote = false,
+        hasMorePages = remoteMessages.size >= SEARCH_PAGE_SIZE
+    )
+
+    companion object {
+
+        private const val SEARCH_PAGE_SIZE = 50
+
+        /**
+         * Merge the given lists, dropping duplicated ids and sorting by time descending.
+         * Local Messages win over remote ones, as they can carry changes not yet synced with the server
+         */
+        fun mergeById(localMessages: List<Message>, remoteMessages: List<Message>): List<Message> {
+            val messagesById = LinkedHashMap<String, Message>(localMessages.size + remoteMessages.size)
+            for (message in localMessages + remoteMessages) {
+                val messageId = message.messageId ?: continue
+                messagesById.putIfAbsent(messageId, message)
+            }
+            return messagesById.values.sortedByTime()
+        }
+
+        private fun Collection<Message>.sortedByTime() = sortedByDescending { it.time }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.presentation.model
+
+import ch.protonmail.android.data.local.model.Message
+
+sealed class SearchState {
+
+    /**
+     * No query has been typed yet
+     */
+    object Idle : SearchState()
+
+    /**
+     * @property messages the results of all the pages loaded so far, sorted by time descending
+     * @property isLoading `true` while the remote results for the last requested page are being fetched
+     * @property hasMorePages `true` if more results can be loaded by scrolling
+     */
+    data class Results(
+        val messages: List<Message>,
+        val isLoading: Boolean,
+        val hasMorePages: Boolean
+    ) : SearchState()
+}
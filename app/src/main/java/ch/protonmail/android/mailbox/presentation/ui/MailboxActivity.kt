@@ -83,6 +83,7 @@ import ch.protonmail.android.core.Constants.Prefs.PREF_USED_SPACE
 import ch.protonmail.android.data.local.model.Message
 import ch.protonmail.android.details.presentation.ui.MessageDetailsActivity
 import ch.protonmail.android.di.DefaultSharedPreferences
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.events.FetchLabelsEvent
 import ch.protonmail.android.events.MailboxLoadedEvent
 import ch.protonmail.android.events.MailboxNoMessagesEvent
@@ -144,7 +145,6 @@ import kotlinx.coroutines.flow.flatMapLatest
 import kotlinx.coroutines.flow.launchIn
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
 import me.proton.core.domain.entity.UserId
 import me.proton.core.mailsettings.domain.entity.MailSettings
 import me.proton.core.util.android.sharedpreferences.get
@@ -213,6 +213,7 @@ internal class MailboxActivity :
         }
     private var mailboxLabelName: String? = null
     private var lastFetchedMailboxItemsIds = emptyList<String>()
+    private var lastPrefetchCheckPosition = RecyclerView.NO_POSITION
     private var refreshMailboxJobRunning = false
     private lateinit var syncUUID: String
     private var customizeSwipeSnackShown = false
@@ -655,6 +656,14 @@ internal class MailboxActivity :
 
             val firstCompletelyVisibleItemPosition = layoutManager.findFirstCompletelyVisibleItemPosition()
 
+            // Fetch the next page in background when getting close to the end of the list. onScrolled is called for
+            //  every scrolled pixel, so we check again only when a new item becomes visible
+            val lastVisibleItemPosition = layoutManager.findLastVisibleItemPosition()
+            if (dy > 0 && lastVisibleItemPosition != lastPrefetchCheckPosition) {
+                lastPrefetchCheckPosition = lastVisibleItemPosition
+                mailboxViewModel.prefetch(lastVisibleItemPosition, mailboxAdapter.itemCount)
+            }
+
             // Load more when showing last fetched messages or at the end of the list
             if (dy > 0 && isLoadingMore.get().not()) {
                 val lastCompletelyVisibleItemPosition = layoutManager.findLastCompletelyVisibleItemPosition()
@@ -1421,7 +1430,7 @@ internal class MailboxActivity :
     ) : AsyncTask<Unit, Unit, Label?>() {
 
         override fun doInBackground(vararg params: Unit): Label? {
-            return runBlocking {
+            return runBlockingMonitored {
                 val messageDetailsRepository = messageDetailsRepositoryFactory.create(userId)
                 val labels = messageDetailsRepository.findLabelsWithIds(listOf(labelId))
                 if (labels.isEmpty()) null else labels[0]
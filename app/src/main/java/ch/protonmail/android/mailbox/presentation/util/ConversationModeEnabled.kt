@@ -21,10 +21,10 @@ package ch.protonmail.android.mailbox.presentation.util
 
 import ch.protonmail.android.core.Constants.MessageLocationType
 import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.labels.domain.model.LabelId
 import ch.protonmail.android.mailbox.domain.usecase.ObserveConversationModeEnabled
 import kotlinx.coroutines.flow.firstOrNull
-import kotlinx.coroutines.runBlocking
 import me.proton.core.domain.entity.UserId
 import javax.inject.Inject
 
@@ -49,7 +49,7 @@ class ConversationModeEnabled @Inject constructor(
      */
     operator fun invoke(userId: UserId, labelId: LabelId? = null): Boolean {
         // TODO: Remove runBlocking and convert invoke function into a suspend.
-        return runBlocking {
+        return runBlockingMonitored {
             observeConversationModeEnabled(userId, labelId).firstOrNull() ?: false
         }
     }
@@ -34,6 +34,7 @@ import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.Constants.MessageLocationType.INBOX
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.details.data.remote.worker.PrefetchMessageBodiesWorker
 import ch.protonmail.android.domain.LoadMoreFlow
 import ch.protonmail.android.domain.loadMoreBuffer
 import ch.protonmail.android.domain.loadMoreCombine
@@ -99,7 +100,6 @@ import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.flow.onStart
 import kotlinx.coroutines.flow.take
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.entity.UserId
 import me.proton.core.util.kotlin.takeIfNotBlank
@@ -138,7 +138,8 @@ internal class MailboxViewModel @Inject constructor(
     private val mailboxItemUiModelMapper: MailboxItemUiModelMapper,
     private val fetchEventsAndReschedule: FetchEventsAndReschedule,
     private val clearNotificationsForUser: ClearNotificationsForUser,
-    private val shouldStartRateAppFlow: ShouldStartRateAppFlow
+    private val shouldStartRateAppFlow: ShouldStartRateAppFlow,
+    private val prefetchMessageBodies: PrefetchMessageBodiesWorker.Enqueuer
 ) : ConnectivityBaseViewModel(verifyConnection, networkConfigurator) {
 
     private val _manageLimitReachedWarning = MutableLiveData<Event<Boolean>>()
@@ -252,12 +253,14 @@ internal class MailboxViewModel @Inject constructor(
             GetMailboxItemsParameters(
                 userId = userId,
                 labelId = getLabelId(location, label),
-                isUnreadFilterEnabled = isUnreadFilterEnabled
+                isUnreadFilterEnabled = isUnreadFilterEnabled,
+                isRefresh = isRefresh
             )
         }
-            .onEach {
+            .onEach { params ->
                 val newState = mailboxState.value.copy(list = MailboxListState.Loading)
                 mutableMailboxState.value = newState
+                prefetchMessageBodies.enqueue(params.userId, params.labelId.id)
             }
             .flatMapLatest { params ->
                 val userId = params.userId
@@ -265,10 +268,10 @@ internal class MailboxViewModel @Inject constructor(
 
                 mailboxStateFlow = if (conversationModeEnabled(userId, labelId)) {
                     Timber.v("Getting conversations for label: $labelId, user: $userId")
-                    conversationsAsMailboxItems(params.toGetAllConversationsParameters())
+                    conversationsAsMailboxItems(params.toGetAllConversationsParameters(), params.isRefresh)
                 } else {
                     Timber.v("Getting messages for label: $labelId, user: $userId")
-                    messagesAsMailboxItems(params.toGetAllMessagesParameters())
+                    messagesAsMailboxItems(params.toGetAllMessagesParameters(), params.isRefresh)
                 }
                 mailboxStateFlow
             }
@@ -341,14 +344,28 @@ internal class MailboxViewModel @Inject constructor(
         mailboxStateFlow.loadMore()
     }
 
-    fun messagesToMailboxItemsBlocking(messages: List<Message>): List<MailboxItemUiModel> = runBlocking {
+    /**
+     * Request to fetch the next items from API in advance, if the visible window is close to the end of the list
+     * @see LoadMoreFlow.prefetch
+     */
+    fun prefetch(lastVisiblePosition: Int, itemCount: Int) {
+        if (::mailboxStateFlow.isInitialized.not()) return
+        if (mailboxStateFlow.prefetch(lastVisiblePosition, itemCount)) {
+            Timber.v("Prefetching mailbox items, last visible: $lastVisiblePosition, count: $itemCount")
+        }
+    }
+
+    suspend fun messagesToMailboxItems(messages: List<Message>): List<MailboxItemUiModel> {
         val userId = userManager.currentUserId
-            ?: return@runBlocking emptyList()
+            ?: return emptyList()
         val currentLabelId = getLabelId(mailboxLocation.value, mutableMailboxLabelId.value)
-        return@runBlocking messagesToMailboxItems(userId, messages, currentLabelId, null)
+        return messagesToMailboxItems(userId, messages, currentLabelId, null)
     }
 
-    private fun conversationsAsMailboxItems(params: GetAllConversationsParameters): LoadMoreFlow<MailboxListState> {
+    private fun conversationsAsMailboxItems(
+        params: GetAllConversationsParameters,
+        isRefresh: Boolean
+    ): LoadMoreFlow<MailboxListState> {
         val userId = params.userId
         val labelId = requireNotNull(params.labelId) { "labelId is null" }
 
@@ -357,7 +374,7 @@ internal class MailboxViewModel @Inject constructor(
         var hasReceivedFirstApiRefresh: Boolean? = null
         return loadMoreCombine(
             observeLabels(userId),
-            observeConversationsByLocation(params)
+            observeConversationsByLocation(params, isRefresh)
         ) { labels, conversations -> labels to conversations }
             .loadMoreBuffer()
             .loadMoreMap { (labels, result) ->
@@ -395,7 +412,10 @@ internal class MailboxViewModel @Inject constructor(
             }
     }
 
-    private fun messagesAsMailboxItems(params: GetAllMessagesParameters): LoadMoreFlow<MailboxListState> {
+    private fun messagesAsMailboxItems(
+        params: GetAllMessagesParameters,
+        isRefresh: Boolean
+    ): LoadMoreFlow<MailboxListState> {
         val labelId = requireNotNull(params.labelId) { "labelId is null" }
 
         Timber.v("messagesAsMailboxItems labelId: ${params.labelId}")
@@ -403,7 +423,7 @@ internal class MailboxViewModel @Inject constructor(
         var hasReceivedFirstApiRefresh: Boolean? = null
         return loadMoreCombine(
             observeLabels(params.userId),
-            observeMessagesByLocation(params)
+            observeMessagesByLocation(params, isRefresh)
         ) { labels, messages -> labels to messages }
             .loadMoreBuffer()
             .loadMoreMap { pair ->
@@ -742,7 +762,8 @@ internal class MailboxViewModel @Inject constructor(
     data class GetMailboxItemsParameters(
         val userId: UserId,
         val labelId: LabelId,
-        val isUnreadFilterEnabled: Boolean
+        val isUnreadFilterEnabled: Boolean,
+        val isRefresh: Boolean
     ) {
 
         fun toGetAllConversationsParameters() = GetAllConversationsParameters(
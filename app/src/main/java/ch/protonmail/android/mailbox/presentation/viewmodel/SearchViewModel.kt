@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.presentation.viewmodel
+
+import androidx.lifecycle.ViewModel
+import androidx.lifecycle.viewModelScope
+import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.mailbox.data.local.SearchResultPageCache
+import ch.protonmail.android.mailbox.domain.usecase.SearchMessages
+import ch.protonmail.android.mailbox.presentation.model.SearchState
+import dagger.hilt.android.lifecycle.HiltViewModel
+import kotlinx.coroutines.channels.BufferOverflow
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.debounce
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.emitAll
+import kotlinx.coroutines.flow.flatMapConcat
+import kotlinx.coroutines.flow.flatMapLatest
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onStart
+import kotlinx.coroutines.flow.scan
+import kotlinx.coroutines.flow.stateIn
+import me.proton.core.domain.entity.UserId
+import me.proton.core.util.kotlin.EMPTY_STRING
+import java.util.concurrent.atomic.AtomicBoolean
+import javax.inject.Inject
+
+private const val SEARCH_DEBOUNCE_MS = 300L
+
+/**
+ * Search Messages while the user types.
+ *
+ * Keystrokes are debounced by [SEARCH_DEBOUNCE_MS] and a new query cancels the search still running for the previous
+ *  one. Pages requested through [loadMore] are merged into the results of the current query, one at a time.
+ * The remote pages cached by [SearchResultPageCache] are dropped when the search screen is closed.
+ */
+@HiltViewModel
+internal class SearchViewModel @Inject constructor(
+    private val searchMessages: SearchMessages,
+    private val userManager: UserManager,
+    private val searchResultPageCache: SearchResultPageCache
+) : ViewModel() {
+
+    private val query = MutableStateFlow(EMPTY_STRING)
+    private val refreshes = MutableStateFlow(0)
+    private val loadMoreRequests = MutableSharedFlow<Unit>(
+        extraBufferCapacity = 1,
+        onBufferOverflow = BufferOverflow.DROP_OLDEST
+    )
+    private val isLoadingMore = AtomicBoolean(false)
+
+    val searchState: StateFlow<SearchState> = query
+        .debounce { if (it.isBlank()) 0 else SEARCH_DEBOUNCE_MS }
+        .map { it.trim() }
+        .distinctUntilChanged()
+        .combine(refreshes) { query, _ -> query }
+        .flatMapLatest { query ->
+            val userId = userManager.currentUserId
+            if (query.isEmpty() || userId == null) flowOf(SearchState.Idle)
+            else searchAllPages(userId, query)
+        }
+        .stateIn(viewModelScope, SharingStarted.Eagerly, SearchState.Idle)
+
+    fun setQuery(query: String) {
+        this.query.value = query
+    }
+
+    /**
+     * Search the current query again, so the results reflect the changes made to the Messages since it ran, like the
+     *  ones done while a Message was opened from the results
+     */
+    fun refresh() {
+        if (query.value.isNotBlank()) {
+            refreshes.value++
+        }
+    }
+
+    /**
+     * Request the next page of results, ignored while a page is still loading so the same page is not requested twice
+     */
+    fun loadMore() {
+        val state = searchState.value
+        if (state is SearchState.Results && state.hasMorePages && state.isLoading.not() &&
+            isLoadingMore.compareAndSet(false, true)
+        ) {
+            loadMoreRequests.tryEmit(Unit)
+        }
+    }
+
+    override fun onCleared() {
+        searchResultPageCache.clear()
+        super.onCleared()
+    }
+
+    private fun searchAllPages(userId: UserId, query: String): Flow<SearchState> = flow {
+        isLoadingMore.set(false)
+        var previousPagesMessages = emptyList<Message>()
+        val pages = loadMoreRequests.scan(0) { page, _ -> page + 1 }
+            .flatMapConcat { page ->
+                searchMessages(userId, query, page)
+                    .map { result ->
+                        val messages = SearchMessages.mergeById(previousPagesMessages, result.messages)
+                        if (result.isLoadingRemote.not()) {
+                            previousPagesMessages = messages
+                            isLoadingMore.set(false)
+                        }
+                        SearchState.Results(messages, result.isLoadingRemote, result.hasMorePages)
+                    }
+                    .onStart {
+                        // Following pages only come from remote, keep showing the loaded ones while they load
+                        if (page > 0) {
+                            emit(SearchState.Results(previousPagesMessages, isLoading = true, hasMorePages = true))
+                        }
+                    }
+            }
+        emitAll(pages)
+    }
+}
@@ -24,10 +24,10 @@ import ch.protonmail.android.BuildConfig
 import ch.protonmail.android.core.Constants.Prefs.PREF_APP_VERSION
 import ch.protonmail.android.core.Constants.Prefs.PREF_REGISTRATION_ID
 import ch.protonmail.android.core.Constants.Prefs.PREF_SENT_TOKEN_TO_SERVER
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.notifications.data.remote.fcm.model.FirebaseToken
 import com.squareup.inject.assisted.Assisted
 import com.squareup.inject.assisted.AssistedInject
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import me.proton.core.util.android.sharedpreferences.get
 import me.proton.core.util.android.sharedpreferences.set
@@ -70,7 +70,7 @@ class FcmTokenManager @AssistedInject constructor(
     }
 
     @Deprecated("Use suspend variant", ReplaceWith("getToken()"))
-    fun getTokenBlocking(): FirebaseToken? = runBlocking {
+    fun getTokenBlocking(): FirebaseToken? = runBlockingMonitored {
         getToken()
     }
 
@@ -85,7 +85,7 @@ class FcmTokenManager @AssistedInject constructor(
 
     @Deprecated("Use suspend variant", ReplaceWith("saveToken(sent)"))
     fun saveTokenBlocking(token: FirebaseToken) {
-        runBlocking { saveToken(token) }
+        runBlockingMonitored { saveToken(token) }
     }
 
     suspend fun setTokenSent(sent: Boolean) {
@@ -19,11 +19,11 @@
 
 package ch.protonmail.android.notifications.data.remote.fcm
 
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.feature.account.allLoggedIn
 import ch.protonmail.android.feature.account.allSaved
 import ch.protonmail.android.notifications.data.remote.fcm.model.FirebaseToken
 import ch.protonmail.android.prefs.SecureSharedPreferences
-import kotlinx.coroutines.runBlocking
 import me.proton.core.accountmanager.domain.AccountManager
 import javax.inject.Inject
 
@@ -43,7 +43,7 @@ class MultiUserFcmTokenManager @Inject constructor(
 
     @Deprecated("Use suspend function", ReplaceWith("isTokenSentForAllLoggedUsers()"))
     fun isTokenSentForAllLoggedUsersBlocking(): Boolean =
-        runBlocking { isTokenSentForAllLoggedUsers() }
+        runBlockingMonitored { isTokenSentForAllLoggedUsers() }
 
     suspend fun saveToken(token: FirebaseToken) {
         withEachLoggedUserTokenManager {
@@ -53,7 +53,7 @@ class MultiUserFcmTokenManager @Inject constructor(
 
     @Deprecated("Use suspend function", ReplaceWith("saveToken(token)"))
     fun saveTokenBlocking(token: FirebaseToken) {
-        runBlocking { saveToken(token) }
+        runBlockingMonitored { saveToken(token) }
     }
 
     suspend fun setTokenUnsentForAllSavedUsers() {
@@ -64,7 +64,7 @@ class MultiUserFcmTokenManager @Inject constructor(
 
     @Deprecated("Use suspend function", ReplaceWith("setTokenUnsentForAllSavedUsers()"))
     fun setTokenUnsentForAllSavedUsersBlocking() {
-        runBlocking { setTokenUnsentForAllSavedUsers() }
+        runBlockingMonitored { setTokenUnsentForAllSavedUsers() }
     }
 
     private suspend inline fun withEachLoggedUserTokenManager(block: FcmTokenManager.() -> Unit) {
@@ -41,6 +41,7 @@ import me.proton.core.util.android.sharedpreferences.set
 import me.proton.core.util.kotlin.DispatcherProvider
 import timber.log.Timber
 import java.math.BigInteger
+import java.security.GeneralSecurityException
 import java.security.Key
 import java.security.KeyPair
 import java.security.KeyPairGenerator
@@ -52,6 +53,7 @@ import java.util.Calendar
 import java.util.GregorianCalendar
 import java.util.Locale
 import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
 import javax.crypto.Cipher
 import javax.crypto.spec.SecretKeySpec
 import javax.inject.Inject
@@ -69,6 +71,39 @@ class SecureSharedPreferences(
     private val sekrit: CharArray
 ) : SharedPreferences {
 
+    private val secretKey by lazy {
+        val digester = MessageDigest.getInstance("SHA-256")
+        digester.update(String(sekrit).toByteArray(charset(UTF8)))
+        SecretKeySpec(digester.digest(), ALGORITHM_AES)
+    }
+    private val encryptCipher by lazy {
+        Cipher.getInstance(ALGORITHM_AES).apply { init(Cipher.ENCRYPT_MODE, secretKey) }
+    }
+    private val decryptCipher by lazy {
+        Cipher.getInstance(ALGORITHM_AES).apply { init(Cipher.DECRYPT_MODE, secretKey) }
+    }
+
+    /**
+     * Encrypted version of the keys, by plain key. The encryption is deterministic, so they never change
+     */
+    private val encryptedKeys = ConcurrentHashMap<String, String>()
+
+    /**
+     * Decrypted values, by encrypted key. Each of them is only served while the stored value is still the one it has
+     *  been decrypted from, as the same file can be changed through other instances
+     */
+    private val decryptedValues = ConcurrentHashMap<String, DecryptedValue>()
+
+    // Strongly referenced, as the delegate only keeps a weak reference to its listeners
+    private val invalidateDecryptedValues = SharedPreferences.OnSharedPreferenceChangeListener { _, encryptedKey ->
+        if (encryptedKey != null) decryptedValues.remove(encryptedKey)
+        else decryptedValues.clear()
+    }
+
+    init {
+        delegate.registerOnSharedPreferenceChangeListener(invalidateDecryptedValues)
+    }
+
     override fun edit() = Editor()
 
     /**
@@ -88,8 +123,7 @@ class SecureSharedPreferences(
     @Synchronized
     override fun getBoolean(key: String, defValue: Boolean): Boolean {
         return try {
-            delegate.getString(encryptProxyKey(key), null)
-                ?.let(::decrypt)?.toBoolean()
+            getDecryptedValue(encryptProxyKey(key), ::decrypt)?.toBoolean()
                 ?: defValue
 
         } catch (e: ClassCastException) {
@@ -101,8 +135,7 @@ class SecureSharedPreferences(
     @Synchronized
     override fun getFloat(key: String, defValue: Float): Float {
         return try {
-            delegate.getString(encryptProxyKey(key), null)
-                ?.let(::decrypt)?.toFloatOrNull()
+            getDecryptedValue(encryptProxyKey(key), ::decrypt)?.toFloatOrNull()
                 ?: defValue
 
         } catch (e: ClassCastException) {
@@ -114,8 +147,7 @@ class SecureSharedPreferences(
     @Synchronized
     override fun getInt(key: String, defValue: Int): Int {
         return try {
-            delegate.getString(encryptProxyKey(key), null)
-                ?.let(::decrypt)?.toIntOrNull()
+            getDecryptedValue(encryptProxyKey(key), ::decrypt)?.toIntOrNull()
                 ?: defValue
 
         } catch (e: ClassCastException) {
@@ -127,8 +159,7 @@ class SecureSharedPreferences(
     @Synchronized
     override fun getLong(key: String, defValue: Long): Long {
         return try {
-            delegate.getString(encryptProxyKey(key), null)
-                ?.let(::decrypt)?.toLongOrNull()
+            getDecryptedValue(encryptProxyKey(key), ::decrypt)?.toLongOrNull()
                 ?: defValue
 
         } catch (e: ClassCastException) {
@@ -139,11 +170,26 @@ class SecureSharedPreferences(
 
     @Synchronized
     override fun getString(key: String, defValue: String?): String? =
-        delegate.getString(encryptProxyKey(key), null)?.let(::decrypt) ?: defValue
+        getDecryptedValue(encryptProxyKey(key), ::decrypt) ?: defValue
 
     @Synchronized
     fun getStringOrNull(key: String): String? =
-        delegate.getString(encryptProxyKey(key), null)?.let(::decryptOrNull)
+        getDecryptedValue(encryptProxyKey(key), ::decryptOrNull)
+
+    private fun getDecryptedValue(encryptedKey: String, decrypt: (String) -> String?): String? {
+        val encryptedValue = delegate.getString(encryptedKey, null)
+            ?: return null
+        decryptedValues[encryptedKey]
+            ?.takeIf { it.encryptedValue == encryptedValue }
+            ?.let { return it.value }
+
+        return decrypt(encryptedValue).also { value ->
+            // Values that cannot be decrypted are not cached, so the failure is reported on every read
+            if (value != null && value != encryptedValue) {
+                decryptedValues[encryptedKey] = DecryptedValue(encryptedValue, value)
+            }
+        }
+    }
 
     override fun contains(key: String): Boolean =
         delegate.contains(encryptProxyKey(key))
@@ -164,15 +210,19 @@ class SecureSharedPreferences(
     override fun getStringSet(key: String, defValues: Set<String>?): Set<String>? =
         throw UnsupportedOperationException("This class does not support String Sets")
 
-    fun encrypt(value: String?): String {
-        val bytes = value?.toByteArray(charset(UTF8)) ?: ByteArray(0)
-        val digester = MessageDigest.getInstance("SHA-256")
-        digester.update(String(sekrit).toByteArray(charset("UTF-8")))
-        val key = digester.digest()
-        val spec = SecretKeySpec(key, "AES")
-        val pbeCipher = Cipher.getInstance(ALGORITHM_AES)
-        pbeCipher.init(Cipher.ENCRYPT_MODE, spec)
-        return String(Base64.encode(pbeCipher.doFinal(bytes), Base64.NO_WRAP), charset(UTF8))
+    fun encrypt(value: String?): String =
+        encryptAll(listOf(value)).single()
+
+    /**
+     * Encrypts all the [values] while holding the cipher only once
+     */
+    private fun encryptAll(values: List<String?>): List<String> {
+        val encryptedBytes = synchronized(encryptCipher) {
+            values.map { value ->
+                encryptCipher.doFinal(value?.toByteArray(charset(UTF8)) ?: ByteArray(0))
+            }
+        }
+        return encryptedBytes.map { bytes -> String(Base64.encode(bytes, Base64.NO_WRAP), charset(UTF8)) }
     }
 
     private fun decrypt(value: String?): String? {
@@ -195,53 +245,61 @@ class SecureSharedPreferences(
 
     private fun decryptOrThrow(value: String?): String? {
         val bytes = if (value != null) Base64.decode(value, Base64.NO_WRAP) else ByteArray(0)
-        val digester = MessageDigest.getInstance("SHA-256")
-        digester.update(String(sekrit).toByteArray(charset("UTF-8")))
-        val key = digester.digest()
-        val spec = SecretKeySpec(key, "AES")
-        val pbeCipher = Cipher.getInstance(ALGORITHM_AES)
-        pbeCipher.init(Cipher.DECRYPT_MODE, spec)
-        return String(pbeCipher.doFinal(bytes), charset(UTF8))
+        val decryptedBytes = synchronized(decryptCipher) {
+            try {
+                decryptCipher.doFinal(bytes)
+            } catch (e: GeneralSecurityException) {
+                // Make sure the shared cipher is usable for the next value
+                decryptCipher.init(Cipher.DECRYPT_MODE, secretKey)
+                throw e
+            }
+        }
+        return String(decryptedBytes, charset(UTF8))
     }
 
-    fun encryptProxyKey(value: String) = encrypt(value)
+    fun encryptProxyKey(value: String): String =
+        encryptedKeys.getOrPut(value) { encrypt(value) }
 
+    /**
+     * Keeps the changes in plain text until they are committed, so they are all encrypted in one batch
+     */
     inner class Editor internal constructor() : SharedPreferences.Editor {
         private var delegate: SharedPreferences.Editor =
             this@SecureSharedPreferences.delegate.edit()
 
+        // Plain values by plain key
+        private val pendingChanges = LinkedHashMap<String, String?>()
+        private val pendingRemovals = mutableSetOf<String>()
+
         @Synchronized
-        override fun putBoolean(key: String, value: Boolean): Editor {
-            delegate.putString(encryptProxyKey(key), encrypt(value.toString()))
-            return this
-        }
+        override fun putBoolean(key: String, value: Boolean): Editor =
+            put(key, value.toString())
 
         @Synchronized
-        override fun putFloat(key: String, value: Float): Editor {
-            delegate.putString(encryptProxyKey(key), encrypt(value.toString()))
-            return this
-        }
+        override fun putFloat(key: String, value: Float): Editor =
+            put(key, value.toString())
 
         @Synchronized
-        override fun putInt(key: String, value: Int): Editor {
-            delegate.putString(encryptProxyKey(key), encrypt(value.toString()))
-            return this
-        }
+        override fun putInt(key: String, value: Int): Editor =
+            put(key, value.toString())
 
         @Synchronized
-        override fun putLong(key: String, value: Long): Editor {
-            delegate.putString(encryptProxyKey(key), encrypt(value.toString()))
-            return this
-        }
+        override fun putLong(key: String, value: Long): Editor =
+            put(key, value.toString())
 
         @Synchronized
-        override fun putString(key: String, value: String?): Editor {
-            delegate.putString(encryptProxyKey(key), encrypt(value))
+        override fun putString(key: String, value: String?): Editor =
+            put(key, value)
+
+        private fun put(key: String, value: String?): Editor {
+            pendingRemovals -= key
+            pendingChanges[key] = value
             return this
         }
 
         @Synchronized
         override fun apply() {
+            flushPendingChanges()
             if (Build.VERSION.SDK_INT > Build.VERSION_CODES.N) delegate.apply()
             else delegate.commit()
         }
@@ -253,18 +311,42 @@ class SecureSharedPreferences(
         }
 
         @Synchronized
-        override fun commit() = delegate.commit()
+        override fun commit(): Boolean {
+            flushPendingChanges()
+            return delegate.commit()
+        }
 
         @Synchronized
         override fun remove(s: String): Editor {
-            delegate.remove(encryptProxyKey(s))
+            pendingChanges -= s
+            pendingRemovals += s
             return this
         }
 
+        private fun flushPendingChanges() {
+            for (key in pendingRemovals) {
+                delegate.remove(encryptProxyKey(key))
+            }
+            val keys = pendingChanges.keys.toList()
+            val keysToEncrypt = keys.filterNot(encryptedKeys::containsKey)
+            val encrypted = encryptAll(keysToEncrypt + pendingChanges.values)
+            keysToEncrypt.forEachIndexed { index, key -> encryptedKeys[key] = encrypted[index] }
+            keys.forEachIndexed { index, key ->
+                delegate.putString(encryptProxyKey(key), encrypted[keysToEncrypt.size + index])
+            }
+            pendingRemovals.clear()
+            pendingChanges.clear()
+        }
+
         override fun putStringSet(key: String, values: Set<String>?): SharedPreferences.Editor =
             throw UnsupportedOperationException("This class does not work with String Sets.")
     }
 
+    private data class DecryptedValue(
+        val encryptedValue: String,
+        val value: String
+    )
+
     /**
      * Migrate [SecureSharedPreferences] to use Users' [Id] instead of username
      *
@@ -315,10 +397,12 @@ class SecureSharedPreferences(
         private val keyStore = KeyStore.getInstance(keyStoreName).also { it.load(null) }
         private val sekrit by lazy { generateSekrit() }
 
-        fun appPreferences(): SharedPreferences = SecureSharedPreferences(
-            delegate = context.getSharedPreferences("ProtonMailSSP", Context.MODE_PRIVATE),
-            sekrit = sekrit
-        )
+        /**
+         * Instances by file name, so their derived key and decrypted values are reused
+         */
+        private val preferences = ConcurrentHashMap<String, SecureSharedPreferences>()
+
+        fun appPreferences(): SharedPreferences = preferencesFor("ProtonMailSSP")
 
         @Suppress("FunctionName")
         @Deprecated("This should not be used! needed only for migration!")
@@ -332,11 +416,15 @@ class SecureSharedPreferences(
             )
         }
 
-        fun userPreferences(userId: UserId): SharedPreferences =
-            SecureSharedPreferences(
-                delegate = context.getSharedPreferences(userId.id, Context.MODE_PRIVATE),
-                sekrit = sekrit
-            )
+        fun userPreferences(userId: UserId): SharedPreferences = preferencesFor(userId.id)
+
+        private fun preferencesFor(name: String): SecureSharedPreferences =
+            preferences.getOrPut(name) {
+                SecureSharedPreferences(
+                    delegate = context.getSharedPreferences(name, Context.MODE_PRIVATE),
+                    sekrit = sekrit
+                )
+            }
 
         private fun generateSekrit(): CharArray {
             val keyPair = retrieveAsymmetricKeyPair(asymmetricKeyAlias)
@@ -448,15 +536,20 @@ class SecureSharedPreferences(
         private const val keyStoreName = "AndroidKeyStore"
         private const val asymmetricKeyAlias = "ProtonMailKey"
 
+        private var factory: Factory? = null
+
         @Deprecated(
             "Use SecureSharedPreferences.Factory",
             ReplaceWith("secureSharedPreferencesFactory.userPreferences(userId)")
         )
         @Synchronized
-        fun getPrefsForUser(context: Context, userId: UserId): SharedPreferences =
-            Factory(
+        fun getPrefsForUser(context: Context, userId: UserId): SharedPreferences {
+            // Creating a Factory loads the key store and decrypts the symmetric key, so it is only done once
+            val factory = factory ?: Factory(
                 context.applicationContext,
                 PreferenceManager.getDefaultSharedPreferences(context)
-            ).userPreferences(userId)
+            ).also { factory = it }
+            return factory.userPreferences(userId)
+        }
     }
 }
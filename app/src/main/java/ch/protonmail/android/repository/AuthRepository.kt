@@ -19,11 +19,11 @@
 
 package ch.protonmail.android.repository
 
-import kotlinx.coroutines.runBlocking
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import me.proton.core.auth.domain.repository.AuthRepository
 
 @Deprecated(
     "Please convert caller Java file to Kotlin.",
-    ReplaceWith("runBlocking { randomModulus() }", "kotlinx.coroutines.runBlocking")
+    ReplaceWith("runBlockingMonitored { randomModulus() }", "kotlinx.coroutines.runBlockingMonitored")
 )
-fun AuthRepository.randomModulusBlocking() = runBlocking { randomModulus(null) }
+fun AuthRepository.randomModulusBlocking() = runBlockingMonitored { randomModulus(null) }
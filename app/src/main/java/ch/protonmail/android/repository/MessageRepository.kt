@@ -23,18 +23,17 @@ import ch.protonmail.android.api.ProtonMailApiManager
 import ch.protonmail.android.api.interceptors.UserIdTag
 import ch.protonmail.android.api.models.DatabaseProvider
 import ch.protonmail.android.api.models.MessageRecipient
-import ch.protonmail.android.core.Constants.MAX_MESSAGE_ID_WORKER_ARGUMENTS
 import ch.protonmail.android.core.Constants.MessageLocationType
 import ch.protonmail.android.core.NetworkConnectivityManager
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.NoProtonStoreMapper
 import ch.protonmail.android.data.ProtonStore
-import ch.protonmail.android.data.local.CounterDao
 import ch.protonmail.android.data.local.MessageDao
 import ch.protonmail.android.data.local.model.ContactEmail
 import ch.protonmail.android.data.local.model.Message
 import ch.protonmail.android.data.local.model.MessagePreferenceEntity
 import ch.protonmail.android.data.local.model.MessageSender
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
 import ch.protonmail.android.domain.LoadMoreFlow
 import ch.protonmail.android.jobs.PostReadJob
 import ch.protonmail.android.jobs.PostStarJob
@@ -44,6 +43,7 @@ import ch.protonmail.android.labels.domain.LabelRepository
 import ch.protonmail.android.labels.domain.model.LabelId
 import ch.protonmail.android.labels.domain.model.LabelType
 import ch.protonmail.android.mailbox.data.local.model.UnreadCounterEntity.Type
+import ch.protonmail.android.mailbox.data.local.reconcileWhenDrifted
 import ch.protonmail.android.mailbox.data.mapper.ApiToDatabaseUnreadCounterMapper
 import ch.protonmail.android.mailbox.data.mapper.DatabaseToDomainUnreadCounterMapper
 import ch.protonmail.android.mailbox.data.mapper.MessagesResponseToMessagesMapper
@@ -58,6 +58,8 @@ import ch.protonmail.android.utils.MessageBodyFileManager
 import ch.protonmail.android.worker.EmptyFolderRemoteWorker
 import com.birbit.android.jobqueue.JobManager
 import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.channels.BufferOverflow
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.catch
@@ -68,7 +70,6 @@ import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.flow.onStart
 import kotlinx.coroutines.withContext
-import kotlinx.coroutines.yield
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.arch.ResponseSource
 import me.proton.core.domain.arch.map
@@ -76,11 +77,14 @@ import me.proton.core.domain.entity.UserId
 import me.proton.core.util.kotlin.DispatcherProvider
 import timber.log.Timber
 import javax.inject.Inject
+import kotlin.time.Duration.Companion.seconds
 
 const val MAX_BODY_SIZE_IN_DB = 900 * 1024 // 900 KB
 private const val FILE_PREFIX = "file://"
 // For non-custom labels such as: Inbox, Sent, Archive etc.
 private const val MAX_LABEL_ID_LENGTH = 2
+// A page of messages fetched within this time is shown without waiting for the network
+private val MESSAGES_FRESHNESS_TTL = 30.seconds
 
 /**
  * A repository for getting and saving messages.
@@ -98,7 +102,9 @@ class MessageRepository @Inject constructor(
     connectivityManager: NetworkConnectivityManager,
     private val labelRepository: LabelRepository,
     private var moveMessageToLocationWorker: MoveMessageToLocationWorker.Enqueuer,
-    private val emptyFolderRemoteWorker: EmptyFolderRemoteWorker.Enqueuer
+    private val emptyFolderRemoteWorker: EmptyFolderRemoteWorker.Enqueuer,
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache,
+    private val externalScope: CoroutineScope
 ) {
 
     private val allMessagesStore by lazy {
@@ -110,17 +116,21 @@ class MessageRepository @Inject constructor(
             apiToDomainMapper = messagesResponseToMessagesMapper,
             databaseToDomainMapper = NoProtonStoreMapper(),
             apiToDatabaseMapper = messagesResponseToMessagesMapper,
-            connectivityManager = connectivityManager
+            connectivityManager = connectivityManager,
+            freshnessTtl = MESSAGES_FRESHNESS_TTL,
+            revalidationScope = externalScope
         )
     }
 
-    private val refreshUnreadCountersTrigger = MutableSharedFlow<Unit>(replay = 1)
+    private val refreshUnreadCountersTrigger =
+        MutableSharedFlow<Unit>(extraBufferCapacity = 1, onBufferOverflow = BufferOverflow.DROP_OLDEST)
 
     fun observeMessages(
         params: GetAllMessagesParameters,
-        refreshAtStart: Boolean = true
+        refreshAtStart: Boolean = true,
+        ignoreFreshness: Boolean = false
     ): LoadMoreFlow<DataResult<List<Message>>> =
-        allMessagesStore.loadMoreFlow(params, refreshAtStart)
+        allMessagesStore.loadMoreFlow(params, refreshAtStart, ignoreFreshness)
 
     fun observeMessage(userId: UserId, messageId: String): Flow<Message?> {
         val messageDao = databaseProvider.provideMessageDao(userId)
@@ -145,6 +155,21 @@ class MessageRepository @Inject constructor(
         }
     }
 
+    /**
+     * Finds the Messages with the given ids in the database, in a single query.
+     * Messages that are not in the database are omitted, the order of the result is not guaranteed
+     */
+    suspend fun findMessages(userId: UserId, messageIds: List<String>): List<Message> {
+        val messageDao = databaseProvider.provideMessageDao(userId)
+        return messageDao.findMessagesByIdsOnce(messageIds).onEach { message ->
+            message.messageBody?.let {
+                if (it.startsWith(FILE_PREFIX)) {
+                    message.messageBody = messageBodyFileManager.readMessageBodyFromFile(message)
+                }
+            }
+        }
+    }
+
     suspend fun getMessage(userId: UserId, messageDatabaseId: Long): Message? {
         val messageDao = databaseProvider.provideMessageDao(userId)
         return messageDao.findMessageByDatabaseId(messageDatabaseId).first()?.apply {
@@ -224,18 +249,37 @@ class MessageRepository @Inject constructor(
             }.getOrNull()
         }
 
+    /**
+     * The counters are kept up to date locally, by [MessageDao] when Messages change their unread state or labels
+     *  and by the event loop. They are fetched from the server only when [refreshUnreadCounters] is called or when
+     *  the stored ones drifted
+     */
     fun getUnreadCounters(userId: UserId): Flow<DataResult<List<UnreadCounter>>> =
-        refreshUnreadCountersTrigger.flatMapLatest {
-            observerUnreadCountersFromDatabase(userId)
-                .onStart { fetchAndSaveUnreadCounters(userId) }
-                .catch { exception ->
-                    if (exception is CancellationException) {
-                        throw exception
-                    } else {
-                        emit(DataResult.Error.Remote(exception.message, exception))
+        refreshUnreadCountersTrigger
+            .map { true }
+            .onStart { emit(false) }
+            .flatMapLatest { forceRefresh ->
+                observerUnreadCountersFromDatabase(userId)
+                    .onStart {
+                        // A failed refresh is reported, but the stored counters keep being observed
+                        if (forceRefresh) {
+                            runCatching { fetchAndSaveUnreadCounters(userId) }
+                                .onFailure { exception ->
+                                    if (exception is CancellationException) {
+                                        throw exception
+                                    }
+                                    emit(DataResult.Error.Remote(exception.message, exception))
+                                }
+                        }
                     }
-                }
-        }.onStart { refreshUnreadCounters() }
+                    .catch { exception ->
+                        if (exception is CancellationException) {
+                            throw exception
+                        } else {
+                            emit(DataResult.Error.Remote(exception.message, exception))
+                        }
+                    }
+            }
 
     private suspend fun fetchAndSaveUnreadCounters(userId: UserId) {
         val response = protonMailApiManager.fetchMessagesCounts(userId)
@@ -254,52 +298,40 @@ class MessageRepository @Inject constructor(
         messageIds: List<String>,
         userId: UserId
     ) {
+        if (messageIds.isEmpty()) return
         val newLocation = MessageLocationType.TRASH
-        messageIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                moveMessageToLocationWorker.enqueue(userId, ids, newLocation = newLocation)
-                moveMessageInDb(ids, newLocation, userId)
-            }
+        moveMessageToLocationWorker.enqueue(userId, messageIds, newLocation = newLocation)
+        moveMessagesInDb(messageIds, newLocation, userId)
     }
 
     suspend fun moveToArchive(
         messageIds: List<String>,
         userId: UserId
     ) {
+        if (messageIds.isEmpty()) return
         val newLocation = MessageLocationType.ARCHIVE
-        messageIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                moveMessageToLocationWorker.enqueue(userId, ids, newLocation = newLocation)
-                moveMessageInDb(ids, newLocation, userId)
-            }
+        moveMessageToLocationWorker.enqueue(userId, messageIds, newLocation = newLocation)
+        moveMessagesInDb(messageIds, newLocation, userId)
     }
 
     suspend fun moveToInbox(
         messageIds: List<String>,
         userId: UserId
     ) {
+        if (messageIds.isEmpty()) return
         val newLocation = MessageLocationType.INBOX
-        messageIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                moveMessageToLocationWorker.enqueue(userId, ids, newLocation = newLocation)
-                moveMessageInDb(ids, newLocation, userId)
-            }
+        moveMessageToLocationWorker.enqueue(userId, messageIds, newLocation = newLocation)
+        moveMessagesInDb(messageIds, newLocation, userId)
     }
 
     suspend fun moveToSpam(
         messageIds: List<String>,
         userId: UserId
     ) {
+        if (messageIds.isEmpty()) return
         val newLocation = MessageLocationType.SPAM
-        messageIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                moveMessageToLocationWorker.enqueue(userId, ids, newLocation = newLocation)
-                moveMessageInDb(ids, newLocation, userId)
-            }
+        moveMessageToLocationWorker.enqueue(userId, messageIds, newLocation = newLocation)
+        moveMessagesInDb(messageIds, newLocation, userId)
     }
 
     suspend fun moveToCustomFolderLocation(
@@ -307,13 +339,10 @@ class MessageRepository @Inject constructor(
         newCustomLocationId: String,
         userId: UserId
     ) {
+        if (messageIds.isEmpty()) return
         val newLocation = MessageLocationType.LABEL
-        messageIds
-            .chunked(MAX_MESSAGE_ID_WORKER_ARGUMENTS)
-            .forEach { ids ->
-                moveMessageToLocationWorker.enqueue(userId, ids, newCustomLocation = newCustomLocationId)
-                moveMessageInDb(ids, newLocation, userId, newCustomLocationId)
-            }
+        moveMessageToLocationWorker.enqueue(userId, messageIds, newCustomLocation = newCustomLocationId)
+        moveMessagesInDb(messageIds, newLocation, userId, newCustomLocationId)
     }
 
     fun starMessages(messageIds: List<String>) {
@@ -432,6 +461,7 @@ class MessageRepository @Inject constructor(
 
         messageDao.deleteAttachmentsByMessageIds(messageIds)
         messageDao.deleteMessagesByIds(messageIds)
+        messageIds.forEach { prefetchedMessageBodyCache.remove(userId, it) }
     }
 
     suspend fun saveViewInDarkModeMessagePreference(userId: UserId, messageId: String, viewInDarkMode: Boolean) {
@@ -462,78 +492,51 @@ class MessageRepository @Inject constructor(
     private fun observerUnreadCountersFromDatabase(userId: UserId): Flow<DataResult<List<UnreadCounter>>> =
         databaseProvider
             .provideUnreadCounterDao(userId)
-            .observeMessagesUnreadCounters(userId).map { list ->
+            .observeMessagesUnreadCounters(userId)
+            .reconcileWhenDrifted { fetchAndSaveUnreadCounters(userId) }
+            .map { list ->
                 val domainModels = databaseToDomainUnreadCounterMapper.toDomainModels(list)
                 DataResult.Success(ResponseSource.Local, domainModels)
             }
 
-    private suspend fun moveMessageInDb(
+    /**
+     * Moves all the given Messages at once: they are loaded with a query for every chunk of ids, changed in memory
+     *  and written back, together with the unread counters, in a single transaction
+     */
+    private suspend fun moveMessagesInDb(
         messageIds: List<String>,
         newLocation: MessageLocationType,
         userId: UserId,
         newCustomLocationId: String? = null // for custom folder locations
     ) {
-        val counterDao = databaseProvider.provideCounterDao(userId)
         val messagesDao = databaseProvider.provideMessageDao(userId)
-        var totalUnread = 0
-        for (id in messageIds) {
-            yield()
-            val message: Message? = messagesDao.findMessageByIdOnce(id)
-            if (message != null) {
-                Timber.d("Move to $newLocation, message: %s", message.messageId)
-                if (updateMessageLocally(
-                        counterDao,
-                        messagesDao,
-                        message,
-                        newLocation,
-                        newCustomLocationId
-                    )
-                ) {
-                    totalUnread++
-                }
-            }
-        }
-
-        val unreadLocationCounter = counterDao.findUnreadLocationById(newLocation.messageLocationTypeValue) ?: return
-        unreadLocationCounter.increment(totalUnread)
-        counterDao.insertUnreadLocation(unreadLocationCounter)
-    }
-
-    private suspend fun updateMessageLocally(
-        counterDao: CounterDao,
-        messagesDao: MessageDao,
-        message: Message,
-        newLocation: MessageLocationType,
-        newCustomLocationId: String? = null
-    ): Boolean {
-        var unreadIncrease = false
-        if (!message.isRead) {
-            val unreadLocationCounter = counterDao.findUnreadLocationById(message.location)
-            if (unreadLocationCounter != null) {
-                unreadLocationCounter.decrement()
-                counterDao.insertUnreadLocation(unreadLocationCounter)
-            }
-            unreadIncrease = true
-        }
         val newLocationString = if (!newCustomLocationId.isNullOrEmpty()) {
             newCustomLocationId
         } else {
             newLocation.messageLocationTypeValue.toString()
         }
-        message.removeLabels(
-            getLabelIdsToRemoveOnMoveToFolderAction(
-                labelIds = message.allLabelIDs,
-                isTrashAction = newLocation == MessageLocationType.TRASH,
-                message.isScheduled
-            )
-        )
-        message.addLabels(listOf(newLocationString))
-        Timber.d(
-            "Archive message id: %s, location: %s, labels: %s", message.messageId, message.location, message.allLabelIDs
-        )
+        // Messages share most of their labels, so each custom one is looked up only once for the whole batch
+        val isFolderByLabelId = mutableMapOf<String, Boolean>()
+        val isFolder: suspend (String) -> Boolean = { labelId ->
+            isFolderByLabelId.getOrPut(labelId) {
+                labelRepository.findLabel(LabelId(labelId))?.type == LabelType.FOLDER
+            }
+        }
 
-        messagesDao.saveMessage(message)
-        return unreadIncrease
+        val messages = messagesDao.findMessagesInfoByIds(messageIds)
+        for (message in messages) {
+            message.removeLabels(
+                getLabelIdsToRemoveOnMoveToFolderAction(
+                    labelIds = message.allLabelIDs,
+                    isTrashAction = newLocation == MessageLocationType.TRASH,
+                    message.isScheduled,
+                    isFolder
+                )
+            )
+            message.addLabels(listOf(newLocationString))
+        }
+        Timber.d("Move ${messages.size} messages to $newLocationString")
+        messagesDao.updateMessagesInfo(messages)
     }
 
     /**
@@ -543,11 +546,12 @@ class MessageRepository @Inject constructor(
     private suspend fun getLabelIdsToRemoveOnMoveToFolderAction(
         labelIds: List<String>,
         isTrashAction: Boolean,
-        isScheduled: Boolean
+        isScheduled: Boolean,
+        isFolder: suspend (String) -> Boolean
     ): List<String> {
         return labelIds.filter { labelId ->
             val isLabelExclusive = if (labelId.length > MAX_LABEL_ID_LENGTH) {
-                labelRepository.findLabel(LabelId(labelId))?.type == LabelType.FOLDER
+                isFolder(labelId)
             } else {
                 labelId != MessageLocationType.STARRED.asLabelIdString()
             }
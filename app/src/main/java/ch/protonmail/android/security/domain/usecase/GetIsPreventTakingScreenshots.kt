@@ -19,8 +19,8 @@
 
 package ch.protonmail.android.security.domain.usecase
 
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.settings.domain.DeviceSettingsRepository
-import kotlinx.coroutines.runBlocking
 import javax.inject.Inject
 
 class GetIsPreventTakingScreenshots @Inject constructor(
@@ -31,5 +31,5 @@ class GetIsPreventTakingScreenshots @Inject constructor(
         settingsRepository.getIsPreventTakingScreenshots()
 
     fun blocking(): Boolean =
-        runBlocking { invoke() }
+        runBlockingMonitored { invoke() }
 }
@@ -19,8 +19,8 @@
 
 package ch.protonmail.android.security.domain.usecase
 
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.settings.domain.DeviceSettingsRepository
-import kotlinx.coroutines.runBlocking
 import javax.inject.Inject
 
 class SavePreventTakingScreenshots @Inject constructor(
@@ -32,6 +32,6 @@ class SavePreventTakingScreenshots @Inject constructor(
     }
 
     fun blocking(shouldPrevent: Boolean) {
-        runBlocking { invoke(shouldPrevent) }
+        runBlockingMonitored { invoke(shouldPrevent) }
     }
 }
@@ -29,6 +29,7 @@ import androidx.lifecycle.LifecycleOwner
 import androidx.lifecycle.ProcessLifecycleOwner
 import androidx.lifecycle.flowWithLifecycle
 import androidx.lifecycle.lifecycleScope
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.pinlock.presentation.PinLockManager
 import ch.protonmail.android.security.domain.usecase.ObserveIsPreventTakingScreenshots
 import ch.protonmail.android.usecase.GetElapsedRealTimeMillis
@@ -37,7 +38,6 @@ import ch.protonmail.android.utils.extensions.app
 import kotlinx.coroutines.flow.SharingStarted
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.flow.stateIn
-import kotlinx.coroutines.runBlocking
 import me.proton.core.presentation.app.AppLifecycleProvider
 import timber.log.Timber
 import java.lang.ref.WeakReference
@@ -115,7 +115,7 @@ internal class SecurityManager @Inject constructor(
 
         @Suppress("BlockingMethodInNonBlockingContext") // This needs to be run blocking, in order to
         //  prevent the last activity to be displayed
-        runBlocking {
+        runBlockingMonitored {
             val shouldLock = pinLockManager.shouldLock(
                 appState = appState,
                 currentActivity = activity,
@@ -20,8 +20,8 @@
 package ch.protonmail.android.settings.domain.usecase
 
 import androidx.appcompat.app.AppCompatDelegate
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.settings.domain.model.AppThemeSettings
-import kotlinx.coroutines.runBlocking
 import me.proton.core.util.kotlin.exhaustive
 import javax.inject.Inject
 
@@ -43,6 +43,6 @@ class ApplyAppThemeFromSettings @Inject constructor(
     }
 
     fun blocking() {
-        runBlocking { this@ApplyAppThemeFromSettings() }
+        runBlockingMonitored { this@ApplyAppThemeFromSettings() }
     }
 }
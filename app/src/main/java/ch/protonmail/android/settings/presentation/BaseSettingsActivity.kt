@@ -45,10 +45,9 @@ import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.AttachmentMetadataDao
 import ch.protonmail.android.data.local.ContactDao
 import ch.protonmail.android.data.local.ContactDatabase
-import ch.protonmail.android.data.local.CounterDao
-import ch.protonmail.android.data.local.CounterDatabase
 import ch.protonmail.android.data.local.MessageDao
 import ch.protonmail.android.data.local.MessageDatabase
+import ch.protonmail.android.diagnostics.BlockingCallMonitor
 import ch.protonmail.android.domain.entity.user.Address
 import ch.protonmail.android.domain.entity.user.User
 import ch.protonmail.android.events.FetchLabelsEvent
@@ -128,7 +127,6 @@ abstract class BaseSettingsActivity : BaseConnectivityActivity() {
     var messageDao: MessageDao? = null
     var conversationDao: ConversationDao? = null
     private var searchDatabase: MessageDao? = null
-    var counterDao: CounterDao? = null
     var pendingActionDao: PendingActionDao? = null
     var preferences: SharedPreferences? = null
 
@@ -158,6 +156,10 @@ abstract class BaseSettingsActivity : BaseConnectivityActivity() {
             )
             if (settingItem.isSection.not() && isDrillDownOrButton) {
                 selectItem(settingItem.settingId)
+            } else if (settingItem.settingId == APP_VERSION.name.lowercase(Locale.ENGLISH) &&
+                BlockingCallMonitor.isEnabled
+            ) {
+                shareBlockingCallsReport()
             }
         }
     }
@@ -171,7 +173,6 @@ abstract class BaseSettingsActivity : BaseConnectivityActivity() {
         contactDao = ContactDatabase.getInstance(applicationContext, userId).getDao()
         messageDao = MessageDatabase.getInstance(applicationContext, userId).getDao()
         conversationDao = MessageDatabase.getInstance(applicationContext, userId).getConversationDao()
-        counterDao = CounterDatabase.getInstance(applicationContext, userId).getDao()
         pendingActionDao = PendingActionDatabase.getInstance(applicationContext, userId).getDao()
         preferences = userManager.preferencesFor(userId)
 
@@ -277,6 +278,15 @@ abstract class BaseSettingsActivity : BaseConnectivityActivity() {
         startActivity(defaultAddressIntent)
     }
 
+    private fun shareBlockingCallsReport() {
+        val sendIntent = Intent().apply {
+            action = Intent.ACTION_SEND
+            putExtra(Intent.EXTRA_TEXT, BlockingCallMonitor.report().export())
+            type = "text/plain"
+        }
+        startActivity(Intent.createChooser(sendIntent, null))
+    }
+
     private fun selectItem(settingsId: String) {
         when (valueOf(settingsId.uppercase())) {
             ACCOUNT -> {
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.startup
+
+import android.app.Activity
+import android.app.Application
+import android.os.Bundle
+import android.os.Handler
+import android.os.Looper
+import android.view.ViewTreeObserver
+import ch.protonmail.android.startup.StartupTask.Mode
+import ch.protonmail.android.usecase.GetElapsedRealTimeMillis
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import me.proton.core.util.kotlin.DispatcherProvider
+import timber.log.Timber
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/** Deferred tasks are started after this delay, if no Activity draws its first frame before */
+private val FIRST_DRAW_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(5)
+
+/**
+ * Runs the initialization of the application as a graph of [StartupTask]s.
+ *
+ * Only the [Mode.CRITICAL] tasks are executed before the first frame, the others are started once the first Activity
+ *  has been drawn, and run as soon as their dependencies are completed: [Mode.DEFERRED_BACKGROUND] ones in parallel,
+ *  on background threads.
+ * The duration of every task is recorded into [timings], so regressions of the cold start are visible.
+ */
+@Singleton
+class StartupOrchestrator @Inject constructor(
+    private val scope: CoroutineScope,
+    private val dispatchers: DispatcherProvider,
+    private val getElapsedRealTimeMillis: GetElapsedRealTimeMillis
+) {
+
+    private val tasks = LinkedHashMap<String, StartupTask>()
+    private val taskTimings = ConcurrentHashMap<String, Long>()
+
+    /**
+     * Duration in milliseconds of the tasks completed, by their name
+     */
+    val timings: Map<String, Long>
+        get() = taskTimings.toMap()
+
+    /**
+     * Declare a task, without dependencies, to be executed on start
+     */
+    fun add(name: String, mode: Mode, action: Runnable): StartupOrchestrator =
+        add(name, mode, emptyList(), action)
+
+    /**
+     * Declare a task to be executed on start
+     *
+     * @param dependencies names of the tasks that must be completed before this one starts; a [Mode.CRITICAL] task
+     *  can only depend on other [Mode.CRITICAL] tasks
+     */
+    fun add(
+        name: String,
+        mode: Mode,
+        dependencies: List<String>,
+        action: Runnable
+    ): StartupOrchestrator {
+        require(name !in tasks) { "Startup task '$name' is already declared" }
+        tasks[name] = StartupTask(name, mode, dependencies, action)
+        return this
+    }
+
+    /**
+     * Executes the [Mode.CRITICAL] tasks and schedules the others after the first frame of the application.
+     * It must be called on the main thread
+     */
+    fun start(application: Application) {
+        runCritical()
+        onFirstDraw(application) { runDeferred() }
+    }
+
+    internal fun runCritical() {
+        val start = getElapsedRealTimeMillis()
+        for (task in sortedTasks().filter { it.mode == Mode.CRITICAL }) {
+            run(task)
+        }
+        Timber.i("Critical startup tasks completed in ${getElapsedRealTimeMillis() - start}ms")
+    }
+
+    internal fun runDeferred(): Job = scope.launch {
+        val start = getElapsedRealTimeMillis()
+        val deferredTasks = sortedTasks().filter { it.mode != Mode.CRITICAL }
+        val jobs = HashMap<String, Deferred<Unit>>()
+        for (task in deferredTasks) {
+            // Dependencies come first in the sorted tasks, critical ones are already completed
+            val dependencies = task.dependencies.mapNotNull { jobs[it] }
+            jobs[task.name] = async(start = CoroutineStart.LAZY) {
+                dependencies.awaitAll()
+                val dispatcher = if (task.mode == Mode.DEFERRED_MAIN_THREAD) dispatchers.Main else dispatchers.Io
+                withContext(dispatcher) { run(task) }
+            }
+        }
+        jobs.values.awaitAll()
+        Timber.i("Deferred startup tasks completed in ${getElapsedRealTimeMillis() - start}ms: $timings")
+    }
+
+    private fun run(task: StartupTask) {
+        val start = getElapsedRealTimeMillis()
+        task.action.run()
+        taskTimings[task.name] = getElapsedRealTimeMillis() - start
+    }
+
+    /**
+     * @return the tasks sorted so that every one comes after its dependencies
+     * @throws IllegalStateException if a dependency is not declared or they contain a cycle
+     */
+    private fun sortedTasks(): List<StartupTask> {
+        val sorted = LinkedHashMap<String, StartupTask>()
+        val visiting = HashSet<String>()
+
+        fun visit(task: StartupTask) {
+            if (task.name in sorted) return
+            check(visiting.add(task.name)) { "Startup task '${task.name}' has a cyclic dependency" }
+            for (dependencyName in task.dependencies) {
+                val dependency = checkNotNull(tasks[dependencyName]) {
+                    "Startup task '${task.name}' depends on '$dependencyName', which is not declared"
+                }
+                check(task.mode != Mode.CRITICAL || dependency.mode == Mode.CRITICAL) {
+                    "Critical startup task '${task.name}' cannot depend on deferred task '$dependencyName'"
+                }
+                visit(dependency)
+            }
+            visiting.remove(task.name)
+            sorted[task.name] = task
+        }
+
+        tasks.values.forEach(::visit)
+        return sorted.values.toList()
+    }
+
+    /**
+     * Invokes [block] once, on the main thread, after the first Activity has been drawn, or after
+     *  [FIRST_DRAW_TIMEOUT_MS] if the application has been started without any Activity
+     */
+    private fun onFirstDraw(application: Application, block: () -> Unit) {
+        val handler = Handler(Looper.getMainLooper())
+        var invoked = false
+        val invokeOnce = Runnable {
+            if (!invoked) {
+                invoked = true
+                block()
+            }
+        }
+        handler.postDelayed(invokeOnce, FIRST_DRAW_TIMEOUT_MS)
+
+        application.registerActivityLifecycleCallbacks(object : EmptyActivityLifecycleCallbacks() {
+            override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) {
+                application.unregisterActivityLifecycleCallbacks(this)
+                val decorView = activity.window.decorView
+                decorView.viewTreeObserver.addOnDrawListener(object : ViewTreeObserver.OnDrawListener {
+                    override fun onDraw() {
+                        // Listeners cannot be removed while they are dispatched
+                        handler.post { decorView.viewTreeObserver.removeOnDrawListener(this) }
+                        handler.removeCallbacks(invokeOnce)
+                        handler.postAtFrontOfQueue(invokeOnce)
+                    }
+                })
+            }
+        })
+    }
+
+    private abstract class EmptyActivityLifecycleCallbacks : Application.ActivityLifecycleCallbacks {
+        override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) = Unit
+        override fun onActivityStarted(activity: Activity) = Unit
+        override fun onActivityResumed(activity: Activity) = Unit
+        override fun onActivityPaused(activity: Activity) = Unit
+        override fun onActivityStopped(activity: Activity) = Unit
+        override fun onActivitySaveInstanceState(activity: Activity, outState: Bundle) = Unit
+        override fun onActivityDestroyed(activity: Activity) = Unit
+    }
+}
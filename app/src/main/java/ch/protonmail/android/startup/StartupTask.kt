@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.startup
+
+/**
+ * A unit of work executed by [StartupOrchestrator] while the application starts
+ *
+ * @property name unique name of the task, used for declaring the dependencies and for the timings
+ * @property mode when and where the task is executed
+ * @property dependencies names of the tasks that must be completed before this one starts
+ */
+class StartupTask(
+    val name: String,
+    val mode: Mode,
+    val dependencies: List<String>,
+    val action: Runnable
+) {
+
+    enum class Mode {
+
+        /** Executed synchronously on the main thread, before the first frame */
+        CRITICAL,
+
+        /** Executed on the main thread after the first frame, for work that needs it, like lifecycle observers */
+        DEFERRED_MAIN_THREAD,
+
+        /** Executed in parallel to the other deferred tasks, on a background thread, after the first frame */
+        DEFERRED_BACKGROUND
+    }
+}
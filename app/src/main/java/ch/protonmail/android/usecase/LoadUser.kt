@@ -20,10 +20,10 @@
 package ch.protonmail.android.usecase
 
 import arrow.core.Either
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import me.proton.core.domain.entity.UserId
 import ch.protonmail.android.domain.entity.user.User
 import ch.protonmail.android.mapper.bridge.UserBridgeMapper
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import me.proton.core.util.kotlin.DispatcherProvider
 import me.proton.core.util.kotlin.invoke
@@ -47,7 +47,7 @@ class LoadUser @Inject constructor(
         "Should not be used, necessary only for old and Java classes",
         ReplaceWith("invoke(userId)")
     )
-    fun blocking(userId: UserId) = runBlocking {
+    fun blocking(userId: UserId) = runBlockingMonitored {
         invoke(userId)
     }
 
@@ -22,6 +22,7 @@ package ch.protonmail.android.usecase.delete
 import android.content.Context
 import ch.protonmail.android.api.models.DatabaseProvider
 import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
 import ch.protonmail.android.storage.AttachmentClearingService
 import ch.protonmail.android.storage.MessageBodyClearingService
 import ch.protonmail.android.utils.AppUtil
@@ -45,6 +46,7 @@ import javax.inject.Inject
 class ClearUserData @Inject constructor(
     private val context: Context,
     private val databaseProvider: DatabaseProvider,
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache,
     private val dispatchers: DispatcherProvider
 ) {
 
@@ -83,6 +85,7 @@ class ClearUserData @Inject constructor(
                 clearPendingUploadCache()
             }
         }
+        prefetchedMessageBodyCache.clear(userId)
 
         startCleaningServices(userId)
     }
@@ -24,6 +24,7 @@ import ch.protonmail.android.api.models.PublicKeyBody
 import ch.protonmail.android.api.models.enumerations.KeyFlag
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.crypto.UserCrypto
+import ch.protonmail.android.crypto.VerificationKeysCache
 import ch.protonmail.android.data.local.ContactDao
 import ch.protonmail.android.utils.crypto.KeyInformation
 import kotlinx.coroutines.withContext
@@ -37,10 +38,28 @@ class FetchVerificationKeys @Inject constructor(
     private val userManager: UserManager,
     private val userCryptoFactory: UserCrypto.AssistedFactory,
     private val contactDao: ContactDao,
-    private val dispatchers: DispatcherProvider
+    private val dispatchers: DispatcherProvider,
+    private val verificationKeysCache: VerificationKeysCache
 ) {
 
-    suspend operator fun invoke(userId: UserId, email: String): List<KeyInformation> = withContext(dispatchers.Io) {
+    suspend operator fun invoke(userId: UserId, email: String): List<KeyInformation> {
+        verificationKeysCache.get(userId, email)?.let { cachedKeys ->
+            Timber.v("FetchVerificationKeys email: $email, from cache")
+            return cachedKeys
+        }
+
+        val keys = fetchVerificationKeys(userId, email)
+        // Empty results are not cached, as they are also returned on failures
+        if (keys.isNotEmpty()) {
+            verificationKeysCache.put(userId, email, keys)
+        }
+        return keys
+    }
+
+    private suspend fun fetchVerificationKeys(
+        userId: UserId,
+        email: String
+    ): List<KeyInformation> = withContext(dispatchers.Io) {
         Timber.v("FetchVerificationKeys email: $email")
         val userCrypto = userCryptoFactory.create(userId)
 
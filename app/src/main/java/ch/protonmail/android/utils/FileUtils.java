@@ -19,16 +19,10 @@
 package ch.protonmail.android.utils;
 
 import android.content.Context;
-import android.util.Base64;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 
 import ch.protonmail.android.core.Constants;
-import kotlin.Deprecated;
-import timber.log.Timber;
 
 public class FileUtils {
 
@@ -38,16 +32,4 @@ public class FileUtils {
             attachmentFile.mkdirs();
         }
     }
-
-    @Deprecated(message = "Scheduled for deletion. Please use kolin serialization instead")
-    public static String toString(Object value) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(out)) {
-            objectOutputStream.writeObject(value);
-        } catch (IOException e) {
-            Timber.e(e, "Serialization of recipients failed ");
-        }
-
-        return Base64.encodeToString(out.toByteArray(), Base64.DEFAULT);
-    }
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils
+
+import org.jsoup.Jsoup
+import org.jsoup.nodes.Element
+import org.jsoup.nodes.Node
+import org.jsoup.nodes.TextNode
+import org.jsoup.select.NodeFilter
+import org.jsoup.select.NodeFilter.FilterResult
+import org.jsoup.select.NodeTraversor
+import javax.inject.Inject
+
+private val SKIPPED_TAGS = setOf("head", "script", "style", "title", "meta", "link", "noscript", "template", "textarea")
+private val PARAGRAPH_TAGS = setOf("p", "blockquote", "pre", "table", "h1", "h2", "h3", "h4", "h5", "h6")
+private val BLOCK_TAGS = setOf(
+    "div", "ul", "ol", "li", "dl", "dt", "dd", "tr", "section", "article", "header", "footer", "main", "nav",
+    "aside", "figure", "figcaption", "address", "center", "form", "fieldset", "caption", "details", "summary"
+)
+private val EMPHASIS_TAGS = mapOf("b" to "**", "strong" to "**", "i" to "_", "em" to "_")
+
+/**
+ * Converts an HTML message body into Markdown flavoured plain text, used for the recipients that only accept plain
+ *  text and for the plain text alternative of MIME messages.
+ * The DOM is walked iteratively, with an explicit stack of the open elements, so deeply nested content, like long
+ *  reply chains, is converted in linear time without risking a [StackOverflowError]
+ */
+class HTMLToMDConverter @Inject constructor() {
+
+    fun convert(html: String): String =
+        convert(Jsoup.parse(html))
+
+    /**
+     * Converts an already parsed [root], so the same DOM can be shared by every consumer of the message body
+     */
+    fun convert(root: Node): String {
+        val walker = MarkdownWalker()
+        NodeTraversor.filter(walker, root)
+        return walker.result()
+    }
+
+    private class Frame(val tag: String, var prefix: String) {
+        var childCount = 0
+        var linkStart = -1
+    }
+
+    private class MarkdownWalker : NodeFilter {
+
+        private val output = StringBuilder()
+        private val stack = ArrayDeque<Frame>().apply { addLast(Frame("", "")) }
+        private var preformattedDepth = 0
+
+        private var pendingNewLines = 0
+        private var pendingNewLinesPrefix = ""
+        private var pendingSpace = false
+        private var pendingListMarker: String? = null
+        private var isAtLineStart = true
+
+        fun result(): String {
+            trimTrailingSpaces()
+            return output.toString()
+        }
+
+        override fun head(node: Node, depth: Int): FilterResult {
+            when (node) {
+                is TextNode ->
+                    if (preformattedDepth > 0) writePreformatted(node.wholeText) else writeText(node.wholeText)
+                is Element -> return enterElement(node)
+            }
+            return FilterResult.CONTINUE
+        }
+
+        override fun tail(node: Node, depth: Int): FilterResult {
+            if (node is Element) exitElement(node)
+            return FilterResult.CONTINUE
+        }
+
+        private fun enterElement(element: Element): FilterResult {
+            val tag = element.normalName()
+            if (tag in SKIPPED_TAGS) return FilterResult.SKIP_ENTIRELY
+
+            val parent = stack.last()
+            val frame = Frame(tag, parent.prefix)
+            when (tag) {
+                in PARAGRAPH_TAGS -> requestNewLines(2)
+                in BLOCK_TAGS -> requestNewLines(1)
+                "br" -> addNewLine()
+                "hr" -> {
+                    requestNewLines(2)
+                    writeRaw("---")
+                    requestNewLines(2)
+                }
+                "img" -> element.attr("alt").takeIf { it.isNotBlank() }?.let(::writeText)
+                "td", "th" -> if (parent.childCount++ > 0) {
+                    writeRaw(" |")
+                    pendingSpace = true
+                }
+                "code" -> if (preformattedDepth == 0) writeRaw("`")
+                "a" -> frame.linkStart = output.length
+                in EMPHASIS_TAGS -> if (hasOnlyText(element)) writeRaw(EMPHASIS_TAGS.getValue(tag))
+            }
+            when (tag) {
+                "blockquote" -> frame.prefix += "> "
+                "h1", "h2", "h3", "h4", "h5", "h6" -> {
+                    writeRaw("#".repeat(tag[1] - '0'))
+                    pendingSpace = true
+                }
+                "pre" -> {
+                    writeRaw("```")
+                    addNewLine()
+                    preformattedDepth++
+                }
+                "li" -> {
+                    val marker = if (parent.tag == "ol") "${++parent.childCount}. " else "* "
+                    pendingListMarker = parent.prefix + marker
+                    frame.prefix += " ".repeat(marker.length)
+                }
+            }
+            stack.addLast(frame)
+            return FilterResult.CONTINUE
+        }
+
+        private fun exitElement(element: Element) {
+            val frame = stack.removeLast()
+            when (frame.tag) {
+                "pre" -> {
+                    preformattedDepth--
+                    requestNewLines(1)
+                    writeRaw("```")
+                    requestNewLines(2)
+                }
+                in PARAGRAPH_TAGS -> requestNewLines(2)
+                in BLOCK_TAGS -> requestNewLines(1)
+                "code" -> if (preformattedDepth == 0) writeRaw("`")
+                "a" -> writeLinkTarget(element, frame.linkStart)
+                in EMPHASIS_TAGS -> if (hasOnlyText(element)) writeRaw(EMPHASIS_TAGS.getValue(frame.tag))
+            }
+        }
+
+        private fun writeLinkTarget(element: Element, linkStart: Int) {
+            val href = element.attr("href").trim()
+            if (href.isEmpty() || href.startsWith("#") || href.startsWith("javascript:", ignoreCase = true)) return
+
+            val text = output.substring(linkStart).trim()
+            if (text == href || text == href.removePrefix("mailto:")) return
+            if (text.isEmpty()) {
+                writeRaw(href)
+            } else {
+                if (isAtLineStart.not()) pendingSpace = true
+                writeRaw("($href)")
+            }
+        }
+
+        private fun writeText(text: String) {
+            for (char in text) {
+                if (char.isWhitespace()) {
+                    if (isAtLineStart.not() && pendingNewLines == 0) pendingSpace = true
+                } else {
+                    flushPending()
+                    output.append(char)
+                }
+            }
+        }
+
+        private fun writePreformatted(text: String) {
+            for (char in text) {
+                when (char) {
+                    '\n' -> addNewLine()
+                    '\r' -> Unit
+                    else -> {
+                        flushPending()
+                        output.append(char)
+                    }
+                }
+            }
+        }
+
+        private fun writeRaw(text: String) {
+            flushPending()
+            output.append(text)
+        }
+
+        /**
+         * Makes sure that the next content starts after at least [count] line breaks, line breaks are only written
+         *  once some content follows, so there are no leading nor trailing empty lines
+         */
+        private fun requestNewLines(count: Int) {
+            if (output.isEmpty()) return
+            updatePendingNewLinesPrefix()
+            pendingNewLines = maxOf(pendingNewLines, count)
+            pendingSpace = false
+        }
+
+        private fun addNewLine() {
+            if (output.isEmpty()) return
+            updatePendingNewLinesPrefix()
+            pendingNewLines++
+            pendingSpace = false
+        }
+
+        /**
+         * Empty lines between blocks belong to the outermost of the blocks being closed or opened
+         */
+        private fun updatePendingNewLinesPrefix() {
+            val prefix = stack.last().prefix
+            if (pendingNewLines == 0 || prefix.length < pendingNewLinesPrefix.length) pendingNewLinesPrefix = prefix
+        }
+
+        private fun flushPending() {
+            if (pendingNewLines > 0) {
+                trimTrailingSpaces()
+                output.append('\n')
+                repeat(pendingNewLines - 1) {
+                    output.append(pendingNewLinesPrefix.trimEnd()).append('\n')
+                }
+                pendingNewLines = 0
+                isAtLineStart = true
+            }
+            if (isAtLineStart) {
+                output.append(pendingListMarker ?: stack.last().prefix)
+                pendingListMarker = null
+                isAtLineStart = false
+            } else if (pendingSpace) {
+                output.append(' ')
+            }
+            pendingSpace = false
+        }
+
+        private fun trimTrailingSpaces() {
+            while (output.isNotEmpty() && output[output.length - 1] == ' ') {
+                output.setLength(output.length - 1)
+            }
+        }
+
+        /**
+         * Emphasis markers are only meaningful around some text, checking the direct children only keeps the
+         *  conversion linear
+         */
+        private fun hasOnlyText(element: Element): Boolean {
+            val childCount = element.childNodeSize()
+            if (childCount == 0) return false
+            for (index in 0 until childCount) {
+                val child = element.childNode(index)
+                if (child !is TextNode || child.isBlank) return false
+            }
+            return true
+        }
+    }
+}
@@ -16,43 +16,86 @@
  * You should have received a copy of the GNU General Public License
  * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
  */
+
 package ch.protonmail.android.utils.HTMLTransformer
 
+import ch.protonmail.android.details.data.local.EMBEDDED_IMAGE_URL_SCHEME
 import org.jsoup.nodes.Document
+import org.jsoup.nodes.Element
+import org.jsoup.nodes.Node
+import org.jsoup.select.NodeFilter
+import org.jsoup.select.NodeFilter.FilterResult
+import org.jsoup.select.NodeTraversor
 
+/**
+ * Sanitizes the message body, applying all the rules in a single walk of the document:
+ * * elements in the blacklist are removed, with their content, except for forms that are unwrapped
+ * * fixed table layouts are reset to auto
+ * * `ping` attributes are removed from the links
+ * * `link` elements that would load resources are removed
+ * * attributes holding URLs of the embedded images are removed, as only the app sets them, after the sanitization
+ */
 class DefaultTransformer : AbstractTransformer() {
 
-    private val blacklist = arrayOf(
+    private val blacklist = setOf(
         "meta", "audio", "video", "iframe", "object",
         "picture", "form", "map", "area", "input", "embed", "script", "style"
     )
 
+    private val blacklistedLinkRelations = setOf(
+        "prefetch", "stylesheet", "preload", "alternate stylesheet"
+    )
+
     override fun transform(doc: Document): Document {
-        for (blackElement in blacklist) {
-            val blockedElements = doc.select(blackElement)
-            if (blockedElements.`is`("form")) {
-                blockedElements.unwrap()
-            } else {
-                blockedElements.remove()
-            }
-        }
-
-        val tableElements = doc.select("table")
-        tableElements.forEach { element ->
-            val styleWithTableLayoutReset = element.attr("style").replace("table-layout: fixed", "table-layout: auto")
-            element.removeAttr("style")
-            element.attr("style", styleWithTableLayoutReset)
-        }
-
-        val aHrefElements = doc.select("a[ping]")
-        aHrefElements.removeAttr("ping")
-        val linkElements = doc.select("link")
-        if (linkElements != null) {
-            linkElements.select("link[rel=prefetch]").remove()
-            linkElements.select("link[rel=stylesheet]").remove()
-            linkElements.select("link[rel=preload]").remove()
-            linkElements.select("link[rel=alternate stylesheet]").remove()
-        }
+        val forms = mutableListOf<Element>()
+
+        NodeTraversor.filter(
+            object : NodeFilter {
+
+                override fun head(node: Node, depth: Int): FilterResult {
+                    if (node !is Element) return FilterResult.CONTINUE
+                    node.removeEmbeddedImageUrls()
+                    return when (node.normalName()) {
+                        "form" -> {
+                            // Nodes cannot be moved during the walk, so forms are unwrapped after it
+                            forms += node
+                            FilterResult.CONTINUE
+                        }
+                        in blacklist -> FilterResult.REMOVE
+                        "link" -> if (node.isBlacklistedLink()) FilterResult.REMOVE else FilterResult.CONTINUE
+                        "table" -> {
+                            node.resetTableLayout()
+                            FilterResult.CONTINUE
+                        }
+                        "a" -> {
+                            node.removeAttr("ping")
+                            FilterResult.CONTINUE
+                        }
+                        else -> FilterResult.CONTINUE
+                    }
+                }
+
+                override fun tail(node: Node, depth: Int) = FilterResult.CONTINUE
+            },
+            doc
+        )
+
+        forms.forEach { it.unwrap() }
         return doc
     }
+
+    private fun Element.removeEmbeddedImageUrls() {
+        attributes().asList()
+            .filter { it.value.contains("$EMBEDDED_IMAGE_URL_SCHEME:", ignoreCase = true) }
+            .forEach { removeAttr(it.key) }
+    }
+
+    private fun Element.isBlacklistedLink() =
+        attr("rel").trim().lowercase() in blacklistedLinkRelations
+
+    private fun Element.resetTableLayout() {
+        val styleWithTableLayoutReset = attr("style").replace("table-layout: fixed", "table-layout: auto")
+        removeAttr("style")
+        attr("style", styleWithTableLayoutReset)
+    }
 }
@@ -16,11 +16,17 @@
  * You should have received a copy of the GNU General Public License
  * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
  */
+
 package ch.protonmail.android.utils.HTMLTransformer
 
-import org.jsoup.Jsoup
+import org.jsoup.nodes.DataNode
 import org.jsoup.nodes.Document
 
+/**
+ * Wraps the message body into the `pm-body` container, and adds the viewport and the given css.
+ *
+ * The nodes of the given document are moved into a new shell, so the body is neither serialized nor parsed again
+ */
 class ViewportTransformer(
     renderWidth: Int,
     css: String,
@@ -31,19 +37,23 @@ class ViewportTransformer(
     private val mCss: String = css
 
     override fun transform(html: Document): Document {
+        val doc = Document.createShell(html.location())
+        doc.outputSettings(html.outputSettings())
 
-        val meta = "<meta name=\"viewport\" content=\"width=$mRenderWidth, maximum-scale=2\">\n"
-        val messageString = StringBuilder(" <style>")
-        messageString.append(mCss)
-        messageString.append(darkMoreCss)
-        messageString.append("</style>")
-        messageString.append(meta)
-        messageString.append("<div id='pm-body' class='inbox-body'>")
-        messageString.append(html.toString())
-        messageString.append("</div>")
-        val doc = Jsoup.parse(messageString.toString())
+        doc.head().appendElement("style")
+            .appendChild(DataNode(mCss + darkMoreCss))
+        doc.head().appendElement("meta")
+            .attr("name", "viewport")
+            .attr("content", "width=$mRenderWidth, maximum-scale=2")
 
-        doc.outputSettings(html.outputSettings())
+        // Attributes of the original root and body are kept, as they would be when parsing the nested document
+        html.child(0).attributes().forEach { doc.child(0).attr(it.key, it.value) }
+        html.body().attributes().forEach { doc.body().attr(it.key, it.value) }
+
+        val container = doc.body().appendElement("div")
+            .attr("id", "pm-body")
+            .attr("class", "inbox-body")
+        container.insertChildren(-1, html.head().childNodes() + html.body().childNodes())
         return doc
     }
 }
@@ -70,15 +70,24 @@ public class MIMEBuilder {
         if (html == null) {
             return this;
         }
-        this.html = html;
-        HTMLToMDConverter html2MD = new HTMLToMDConverter();
-        this.plaintext = "";
-        // FIXME: this is work around. the library Remark throws stack overflow exception for some emails.
+        String plaintext = "";
         try {
-            this.plaintext = html2MD.convert(html);
+            plaintext = new HTMLToMDConverter().convert(html);
         } catch (Exception e) {
-            // noop
+            Timber.d(e, "Cannot convert html to plaintext");
         }
+        return loadHTML(html, plaintext);
+    }
+
+    /**
+     * @param plaintext the plain text alternative of {@code html}, already converted by the caller
+     */
+    public MIMEBuilder loadHTML(String html, String plaintext) {
+        if (html == null) {
+            return this;
+        }
+        this.html = html;
+        this.plaintext = plaintext != null ? plaintext : "";
         return this;
     }
 
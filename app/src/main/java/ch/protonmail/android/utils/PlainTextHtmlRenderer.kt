@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils
+
+private const val LINE_BREAK = "<br>"
+private const val HTTP_PREFIX = "http://"
+private const val WWW_PREFIX = "www."
+private const val HTML_AMPERSAND = "&amp;"
+
+/**
+ * Renders plain text as HTML in a single pass over the input: HTML special characters are escaped, line breaks are
+ *  converted to `<br>` and web links are wrapped into anchors.
+ * Like [android.text.util.Linkify.WEB_URLS], links can start with a scheme, with `www.` or directly with a domain,
+ *  as `proton.me`, which is only recognised if it ends with a country code or a common generic top-level domain.
+ * The output is written into a pre-sized [StringBuilder], there are no intermediate copies of the text and no
+ *  backtracking regular expressions, so the cost is linear in the size of the input, even for multi-megabyte bodies
+ */
+object PlainTextHtmlRenderer {
+
+    private val urlPrefixes = arrayOf("https://", HTTP_PREFIX, "ftps://", "ftp://", WWW_PREFIX)
+
+    private val genericTopLevelDomains = setOf(
+        "app", "biz", "blog", "cloud", "com", "dev", "edu", "email", "gov", "info", "int", "live", "mil", "mobi",
+        "name", "net", "news", "online", "org", "page", "pro", "shop", "site", "store", "tech", "xyz"
+    )
+
+    /**
+     * @return HTML representation of the given plain [text]
+     */
+    @JvmStatic
+    fun render(text: String): String {
+        val length = text.length
+        val builder = StringBuilder(initialCapacity(length))
+        var previous = '\n'
+        var index = 0
+        while (index < length) {
+            val char = text[index]
+            val urlEnd = if (isUrlBoundary(previous)) findUrlEnd(text, index, isHtml = false) else -1
+            if (urlEnd != -1) {
+                appendLink(builder, text, index, urlEnd, escape = true)
+                previous = text[urlEnd - 1]
+                index = urlEnd
+                continue
+            }
+            when (char) {
+                '\r' -> {
+                    builder.append(LINE_BREAK)
+                    if (index + 1 < length && text[index + 1] == '\n') index++
+                }
+                '\n' -> builder.append(LINE_BREAK)
+                else -> appendEscaped(builder, char)
+            }
+            previous = char
+            index++
+        }
+        return builder.toString()
+    }
+
+    /**
+     * Wraps the web links found in the text of an already escaped [html] into anchors.
+     * Tags are copied as they are and the content of existing anchors is not touched
+     */
+    @JvmStatic
+    fun linkify(html: String): String {
+        val length = html.length
+        val builder = StringBuilder(initialCapacity(length))
+        var previous = '>'
+        var index = 0
+        while (index < length) {
+            val char = html[index]
+            if (char == '<') {
+                val tagEnd = html.indexOf('>', index).let { if (it == -1) length else it + 1 }
+                val skipEnd =
+                    if (html.regionMatches(index, "<a ", 0, 3, ignoreCase = true)) {
+                        html.indexOf("</a>", tagEnd, ignoreCase = true).let { if (it == -1) length else it + 4 }
+                    } else {
+                        tagEnd
+                    }
+                builder.append(html, index, skipEnd)
+                previous = '>'
+                index = skipEnd
+                continue
+            }
+            val urlEnd = if (isUrlBoundary(previous)) findUrlEnd(html, index, isHtml = true) else -1
+            if (urlEnd != -1) {
+                appendLink(builder, html, index, urlEnd, escape = false)
+                previous = html[urlEnd - 1]
+                index = urlEnd
+                continue
+            }
+            builder.append(char)
+            previous = char
+            index++
+        }
+        return builder.toString()
+    }
+
+    /**
+     * @return the index following the end of the link starting at [start], or -1 if no link starts there
+     */
+    private fun findUrlEnd(text: String, start: Int, isHtml: Boolean): Int {
+        val prefix = urlPrefixes.firstOrNull { text.regionMatches(start, it, 0, it.length, ignoreCase = true) }
+        if (prefix == null) {
+            val domainEnd = findBareDomainEnd(text, start)
+            if (domainEnd == -1) return -1
+            // Only a port, a path, a query or a fragment can follow the domain
+            val hasMore = domainEnd + 1 < text.length && text[domainEnd] in ":/?#" && isUrlChar(text[domainEnd + 1])
+            return if (hasMore) findLinkEnd(text, domainEnd, domainEnd, isHtml) else domainEnd
+        }
+
+        val bodyStart = start + prefix.length
+        val end = findLinkEnd(text, bodyStart, bodyStart, isHtml)
+        if (end == bodyStart || text[bodyStart].isLetterOrDigit().not()) return -1
+        if (prefix == WWW_PREFIX && (bodyStart until end - 1).none { text[it] == '.' }) return -1
+        return end
+    }
+
+    /**
+     * @return the index following the domain starting at [start], or -1 if there is no domain with a known top-level
+     *  domain there
+     */
+    private fun findBareDomainEnd(text: String, start: Int): Int {
+        if (text[start].isLetterOrDigit().not()) return -1
+        var end = start
+        var lastDotIndex = -1
+        while (end < text.length && (text[end].isLetterOrDigit() || text[end] == '-' || text[end] == '.')) {
+            if (text[end] == '.') {
+                // Empty labels are not allowed
+                if (text[end - 1] == '.') return -1
+                lastDotIndex = end
+            }
+            end++
+        }
+        // A trailing dot most likely ends the sentence
+        if (end > start && text[end - 1] == '.') {
+            end--
+            lastDotIndex = (start until end).lastOrNull { text[it] == '.' } ?: -1
+        }
+        // The local part of an email address is not a domain
+        if (lastDotIndex == -1 || end < text.length && text[end] == '@') return -1
+
+        val topLevelDomain = text.substring(lastDotIndex + 1, end)
+        val isKnownTopLevelDomain = topLevelDomain.all { it in 'a'..'z' || it in 'A'..'Z' } &&
+            (topLevelDomain.length == 2 || topLevelDomain.lowercase() in genericTopLevelDomains)
+        return if (isKnownTopLevelDomain) end else -1
+    }
+
+    /**
+     * @return the index following the end of the link whose characters are scanned from [from], it's never before
+     *  [minEnd]
+     */
+    private fun findLinkEnd(text: String, from: Int, minEnd: Int, isHtml: Boolean): Int {
+        var end = from
+        var openParentheses = 0
+        var closeParentheses = 0
+        while (end < text.length) {
+            val char = text[end]
+            if (isHtml && char == '&') {
+                // Only escaped ampersands belong to a link, any other entity is a character that terminates it
+                if (text.regionMatches(end, HTML_AMPERSAND, 0, HTML_AMPERSAND.length)) {
+                    end += HTML_AMPERSAND.length
+                    continue
+                }
+                break
+            }
+            if (!isUrlChar(char)) break
+            if (char == '(') openParentheses++
+            if (char == ')') closeParentheses++
+            end++
+        }
+
+        // Trailing punctuation most likely belongs to the sentence rather than to the link
+        while (end > minEnd) {
+            val last = text[end - 1]
+            val isTrailingPunctuation = last in ".,:!?'*" || last == ';' && !isHtml
+            val isUnbalancedParenthesis = last == ')' && closeParentheses > openParentheses
+            if (isTrailingPunctuation.not() && isUnbalancedParenthesis.not()) break
+            if (isUnbalancedParenthesis) closeParentheses--
+            end--
+        }
+        return end
+    }
+
+    private fun appendLink(builder: StringBuilder, text: String, start: Int, end: Int, escape: Boolean) {
+        builder.append("<a href=\"")
+        val hasScheme = urlPrefixes.any { it != WWW_PREFIX && text.regionMatches(start, it, 0, it.length, true) }
+        if (hasScheme.not()) {
+            builder.append(HTTP_PREFIX)
+        }
+        appendRange(builder, text, start, end, escape)
+        builder.append("\">")
+        appendRange(builder, text, start, end, escape)
+        builder.append("</a>")
+    }
+
+    private fun appendRange(builder: StringBuilder, text: String, start: Int, end: Int, escape: Boolean) {
+        if (escape) {
+            for (index in start until end) appendEscaped(builder, text[index])
+        } else {
+            builder.append(text, start, end)
+        }
+    }
+
+    private fun appendEscaped(builder: StringBuilder, char: Char) {
+        when (char) {
+            '&' -> builder.append(HTML_AMPERSAND)
+            '<' -> builder.append("&lt;")
+            '>' -> builder.append("&gt;")
+            '"' -> builder.append("&quot;")
+            '\'' -> builder.append("&#39;")
+            else -> builder.append(char)
+        }
+    }
+
+    private fun isUrlBoundary(char: Char) =
+        char.isLetterOrDigit().not() && char != '_' && char != '-' && char != '.' && char != '/' && char != '@'
+
+    private fun isUrlChar(char: Char) =
+        char.isLetterOrDigit() || char in "-._~:/?#[]@!$&'()*+,;=%{}"
+
+    /**
+     * Escaping and anchors make the output slightly bigger than the input, reserving some extra room up front avoids
+     *  re-allocating and copying the whole buffer while growing
+     */
+    private fun initialCapacity(length: Int) = length + (length shr 3) + 16
+}
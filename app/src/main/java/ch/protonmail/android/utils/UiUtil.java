@@ -25,9 +25,6 @@ import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
-import android.text.Html;
-import android.text.Spannable;
-import android.text.SpannableString;
 import android.text.TextUtils;
 import android.text.method.LinkMovementMethod;
 import android.text.util.Linkify;
@@ -44,18 +41,12 @@ import androidx.annotation.NonNull;
 
 import java.text.DecimalFormat;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import ch.protonmail.android.R;
 import ch.protonmail.android.utils.ui.dialogs.DialogUtils;
 
 public class UiUtil {
 
-    public static final Pattern PROTON_URL_PATTERN = Pattern.compile(
-            "((ht|f)tp(s?):\\/\\/|www\\.)(([\\w\\-]+\\.){1,}?([\\w\\-.~]+\\/?)*[\\p{Alnum}.,%_=?&#\\-+()\\[\\]\\*$~@!:/{};']*)",
-            Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
-
     private UiUtil() {
 
     }
@@ -132,37 +123,7 @@ public class UiUtil {
     }
 
     public static String createLinksSending(String input) {
-        Matcher matcher = PROTON_URL_PATTERN.matcher(input);
-
-        while (matcher.find()) {
-            String match = matcher.group();
-            String securedMatch;
-
-            Pattern protocolPattern = Pattern.compile("((ht|f)tp(s?):\\/\\/)",
-                    Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
-            Matcher protocolMatcher = protocolPattern.matcher(match);
-
-            if (protocolMatcher.find()) {
-                securedMatch = match;
-            } else {
-                securedMatch = "http://" + match;
-            }
-            if (!input.contains("<a href=\"" + securedMatch + "\">" + match + "</a>")) {
-                input = input.replace(match, "<a href=\"" + securedMatch + "\">" + match + "</a>");
-            }
-        }
-
-        return input;
-    }
-
-    public static String createLinks(String input) {
-        try {
-            Spannable sp = new SpannableString(Html.fromHtml(input));
-            Linkify.addLinks(sp, Linkify.WEB_URLS);
-            return Html.toHtml(sp);
-        } catch (Exception e) {
-            return input;
-        }
+        return PlainTextHtmlRenderer.linkify(input);
     }
 
     public static void buildExpirationTimeErrorDialog(Context context, List<String> recipientsMissingPassword, List<String> recipientsDisablePgp, final View.OnClickListener okClickListener) {
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils.extensions
+
+import androidx.work.ListenableWorker
+import androidx.work.OneTimeWorkRequest
+import androidx.work.Operation
+import androidx.work.WorkManager
+import androidx.work.workDataOf
+import timber.log.Timber
+
+/**
+ * Enqueues [requests] as a single chain, so they run one after the other instead of competing for the network all
+ *  at once. A request that fails or is cancelled stops the ones after it as well, so the workers of a chain must
+ *  give up through [giveUpChainedWork] instead of returning [ListenableWorker.Result.failure]
+ */
+fun WorkManager.enqueueChain(requests: List<OneTimeWorkRequest>): Operation {
+    require(requests.isNotEmpty()) { "At least one request is required" }
+    if (requests.size == 1) return enqueue(requests.single())
+
+    return requests.drop(1)
+        .fold(beginWith(requests.first())) { continuation, request -> continuation.then(request) }
+        .enqueue()
+}
+
+/**
+ * Result of a worker enqueued with [enqueueChain] that can't complete its request: the error is logged and reported
+ *  in the output data under [errorDescriptionKey], but the work succeeds, so the requests after it in the chain still
+ *  run
+ */
+fun giveUpChainedWork(errorDescriptionKey: String, errorDescription: String): ListenableWorker.Result {
+    Timber.w("Giving up chained work: $errorDescription")
+    return ListenableWorker.Result.success(workDataOf(errorDescriptionKey to errorDescription))
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils.webview
+
+import android.content.Context
+import android.content.MutableContextWrapper
+import android.view.View
+import android.view.ViewGroup
+import android.webkit.WebSettings
+import android.webkit.WebView
+import android.webkit.WebViewClient
+import javax.inject.Inject
+
+private const val BLANK_PAGE_URL = "about:blank"
+
+/**
+ * Creates the WebViews of [WebViewPool], with the settings shared by every WebView that displays a message body, and
+ *  resets them when they are returned to the pool.
+ *
+ * The WebViews are created on a [MutableContextWrapper], so they can be moved from an Activity to another one
+ */
+class PooledWebViewFactory @Inject constructor() {
+
+    fun create(context: Context): WebView = WebView(MutableContextWrapper(context)).apply {
+        isScrollbarFadingEnabled = false
+        isVerticalScrollBarEnabled = false
+        isHorizontalScrollBarEnabled = false
+        with(settings) {
+            allowFileAccess = false
+            displayZoomControls = false
+            setGeolocationEnabled(false)
+            savePassword = false
+            saveFormData = false
+            javaScriptEnabled = false
+            setSupportZoom(true)
+            builtInZoomControls = true
+            pluginState = WebSettings.PluginState.OFF
+            cacheMode = WebSettings.LOAD_NO_CACHE
+        }
+    }
+
+    /**
+     * Moves [webView] to the given [context], usually the Activity that will display it
+     */
+    fun attach(webView: WebView, context: Context) {
+        (webView.context as? MutableContextWrapper)?.baseContext = context
+    }
+
+    /**
+     * Clears the content of [webView] and everything that references the Activity that displayed it, then moves it
+     *  back to the [applicationContext]
+     */
+    fun reset(webView: WebView, applicationContext: Context) {
+        webView.stopLoading()
+        (webView.parent as? ViewGroup)?.removeView(webView)
+        webView.loadUrl(BLANK_PAGE_URL)
+        webView.clearHistory()
+        webView.webViewClient = WebViewClient()
+        webView.setOnTouchListener(null)
+        webView.setOnLongClickListener(null)
+        webView.setOnCreateContextMenuListener(null)
+        webView.id = View.NO_ID
+        webView.tag = null
+        webView.visibility = View.VISIBLE
+        webView.isFocusable = true
+        webView.isFocusableInTouchMode = true
+        // Settings that only some of the users change are set back to their default value
+        with(webView.settings) {
+            layoutAlgorithm = WebSettings.LayoutAlgorithm.NARROW_COLUMNS
+            useWideViewPort = false
+            loadWithOverviewMode = false
+            setNeedInitialFocus(true)
+        }
+        attach(webView, applicationContext)
+    }
+
+    fun destroy(webView: WebView) {
+        (webView.parent as? ViewGroup)?.removeView(webView)
+        webView.destroy()
+    }
+}
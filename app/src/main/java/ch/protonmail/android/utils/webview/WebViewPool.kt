@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils.webview
+
+import android.content.ComponentCallbacks2
+import android.content.Context
+import android.content.res.Configuration
+import android.os.Looper
+import android.webkit.WebView
+import dagger.hilt.android.qualifiers.ApplicationContext
+import timber.log.Timber
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val DEFAULT_CAPACITY = 3
+
+/**
+ * A pool of WebViews for the message bodies.
+ *
+ * Creating a WebView is the most expensive part of displaying a message, so [prewarm] creates up to [capacity]
+ *  WebViews while the main thread is idle, [acquire] hands them out and [release] takes them back once they are not
+ *  displayed anymore.
+ * The pooled WebViews are destroyed when the system is running low on memory, see [onTrimMemory].
+ *
+ * The pool must only be used on the main thread
+ */
+@Singleton
+class WebViewPool internal constructor(
+    private val applicationContext: Context,
+    private val factory: PooledWebViewFactory,
+    private val capacity: Int
+) : ComponentCallbacks2 {
+
+    @Inject
+    constructor(
+        @ApplicationContext applicationContext: Context,
+        factory: PooledWebViewFactory
+    ) : this(applicationContext, factory, DEFAULT_CAPACITY)
+
+    private val pooled = ArrayDeque<WebView>(capacity)
+    private var hits = 0
+    private var misses = 0
+
+    val stats: WebViewPoolStats
+        get() = WebViewPoolStats(hits = hits, misses = misses, pooled = pooled.size)
+
+    /**
+     * Fills the pool, creating one WebView every time the main thread is idle
+     */
+    fun prewarm() {
+        Looper.myQueue().addIdleHandler { prewarmNext() }
+    }
+
+    /**
+     * Creates a WebView for the pool, if it is not full
+     * @return `true` if the pool needs more WebViews
+     */
+    internal fun prewarmNext(): Boolean {
+        if (pooled.size >= capacity) return false
+        pooled.addLast(factory.create(applicationContext))
+        return pooled.size < capacity
+    }
+
+    /**
+     * @return a WebView from the pool, or a new one if the pool is empty, attached to the given [context]
+     */
+    fun acquire(context: Context): WebView {
+        val webView = pooled.removeFirstOrNull()
+        if (webView != null) {
+            hits++
+            factory.attach(webView, context)
+        } else {
+            misses++
+        }
+        Timber.v("WebView pool ${if (webView != null) "hit" else "miss"}, $stats")
+        return webView ?: factory.create(context)
+    }
+
+    /**
+     * Returns [webView] to the pool, or destroys it if the pool is full. [webView] must not be used after that
+     */
+    fun release(webView: WebView) {
+        if (webView in pooled) return
+        if (pooled.size >= capacity) {
+            factory.destroy(webView)
+            return
+        }
+        factory.reset(webView, applicationContext)
+        pooled.addLast(webView)
+    }
+
+    /**
+     * Destroys all the pooled WebViews
+     */
+    fun trim() {
+        if (pooled.isEmpty()) return
+        Timber.d("Trimming WebView pool, $stats")
+        while (pooled.isNotEmpty()) {
+            factory.destroy(pooled.removeFirst())
+        }
+    }
+
+    override fun onTrimMemory(level: Int) {
+        // The pool is kept when the UI is only hidden, so it is ready when the user comes back
+        if (level in ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW until ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN ||
+            level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+        ) {
+            trim()
+        }
+    }
+
+    override fun onLowMemory() {
+        trim()
+    }
+
+    override fun onConfigurationChanged(newConfig: Configuration) = Unit
+}
+
+/**
+ * @property hits number of WebViews handed out from the pool
+ * @property misses number of WebViews created because the pool was empty
+ * @property pooled number of WebViews currently in the pool
+ */
+data class WebViewPoolStats(
+    val hits: Int,
+    val misses: Int,
+    val pooled: Int
+) {
+
+    val hitRate: Float
+        get() = if (hits + misses == 0) 0f else hits.toFloat() / (hits + misses)
+}
@@ -32,8 +32,6 @@ import android.widget.Toast;
 
 import androidx.fragment.app.FragmentTransaction;
 
-import com.tokenautocomplete.TokenCompleteTextView;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -51,6 +49,7 @@ import ch.protonmail.android.core.Constants;
 import ch.protonmail.android.details.presentation.model.MessageEncryptionUiModel;
 import ch.protonmail.android.utils.extensions.CommonExtensionsKt;
 import ch.protonmail.android.utils.extensions.TextExtensions;
+import ch.protonmail.tokenautocomplete.TokenCompleteTextView;
 
 public class MessageRecipientView extends TokenCompleteTextView<MessageRecipient> {
 
@@ -203,7 +202,16 @@ public class MessageRecipientView extends TokenCompleteTextView<MessageRecipient
             }
         }
         if (recipient != null) {
-            removeObject(recipient);
+            removeObjectSync(recipient);
+        }
+    }
+
+    /**
+     * Remove all the recipients. May only be called from the main thread
+     */
+    public void clear() {
+        for (MessageRecipient recipient : getObjects()) {
+            removeObjectSync(recipient);
         }
     }
 
@@ -234,7 +242,7 @@ public class MessageRecipientView extends TokenCompleteTextView<MessageRecipient
     }
 
     public int getRecipientCount() {
-        return getObjects().size();
+        return getObjectCount();
     }
 
     public String findInvalidRecipient() {
@@ -343,15 +351,15 @@ public class MessageRecipientView extends TokenCompleteTextView<MessageRecipient
         if(obj == null) {
             return null;
         } else {
-            View tokenView = this.getViewForObject(obj);
-            return new ClickableTokenImageSpan(tokenView, obj, getWidth() - getPaddingLeft() - getPaddingRight());
+            // The chip view is only inflated once the token is displayed
+            return new ClickableTokenImageSpan(obj);
         }
     }
 
     protected class ClickableTokenImageSpan extends TokenImageSpan {
 
-        ClickableTokenImageSpan(View d, MessageRecipient token, int maxWidth) {
-            super(d, token, maxWidth);
+        ClickableTokenImageSpan(MessageRecipient token) {
+            super(token);
         }
 
         @Override
@@ -377,7 +385,7 @@ public class MessageRecipientView extends TokenCompleteTextView<MessageRecipient
                         }
                     }
                 }
-                removeObject(token);
+                removeObjectSync(token);
                 ArrayList<MessageRecipient> arrayListGroupRecipients = new ArrayList<>(groupRecipients);
                 GroupRecipientsDialogFragment groupRecipientsDialogFragment = GroupRecipientsDialogFragment.Companion.newInstance(arrayListGroupRecipients, location);
                 FragmentTransaction transaction = ((ComposeMessageActivity) getContext()).getSupportFragmentManager().beginTransaction();
@@ -33,11 +33,13 @@ import ch.protonmail.android.activities.composeMessage.ComposeMessageActivity
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.Constants.DUMMY_URL_PREFIX
 import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.details.data.local.EmbeddedImagesStore
+import ch.protonmail.android.details.data.remote.RemoteImagesProxy
+import ch.protonmail.android.diagnostics.runBlockingMonitored
 import ch.protonmail.android.settings.data.AccountSettingsRepository
 import ch.protonmail.android.utils.MessageUtils.addRecipientsToIntent
 import ch.protonmail.android.utils.ui.dialogs.DialogUtils.Companion.showInfoDialogWithTwoButtonsAndCheckbox
 import ch.protonmail.android.utils.ui.dialogs.DialogUtils.Companion.showTwoButtonInfoDialog
-import kotlinx.coroutines.runBlocking
 import me.proton.core.presentation.utils.showToast
 import me.proton.core.util.kotlin.startsWith
 import timber.log.Timber
@@ -46,11 +48,13 @@ import java.net.MalformedURLException
 import java.net.URL
 import java.util.Locale
 
-open class PmWebViewClient(
+open class PmWebViewClient @JvmOverloads constructor(
     private val userManager: UserManager,
     private val accountSettingsRepository: AccountSettingsRepository,
     private val activity: Activity,
-    private var shouldLoadRemoteContent: Boolean
+    private var shouldLoadRemoteContent: Boolean,
+    private val embeddedImages: EmbeddedImagesStore.Scope? = null,
+    private val remoteImagesProxy: RemoteImagesProxy? = null
 ) : WebViewClient() {
 
     private var blockedImages = 0
@@ -149,7 +153,7 @@ open class PmWebViewClient(
         } catch (e: MalformedURLException) {
             e.printStackTrace()
         }
-        val doesRequireHyperlinkConfirmation = runBlocking {
+        val doesRequireHyperlinkConfirmation = runBlockingMonitored {
             accountSettingsRepository
                 .getShouldShowLinkConfirmationSetting(userManager.requireCurrentUserId())
         }
@@ -195,7 +199,7 @@ open class PmWebViewClient(
                 }
             },
             checkedListener = { isChecked ->
-                runBlocking {
+                runBlockingMonitored {
                     accountSettingsRepository.saveShouldShowLinkConfirmationSetting(
                         shouldShowHyperlinkConfirmation = isChecked.not(),
                         userId = userManager.requireCurrentUserId()
@@ -245,8 +249,22 @@ open class PmWebViewClient(
 
     @Deprecated("Deprecated in Java")
     override fun shouldInterceptRequest(view: WebView, url: String): WebResourceResponse? {
+        // Embedded images are served locally, regardless of the remote content setting, and only from the images
+        //  registered for this WebView
+        if (embeddedImages != null && embeddedImages.isEmbeddedImageUrl(url)) {
+            val content = embeddedImages.open(url)
+                ?: return WebResourceResponse("text/plain", "utf-8", ByteArrayInputStream(ByteArray(0)))
+            return WebResourceResponse(content.mimeType, null, content.inputStream)
+        }
         if (shouldLoadRemoteContent) {
-            return super.shouldInterceptRequest(view, url)
+            val userId = userManager.currentUserId
+            val resource = if (remoteImagesProxy != null && userId != null) {
+                remoteImagesProxy.load(userId, url)
+            } else {
+                null
+            }
+            return resource?.let { WebResourceResponse(it.mimeType, null, ByteArrayInputStream(it.content)) }
+                ?: super.shouldInterceptRequest(view, url)
         }
         val uri = Uri.parse(url)
         if (uri.scheme.equals("cid", ignoreCase = true) || uri.scheme.equals("data", ignoreCase = true)) {
@@ -19,15 +19,13 @@
 
 package ch.protonmail.android.activities.messageDetails
 
-import android.graphics.Bitmap
-import android.util.Base64
+import ch.protonmail.android.details.data.local.EmbeddedImagesStore
 import ch.protonmail.android.details.presentation.model.RenderedMessage
 import ch.protonmail.android.jobs.helper.EmbeddedImage
 import io.mockk.coEvery
+import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
-import io.mockk.mockkStatic
-import io.mockk.unmockkStatic
 import io.mockk.verify
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Job
@@ -41,8 +39,6 @@ import me.proton.core.util.kotlin.EMPTY_STRING
 import org.jsoup.nodes.Document
 import org.junit.Rule
 import org.junit.rules.TemporaryFolder
-import kotlin.test.AfterTest
-import kotlin.test.BeforeTest
 import kotlin.test.Test
 import kotlin.test.assertEquals
 
@@ -60,8 +56,8 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
     val folder: TemporaryFolder = TemporaryFolder()
         .also { it.create() }
 
-    private val mockImageDecoder: ImageDecoder = mockk {
-        every { this@mockk(any(), any()) } returns buildMockBitmap()
+    private val mockEmbeddedImages: EmbeddedImagesStore.Scope = mockk {
+        every { register(any()) } answers { "url of ${firstArg<EmbeddedImage>().contentId}" }
     }
 
     private val mockDocumentParser: DocumentParser = mockk {
@@ -72,24 +68,13 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
         MessageRenderer(
             dispatchers = dispatchers,
             documentParser = mockDocumentParser,
-            bitmapImageDecoder = mockImageDecoder,
+            embeddedImages = mockEmbeddedImages,
             attachmentsDirectory = folder.root,
             scope = this + Job()
         ).apply {
             setMessageBody(TEST_MESSAGE_ID, TEST_MESSAGE_BODY)
         }
 
-    @BeforeTest
-    fun setUp() {
-        mockkStatic(Base64::class)
-        every { Base64.encodeToString(any(), any()) } returns "string"
-    }
-
-    @AfterTest
-    fun tearDown() {
-        unmockkStatic(Base64::class)
-    }
-
     @Test
     fun returnsResultForASingleImagesSetSent() = runTest {
         // given
@@ -202,15 +187,14 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
             img[src=${imageSet[1].contentId}]
         """.trimIndent()
 
-        setBase64EncodeToStringToIncrementalResult()
         setMockDocumentParserToReplaceStringsInMessage(messageBody)
         createFilesFor(imageSet)
 
         val expectedMessageBody = """
             This is the first picture:
-            data:;,image 1
+            url of content 1
             And this is another picture:
-            data:;,image 2
+            url of content 2
         """.trimIndent()
         val expected = RenderedMessage(TEST_MESSAGE_ID, expectedMessageBody)
 
@@ -223,20 +207,67 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
     }
 
     @Test
-    fun correctlyCompressesTheImages() = runTest {
+    fun inlinesImagesInTheGivenDocumentWithoutParsingTheMessageBody() = runTest {
+        // given
+        val messageRenderer = buildRenderer()
+        val imageSet = buildEmbeddedImages(idsRange = 1..2)
+        val messageDocument = buildMockDocumentWithReplaceFeature(
+            """
+            This is the first picture:
+            img[src=${imageSet[0].contentId}]
+            And this is another picture:
+            img[src=${imageSet[1].contentId}]
+            """.trimIndent()
+        )
+
+        createFilesFor(imageSet)
+
+        val expectedMessageBody = """
+            This is the first picture:
+            url of content 1
+            And this is another picture:
+            url of content 2
+        """.trimIndent()
+        val expected = RenderedMessage(TEST_MESSAGE_ID, expectedMessageBody)
+
+        // when
+        messageRenderer.setMessageBody(TEST_MESSAGE_ID, messageDocument)
+        val result = messageRenderer.setImagesAndProcess(TEST_MESSAGE_ID, imageSet)
+
+        // then
+        assertEquals(expected, result)
+        coVerify(exactly = 0) { mockDocumentParser(any()) }
+    }
+
+    @Test
+    fun registersTheImagesInTheStore() = runTest {
         // given
         val messageRenderer = buildRenderer()
         val imageSet = buildEmbeddedImages(idsRange = 1..3)
         createFilesFor(imageSet)
 
-        val mockBitmap = buildMockBitmap()
-        every { mockImageDecoder(any(), any()) } returns mockBitmap
+        // when
+        messageRenderer.setImagesAndProcess(TEST_MESSAGE_ID, imageSet)
+
+        // then
+        for (image in imageSet) {
+            verify { mockEmbeddedImages.register(image) }
+        }
+    }
+
+    @Test
+    fun doesNotRegisterImagesWithoutFile() = runTest {
+        // given
+        val messageRenderer = buildRenderer()
+        val imageSet = buildEmbeddedImages(idsRange = 1..3)
+        createFilesFor(imageSet.take(2))
 
         // when
         messageRenderer.setImagesAndProcess(TEST_MESSAGE_ID, imageSet)
 
         // then
-        verify(exactly = imageSet.size) { mockBitmap.compress(any(), any(), any()) }
+        verify(exactly = 2) { mockEmbeddedImages.register(any()) }
+        verify(exactly = 0) { mockEmbeddedImages.register(imageSet[2]) }
     }
 
     @Test
@@ -247,16 +278,13 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
         val imageSet2 = buildEmbeddedImages(idsRange = 1..5)
         createFilesFor(imageSet1, imageSet2)
 
-        val mockBitmap = buildMockBitmap()
-        every { mockImageDecoder(any(), any()) } returns mockBitmap
-
         // when
         messageRenderer.setImagesAndProcess(TEST_MESSAGE_ID, imageSet1)
         advanceUntilIdle()
         messageRenderer.setImagesAndProcess(TEST_MESSAGE_ID, imageSet2)
 
         // then
-        verify(exactly = imageSet2.size) { mockBitmap.compress(any(), any(), any()) }
+        verify(exactly = imageSet2.size) { mockEmbeddedImages.register(any()) }
     }
 
     @Test
@@ -269,9 +297,6 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
         messageRenderer.setMessageBody(TEST_MESSAGE_ID_1, EMPTY_STRING)
         messageRenderer.setMessageBody(TEST_MESSAGE_ID_2, EMPTY_STRING)
 
-        val mockBitmap = buildMockBitmap()
-        every { mockImageDecoder(any(), any()) } returns mockBitmap
-
         val expectedImagesProcessedCount = imageSet1.size + imageSet2.size
 
         // when
@@ -279,7 +304,7 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
         messageRenderer.setImagesAndProcess(TEST_MESSAGE_ID_2, imageSet2)
 
         // then
-        verify(exactly = expectedImagesProcessedCount) { mockBitmap.compress(any(), any(), any()) }
+        verify(exactly = expectedImagesProcessedCount) { mockEmbeddedImages.register(any()) }
     }
 
     @Test(expected = IllegalStateException::class)
@@ -345,11 +370,6 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
         every { this@document.toString() } answers { document }
     }
 
-    private fun buildMockBitmap(): Bitmap =
-        mockk {
-            every { compress(any(), any(), any()) } returns true
-        }
-
     private fun buildEmbeddedImages(
         messageId: String = "message id",
         idsRange: IntRange = 0..10
@@ -398,11 +418,6 @@ internal class MessageRendererTest : CoroutinesTest by CoroutinesTest() {
         }
     }
 
-    private fun setBase64EncodeToStringToIncrementalResult() {
-        var count = 0
-        every { Base64.encodeToString(any(), any()) } answers { "image ${++count}" }
-    }
-
     private fun setMockDocumentParserToReplaceStringsInMessage(message: String) {
         coEvery { mockDocumentParser(any()) } returns buildMockDocumentWithReplaceFeature(message)
     }
@@ -19,14 +19,18 @@
 
 package ch.protonmail.android.activities.messageDetails.viewmodel
 
+import android.content.Context
 import android.graphics.Color
+import android.print.PrintManager
 import androidx.lifecycle.SavedStateHandle
 import app.cash.turbine.test
+import ch.protonmail.android.activities.messageDetails.MessagePrinter
 import ch.protonmail.android.activities.messageDetails.MessageRenderer
 import ch.protonmail.android.activities.messageDetails.repository.MessageDetailsRepository
 import ch.protonmail.android.api.NetworkConfigurator
 import ch.protonmail.android.attachments.AttachmentsHelper
 import ch.protonmail.android.attachments.DownloadEmbeddedAttachmentsWorker
+import ch.protonmail.android.core.BigContentHolder
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.Constants.MessageLocationType.INBOX
 import ch.protonmail.android.core.UserManager
@@ -35,7 +39,10 @@ import ch.protonmail.android.data.local.AttachmentMetadataDao
 import ch.protonmail.android.data.local.model.ContactEmail
 import ch.protonmail.android.data.local.model.Message
 import ch.protonmail.android.data.local.model.MessageSender
+import ch.protonmail.android.details.data.local.EmbeddedImagesStore
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
 import ch.protonmail.android.details.data.toConversationUiModel
+import ch.protonmail.android.details.domain.model.PrefetchedMessageBody
 import ch.protonmail.android.details.domain.usecase.GetViewInDarkModeMessagePreference
 import ch.protonmail.android.details.presentation.model.ConversationUiModel
 import ch.protonmail.android.details.presentation.model.MessageBodyState
@@ -76,9 +83,11 @@ import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.just
 import io.mockk.mockk
+import io.mockk.mockkConstructor
 import io.mockk.mockkStatic
 import io.mockk.runs
 import io.mockk.spyk
+import io.mockk.unmockkConstructor
 import io.mockk.unmockkStatic
 import io.mockk.verify
 import kotlinx.coroutines.channels.BufferOverflow
@@ -112,6 +121,8 @@ private const val CONVERSATION_ID = "conversationId"
 private const val MESSAGE_TIME = 82374730L
 private const val SUBJECT = "subject"
 private const val MESSAGE_SENDER_EMAIL_ADDRESS = "sender@protonmail.com"
+private const val EMBEDDED_IMAGE_URL = "pm-embedded-image://messageId1/image"
+private const val EMBEDDED_IMAGE_DATA_URI = "data:image/png;base64,aW1hZ2U="
 
 class MessageDetailsViewModelTest : ArchTest by ArchTest(),
     CoroutinesTest by CoroutinesTest({ TestDispatcherProvider(UnconfinedTestDispatcher()) }) {
@@ -140,6 +151,11 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
     private val observeMessageFlow = MutableSharedFlow<Message?>(replay = 1, onBufferOverflow = BufferOverflow.SUSPEND)
     private val messageRepository: MessageRepository = mockk {
         every { observeMessage(any(), any()) } returns observeMessageFlow
+        // Messages are found in a batch, each one as stubbed for findMessage
+        coEvery { findMessages(any(), any()) } coAnswers {
+            val repository = self as MessageRepository
+            secondArg<List<String>>().mapNotNull { messageId -> repository.findMessage(firstArg(), messageId) }
+        }
     }
 
     private val labelRepository: LabelRepository = mockk(relaxed = true)
@@ -151,6 +167,9 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
     )
     private val contactsRepository: ContactsRepository = mockk {
         coEvery { findContactEmailByEmail(any(), any()) } returns testSenderContactEmail
+        coEvery { findContactEmailsByEmails(any(), any()) } answers {
+            secondArg<List<String>>().map { email -> testSenderContactEmail.copy(email = email) }
+        }
     }
 
     private val attachmentsHelper: AttachmentsHelper = mockk(relaxed = true)
@@ -173,6 +192,20 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
 
     private val attachmentsWorker: DownloadEmbeddedAttachmentsWorker.Enqueuer = mockk(relaxed = true)
 
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache = mockk {
+        coEvery { get(any(), any()) } returns null
+    }
+
+    private val embeddedImages: EmbeddedImagesStore.Scope = mockk(relaxUnitFun = true) {
+        every { inlineAsDataUris(any()) } answers {
+            firstArg<String>().replace(EMBEDDED_IMAGE_URL, EMBEDDED_IMAGE_DATA_URI)
+        }
+    }
+
+    private val embeddedImagesStore: EmbeddedImagesStore = mockk {
+        every { newScope(any()) } returns embeddedImages
+    }
+
     private val conversationModeEnabled: ConversationModeEnabled = mockk {
         every { this@mockk(location = any(), userId = any()) } returns false
     }
@@ -199,7 +232,7 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
     }
 
     private var messageRendererFactory = mockk<MessageRenderer.Factory> {
-        every { create(any()) } returns mockk(relaxed = true) {
+        every { create(any(), embeddedImages) } returns mockk(relaxed = true) {
             coEvery { setImagesAndProcess(any(), any()) } answers {
                 RenderedMessage(firstArg(), secondArg())
             }
@@ -244,7 +277,9 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
             messageRendererFactory = messageRendererFactory,
             verifyConnection = verifyConnection,
             networkConfigurator = networkConfigurator,
-            protonCalendarUtil = protonCalendarUtil
+            protonCalendarUtil = protonCalendarUtil,
+            prefetchedMessageBodyCache = prefetchedMessageBodyCache,
+            embeddedImagesStore = embeddedImagesStore
         )
     }
 
@@ -287,7 +322,10 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
         val cssContent = "css"
         val darkCssContent = "darkCss"
         val expected =
-            "<html>\n <head>\n  <style>$cssContent$darkCssContent</style>\n  <meta name=\"viewport\" content=\"width=$windowWidth, maximum-scale=2\"> \n </head>\n <body>\n  <div id=\"pm-body\" class=\"inbox-body\">   $decryptedMessageContent  \n  </div>\n </body>\n</html>"
+            "<html>\n <head>\n  <style>$cssContent$darkCssContent</style>\n" +
+                "  <meta name=\"viewport\" content=\"width=$windowWidth, maximum-scale=2\">\n </head>\n" +
+                " <body>\n  <div id=\"pm-body\" class=\"inbox-body\">\n   $decryptedMessageContent\n  </div>\n" +
+                " </body>\n</html>"
 
         // when
         val parsedMessage =
@@ -328,11 +366,76 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
 
         // then
         val expectedMessageContent =
-            "<html>\n <head>\n  <style>$cssContent$darkCssContent</style>\n  <meta name=\"viewport\" content=\"width=$windowWidth, maximum-scale=2\"> \n </head>\n <body>\n  <div id=\"pm-body\" class=\"inbox-body\">   $decryptedMessageContent  \n  </div>\n </body>\n</html>"
+            "<html>\n <head>\n  <style>$cssContent$darkCssContent</style>\n" +
+                "  <meta name=\"viewport\" content=\"width=$windowWidth, maximum-scale=2\">\n </head>\n" +
+                " <body>\n  <div id=\"pm-body\" class=\"inbox-body\">\n   $decryptedMessageContent\n  </div>\n" +
+                " </body>\n</html>"
         verify { conversationMessage setProperty "decryptedHTML" value expectedMessageContent }
         assertEquals(conversationMessage, decryptedConversationObserver.observedValues.last()!!.messages[0])
     }
 
+    @Test
+    fun prepareEditMessageIntentQuotesTheBodyWithTheEmbeddedImagesInlined() = runTest(dispatchers.Main) {
+        // given
+        val message = buildMessage()
+        val content = "<div><img src=\"$EMBEDDED_IMAGE_URL\"></div>"
+
+        // when
+        viewModel.prepareEditMessageIntent(
+            Constants.MessageActionType.REPLY, message, "Re: subject", content, BigContentHolder()
+        )
+
+        // then
+        coVerify {
+            messageDetailsRepository.prepareEditMessageIntent(
+                Constants.MessageActionType.REPLY,
+                message,
+                any(),
+                "Re: subject",
+                "<div><img src=\"$EMBEDDED_IMAGE_DATA_URI\"></div>",
+                any(),
+                any(),
+                any(),
+                any(),
+                any()
+            )
+        }
+    }
+
+    @Test
+    fun printMessagePrintsTheBodyWithTheEmbeddedImagesInlined() = runTest(dispatchers.Main) {
+        // given
+        mockkConstructor(MessagePrinter::class)
+        every { anyConstructed<MessagePrinter>().printMessage(any(), any()) } just runs
+        val context = mockk<Context>(relaxed = true) {
+            every { getSystemService(Context.PRINT_SERVICE) } returns mockk<PrintManager>()
+        }
+        val conversationMessage = buildMessage().apply {
+            decryptedHTML = "<div><img src=\"$EMBEDDED_IMAGE_URL\"></div>"
+        }
+        every { conversationModeEnabled(location = any(), userId = any()) } returns true
+        val conversationResult = DataResult.Success(ResponseSource.Local, buildConversation(CONVERSATION_ID))
+        coEvery { messageRepository.findMessage(any(), MESSAGE_ID_ONE) } returns conversationMessage
+        coEvery { messageRepository.findMessage(any(), MESSAGE_ID_TWO) } returns null
+        viewModel.conversationUiModel.test {
+            userIdFlow.emit(testUserId2)
+            observeConversationFlow.emit(conversationResult)
+            awaitItem()
+        }
+
+        // when
+        viewModel.printMessage(MESSAGE_ID_ONE, context)
+
+        // then
+        verify {
+            anyConstructed<MessagePrinter>().printMessage(
+                conversationMessage,
+                "<div><img src=\"$EMBEDDED_IMAGE_DATA_URI\"></div>"
+            )
+        }
+        unmockkConstructor(MessagePrinter::class)
+    }
+
     @Test
     fun loadMailboxItemInvokesMessageRepositoryWithMessageIdAndUserId() = runTest(dispatchers.Main) {
         // Given
@@ -465,7 +568,7 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
             // Then
             coVerify { conversationRepository.getConversation(testId2, INPUT_ITEM_DETAIL_ID) }
             observeConversationFlow.emit(testConversationResult)
-            coVerify { contactsRepository.findContactEmailByEmail(any(), any()) }
+            coVerify { contactsRepository.findContactEmailsByEmails(testId2, listOf(MESSAGE_SENDER_EMAIL_ADDRESS)) }
             val actualItem = awaitItem()
             assertNotNull(actualItem)
             assertEquals(testConversation.toConversationUiModel(), actualItem)
@@ -615,6 +718,108 @@ class MessageDetailsViewModelTest : ArchTest by ArchTest(),
         verify(exactly = 0) { messageRepository.markRead(any()) }
     }
 
+    @Test
+    fun loadMessageBodyUsesPrefetchedBodyWithoutFetchingTheMessage() = runTest(dispatchers.Main) {
+        // Given
+        val message = buildMessage(unread = false)
+        val prefetchedBody = PrefetchedMessageBody(
+            messageId = MESSAGE_ID_ONE,
+            decryptedBody = "decrypted body",
+            sanitizedHtml = "<html>sanitized body</html>",
+            hasValidSignature = true,
+            hasInvalidSignature = false,
+            embeddedImageIds = emptyList()
+        )
+        coEvery { prefetchedMessageBodyCache.get(testId1, MESSAGE_ID_ONE) } returns prefetchedBody
+
+        // When
+        val actual = viewModel.loadMessageBody(message).first() as MessageBodyState.Success
+
+        // Then
+        assertEquals(prefetchedBody.sanitizedHtml, actual.message.decryptedHTML)
+        assertEquals(true, actual.message.isDecryptedHtmlSanitized)
+        assertEquals(true, actual.message.hasValidSignature)
+        coVerify(exactly = 0) { messageRepository.getMessage(any(), any<String>(), any()) }
+    }
+
+    @Test
+    fun loadMessageBodyUsesMessageDecryptedAheadWhenConversationIsLoaded() = runTest(dispatchers.Main) {
+        // Given
+        every { conversationModeEnabled(location = any(), userId = any()) } returns true
+        every { userManager.requireCurrentUserId() } returns testId2
+        val conversationResult = DataResult.Success(ResponseSource.Local, buildConversation(CONVERSATION_ID))
+        val unreadMessageCopy = buildMessage(unread = true)
+            .apply { messageBody = "encrypted message body" }
+            .toSpy()
+        val unreadMessage = spyk(buildMessage(unread = true).apply { messageBody = "encrypted message body" }) {
+            every { copyForDecryption() } returns unreadMessageCopy
+        }
+        val lastMessageCopy = buildMessage(messageId = MESSAGE_ID_TWO, time = MESSAGE_TIME + 1)
+            .apply { messageBody = "encrypted message body" }
+            .toSpy()
+        val lastMessage = spyk(
+            buildMessage(messageId = MESSAGE_ID_TWO, time = MESSAGE_TIME + 1)
+                .apply { messageBody = "encrypted message body" }
+        ) {
+            every { copyForDecryption() } returns lastMessageCopy
+        }
+        coEvery { messageRepository.findMessage(testId2, MESSAGE_ID_ONE) } returns unreadMessage
+        coEvery { messageRepository.findMessage(testId2, MESSAGE_ID_TWO) } returns lastMessage
+        every { messageRepository.markRead(any()) } just runs
+
+        // When
+        viewModel.conversationUiModel.test {
+            userIdFlow.emit(testUserId2)
+            observeConversationFlow.emit(conversationResult)
+            awaitItem()
+        }
+        val actual = viewModel.loadMessageBody(buildMessage(unread = true)).first()
+
+        // Then
+        assertEquals(MessageBodyState.Success(unreadMessageCopy), actual)
+        verify(exactly = 1) { unreadMessageCopy.decrypt(any(), testId2, any()) }
+        verify(exactly = 1) { lastMessageCopy.decrypt(any(), testId2, any()) }
+        verify(exactly = 0) { unreadMessage.decrypt(any(), any(), any()) }
+        verify(exactly = 0) { lastMessage.decrypt(any(), any(), any()) }
+        coVerify(exactly = 1) { fetchVerificationKeys(testId2, MESSAGE_SENDER_EMAIL_ADDRESS) }
+        coVerify(exactly = 0) { messageRepository.getMessage(any(), any<String>(), any()) }
+        verify { messageRepository.markRead(listOf(MESSAGE_ID_ONE)) }
+    }
+
+    @Test
+    fun loadMessageBodyAwaitsTheMessageDecryptedAheadOnlyOnce() = runTest(dispatchers.Main) {
+        // Given
+        every { conversationModeEnabled(location = any(), userId = any()) } returns true
+        every { userManager.requireCurrentUserId() } returns testId2
+        val conversationResult = DataResult.Success(ResponseSource.Local, buildConversation(CONVERSATION_ID))
+        val unreadMessageCopy = buildMessage(unread = true)
+            .apply { messageBody = "encrypted message body" }
+            .toSpy()
+        val unreadMessage = spyk(buildMessage(unread = true).apply { messageBody = "encrypted message body" }) {
+            every { copyForDecryption() } returns unreadMessageCopy
+        }
+        val fetchedMessage = buildMessage(unread = true)
+            .apply { messageBody = "encrypted message body" }
+            .toSpy()
+        coEvery { messageRepository.findMessage(testId2, MESSAGE_ID_ONE) } returns unreadMessage
+        coEvery { messageRepository.findMessage(testId2, MESSAGE_ID_TWO) } returns null
+        coEvery { messageRepository.getMessage(testId2, MESSAGE_ID_ONE, true) } returns fetchedMessage
+        every { messageRepository.markRead(any()) } just runs
+        viewModel.conversationUiModel.test {
+            userIdFlow.emit(testUserId2)
+            observeConversationFlow.emit(conversationResult)
+            awaitItem()
+        }
+
+        // When
+        val first = viewModel.loadMessageBody(buildMessage(unread = true)).first()
+        val second = viewModel.loadMessageBody(buildMessage(unread = true)).first()
+
+        // Then
+        assertEquals(MessageBodyState.Success(unreadMessageCopy), first)
+        assertEquals(MessageBodyState.Success(fetchedMessage), second)
+    }
+
     @Test
     fun verifyMarkUnReadOnInConversationModeWhenConversationHasMoreThanOneMessage() = runTest(dispatchers.Main) {
         // given
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api
+
+import okhttp3.Request
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+
+class OkHttpProviderTest {
+
+    private val okHttpProvider = OkHttpProvider(pinnedKeyHashes = emptyList(), baseUrl = "https://proton.me/")
+
+    @Test
+    fun clientsDerivedFromTheRootShareConnectionPoolAndDispatcher() {
+        // given
+        val rootClient = okHttpProvider.rootClient
+
+        // when
+        val derivedClient = rootClient.newBuilder()
+            .readTimeout(1, TimeUnit.MINUTES)
+            .build()
+
+        // then
+        assertSame(rootClient.connectionPool, derivedClient.connectionPool)
+        assertSame(rootClient.dispatcher, derivedClient.dispatcher)
+        assertSame(okHttpProvider.connectionStats, derivedClient.eventListenerFactory.create(buildCall()))
+    }
+
+    @Test
+    fun maxRequestsPerHostAreTunableWithoutChangingTheTotal() {
+        // given
+        val maxRequests = okHttpProvider.rootClient.dispatcher.maxRequests
+
+        // when
+        okHttpProvider.setMaxRequestsPerHost(3)
+
+        // then
+        assertEquals(maxRequests, okHttpProvider.rootClient.dispatcher.maxRequests)
+        assertEquals(3, okHttpProvider.rootClient.dispatcher.maxRequestsPerHost)
+    }
+
+    private fun buildCall() =
+        okHttpProvider.rootClient.newCall(Request.Builder().url("https://proton.me/").build())
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.retry
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class CircuitBreakerTest {
+
+    private var currentTime = 0L
+    private val metrics = HttpRetryMetrics()
+    private val circuitBreaker = CircuitBreaker("endpoint", metrics) { currentTime }
+
+    @Test
+    fun opensAfterConsecutiveFailures() {
+        // when
+        repeat(5) { circuitBreaker.onFailure() }
+
+        // then
+        assertFalse(circuitBreaker.tryAcquire())
+        assertEquals(1, metrics.circuitsOpened)
+        assertEquals(1, metrics.openCircuits)
+        assertEquals(1, metrics.rejectedCalls)
+    }
+
+    @Test
+    fun doesNotOpenIfFailuresAreNotConsecutive() {
+        // when
+        repeat(4) { circuitBreaker.onFailure() }
+        circuitBreaker.onSuccess()
+        repeat(4) { circuitBreaker.onFailure() }
+
+        // then
+        assertTrue(circuitBreaker.tryAcquire())
+        assertEquals(0, metrics.circuitsOpened)
+    }
+
+    @Test
+    fun letsASingleTrialCallThroughAfterTheOpenDuration() {
+        // given
+        repeat(5) { circuitBreaker.onFailure() }
+
+        // when
+        currentTime += 30_000
+        val first = circuitBreaker.tryAcquire()
+        val second = circuitBreaker.tryAcquire()
+
+        // then
+        assertTrue(first)
+        assertFalse(second)
+    }
+
+    @Test
+    fun closesIfTheTrialCallSucceeds() {
+        // given
+        repeat(5) { circuitBreaker.onFailure() }
+        currentTime += 30_000
+        circuitBreaker.tryAcquire()
+
+        // when
+        circuitBreaker.onSuccess()
+
+        // then
+        assertTrue(circuitBreaker.tryAcquire())
+        assertTrue(circuitBreaker.tryAcquire())
+        assertEquals(0, metrics.openCircuits)
+    }
+
+    @Test
+    fun opensAgainIfTheTrialCallFails() {
+        // given
+        repeat(5) { circuitBreaker.onFailure() }
+        currentTime += 30_000
+        circuitBreaker.tryAcquire()
+
+        // when
+        circuitBreaker.onFailure()
+
+        // then
+        assertFalse(circuitBreaker.tryAcquire())
+        assertEquals(1, metrics.openCircuits)
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.retry
+
+import io.mockk.every
+import io.mockk.mockk
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.test.advanceUntilIdle
+import kotlinx.coroutines.test.runTest
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.ResponseBody
+import okhttp3.ResponseBody.Companion.toResponseBody
+import retrofit2.Call
+import retrofit2.Callback
+import retrofit2.Response
+import retrofit2.Retrofit
+import retrofit2.http.GET
+import retrofit2.http.Path
+import java.io.IOException
+import java.util.LinkedList
+import kotlin.concurrent.thread
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertIs
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+class RetryCallAdapterFactoryTest {
+
+    private val metrics = HttpRetryMetrics()
+    private val responseCodes = LinkedList<Int>()
+    private val retryAfterHeaders = LinkedList<String?>()
+    private var networkCallsCount = 0
+
+    private val callFactory = okhttp3.Call.Factory { request ->
+        mockk(relaxed = true) {
+            every { execute() } answers { nextResponse(request) }
+            every { enqueue(any()) } answers {
+                firstArg<okhttp3.Callback>().onResponse(this@mockk, nextResponse(request))
+            }
+        }
+    }
+
+    @Test
+    fun retriesServerErrorsUntilTheCallSucceeds() = runTest {
+        // given
+        val api = buildApi(this)
+        responseCodes += listOf(503, 200)
+
+        // when
+        val response = api.messages().execute()
+
+        // then
+        assertEquals(200, response.code())
+        assertEquals(2, networkCallsCount)
+        assertEquals(1, metrics.retries)
+    }
+
+    @Test
+    fun doesNotRetryClientErrors() = runTest {
+        // given
+        val api = buildApi(this)
+        responseCodes += listOf(422, 200)
+
+        // when
+        val response = api.messages().execute()
+
+        // then
+        assertEquals(422, response.code())
+        assertEquals(1, networkCallsCount)
+    }
+
+    @Test
+    fun doesNotRetryIfTheServerAsksToWaitTooLong() = runTest {
+        // given
+        val api = buildApi(this)
+        responseCodes += listOf(429, 200)
+        retryAfterHeaders += "3600"
+
+        // when
+        val response = api.messages().execute()
+
+        // then
+        assertEquals(429, response.code())
+        assertEquals(1, networkCallsCount)
+    }
+
+    @Test
+    fun synchronousCallsStopWhenCanceledDuringTheBackoff() = runTest {
+        // given
+        val api = buildApi(this)
+        responseCodes += listOf(503, 200)
+        retryAfterHeaders += "2"
+        val call = api.messages()
+        thread {
+            Thread.sleep(200)
+            call.cancel()
+        }
+
+        // when
+        val error = assertFailsWith<IOException> { call.execute() }
+
+        // then
+        assertEquals("Canceled", error.message)
+        assertEquals(1, networkCallsCount)
+    }
+
+    @Test
+    fun asyncCallsWaitForTheRetryAfterDelayWithoutBlocking() = runTest {
+        // given
+        val api = buildApi(this)
+        responseCodes += listOf(429, 200)
+        retryAfterHeaders += "5"
+        var result: Response<ResponseBody>? = null
+
+        // when
+        api.messages().enqueue(callback { result = it })
+        val resultBeforeBackoff = result
+        advanceUntilIdle()
+
+        // then
+        assertEquals(null, resultBeforeBackoff)
+        assertEquals(200, result?.code())
+        assertTrue(metrics.backoffTimeMillis >= 5_000)
+    }
+
+    @Test
+    fun failsFastWhileTheCircuitIsOpen() = runTest {
+        // given
+        val api = buildApi(this)
+        repeat(5) {
+            responseCodes += listOf(503, 503, 503)
+            api.messages().enqueue(callback {})
+            advanceUntilIdle()
+        }
+        val networkCallsCountBeforeOpen = networkCallsCount
+        var error: Throwable? = null
+
+        // when
+        api.messages().enqueue(callback(onFailure = { error = it }) {})
+
+        // then
+        assertNotNull(error)
+        assertIs<CircuitOpenException>(error)
+        assertEquals(networkCallsCountBeforeOpen, networkCallsCount)
+        assertEquals(1, metrics.openCircuits)
+    }
+
+    @Test
+    fun sharesTheCircuitOfAnEndpointAcrossTheResourcesItServes() = runTest {
+        // given
+        val api = buildApi(this)
+        repeat(5) { index ->
+            responseCodes += listOf(503, 503, 503)
+            api.message("messageId$index").enqueue(callback {})
+            advanceUntilIdle()
+        }
+        var error: Throwable? = null
+
+        // when
+        api.message("anotherMessageId").enqueue(callback(onFailure = { error = it }) {})
+
+        // then
+        assertIs<CircuitOpenException>(error)
+        assertEquals(1, metrics.circuitsOpened)
+    }
+
+    private fun buildApi(scope: CoroutineScope): TestApi =
+        Retrofit.Builder()
+            .baseUrl("https://proton.me/")
+            .callFactory(callFactory)
+            .addCallAdapterFactory(RetryCallAdapterFactory(scope, metrics))
+            .build()
+            .create(TestApi::class.java)
+
+    private fun nextResponse(request: Request): okhttp3.Response {
+        networkCallsCount++
+        return okhttp3.Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .code(responseCodes.poll() ?: 200)
+            .message("message")
+            .apply { retryAfterHeaders.poll()?.let { header("Retry-After", it) } }
+            .body("body".toResponseBody())
+            .build()
+    }
+
+    private fun callback(
+        onFailure: (Throwable) -> Unit = { throw IOException(it) },
+        onResponse: (Response<ResponseBody>) -> Unit
+    ) = object : Callback<ResponseBody> {
+        override fun onResponse(call: Call<ResponseBody>, response: Response<ResponseBody>) = onResponse(response)
+        override fun onFailure(call: Call<ResponseBody>, t: Throwable) = onFailure(t)
+    }
+
+    private interface TestApi {
+
+        @GET("mail/v4/messages")
+        fun messages(): Call<ResponseBody>
+
+        @GET("mail/v4/messages/{id}")
+        fun message(@Path("id") id: String): Call<ResponseBody>
+    }
+}
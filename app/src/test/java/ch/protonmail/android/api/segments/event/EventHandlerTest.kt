@@ -23,6 +23,8 @@ import android.content.Context
 import ch.protonmail.android.activities.messageDetails.repository.MessageDetailsRepository
 import ch.protonmail.android.api.models.DatabaseProvider
 import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.crypto.VerificationKeysCache
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
 import ch.protonmail.android.event.data.remote.model.EventResponse
 import ch.protonmail.android.mailbox.data.local.UnreadCounterDao
 import ch.protonmail.android.mailbox.data.local.model.UnreadCounterEntity
@@ -32,6 +34,7 @@ import io.mockk.coEvery
 import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlinx.coroutines.test.TestCoroutineScope
 import me.proton.core.domain.entity.UserId
 import me.proton.core.usersettings.domain.usecase.GetUserSettings
@@ -56,6 +59,8 @@ class EventHandlerTest {
         every { providePendingActionDao(any()) } returns mockk()
     }
     private val getUserSettings: GetUserSettings = mockk()
+    private val verificationKeysCache: VerificationKeysCache = mockk(relaxUnitFun = true)
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache = mockk(relaxUnitFun = true)
 
     private val eventHandler = EventHandler(
         context = context,
@@ -78,7 +83,9 @@ class EventHandlerTest {
         messageFlagsToEncryptionMapper = mockk(),
         labelRepository = mockk(),
         labelEventApiMapper = mockk(),
-        getUserSettings = getUserSettings
+        getUserSettings = getUserSettings,
+        verificationKeysCache = verificationKeysCache,
+        prefetchedMessageBodyCache = prefetchedMessageBodyCache
     )
 
     @Test
@@ -146,6 +153,32 @@ class EventHandlerTest {
         coVerify(exactly = 0) { getUserSettings(testUserId(), refresh = true) }
     }
 
+    @Test
+    fun `should invalidate verification keys when an event with contact emails change arrives`() {
+        // given
+        val eventResponse = mockEventResponse {
+            every { contactEmailsUpdates } returns emptyList()
+        }
+
+        // when
+        eventHandler.write(eventResponse)
+
+        // then
+        verify { verificationKeysCache.invalidateAll(testUserId()) }
+    }
+
+    @Test
+    fun `should not invalidate verification keys when an event without contacts or keys change arrives`() {
+        // given
+        val eventResponse = mockEventResponse()
+
+        // when
+        eventHandler.write(eventResponse)
+
+        // then
+        verify(exactly = 0) { verificationKeysCache.invalidateAll(any()) }
+    }
+
     private fun testUserId() = UserId("user1")
     private fun countsApiModels() = listOf(
         CountsApiModel("Inbox", 5, 10),
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.api.utils
+
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.api.models.messages.receive.MessagesResponse
+import ch.protonmail.android.event.data.remote.model.EventResponse
+import ch.protonmail.android.mailbox.data.remote.model.ConversationsResponse
+import com.google.gson.FieldNamingPolicy
+import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import java.lang.reflect.Modifier
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+/**
+ * Checks that the hand-written adapters of [ResponseTypeAdapterFactory] read recorded responses into the same models
+ *  as the reflective adapters of Gson
+ */
+class ResponseTypeAdapterFactoryTest {
+
+    private val reflectiveGson = gsonBuilder().create()
+    private val streamingGson = gsonBuilder()
+        .registerTypeAdapterFactory(ResponseTypeAdapterFactory())
+        .create()
+
+    @Test
+    fun messagesResponseIsReadAsByReflection() {
+        // given
+        val json = readTextFileContent("messages-response.json")
+
+        // when
+        val expected = reflectiveGson.fromJson(json, MessagesResponse::class.java)
+        val result = streamingGson.fromJson(json, MessagesResponse::class.java)
+
+        // then
+        assertEquals(expected.code, result.code)
+        assertEquals(expected.serverMessages, result.serverMessages)
+        assertEquals("Friends", result.serverMessages!!.first().ToList!![1].group)
+    }
+
+    @Test
+    fun conversationsResponseIsReadAsByReflection() {
+        // given
+        val json = readTextFileContent("conversations-response.json")
+
+        // when
+        val expected = reflectiveGson.fromJson(json, ConversationsResponse::class.java)
+        val result = streamingGson.fromJson(json, ConversationsResponse::class.java)
+
+        // then
+        assertEquals(expected, result)
+    }
+
+    @Test
+    fun eventResponseIsReadAsByReflection() {
+        // given
+        val json = readTextFileContent("events-response.json")
+
+        // when
+        val expected = reflectiveGson.fromJson(json, EventResponse::class.java)
+        val result = streamingGson.fromJson(json, EventResponse::class.java)
+
+        // then
+        assertEquals(expected.code, result.code)
+        assertEquals(expected.eventID, result.eventID)
+        assertEquals(expected.hasMore(), result.hasMore())
+        assertEquals(expected.refresh(), result.refresh())
+        assertEquals(expected.usedSpace, result.usedSpace)
+        assertEquals(
+            expected.messageUpdates!!.map { Triple(it.messageID, it.type, it.message) },
+            result.messageUpdates!!.map { Triple(it.messageID, it.type, it.message) }
+        )
+        assertEquals(expected.conversationUpdates, result.conversationUpdates)
+        assertNull(result.contactUpdates)
+    }
+
+    @Test
+    fun nullMessagesAreReadAsNull() {
+        // given
+        val json = """{"Code":1000,"Messages":null}"""
+
+        // when
+        val result = streamingGson.fromJson(json, MessagesResponse::class.java)
+
+        // then
+        assertEquals(1000, result.code)
+        assertNull(result.serverMessages)
+    }
+
+    private fun gsonBuilder(): GsonBuilder = GsonBuilder()
+        .setFieldNamingStrategy(FieldNamingPolicy.UPPER_CAMEL_CASE)
+        .registerTypeAdapter(MessageRecipient::class.java, MessageRecipient.MessageRecipientSerializer())
+        .registerTypeAdapter(MessageRecipient::class.java, MessageRecipient.MessageRecipientDeserializer())
+        .excludeFieldsWithModifiers(Modifier.TRANSIENT, Modifier.STATIC)
+
+    private fun readTextFileContent(fileName: String): String {
+        val inputStream = javaClass.classLoader?.getResourceAsStream(fileName)!!
+        return inputStream.bufferedReader(Charsets.UTF_8).use { it.readText() }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.crypto
+
+import android.content.Context
+import ch.protonmail.android.utils.crypto.KeyInformation
+import io.mockk.every
+import io.mockk.mockk
+import kotlinx.coroutines.test.runTest
+import me.proton.core.crypto.common.keystore.KeyStoreCrypto
+import me.proton.core.domain.entity.UserId
+import me.proton.core.test.kotlin.CoroutinesTest
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class VerificationKeysCacheTest : CoroutinesTest by CoroutinesTest() {
+
+    @get:Rule
+    val folder: TemporaryFolder = TemporaryFolder()
+        .also { it.create() }
+
+    private val context: Context = mockk {
+        every { cacheDir } returns folder.root
+    }
+
+    private val keyStoreCrypto: KeyStoreCrypto = mockk {
+        every { encrypt(any<String>()) } answers { firstArg() }
+        every { decrypt(any<String>()) } answers { firstArg() }
+    }
+
+    private val cache = VerificationKeysCache(context, keyStoreCrypto, dispatchers)
+
+    @Test
+    fun returnsNullAndCountsMissWhenKeysAreNotCached() = runTest {
+        // when
+        val result = cache.get(testUserId, TEST_EMAIL)
+
+        // then
+        assertNull(result)
+        assertEquals(0, cache.hits)
+        assertEquals(1, cache.misses)
+    }
+
+    @Test
+    fun returnsCachedKeysAndCountsHit() = runTest {
+        // given
+        cache.put(testUserId, TEST_EMAIL, testKeys)
+
+        // when
+        val result = cache.get(testUserId, TEST_EMAIL)
+
+        // then
+        assertEquals(testKeys, result)
+        assertEquals(1, cache.hits)
+        assertEquals(0, cache.misses)
+    }
+
+    @Test
+    fun cachedKeysAreRestoredByANewInstance() = runTest {
+        // given
+        cache.put(testUserId, TEST_EMAIL, testKeys)
+        val newCache = VerificationKeysCache(context, keyStoreCrypto, dispatchers)
+
+        // when
+        val result = newCache.get(testUserId, TEST_EMAIL)
+
+        // then
+        assertEquals(testKeys, result)
+    }
+
+    @Test
+    fun invalidatedKeysAreNotReturnedNorRestored() = runTest {
+        // given
+        cache.put(testUserId, TEST_EMAIL, testKeys)
+
+        // when
+        cache.invalidateAll(testUserId)
+
+        // then
+        assertNull(cache.get(testUserId, TEST_EMAIL))
+        assertNull(VerificationKeysCache(context, keyStoreCrypto, dispatchers).get(testUserId, TEST_EMAIL))
+    }
+
+    @Test
+    fun keysAreNotSharedAcrossUsers() = runTest {
+        // given
+        cache.put(testUserId, TEST_EMAIL, testKeys)
+
+        // when
+        val result = cache.get(UserId("another user"), TEST_EMAIL)
+
+        // then
+        assertNull(result)
+    }
+
+    private companion object {
+
+        const val TEST_EMAIL = "sender@proton.me"
+        val testUserId = UserId("user")
+        val testKeys = listOf(
+            KeyInformation(byteArrayOf(1, 2, 3), null, true, "fingerprint", false, true),
+            KeyInformation(byteArrayOf(4, 5, 6), null, true, "compromised", false, true)
+                .apply { flagAsCompromised() }
+        )
+    }
+}
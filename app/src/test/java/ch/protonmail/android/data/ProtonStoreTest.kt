@@ -24,10 +24,18 @@ import ch.protonmail.android.core.NetworkConnectivityManager
 import ch.protonmail.android.data.remote.OfflineDataResult
 import io.mockk.every
 import io.mockk.mockk
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.async
+import kotlinx.coroutines.cancel
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.test.runCurrent
 import kotlinx.coroutines.test.runTest
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.arch.ResponseSource
@@ -35,6 +43,8 @@ import me.proton.core.test.kotlin.CoroutinesTest
 import me.proton.core.test.kotlin.assertIs
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import kotlin.time.Duration.Companion.seconds
 
 /**
  * Test suite for [ProtonStore]
@@ -309,6 +319,198 @@ class ProtonStoreTest : CoroutinesTest by CoroutinesTest() {
         }
     }
 
+    @Test
+    fun concurrentFreshCallsForTheSameKeyAreCoalesced() = runTest {
+        // given
+        val fetchGate = CompletableDeferred<Unit>()
+        var fetchCount = 0
+        val store = ProtonStore(
+            fetcher = { position: Int ->
+                fetchCount++
+                fetchGate.await()
+                api.getItems(position)
+            },
+            reader = { database.findAll() },
+            writer = { _, items -> database.save(items) },
+            apiToDomainMapper = fromApiMapper,
+            databaseToDomainMapper = noMapper,
+            apiToDatabaseMapper = fromApiMapper
+        )
+
+        // when
+        val first = async { store.fresh(0) }
+        val second = async { store.fresh(0) }
+        runCurrent()
+        fetchGate.complete(Unit)
+
+        // then
+        val expected = listOf(item1, item2).remote()
+        assertEquals(expected, first.await())
+        assertEquals(expected, second.await())
+        assertEquals(1, fetchCount)
+    }
+
+    @Test
+    fun freshResultIsServedWithoutFetchingWithinFreshnessTtl() = runTest {
+        // given
+        var now = 0L
+        var fetchCount = 0
+        val store = ProtonStore(
+            fetcher = { position: Int ->
+                fetchCount++
+                api.getItems(position)
+            },
+            reader = { database.findAll() },
+            writer = { _, items -> database.save(items) },
+            apiToDomainMapper = fromApiMapper,
+            databaseToDomainMapper = noMapper,
+            apiToDatabaseMapper = fromApiMapper,
+            freshnessTtl = 10.seconds,
+            revalidationScope = this,
+            clock = { now }
+        )
+        val expected = listOf(item1, item2).remote()
+
+        // when
+        store.loadFirstPage(0)
+        now += 5.seconds.inWholeMilliseconds
+        val freshResult = store.loadFirstPage(0)
+        runCurrent()
+
+        // then
+        assertEquals(expected, freshResult)
+        assertEquals(1, fetchCount)
+    }
+
+    @Test
+    fun staleResultIsFetchedAgainWithoutRevalidationScope() = runTest {
+        // given
+        var now = 0L
+        var fetchCount = 0
+        val store = ProtonStore(
+            fetcher = { position: Int ->
+                fetchCount++
+                api.getItems(position)
+            },
+            reader = { database.findAll() },
+            writer = { _, items -> database.save(items) },
+            apiToDomainMapper = fromApiMapper,
+            databaseToDomainMapper = noMapper,
+            apiToDatabaseMapper = fromApiMapper,
+            freshnessTtl = 10.seconds,
+            clock = { now }
+        )
+
+        // when
+        store.loadFirstPage(0)
+        now += 15.seconds.inWholeMilliseconds
+        val staleResult = store.loadFirstPage(0)
+
+        // then
+        assertEquals(listOf(item1, item2).remote(), staleResult)
+        assertEquals(2, fetchCount)
+    }
+
+    @Test
+    fun staleResultIsServedWhileItIsRevalidatedInBackground() = runTest {
+        // given
+        var now = 0L
+        val fetchGate = CompletableDeferred<Unit>()
+        var fetchCount = 0
+        val store = ProtonStore(
+            fetcher = { position: Int ->
+                if (++fetchCount > 1) fetchGate.await()
+                api.getItems(position)
+            },
+            reader = { database.findAll() },
+            writer = { _, items -> database.save(items) },
+            apiToDomainMapper = fromApiMapper,
+            databaseToDomainMapper = noMapper,
+            apiToDatabaseMapper = fromApiMapper,
+            freshnessTtl = 10.seconds,
+            revalidationScope = this,
+            clock = { now }
+        )
+        val firstResult = store.loadFirstPage(0)
+        now += 15.seconds.inWholeMilliseconds
+
+        // when
+        val staleResult = store.loadFirstPage(0)
+        runCurrent()
+
+        // then
+        assertEquals(firstResult, staleResult)
+        assertEquals(2, fetchCount)
+        fetchGate.complete(Unit)
+    }
+
+    @Test
+    fun explicitRefreshIgnoresFreshResult() = runTest {
+        // given
+        var fetchCount = 0
+        val store = ProtonStore(
+            fetcher = { position: Int ->
+                fetchCount++
+                api.getItems(position)
+            },
+            reader = { database.findAll() },
+            writer = { _, items -> database.save(items) },
+            apiToDomainMapper = fromApiMapper,
+            databaseToDomainMapper = noMapper,
+            apiToDatabaseMapper = fromApiMapper,
+            freshnessTtl = 10.seconds,
+            revalidationScope = this,
+            clock = { 0L }
+        )
+
+        // when
+        store.loadFirstPage(0)
+        store.fresh(0)
+        store.loadFirstPage(0, ignoreFreshness = true)
+
+        // then
+        assertEquals(3, fetchCount)
+    }
+
+    @Test
+    fun failedRevalidationDoesNotCancelTheRevalidationScope() = runTest {
+        // given
+        var now = 0L
+        var writeCount = 0
+        val revalidationScope = CoroutineScope(coroutineContext + Job())
+        val store = ProtonStore(
+            fetcher = { position: Int -> api.getItems(position) },
+            reader = { database.findAll() },
+            writer = { _, items ->
+                if (++writeCount > 1) throw IllegalStateException("Database is closed")
+                database.save(items)
+            },
+            apiToDomainMapper = fromApiMapper,
+            databaseToDomainMapper = noMapper,
+            apiToDatabaseMapper = fromApiMapper,
+            freshnessTtl = 10.seconds,
+            revalidationScope = revalidationScope,
+            clock = { now }
+        )
+        store.loadFirstPage(0)
+        now += 15.seconds.inWholeMilliseconds
+
+        // when
+        store.loadFirstPage(0)
+        runCurrent()
+
+        // then
+        assertEquals(2, writeCount)
+        assertTrue(revalidationScope.isActive)
+        revalidationScope.cancel()
+    }
+
+    private suspend fun ProtonStore<Int, ApiResponse, Item, Item>.loadFirstPage(
+        key: Int,
+        ignoreFreshness: Boolean = false
+    ) = loadMoreFlow(key, refreshAtStart = true, ignoreFreshness = ignoreFreshness)
+        .first { it is DataResult.Success && it.source == ResponseSource.Remote }
+
     private fun List<Item>.local() = DataResult.Success(ResponseSource.Local, this)
     private fun List<Item>.remote() = DataResult.Success(ResponseSource.Remote, this)
 
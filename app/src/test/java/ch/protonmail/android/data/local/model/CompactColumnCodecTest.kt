@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.data.local.model
+
+import ch.protonmail.android.api.models.MessageRecipient
+import ch.protonmail.android.mailbox.data.local.model.LabelContextDatabaseModel
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class CompactColumnCodecTest {
+
+    @Test
+    fun recipientsAreEncodedAndDecodedWithAllTheirFields() {
+        // given
+        val member = MessageRecipient("Member", "member@proton.me")
+        val recipient = MessageRecipient("Name: with; separators_", "a@proton.me", "Group").apply {
+            groupIcon = 3
+            groupColor = -16_711_936
+            groupRecipients = listOf(member)
+            setIsPGP(true)
+            isSelected = true
+        }
+
+        // when
+        val encoded = CompactColumnCodec.encodeRecipients(listOf(recipient, MessageRecipient(null, "b@proton.me")))
+        val result = CompactColumnCodec.decodeRecipients(encoded)
+
+        // then
+        assertTrue(CompactColumnCodec.isCompact(encoded))
+        assertEquals(2, result.size)
+        with(result[0]) {
+            assertEquals("Name: with; separators_", name)
+            assertEquals("a@proton.me", emailAddress)
+            assertEquals("Group", group)
+            assertEquals(3, groupIcon)
+            assertEquals(-16_711_936, groupColor)
+            assertEquals("member@proton.me", groupRecipients.single().emailAddress)
+            assertTrue(isPGP)
+            assertTrue(isSelected)
+        }
+        assertNull(result[1].name)
+        assertNull(result[1].groupRecipients)
+    }
+
+    @Test
+    fun sendersAreEncodedAndDecoded() {
+        // given
+        val senders = listOf(MessageSender("Sender", "sender@proton.me", isProton = true), MessageSender(null, null))
+
+        // when
+        val result = CompactColumnCodec.decodeSenders(CompactColumnCodec.encodeSenders(senders))
+
+        // then
+        assertEquals(senders, result)
+    }
+
+    @Test
+    fun labelContextsAreEncodedAndDecoded() {
+        // given
+        val labelContexts = listOf(
+            LabelContextDatabaseModel("0", 1, 2, 1_650_000_000L, 1024, 3),
+            LabelContextDatabaseModel("label", 0, 0, 0, 0, 0)
+        )
+
+        // when
+        val result = CompactColumnCodec.decodeLabelContexts(CompactColumnCodec.encodeLabelContexts(labelContexts))
+
+        // then
+        assertEquals(labelContexts, result)
+    }
+
+    @Test
+    fun emptyListIsEncodedAndDecoded() {
+        assertEquals(emptyList(), CompactColumnCodec.decodeSenders(CompactColumnCodec.encodeSenders(emptyList())))
+    }
+
+    @Test
+    fun legacyJsonValuesAreStillDecoded() {
+        // given
+        val senders = """[{"name":"Sender","Address":"sender@proton.me","isProton":true}]"""
+        val labelContexts = """[{"id":"0","contextNumUnread":1,"contextNumMessages":2,"contextTime":3,""" +
+            """"contextSize":4,"contextNumAttachments":5}]"""
+
+        // when
+        val decodedSenders = CompactColumnCodec.decodeSenders(senders)
+        val decodedLabelContexts = CompactColumnCodec.decodeLabelContexts(labelContexts)
+
+        // then
+        assertEquals(listOf(MessageSender("Sender", "sender@proton.me", isProton = true)), decodedSenders)
+        assertEquals(listOf(LabelContextDatabaseModel("0", 1, 2, 3, 4, 5)), decodedLabelContexts)
+    }
+
+    @Test
+    fun malformedOrUnknownVersionValuesAreDecodedAsEmpty() {
+        assertEquals(emptyList(), CompactColumnCodec.decodeSenders("~13;5:abc"))
+        assertEquals(emptyList(), CompactColumnCodec.decodeSenders("~91;_ _ 0;"))
+    }
+}
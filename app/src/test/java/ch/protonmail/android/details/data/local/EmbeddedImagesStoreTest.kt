@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.local
+
+import android.util.Base64
+import ch.protonmail.android.activities.messageDetails.ImageDecoder
+import ch.protonmail.android.jobs.helper.EmbeddedImage
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.mockkStatic
+import io.mockk.unmockkStatic
+import io.mockk.verify
+import me.proton.core.domain.entity.UserId
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class EmbeddedImagesStoreTest {
+
+    @get:Rule
+    val folder: TemporaryFolder = TemporaryFolder()
+        .also { it.create() }
+
+    private val imageDecoder: ImageDecoder = mockk()
+
+    private val store = EmbeddedImagesStore(folder.root, imageDecoder)
+
+    private val scope = store.newScope(TEST_USER_ID)
+
+    @Test
+    fun registersImagesWithDistinctEmbeddedImageUrls() {
+        // when
+        val url1 = scope.register(buildEmbeddedImage(contentId = "<image 1>"))
+        val url2 = scope.register(buildEmbeddedImage(contentId = "<image 2>"))
+
+        // then
+        assertTrue(scope.isEmbeddedImageUrl(url1))
+        assertTrue(scope.isEmbeddedImageUrl(url2))
+        assertNotEquals(url1, url2)
+        assertFalse(TEST_MESSAGE_ID in url1 || "image 1" in url1)
+    }
+
+    @Test
+    fun imagesCanOnlyBeOpenedFromTheScopeThatRegisteredThem() {
+        // given
+        folder.newFolder(TEST_MESSAGE_ID)
+        folder.newFile("$TEST_MESSAGE_ID/$TEST_LOCAL_FILE_NAME").writeText("image content")
+        val url = scope.register(buildEmbeddedImage())
+        val otherRendererScope = store.newScope(TEST_USER_ID)
+        val otherUserScope = store.newScope(UserId("other user"))
+
+        // when
+        val resultForOtherRenderer = otherRendererScope.open(url)
+        val resultForOtherUser = otherUserScope.open(url)
+
+        // then
+        assertNull(resultForOtherRenderer)
+        assertNull(resultForOtherUser)
+        assertNotNull(scope.open(url)).inputStream.close()
+    }
+
+    @Test
+    fun imagesAreUnregisteredWhenTheirScopeIsClosed() {
+        // given
+        folder.newFolder(TEST_MESSAGE_ID)
+        folder.newFile("$TEST_MESSAGE_ID/$TEST_LOCAL_FILE_NAME").writeText("image content")
+        val url = scope.register(buildEmbeddedImage())
+
+        // when
+        scope.close()
+
+        // then
+        assertNull(scope.open(url))
+    }
+
+    @Test
+    fun doesNotRecogniseRemoteUrlsAsEmbeddedImages() {
+        // when
+        val result = scope.isEmbeddedImageUrl("https://proton.me/image.png")
+
+        // then
+        assertEquals(false, result)
+    }
+
+    @Test
+    fun returnsNullForUrlsThatAreNotRegistered() {
+        // when
+        val result = scope.open("$EMBEDDED_IMAGE_URL_SCHEME://message/image")
+
+        // then
+        assertNull(result)
+    }
+
+    @Test
+    fun returnsNullIfTheFileOfTheImageDoesNotExist() {
+        // given
+        val url = scope.register(buildEmbeddedImage())
+
+        // when
+        val result = scope.open(url)
+
+        // then
+        assertNull(result)
+    }
+
+    @Test
+    fun streamsSmallImagesFromTheirFileWithoutDecodingThem() {
+        // given
+        val image = buildEmbeddedImage(contentType = "IMAGE/PNG; name=\"image.png\"")
+        folder.newFolder(TEST_MESSAGE_ID)
+        folder.newFile("$TEST_MESSAGE_ID/$TEST_LOCAL_FILE_NAME").writeText("image content")
+        val url = scope.register(image)
+
+        // when
+        val result = scope.open(url)
+
+        // then
+        assertNotNull(result)
+        assertEquals("image/png", result.mimeType)
+        assertEquals("image content", result.inputStream.use { it.reader().readText() })
+        verify(exactly = 0) { imageDecoder(any(), any()) }
+    }
+
+    @Test
+    fun inlinesTheAvailableImagesAsDataUrisForTheBodiesThatLeaveTheWebView() {
+        // given
+        mockkStatic(Base64::class)
+        every { Base64.encodeToString(any(), any()) } answers { "base64 of ${String(firstArg<ByteArray>())}" }
+        folder.newFolder(TEST_MESSAGE_ID)
+        folder.newFile("$TEST_MESSAGE_ID/$TEST_LOCAL_FILE_NAME").writeText("image content")
+        val url = scope.register(buildEmbeddedImage())
+        val html = "<p>quoted</p><img src=\"$url\"><img src=\"$url\">"
+
+        // when
+        val result = scope.inlineAsDataUris(html)
+
+        // then
+        val dataUri = "data:image/png;base64,base64 of image content"
+        assertEquals("<p>quoted</p><img src=\"$dataUri\"><img src=\"$dataUri\">", result)
+        unmockkStatic(Base64::class)
+    }
+
+    @Test
+    fun restoresTheContentIdOfTheImagesThatAreNotAvailable() {
+        // given
+        val url = scope.register(buildEmbeddedImage(contentId = "<image 1@proton.me>"))
+        val html = "<img src=\"$url\">"
+
+        // when
+        val result = scope.inlineAsDataUris(html)
+
+        // then
+        assertEquals("<img src=\"cid:image 1@proton.me\">", result)
+    }
+
+    private fun buildEmbeddedImage(
+        contentId: String = "<image>",
+        contentType: String = "image/png"
+    ) = EmbeddedImage(
+        attachmentId = "attachment",
+        fileName = "image.png",
+        key = "",
+        contentType = contentType,
+        encoding = "base64",
+        contentId = contentId,
+        mimeData = null,
+        size = 13,
+        messageId = TEST_MESSAGE_ID,
+        localFileName = TEST_LOCAL_FILE_NAME
+    )
+
+    private companion object {
+
+        const val TEST_MESSAGE_ID = "message"
+        val TEST_USER_ID = UserId("user")
+        const val TEST_LOCAL_FILE_NAME = "image"
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.local
+
+import android.content.Context
+import ch.protonmail.android.details.domain.model.PrefetchedMessageBody
+import io.mockk.every
+import io.mockk.mockk
+import kotlinx.coroutines.test.runTest
+import me.proton.core.crypto.common.keystore.KeyStoreCrypto
+import me.proton.core.domain.entity.UserId
+import me.proton.core.test.kotlin.CoroutinesTest
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class PrefetchedMessageBodyCacheTest : CoroutinesTest by CoroutinesTest() {
+
+    @get:Rule
+    val folder: TemporaryFolder = TemporaryFolder()
+        .also { it.create() }
+
+    private val context: Context = mockk {
+        every { cacheDir } returns folder.root
+    }
+
+    private val keyStoreCrypto: KeyStoreCrypto = mockk {
+        every { encrypt(any<String>()) } answers { ENCRYPTED_PREFIX + firstArg<String>() }
+        every { decrypt(any<String>()) } answers { firstArg<String>().removePrefix(ENCRYPTED_PREFIX) }
+    }
+
+    private val cache = PrefetchedMessageBodyCache(context, keyStoreCrypto, dispatchers)
+
+    @Test
+    fun returnsNullWhenBodyIsNotCached() = runTest {
+        // when
+        val result = cache.get(testUserId, testBody.messageId)
+
+        // then
+        assertNull(result)
+        assertFalse(cache.contains(testUserId, testBody.messageId))
+    }
+
+    @Test
+    fun returnsCachedBody() = runTest {
+        // given
+        cache.put(testUserId, testBody)
+
+        // when
+        val result = cache.get(testUserId, testBody.messageId)
+
+        // then
+        assertEquals(testBody, result)
+        assertTrue(cache.contains(testUserId, testBody.messageId))
+    }
+
+    @Test
+    fun storesBodyEncrypted() = runTest {
+        // given
+        cache.put(testUserId, testBody)
+
+        // when
+        val storedContent = folder.root.walkTopDown().single { it.isFile }.readText()
+
+        // then
+        assertTrue(storedContent.startsWith(ENCRYPTED_PREFIX))
+    }
+
+    @Test
+    fun bodiesAreNotSharedAcrossUsers() = runTest {
+        // given
+        cache.put(testUserId, testBody)
+
+        // when
+        val result = cache.get(UserId("another user"), testBody.messageId)
+
+        // then
+        assertNull(result)
+    }
+
+    @Test
+    fun removedBodyIsNotReturned() = runTest {
+        // given
+        cache.put(testUserId, testBody)
+
+        // when
+        cache.remove(testUserId, testBody.messageId)
+
+        // then
+        assertNull(cache.get(testUserId, testBody.messageId))
+    }
+
+    private companion object {
+
+        const val ENCRYPTED_PREFIX = "encrypted:"
+        val testUserId = UserId("user")
+        val testBody = PrefetchedMessageBody(
+            messageId = "message/id==",
+            decryptedBody = "body",
+            sanitizedHtml = "<html>body</html>",
+            hasValidSignature = true,
+            hasInvalidSignature = false,
+            embeddedImageIds = listOf("image")
+        )
+    }
+}
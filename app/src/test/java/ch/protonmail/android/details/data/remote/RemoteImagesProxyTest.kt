@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.details.data.remote
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import me.proton.core.domain.entity.UserId
+import okhttp3.Call
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class RemoteImagesProxyTest {
+
+    @get:Rule
+    val folder: TemporaryFolder = TemporaryFolder()
+        .also { it.create() }
+
+    private val callFactory: Call.Factory = mockk {
+        every { newCall(any()) } answers { buildCall(firstArg(), TEST_IMAGE_CONTENT, TEST_IMAGE_MIME_TYPE) }
+    }
+
+    private val cacheDirectory = folder.root
+
+    private val proxy = RemoteImagesProxy(cacheDirectory, callFactory)
+
+    @Test
+    fun returnsNullForUrlsThatAreNotHttp() {
+        // when
+        val result = proxy.load(testUserId, "cid:image")
+
+        // then
+        assertNull(result)
+        verify(exactly = 0) { callFactory.newCall(any()) }
+    }
+
+    @Test
+    fun fetchesImageAndStripsTheRequestHeaders() {
+        // when
+        val result = proxy.load(testUserId, TEST_URL)
+
+        // then
+        assertNotNull(result)
+        assertEquals(TEST_IMAGE_MIME_TYPE, result.mimeType)
+        assertContentEquals(TEST_IMAGE_CONTENT, result.content)
+        verify {
+            callFactory.newCall(
+                match { request -> request.headers.names() == setOf("Accept") && request.url.toString() == TEST_URL }
+            )
+        }
+        assertEquals(0, proxy.hits)
+        assertEquals(1, proxy.misses)
+    }
+
+    @Test
+    fun loadsImagesFromTheCacheWhenLoadedAgain() {
+        // given
+        proxy.load(testUserId, TEST_URL)
+
+        // when
+        val newProxy = RemoteImagesProxy(cacheDirectory, callFactory)
+        val result = newProxy.load(testUserId, TEST_URL)
+
+        // then
+        assertNotNull(result)
+        assertEquals(1, newProxy.hits)
+        assertEquals(TEST_IMAGE_MIME_TYPE, result.mimeType)
+        assertContentEquals(TEST_IMAGE_CONTENT, result.content)
+        verify(exactly = 1) { callFactory.newCall(any()) }
+    }
+
+    @Test
+    fun cachesImagesSeparatelyForEveryUser() {
+        // given
+        proxy.load(testUserId, TEST_URL)
+
+        // when
+        proxy.load(UserId("another user"), TEST_URL)
+
+        // then
+        verify(exactly = 2) { callFactory.newCall(any()) }
+    }
+
+    @Test
+    fun doesNotCacheResourcesThatAreNotImages() {
+        // given
+        every { callFactory.newCall(any()) } answers {
+            buildCall(firstArg(), "body {}".toByteArray(), "text/css")
+        }
+
+        // when
+        val result1 = proxy.load(testUserId, TEST_URL)
+        val result2 = proxy.load(testUserId, TEST_URL)
+
+        // then
+        assertEquals("text/css", result1?.mimeType)
+        assertEquals("text/css", result2?.mimeType)
+        verify(exactly = 2) { callFactory.newCall(any()) }
+    }
+
+    @Test
+    fun returnsNullIfTheResponseIsNotSuccessful() {
+        // given
+        every { callFactory.newCall(any()) } answers {
+            buildCall(firstArg(), ByteArray(0), TEST_IMAGE_MIME_TYPE, code = 404)
+        }
+
+        // when
+        val result = proxy.load(testUserId, TEST_URL)
+
+        // then
+        assertNull(result)
+    }
+
+    @Test
+    fun concurrentLoadsOfTheSameImageShareTheSameFetch() {
+        // given
+        val fetchStarted = CountDownLatch(1)
+        val fetchCanComplete = CountDownLatch(1)
+        every { callFactory.newCall(any()) } answers {
+            val request = firstArg<Request>()
+            mockk {
+                every { execute() } answers {
+                    fetchStarted.countDown()
+                    fetchCanComplete.await(1, TimeUnit.SECONDS)
+                    buildResponse(request, TEST_IMAGE_CONTENT, TEST_IMAGE_MIME_TYPE)
+                }
+            }
+        }
+        val executor = Executors.newFixedThreadPool(2)
+
+        // when
+        val first = executor.submit<RemoteResource?> { proxy.load(testUserId, TEST_URL) }
+        fetchStarted.await(1, TimeUnit.SECONDS)
+        val second = executor.submit<RemoteResource?> { proxy.load(testUserId, TEST_URL) }
+        Thread.sleep(100)
+        fetchCanComplete.countDown()
+
+        // then
+        assertNotNull(first.get())
+        assertNotNull(second.get())
+        verify(exactly = 1) { callFactory.newCall(any()) }
+        executor.shutdown()
+    }
+
+    private fun buildCall(request: Request, content: ByteArray, mimeType: String, code: Int = 200): Call =
+        mockk {
+            every { execute() } returns buildResponse(request, content, mimeType, code)
+        }
+
+    private fun buildResponse(request: Request, content: ByteArray, mimeType: String, code: Int = 200) =
+        Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message("message")
+            .body(content.toResponseBody(mimeType.toMediaType()))
+            .build()
+
+    private companion object {
+
+        const val TEST_URL = "https://proton.me/image.png"
+        const val TEST_IMAGE_MIME_TYPE = "image/png"
+        val TEST_IMAGE_CONTENT = byteArrayOf(1, 2, 3, '\n'.code.toByte(), 4)
+        val testUserId = UserId("user")
+    }
+}
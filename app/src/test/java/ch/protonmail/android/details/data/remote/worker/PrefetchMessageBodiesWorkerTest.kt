@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+package ch.protonmail.android.details.data.remote.worker
+
+import android.content.Context
+import androidx.work.ExistingWorkPolicy
+import androidx.work.ListenableWorker
+import androidx.work.OneTimeWorkRequest
+import androidx.work.Operation
+import androidx.work.WorkManager
+import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import ch.protonmail.android.api.models.DatabaseProvider
+import ch.protonmail.android.api.models.enumerations.MessageEncryption
+import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.data.local.MessageDao
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
+import ch.protonmail.android.details.domain.MessageBodyDecryptor
+import ch.protonmail.android.details.domain.model.PrefetchedMessageBody
+import ch.protonmail.android.repository.MessageRepository
+import ch.protonmail.android.usecase.fetch.FetchVerificationKeys
+import io.mockk.coEvery
+import io.mockk.coVerify
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.slot
+import kotlinx.coroutines.test.runBlockingTest
+import me.proton.core.domain.entity.UserId
+import java.io.IOException
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+/**
+ * Tests the behaviour of [PrefetchMessageBodiesWorker]
+ */
+class PrefetchMessageBodiesWorkerTest {
+
+    private val context = mockk<Context>(relaxed = true)
+    private val workerParameters = mockk<WorkerParameters>(relaxed = true)
+    private val workManager = mockk<WorkManager>(relaxed = true)
+
+    private val userId = UserId("userId")
+    private val labelId = "0"
+
+    private val userManager = mockk<UserManager> {
+        every { currentUserId } returns userId
+    }
+    private val messageDao = mockk<MessageDao>()
+    private val databaseProvider = mockk<DatabaseProvider> {
+        every { provideMessageDao(userId) } returns messageDao
+    }
+    private val messageRepository = mockk<MessageRepository>()
+    private val fetchVerificationKeys = mockk<FetchVerificationKeys> {
+        coEvery { this@mockk.invoke(any(), any()) } returns emptyList()
+    }
+    private val decryptMessageBody = mockk<MessageBodyDecryptor> {
+        every { this@mockk.invoke(any(), any()) } answers {
+            firstArg<Message>().apply {
+                decryptedBody = "<p>body of $messageId</p>"
+                decryptedHTML = "<p>body of $messageId</p>"
+            }
+            true
+        }
+    }
+    private val prefetchedMessageBodyCache = mockk<PrefetchedMessageBodyCache>(relaxUnitFun = true) {
+        coEvery { contains(any(), any()) } returns false
+    }
+
+    private lateinit var prefetchMessageBodiesWorker: PrefetchMessageBodiesWorker
+    private lateinit var prefetchMessageBodiesWorkerEnqueuer: PrefetchMessageBodiesWorker.Enqueuer
+
+    @BeforeTest
+    fun setUp() {
+        prefetchMessageBodiesWorker = PrefetchMessageBodiesWorker(
+            context,
+            workerParameters,
+            userManager,
+            databaseProvider,
+            messageRepository,
+            fetchVerificationKeys,
+            decryptMessageBody,
+            prefetchedMessageBodyCache
+        )
+        prefetchMessageBodiesWorkerEnqueuer = PrefetchMessageBodiesWorker.Enqueuer(workManager)
+    }
+
+    @Test
+    fun shouldEnqueueUniqueWorkReplacingThePendingOneWhenEnqueuerIsCalled() {
+        // given
+        val operationMock = mockk<Operation>()
+        every {
+            workManager.enqueueUniqueWork(any(), ExistingWorkPolicy.REPLACE, any<OneTimeWorkRequest>())
+        } returns operationMock
+
+        // when
+        val operationResult = prefetchMessageBodiesWorkerEnqueuer.enqueue(userId, labelId)
+
+        // then
+        assertEquals(operationMock, operationResult)
+    }
+
+    @Test
+    fun shouldReturnFailureIfInputDataIsNotComplete() {
+        runBlockingTest {
+            // given
+            givenInputData(labelId = null)
+            val expectedResult = ListenableWorker.Result.failure(
+                workDataOf(KEY_PREFETCH_BODIES_WORKER_ERROR_DESCRIPTION to "Input data is not complete")
+            )
+
+            // when
+            val result = prefetchMessageBodiesWorker.doWork()
+
+            // then
+            assertEquals(expectedResult, result)
+        }
+    }
+
+    @Test
+    fun shouldNotPrefetchAnythingIfTheUserIsNotTheCurrentOne() {
+        runBlockingTest {
+            // given
+            givenInputData()
+            every { userManager.currentUserId } returns UserId("anotherUserId")
+
+            // when
+            val result = prefetchMessageBodiesWorker.doWork()
+
+            // then
+            assertEquals(ListenableWorker.Result.success(), result)
+            coVerify(exactly = 0) { messageDao.findMostRecentUnreadMessageIds(any(), any()) }
+            coVerify(exactly = 0) { prefetchedMessageBodyCache.put(any(), any()) }
+        }
+    }
+
+    @Test
+    fun shouldStoreTheDecryptedBodiesOfTheMessagesThatAreNotCachedYet() {
+        runBlockingTest {
+            // given
+            givenInputData()
+            givenUnreadMessages("messageId1", "messageId2")
+            coEvery { prefetchedMessageBodyCache.contains(userId, "messageId1") } returns true
+            val storedBody = slot<PrefetchedMessageBody>()
+            coEvery { prefetchedMessageBodyCache.put(userId, capture(storedBody)) } returns Unit
+
+            // when
+            val result = prefetchMessageBodiesWorker.doWork()
+
+            // then
+            assertEquals(ListenableWorker.Result.success(), result)
+            coVerify(exactly = 0) { messageRepository.getMessage(userId, "messageId1", any()) }
+            coVerify(exactly = 1) { prefetchedMessageBodyCache.put(userId, any()) }
+            assertEquals("messageId2", storedBody.captured.messageId)
+            assertEquals("<p>body of messageId2</p>", storedBody.captured.decryptedBody)
+        }
+    }
+
+    @Test
+    fun shouldSkipPgpMimeMessages() {
+        runBlockingTest {
+            // given
+            givenInputData()
+            givenUnreadMessages("messageId1")
+            coEvery { messageRepository.getMessage(userId, "messageId1", true) } returns
+                Message(messageId = "messageId1").apply { messageEncryption = MessageEncryption.MIME_PGP }
+
+            // when
+            val result = prefetchMessageBodiesWorker.doWork()
+
+            // then
+            assertEquals(ListenableWorker.Result.success(), result)
+            coVerify(exactly = 0) { prefetchedMessageBodyCache.put(any(), any()) }
+        }
+    }
+
+    @Test
+    fun shouldKeepPrefetchingTheOtherMessagesWhenOneFails() {
+        runBlockingTest {
+            // given
+            givenInputData()
+            givenUnreadMessages("messageId1", "messageId2")
+            coEvery { messageRepository.getMessage(userId, "messageId1", true) } throws IOException()
+
+            // when
+            val result = prefetchMessageBodiesWorker.doWork()
+
+            // then
+            assertEquals(ListenableWorker.Result.success(), result)
+            coVerify(exactly = 1) { prefetchedMessageBodyCache.put(userId, any()) }
+        }
+    }
+
+    private fun givenInputData(labelId: String? = this.labelId) {
+        every {
+            workerParameters.inputData.getString(KEY_PREFETCH_BODIES_WORKER_USER_ID)
+        } returns userId.id
+        every {
+            workerParameters.inputData.getString(KEY_PREFETCH_BODIES_WORKER_LABEL_ID)
+        } returns labelId
+        every {
+            workerParameters.inputData.getInt(KEY_PREFETCH_BODIES_WORKER_COUNT, 0)
+        } returns 5
+    }
+
+    private fun givenUnreadMessages(vararg messageIds: String) {
+        coEvery { messageDao.findMostRecentUnreadMessageIds(labelId, 5) } returns messageIds.toList()
+        for (messageId in messageIds) {
+            coEvery { messageRepository.getMessage(userId, messageId, true) } returns Message(messageId = messageId)
+        }
+    }
+}
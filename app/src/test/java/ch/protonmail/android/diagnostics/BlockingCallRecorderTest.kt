@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.diagnostics
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class BlockingCallRecorderTest {
+
+    private var isMainThread = false
+    private var now = 0L
+    private val mainThreadCalls = mutableListOf<Long>()
+
+    private val recorder = BlockingCallRecorder(
+        isMainThread = { isMainThread },
+        nanoTime = { now },
+        onMainThreadCall = { _, durationMs -> mainThreadCalls += durationMs }
+    )
+
+    @Test
+    fun callsAreAttributedToTheirCallSite() {
+        // when
+        blockingBridge(durationMs = 5)
+
+        // then
+        val entry = recorder.report().entries.single()
+        assertTrue(entry.callSite.first().startsWith("${BlockingCallRecorderTest::class.java.name}.blockingBridge"))
+        assertEquals(1, entry.count)
+        assertEquals(5, entry.totalDurationMs)
+        assertEquals(setOf(Thread.currentThread().name), entry.threadNames)
+    }
+
+    @Test
+    fun callsFromTheSameSiteAreAggregated() {
+        // when
+        repeat(3) { index -> blockingBridge(durationMs = 10L * (index + 1)) }
+
+        // then
+        val entry = recorder.report().entries.single()
+        assertEquals(3, entry.count)
+        assertEquals(60, entry.totalDurationMs)
+        assertEquals(30, entry.maxDurationMs)
+    }
+
+    @Test
+    fun callsOnTheMainThreadAreFlaggedAndReportedFirst() {
+        // given
+        isMainThread = false
+        blockingBridge(durationMs = 100)
+
+        // when
+        isMainThread = true
+        anotherBlockingBridge(durationMs = 20)
+
+        // then
+        val report = recorder.report()
+        assertEquals(2, report.entries.size)
+        assertEquals(1, report.entries.first().mainThreadCount)
+        assertEquals(listOf(report.entries.first()), report.mainThreadEntries)
+        assertEquals(listOf(20L), mainThreadCalls)
+    }
+
+    @Test
+    fun failingCallsAreRecordedToo() {
+        // when
+        assertFailsWith<IllegalStateException> {
+            recorder.record {
+                now += 1_000_000
+                throw IllegalStateException()
+            }
+        }
+
+        // then
+        assertEquals(1, recorder.report().entries.single().count)
+    }
+
+    @Test
+    fun resetClearsTheRecordedCalls() {
+        // given
+        blockingBridge(durationMs = 5)
+
+        // when
+        recorder.reset()
+
+        // then
+        assertEquals(emptyList(), recorder.report().entries)
+    }
+
+    @Test
+    fun exportListsEveryCallSiteWithItsFrames() {
+        // given
+        isMainThread = true
+        blockingBridge(durationMs = 5)
+
+        // when
+        val export = recorder.report().export()
+
+        // then
+        assertTrue(export.startsWith("Blocking calls: 1 at 1 call sites\nOn the main thread: 1\n"))
+        assertTrue(export.contains("count=1 main=1 total=5ms max=5ms"))
+        assertTrue(export.contains("    at ${BlockingCallRecorderTest::class.java.name}.blockingBridge"))
+    }
+
+    private fun blockingBridge(durationMs: Long) {
+        recorder.record { now += durationMs * 1_000_000 }
+    }
+
+    private fun anotherBlockingBridge(durationMs: Long) {
+        recorder.record { now += durationMs * 1_000_000 }
+    }
+}
@@ -25,16 +25,11 @@ import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApi
 import ch.protonmail.android.api.models.MoveToFolderResponse
-import ch.protonmail.android.data.local.CounterRepository
 import ch.protonmail.android.worker.KEY_WORKER_ERROR_DESCRIPTION
-import io.mockk.coEvery
-import io.mockk.coVerify
+import io.mockk.verify
 import io.mockk.every
 import io.mockk.mockk
-import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.test.runBlockingTest
-import me.proton.core.accountmanager.domain.AccountManager
-import me.proton.core.domain.entity.UserId
 import kotlin.test.BeforeTest
 import kotlin.test.Test
 import kotlin.test.assertEquals
@@ -47,23 +42,13 @@ class ApplyMessageLabelWorkerTest {
 
     private val api = mockk<ProtonMailApi>()
 
-    private val accountManager = mockk<AccountManager>()
-
-    private val counterRepository = mockk<CounterRepository>()
-
     private lateinit var worker: ApplyMessageLabelWorker
 
-    private val testUserId = UserId("testUser")
-
     @BeforeTest
     fun setUp() {
-        every { accountManager.getPrimaryUserId() } returns flowOf(testUserId)
-
         worker = ApplyMessageLabelWorker(
             context,
             parameters,
-            accountManager,
-            counterRepository,
             api
         )
     }
@@ -101,28 +86,13 @@ class ApplyMessageLabelWorkerTest {
 
             val response = mockk<MoveToFolderResponse>()
             every { api.labelMessages(any()) } returns response
-            coEvery {
-                counterRepository.updateMessageLabelCounter(
-                    testUserId,
-                    testLabelId,
-                    listOf(testMessageId),
-                    CounterRepository.CounterModificationMethod.INCREMENT
-                )
-            } returns Unit
 
             // when
             val result = worker.doWork()
 
             // then
             assertEquals(expected, result)
-            coVerify {
-                counterRepository.updateMessageLabelCounter(
-                    testUserId,
-                    testLabelId,
-                    listOf(testMessageId),
-                    CounterRepository.CounterModificationMethod.INCREMENT
-                )
-            }
+            verify { api.labelMessages(match { it.iDs == listOf(testMessageId) }) }
         }
     }
 }
@@ -24,17 +24,12 @@ import androidx.work.ListenableWorker
 import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApi
-import ch.protonmail.android.core.UserManager
-import ch.protonmail.android.data.local.CounterRepository
-import ch.protonmail.android.data.local.model.Message
 import ch.protonmail.android.worker.KEY_WORKER_ERROR_DESCRIPTION
 import io.mockk.MockKAnnotations
-import io.mockk.coEvery
-import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlinx.coroutines.test.runBlockingTest
-import me.proton.core.domain.entity.UserId
 import kotlin.test.BeforeTest
 import kotlin.test.Test
 import kotlin.test.assertEquals
@@ -47,24 +42,15 @@ class RemoveMessageLabelWorkerTest {
 
     private val api = mockk<ProtonMailApi>()
 
-    private val userManager = mockk<UserManager>()
-
-    private val counterRepository = mockk<CounterRepository>()
-
     private lateinit var worker: RemoveMessageLabelWorker
 
-    private val testUserId = UserId("testUser")
-
     @BeforeTest
     fun setUp() {
         MockKAnnotations.init(this)
-        every { userManager.currentUserId } returns testUserId
 
         worker = RemoveMessageLabelWorker(
             context,
             parameters,
-            userManager,
-            counterRepository,
             api
         )
     }
@@ -100,29 +86,13 @@ class RemoveMessageLabelWorkerTest {
             )
 
             every { api.unlabelMessages(any()) }  returns Unit
-            val message = Message(messageId = testMessageId)
-            coEvery {
-                counterRepository.updateMessageLabelCounter(
-                    testUserId,
-                    testLabelId,
-                    listOf(testMessageId),
-                    CounterRepository.CounterModificationMethod.DECREMENT
-                )
-            } returns Unit
 
             // when
             val result = worker.doWork()
 
             // then
             assertEquals(expected, result)
-            coVerify {
-                counterRepository.updateMessageLabelCounter(
-                    testUserId,
-                    testLabelId,
-                    listOf(testMessageId),
-                    CounterRepository.CounterModificationMethod.DECREMENT
-                )
-            }
+            verify { api.unlabelMessages(match { it.iDs == listOf(testMessageId) }) }
         }
     }
 }
@@ -196,12 +196,14 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
 
     private val conversationDao: ConversationDao = mockk {
         coEvery { updateLabels(any(), any()) } just Runs
+        coEvery { updateConversations(any()) } just Runs
         coEvery { insertOrUpdate(*anyVararg()) } just Runs
     }
 
     private val messageDao: MessageDao = mockk {
         every { observeAllMessagesInfoFromConversation(any()) } returns flowOf(emptyList())
         coEvery { saveMessages(any()) } just Runs
+        coEvery { updateMessagesInfo(any()) } just Runs
     }
 
     private val unreadCounterDao: UnreadCounterDao = mockk {
@@ -294,6 +296,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             deleteConversationsRemoteWorker = deleteConversationsRemoteWorker,
             connectivityManager = connectivityManager,
             markUnreadLatestNonDraftMessageInLocation = markUnreadLatestNonDraftMessageInLocation,
+            prefetchedMessageBodyCache = mockk(relaxUnitFun = true),
             labelsRepository = labelsRepository,
             externalScope = TestScope(dispatchers.Io)
         )
@@ -705,22 +708,18 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
         coroutinesTest {
             // given
             val conversationIds = listOf(conversationId, conversationId1)
-            val message = Message()
-            coEvery { conversationDao.updateNumUnreadMessages(any(), 0) } just runs
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOf(message, message)
-            coEvery { messageDao.saveMessage(any()) } returns 123
+            coEvery { conversationDao.updateConversationsNumUnreadMessages(any(), 0) } just runs
+            coEvery { messageDao.updateUnreadByConversationIds(any(), false) } just runs
             val expectedResult = ConversationsActionResult.Success
 
             // when
             val result = conversationsRepository.markRead(conversationIds, testUserId)
 
             // then
-            coVerify {
-                conversationDao.updateNumUnreadMessages(conversationId, 0)
-                conversationDao.updateNumUnreadMessages(conversationId1, 0)
-            }
-            coVerify(exactly = 4) {
-                messageDao.saveMessage(message)
+            coVerify(exactly = 1) {
+                markConversationsReadRemoteWorker.enqueue(conversationIds, testUserId)
+                conversationDao.updateConversationsNumUnreadMessages(conversationIds, 0)
+                messageDao.updateUnreadByConversationIds(conversationIds, false)
             }
             assertEquals(expectedResult, result)
         }
@@ -828,7 +827,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
         )
         coEvery { messageDao.findMessageByIdOnce(messageId1) } returns message1
         coEvery { conversationDao.findConversation(testUserId.id, conversationId1) } returns conversation1
-        coEvery { conversationDao.update(updatedConversation1) } returns 123
+        coEvery { conversationDao.updateConversation(updatedConversation1) } just Runs
 
         // when
         conversationsRepository.updateConvosBasedOnMessagesReadStatus(
@@ -839,7 +838,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
 
         // then
         coVerify {
-            conversationDao.update(updatedConversation1)
+            conversationDao.updateConversation(updatedConversation1)
         }
     }
 
@@ -858,17 +857,17 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 allLabelIDs = emptyList(),
                 isStarred = false
             )
-            coEvery { conversationDao.findConversation(any(), any()) } returns
-                mockk {
-                    every { labels } returns conversationLabels
-                    every { numUnread } returns 2
-                    every { numMessages } returns 7
-                    every { size } returns 123
-                    every { numAttachments } returns 1
-                }
-            coEvery { conversationDao.updateLabels(any(), any()) } just runs
-            coEvery { messageDao.findAttachmentsByMessageId(testMessageId) } returns flowOf(emptyList())
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOf(message, message)
+            coEvery { conversationDao.findConversations(testUserId.id, conversationIds) } returns conversationIds.map {
+                buildConversationDatabaseModel(
+                    id = it,
+                    numMessages = 7,
+                    numUnread = 2,
+                    numAttachments = 1,
+                    size = 123,
+                    labels = conversationLabels
+                )
+            }
+            coEvery { messageDao.findMessagesInfoByConversationIds(conversationIds) } returns listOf(message, message)
             val expectedResult = ConversationsActionResult.Success
 
             // when
@@ -881,12 +880,15 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 allLabelIDs = listOf(STARRED_LABEL_ID), // Needed to ensure that the starred label is added locally
                 location = 10 // Changed to starred (10) when adding starred label
             )
-            coVerify(exactly = 2) {
-                conversationDao.updateLabels(any(), any())
-            }
-            // Expected exactly 2 times as in this test we star two conversations
-            coVerify(exactly = 2) {
-                messageDao.saveMessages(listOf(expected, expected))
+            // Expected exactly once, as the messages of all the conversations are updated together
+            coVerify(exactly = 1) {
+                messageDao.updateMessagesInfo(listOf(expected, expected))
+                conversationDao.updateConversations(
+                    match { conversations ->
+                        conversations.map { it.id } == conversationIds &&
+                            conversations.all { conversation -> conversation.labels.map { it.id } == listOf("2", "10") }
+                    }
+                )
             }
             assertEquals(expectedResult, result)
         }
@@ -902,9 +904,8 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 messageId = testMessageId,
                 time = 123
             )
-            coEvery { conversationDao.findConversation(any(), any()) } returns null
-            coEvery { messageDao.findAttachmentsByMessageId(testMessageId) } returns flowOf(emptyList())
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOf(message, message)
+            coEvery { conversationDao.findConversations(any(), any()) } returns emptyList()
+            coEvery { messageDao.findMessagesInfoByConversationIds(any()) } returns listOf(message, message)
             val expectedResult = ConversationsActionResult.Error
 
             // when
@@ -930,18 +931,17 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 isStarred = true,
                 allLabelIDs = listOf(STARRED_LABEL_ID),
             )
-            coEvery { conversationDao.findConversation(any(), any()) } returns
-                mockk {
-                    every { labels } returns conversationLabels
-                    every { numUnread } returns 2
-                    every { numMessages } returns 7
-                    every { size } returns 123
-                    every { numAttachments } returns 1
-                }
-
-            coEvery { conversationDao.updateLabels(any(), any()) } just runs
-            coEvery { messageDao.findAttachmentsByMessageId(testMessageId) } returns flowOf(emptyList())
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOf(message, message)
+            coEvery { conversationDao.findConversations(testUserId.id, conversationIds) } returns conversationIds.map {
+                buildConversationDatabaseModel(
+                    id = it,
+                    numMessages = 7,
+                    numUnread = 2,
+                    numAttachments = 1,
+                    size = 123,
+                    labels = conversationLabels
+                )
+            }
+            coEvery { messageDao.findMessagesInfoByConversationIds(conversationIds) } returns listOf(message, message)
             val expectedResult = ConversationsActionResult.Success
 
             // when
@@ -954,12 +954,15 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 allLabelIDs = emptyList(), // Needed to ensure that the starred label is removed locally
                 location = 0 // Changed when removing labels, defaults to INBOX (0) if no labels
             )
-            coVerify(exactly = 2) {
-                conversationDao.updateLabels(any(), any())
-            }
-            // Expected exactly 2 times as in this test we unstar two conversations
-            coVerify(exactly = 2) {
-                messageDao.saveMessages(listOf(expected, expected))
+            // Expected exactly once, as the messages of all the conversations are updated together
+            coVerify(exactly = 1) {
+                messageDao.updateMessagesInfo(listOf(expected, expected))
+                conversationDao.updateConversations(
+                    match { conversations ->
+                        conversations.map { it.id } == conversationIds &&
+                            conversations.all { conversation -> conversation.labels.map { it.id } == listOf("2") }
+                    }
+                )
             }
             assertEquals(expectedResult, result)
         }
@@ -970,8 +973,10 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
         coroutinesTest {
             // given
             val conversationIds = listOf(conversationId, conversationId1)
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns mockk(relaxed = true)
-            coEvery { conversationDao.findConversation(any(), any()) } returns null
+            coEvery { messageDao.findMessagesInfoByConversationIds(any()) } returns emptyList()
+            coEvery { conversationDao.findConversations(any(), any()) } returns listOf(
+                buildConversationDatabaseModel(id = conversationId1)
+            )
             val expectedResult = ConversationsActionResult.Error
 
             // when
@@ -1025,7 +1030,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
         )
         coEvery { messageDao.findMessageByIdOnce(messageId1) } returns message1
         coEvery { conversationDao.findConversation(testUserId.id, conversationId1) } returns conversation1
-        coEvery { conversationDao.update(updatedConversation1) } returns 123
+        coEvery { conversationDao.updateConversation(updatedConversation1) } just Runs
 
         // when
         conversationsRepository.updateConvosBasedOnMessagesStarredStatus(
@@ -1036,7 +1041,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
 
         // then
         coVerify {
-            conversationDao.update(updatedConversation1)
+            conversationDao.updateConversation(updatedConversation1)
         }
     }
 
@@ -1049,44 +1054,57 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             val inboxId = "0"
             val starredId = "10"
             val allMailId = "5"
+            val customLabelId = "customLabelId"
             val message = Message(
                 time = 123,
-                allLabelIDs = listOf(inboxId, allMailId),
+                allLabelIDs = listOf(inboxId, allMailId, customLabelId),
             )
             val conversationLabels = listOf(
                 LabelContextDatabaseModel(allMailId, 0, 2, 123, 123, 1),
                 LabelContextDatabaseModel(starredId, 0, 2, 123, 123, 1),
-                LabelContextDatabaseModel(inboxId, 0, 2, 123, 123, 0)
+                LabelContextDatabaseModel(inboxId, 0, 2, 123, 123, 0),
+                LabelContextDatabaseModel(customLabelId, 0, 2, 123, 123, 0)
             )
             val label: Label = mockk {
                 every { type } returns LabelType.MESSAGE_LABEL
             }
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOf(message, message)
+            coEvery { messageDao.findMessagesInfoByConversationIds(conversationIds) } returns listOf(message, message)
             coEvery { labelsRepository.findLabel(any()) } returns label
-            coEvery { conversationDao.findConversation(any(), any()) } returns
-                mockk {
-                    every { labels } returns conversationLabels
-                    every { numUnread } returns 0
-                    every { numMessages } returns 2
-                    every { size } returns 123
-                    every { numAttachments } returns 1
-                }
-            coEvery { conversationDao.updateLabels(any(), any()) } just runs
+            coEvery { conversationDao.findConversations(testUserId.id, conversationIds) } returns conversationIds.map {
+                buildConversationDatabaseModel(
+                    id = it,
+                    numMessages = 2,
+                    numAttachments = 1,
+                    size = 123,
+                    labels = conversationLabels
+                )
+            }
             val expectedResult = ConversationsActionResult.Success
 
             // when
             val result = conversationsRepository.moveToFolder(conversationIds, testUserId, folderId)
 
             // then
-            coVerify(exactly = 2) {
-                messageDao.saveMessages(any())
-            }
-            coVerify(exactly = 2) {
-                conversationDao.updateLabels(conversationId1, any())
-            }
-            coVerify(exactly = 2) {
-                conversationDao.updateLabels(conversationId1, any())
+            coVerify(exactly = 1) {
+                labelConversationsRemoteWorker.enqueue(conversationIds, folderId, testUserId)
+                messageDao.updateMessagesInfo(
+                    match { messages ->
+                        messages.size == 2 &&
+                            messages.all { it.allLabelIDs.toSet() == setOf(allMailId, customLabelId, folderId) }
+                    }
+                )
+                conversationDao.updateConversations(
+                    match { conversations ->
+                        conversations.map { it.id } == conversationIds &&
+                            conversations.all { conversation ->
+                                val expectedLabelIds = listOf(allMailId, starredId, customLabelId, folderId)
+                                conversation.labels.map { it.id } == expectedLabelIds
+                            }
+                    }
+                )
             }
+            // The type of each custom label is looked up once for the whole selection
+            coVerify(exactly = 1) { labelsRepository.findLabel(LabelId(customLabelId)) }
             assertEquals(expectedResult, result)
         }
     }
@@ -1106,9 +1124,9 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             val label: Label = mockk {
                 every { type } returns LabelType.MESSAGE_LABEL
             }
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOf(message, message)
+            coEvery { messageDao.findMessagesInfoByConversationIds(any()) } returns listOf(message, message)
             coEvery { labelsRepository.findLabel(any()) } returns label
-            coEvery { conversationDao.findConversation(any(), any()) } returns null
+            coEvery { conversationDao.findConversations(any(), any()) } returns emptyList()
             val expectedResult = ConversationsActionResult.Error
 
             // when
@@ -1151,7 +1169,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             )
             coEvery { messageDao.findMessageByIdOnce(messageId1) } returns message
             coEvery { conversationDao.findConversation(testUserId.id, conversationId1) } returns conversation
-            coEvery { conversationDao.update(updatedConversation) } returns 123
+            coEvery { conversationDao.updateConversation(updatedConversation) } just Runs
 
         // when
         conversationsRepository.updateConvosBasedOnMessagesLocation(
@@ -1163,7 +1181,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
 
         // then
         coVerify {
-            conversationDao.update(updatedConversation)
+            conversationDao.updateConversation(updatedConversation)
         }
     }
 
@@ -1254,8 +1272,8 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             conversationDao.deleteConversation(testUserId.id, any())
         } just runs
         coEvery {
-            conversationDao.update(updatedConversation2)
-        } returns 123
+            conversationDao.updateConversation(updatedConversation2)
+        } just Runs
 
         // when
         conversationsRepository.updateConversationsWhenDeletingMessages(testUserId, messageIds)
@@ -1265,7 +1283,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             conversationDao.deleteConversation(testUserId.id, conversationId1)
         }
         coVerify(exactly = 1) {
-            conversationDao.update(updatedConversation2)
+            conversationDao.updateConversation(updatedConversation2)
         }
     }
 
@@ -1283,17 +1301,16 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 LabelContextDatabaseModel("5", 0, 2, 123, 123, 1),
                 LabelContextDatabaseModel("0", 0, 2, 123, 123, 0)
             )
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOfMessages
-            coEvery { conversationDao.findConversation(testUserId.id, any()) } returns
-                mockk {
-                    every { labels } returns conversationLabels
-                    every { numUnread } returns 0
-                    every { numMessages } returns 2
-                    every { size } returns 123
-                    every { numAttachments } returns 1
-                }
-
-            coEvery { conversationDao.updateLabels(any(), any()) } just runs
+            coEvery { messageDao.findMessagesInfoByConversationIds(conversationIds) } returns listOfMessages
+            coEvery { conversationDao.findConversations(testUserId.id, conversationIds) } returns conversationIds.map {
+                buildConversationDatabaseModel(
+                    id = it,
+                    numMessages = 2,
+                    numAttachments = 1,
+                    size = 123,
+                    labels = conversationLabels
+                )
+            }
             val expectedResult = ConversationsActionResult.Success
 
             // when
@@ -1305,9 +1322,17 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 // Needed because the addition of labels will change location to "LABEL" since 'labelId' it's the only label
                 location = MessageLocationType.LABEL.messageLocationTypeValue
             )
-            coVerify(exactly = 2) { messageDao.saveMessages(listOf(expected, expected)) }
-            coVerify { conversationDao.updateLabels(conversationId1, any()) }
-            coVerify { conversationDao.updateLabels(conversationId1, any()) }
+            coVerify(exactly = 1) {
+                messageDao.updateMessagesInfo(listOf(expected, expected))
+                conversationDao.updateConversations(
+                    match { conversations ->
+                        conversations.map { it.id } == conversationIds &&
+                            conversations.all { conversation ->
+                                conversation.labels.map { it.id } == listOf("5", "0", labelId)
+                            }
+                    }
+                )
+            }
             assertEquals(expectedResult, result)
         }
     }
@@ -1318,13 +1343,12 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             // given
             val conversationIds = listOf(conversationId, conversationId1)
             val labelId = "labelId"
-            val message = mockk<Message> {
-                every { time } returns 123
-                every { addLabels(any()) } just runs
-            }
+            val message = Message(
+                time = 123
+            )
             val listOfMessages = listOf(message, message)
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOfMessages
-            coEvery { conversationDao.findConversation(testUserId.id, any()) } returns null
+            coEvery { messageDao.findMessagesInfoByConversationIds(any()) } returns listOfMessages
+            coEvery { conversationDao.findConversations(testUserId.id, any()) } returns emptyList()
             val expectedResult = ConversationsActionResult.Error
 
             // when
@@ -1350,13 +1374,10 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 LabelContextDatabaseModel("0", 0, 2, 123, 123, 0),
                 LabelContextDatabaseModel("labelId", 0, 2, 123, 123, 0)
             )
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOfMessages
-            coEvery { conversationDao.findConversation(testUserId.id, any()) } returns
-                mockk {
-                    every { labels } returns conversationLabels
-                }
-
-            coEvery { conversationDao.updateLabels(any(), any()) } just runs
+            coEvery { messageDao.findMessagesInfoByConversationIds(conversationIds) } returns listOfMessages
+            coEvery { conversationDao.findConversations(testUserId.id, conversationIds) } returns conversationIds.map {
+                buildConversationDatabaseModel(id = it, labels = conversationLabels)
+            }
             val expectedResult = ConversationsActionResult.Success
 
             // when
@@ -1368,14 +1389,14 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
                 // Needed because the removal of labels will change location, defalting to INBOX if no labels
                 location = MessageLocationType.INBOX.messageLocationTypeValue
             )
-            coVerify(exactly = 2) {
-                messageDao.saveMessages(listOf(expected, expected))
-            }
-            coVerify {
-                conversationDao.updateLabels(conversationId, any())
-            }
-            coVerify {
-                conversationDao.updateLabels(conversationId1, any())
+            coVerify(exactly = 1) {
+                messageDao.updateMessagesInfo(listOf(expected, expected))
+                conversationDao.updateConversations(
+                    match { conversations ->
+                        conversations.map { it.id } == conversationIds &&
+                            conversations.all { conversation -> conversation.labels.map { it.id } == listOf("5", "0") }
+                    }
+                )
             }
             assertEquals(expectedResult, result)
         }
@@ -1387,12 +1408,12 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             // given
             val conversationIds = listOf(conversationId, conversationId1)
             val labelId = "labelId"
-            val message = mockk<Message> {
-                every { removeLabels(any()) } just runs
-            }
+            val message = Message(
+                allLabelIDs = listOf(labelId)
+            )
             val listOfMessages = listOf(message, message)
-            coEvery { messageDao.findAllConversationMessagesSortedByNewest(any()) } returns listOfMessages
-            coEvery { conversationDao.findConversation(testUserId.id, any()) } returns null
+            coEvery { messageDao.findMessagesInfoByConversationIds(any()) } returns listOfMessages
+            coEvery { conversationDao.findConversations(testUserId.id, any()) } returns emptyList()
             val expectedResult = ConversationsActionResult.Error
 
             // when
@@ -1435,7 +1456,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
             )
             coEvery { messageDao.findMessageByIdOnce(messageId1) } returns message
             coEvery { conversationDao.findConversation(testUserId.id, conversationId1) } returns conversation
-            coEvery { conversationDao.update(updatedConversation) } returns 123
+            coEvery { conversationDao.updateConversation(updatedConversation) } just Runs
 
             // when
             conversationsRepository.updateConversationBasedOnMessageLabels(
@@ -1447,7 +1468,7 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
 
             // then
             coVerify {
-                conversationDao.update(updatedConversation)
+                conversationDao.updateConversation(updatedConversation)
             }
         }
     }
@@ -1610,17 +1631,43 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
     @Test
     fun handlesExceptionDuringUnreadCountersRefreshAndContinuesObserving() = coroutinesTest {
         // given
+        val labelId = "inbox"
         val expectedMessage = "Invalid username!"
+        val counters = MutableStateFlow(listOf(buildUnreadCounterEntity(labelId, unreadCount = 3)))
+        every { unreadCounterDao.observeConversationsUnreadCounters(testUserId) } returns counters
         coEvery { api.fetchConversationsCounts(testUserId) } answers {
             throw IllegalArgumentException(expectedMessage)
         }
 
         // when
         conversationsRepository.getUnreadCounters(testUserId).test {
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 3))), awaitItem())
+            conversationsRepository.refreshUnreadCounters()
 
             // then
             val actual = awaitItem() as DataResult.Error.Remote
             assertEquals(expectedMessage, actual.message)
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 3))), awaitItem())
+            counters.value = listOf(buildUnreadCounterEntity(labelId, unreadCount = 4))
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 4))), awaitItem())
+        }
+    }
+
+    @Test
+    fun keepsObservingTheStoredUnreadCountersWhenTheirReconciliationFails() = coroutinesTest {
+        // given
+        val labelId = "inbox"
+        val counters = MutableStateFlow(emptyList<UnreadCounterEntity>())
+        every { unreadCounterDao.observeConversationsUnreadCounters(testUserId) } returns counters
+        coEvery { api.fetchConversationsCounts(testUserId) } throws IOException("No connection")
+
+        // when
+        conversationsRepository.getUnreadCounters(testUserId).test {
+
+            // then
+            assertEquals(DataResult.Success(ResponseSource.Local, emptyList<UnreadCounter>()), awaitItem())
+            counters.value = listOf(buildUnreadCounterEntity(labelId, unreadCount = 2))
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 2))), awaitItem())
         }
     }
 
@@ -1635,6 +1682,13 @@ class ConversationsRepositoryImplTest : ArchTest by ArchTest(), CoroutinesTest b
         }
     }
 
+    private fun buildUnreadCounterEntity(labelId: String, unreadCount: Int) = UnreadCounterEntity(
+        userId = testUserId,
+        type = UnreadCounterEntity.Type.CONVERSATIONS,
+        labelId = labelId,
+        unreadCount = unreadCount
+    )
+
     private fun setupUnreadCounterDaoToSimulateReplace() {
 
         val counters = MutableStateFlow(emptyList<UnreadCounterEntity>())
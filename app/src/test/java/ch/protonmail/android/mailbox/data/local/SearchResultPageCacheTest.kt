@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.data.local
+
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.usecase.GetElapsedRealTimeMillis
+import io.mockk.every
+import io.mockk.mockk
+import me.proton.core.domain.entity.UserId
+import java.util.concurrent.TimeUnit
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class SearchResultPageCacheTest {
+
+    private val testUserId = UserId("user")
+    private var now = 0L
+    private val getElapsedRealTimeMillis: GetElapsedRealTimeMillis = mockk {
+        every { this@mockk.invoke() } answers { now }
+    }
+    private val cache = SearchResultPageCache(getElapsedRealTimeMillis)
+
+    @Test
+    fun returnsTheCachedPage() {
+        // given
+        val messages = listOf(Message(messageId = "id"))
+        cache.put(testUserId, "invoice", 1, messages)
+
+        // when
+        val result = cache.get(testUserId, "invoice", 1)
+
+        // then
+        assertEquals(messages, result)
+        assertNull(cache.get(testUserId, "invoice", 2))
+        assertNull(cache.get(UserId("other"), "invoice", 1))
+    }
+
+    @Test
+    fun expiredPagesAreNotReturned() {
+        // given
+        cache.put(testUserId, "invoice", 0, listOf(Message(messageId = "id")))
+
+        // when
+        now += TimeUnit.MINUTES.toMillis(6)
+
+        // then
+        assertNull(cache.get(testUserId, "invoice", 0))
+    }
+
+    @Test
+    fun leastRecentlyUsedPagesAreDropped() {
+        // given
+        repeat(30) { page -> cache.put(testUserId, "invoice", page, emptyList()) }
+        cache.get(testUserId, "invoice", 0)
+
+        // when
+        cache.put(testUserId, "invoice", 30, emptyList())
+
+        // then
+        assertEquals(emptyList(), cache.get(testUserId, "invoice", 0))
+        assertNull(cache.get(testUserId, "invoice", 1))
+    }
+}
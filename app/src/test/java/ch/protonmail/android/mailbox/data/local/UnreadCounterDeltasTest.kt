@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.data.local
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class UnreadCounterDeltasTest {
+
+    @Test
+    fun markingReadDecrementsTheCountersOfAllItsLabels() {
+        // given
+        val deltas = UnreadCounterDeltas()
+
+        // when
+        deltas.onChange(wasUnread = true, listOf("0", "5"), isUnread = false, listOf("0", "5"))
+
+        // then
+        assertEquals(mapOf("0" to -1, "5" to -1), deltas.toMap())
+    }
+
+    @Test
+    fun movingAnUnreadItemMovesItsUnreadCountAndSkipsTheUnchangedLabels() {
+        // given
+        val deltas = UnreadCounterDeltas()
+
+        // when
+        deltas.onChange(wasUnread = true, listOf("0", "5"), isUnread = true, listOf("6", "5"))
+
+        // then
+        assertEquals(mapOf("0" to -1, "6" to 1), deltas.toMap())
+    }
+
+    @Test
+    fun changesOfReadItemsDoNotChangeTheCounters() {
+        // given
+        val deltas = UnreadCounterDeltas()
+
+        // when
+        deltas.onChange(wasUnread = false, listOf("0"), isUnread = false, listOf("6"))
+
+        // then
+        assertEquals(emptyMap(), deltas.toMap())
+    }
+
+    @Test
+    fun changesOfSeveralItemsAreSummed() {
+        // given
+        val deltas = UnreadCounterDeltas()
+
+        // when
+        deltas.onChange(wasUnread = false, listOf("0"), isUnread = true, listOf("0"))
+        deltas.onChange(wasUnread = false, listOf("0", "10"), isUnread = true, listOf("0", "10"))
+
+        // then
+        assertEquals(mapOf("0" to 2, "10" to 1), deltas.toMap())
+    }
+}
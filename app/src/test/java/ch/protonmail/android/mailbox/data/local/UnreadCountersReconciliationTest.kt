@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.data.local
+
+import app.cash.turbine.test
+import ch.protonmail.android.mailbox.data.local.model.UnreadCounterEntity
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.test.runTest
+import me.proton.core.domain.entity.UserId
+import me.proton.core.test.kotlin.CoroutinesTest
+import java.io.IOException
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class UnreadCountersReconciliationTest : CoroutinesTest by CoroutinesTest() {
+
+    private val testUserId = UserId("user")
+
+    @Test
+    fun countersAreEmittedWithoutReconcilingWhenTheyDidNotDrift() = runTest {
+        // given
+        val counters = MutableStateFlow(listOf(buildCounter(unreadCount = 3)))
+        var reconciliations = 0
+
+        // when
+        counters.reconcileWhenDrifted { reconciliations++ }.test {
+
+            // then
+            assertEquals(listOf(buildCounter(unreadCount = 3)), awaitItem())
+            assertEquals(0, reconciliations)
+        }
+    }
+
+    @Test
+    fun countersAreReconciledWhenNoneAreStored() = runTest {
+        // given
+        val counters = MutableStateFlow(emptyList<UnreadCounterEntity>())
+
+        // when
+        counters.reconcileWhenDrifted { counters.value = listOf(buildCounter(unreadCount = 3)) }.test {
+
+            // then
+            assertEquals(listOf(buildCounter(unreadCount = 3)), awaitItem())
+        }
+    }
+
+    @Test
+    fun countersAreReconciledWhenOneGoesBelowZero() = runTest {
+        // given
+        val counters = MutableStateFlow(listOf(buildCounter(unreadCount = 1)))
+        var reconciliations = 0
+
+        // when
+        counters.reconcileWhenDrifted {
+            reconciliations++
+            counters.value = listOf(buildCounter(unreadCount = 2))
+        }.test {
+            assertEquals(listOf(buildCounter(unreadCount = 1)), awaitItem())
+            counters.value = listOf(buildCounter(unreadCount = -1))
+
+            // then
+            assertEquals(listOf(buildCounter(unreadCount = 2)), awaitItem())
+            assertEquals(1, reconciliations)
+        }
+    }
+
+    @Test
+    fun driftThatCannotBeReconciledIsEmittedClampedOnlyOnce() = runTest {
+        // given
+        val counters = MutableStateFlow(listOf(buildCounter(unreadCount = -1)))
+        var reconciliations = 0
+
+        // when
+        counters.reconcileWhenDrifted {
+            reconciliations++
+            counters.value = listOf(buildCounter(unreadCount = -2))
+        }.test {
+
+            // then
+            assertEquals(listOf(buildCounter(unreadCount = 0)), awaitItem())
+            assertEquals(1, reconciliations)
+        }
+    }
+
+    @Test
+    fun storedCountersAreEmittedWhenTheReconciliationFailsAndRetriedOnTheNextChange() = runTest {
+        // given
+        val counters = MutableStateFlow(emptyList<UnreadCounterEntity>())
+        var reconciliations = 0
+
+        // when
+        counters.reconcileWhenDrifted {
+            reconciliations++
+            throw IOException("No connection")
+        }.test {
+
+            // then
+            assertEquals(emptyList<UnreadCounterEntity>(), awaitItem())
+            counters.value = listOf(buildCounter(unreadCount = -1))
+            assertEquals(listOf(buildCounter(unreadCount = 0)), awaitItem())
+            assertEquals(2, reconciliations)
+        }
+    }
+
+    private fun buildCounter(unreadCount: Int) = UnreadCounterEntity(
+        userId = testUserId,
+        type = UnreadCounterEntity.Type.MESSAGES,
+        labelId = "0",
+        unreadCount = unreadCount
+    )
+}
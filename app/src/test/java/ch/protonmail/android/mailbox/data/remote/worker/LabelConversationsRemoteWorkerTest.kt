@@ -113,7 +113,7 @@ class LabelConversationsRemoteWorkerTest {
     }
 
     @Test
-    fun shouldReturnFailureIfConversationIdsListIsNull() {
+    fun shouldGiveUpWithoutFailingTheChainIfConversationIdsListIsNull() {
         runBlockingTest {
             // given
             val labelId = "labelId"
@@ -128,7 +128,7 @@ class LabelConversationsRemoteWorkerTest {
                 workerParameters.inputData.getString(KEY_LABEL_WORKER_USER_ID)
             } returns userId
 
-            val expectedResult = ListenableWorker.Result.failure(
+            val expectedResult = ListenableWorker.Result.success(
                 workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Input data is not complete")
             )
 
@@ -169,7 +169,7 @@ class LabelConversationsRemoteWorkerTest {
     }
 
     @Test
-    fun shouldReturnFailureIfApiCallFailsAndRunAttemptsExceedTheLimit() {
+    fun shouldGiveUpWithoutFailingTheChainIfApiCallFailsAndRunAttemptsExceedTheLimit() {
         runBlockingTest {
             // given
             val conversationIdsArray = arrayOf("conversationId1", "conversationId2")
@@ -191,7 +191,7 @@ class LabelConversationsRemoteWorkerTest {
                 protonMailApiManager.labelConversations(any(), any())
             } throws IOException()
 
-            val expectedResult = ListenableWorker.Result.failure(
+            val expectedResult = ListenableWorker.Result.success(
                 workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Run attempts exceeded the limit")
             )
 
@@ -21,22 +21,28 @@ package ch.protonmail.android.mailbox.data.remote.worker
 
 import android.content.Context
 import androidx.work.ListenableWorker
+import androidx.work.OneTimeWorkRequest
 import androidx.work.Operation
+import androidx.work.WorkContinuation
 import androidx.work.WorkManager
 import androidx.work.WorkRequest
 import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import ch.protonmail.android.api.ProtonMailApiManager
 import ch.protonmail.android.core.Constants
+import ch.protonmail.android.mailbox.data.remote.model.ConversationIdsRequestBody
 import io.mockk.coEvery
+import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlinx.coroutines.test.runBlockingTest
 import me.proton.core.domain.entity.UserId
 import java.io.IOException
 import kotlin.test.BeforeTest
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertTrue
 
 /**
  * Tests the behaviour of [MarkConversationsReadRemoteWorker].
@@ -79,6 +85,33 @@ class MarkConversationsReadRemoteWorkerTest {
         assertEquals(operationMock, operationResult)
     }
 
+    @Test
+    fun shouldEnqueueChainedRequestsWhenThereAreMoreConversationsThanAllowedInOneRequest() {
+        // given
+        val conversationIds = (1..250).map { "conversationId$it" }
+        val userId = UserId("userId")
+        val operationMock = mockk<Operation>()
+        val continuation = mockk<WorkContinuation> {
+            every { then(any<OneTimeWorkRequest>()) } returns this
+            every { enqueue() } returns operationMock
+        }
+        every { workManager.beginWith(any<OneTimeWorkRequest>()) } returns continuation
+
+        // when
+        val operationResult = markConversationsReadRemoteWorkerEnqueuer.enqueue(conversationIds, userId)
+
+        // then
+        val requests = mutableListOf<OneTimeWorkRequest>()
+        verify(exactly = 1) { workManager.beginWith(capture(requests)) }
+        verify(exactly = 2) { continuation.then(capture(requests)) }
+        val requestedIds = requests.map { request ->
+            request.workSpec.input.getStringArray(KEY_MARK_READ_WORKER_CONVERSATION_IDS)!!.toList()
+        }
+        assertEquals(listOf(100, 100, 50), requestedIds.map { it.size })
+        assertEquals(conversationIds, requestedIds.flatten())
+        assertEquals(operationMock, operationResult)
+    }
+
     @Test
     fun shouldReturnSuccessIfApiCallIsSuccessful() {
         runBlockingTest {
@@ -117,12 +150,12 @@ class MarkConversationsReadRemoteWorkerTest {
     }
 
     @Test
-    fun shouldReturnFailureIfConversationIdsListIsNull() {
+    fun shouldGiveUpWithoutFailingTheChainIfConversationIdsListIsNull() {
         runBlockingTest {
             // given
             every { workerParameters.inputData.getStringArray(KEY_MARK_READ_WORKER_CONVERSATION_IDS) } returns null
 
-            val expectedResult = ListenableWorker.Result.failure(
+            val expectedResult = ListenableWorker.Result.success(
                 workDataOf(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION to "Conversation ids list is null")
             )
 
@@ -156,7 +189,7 @@ class MarkConversationsReadRemoteWorkerTest {
     }
 
     @Test
-    fun shouldReturnFailureIfApiCallFailsAndRunAttemptsExceedTheLimit() {
+    fun shouldGiveUpWithoutFailingTheChainIfApiCallFailsAndRunAttemptsExceedTheLimit() {
         runBlockingTest {
             // given
             val conversationIdsArray = arrayOf("conversationId1", "conversationId2")
@@ -169,7 +202,7 @@ class MarkConversationsReadRemoteWorkerTest {
             } returns 6
             coEvery { protonMailApiManager.markConversationsRead(any(), UserId(userId)) } throws IOException()
 
-            val expectedResult = ListenableWorker.Result.failure(
+            val expectedResult = ListenableWorker.Result.success(
                 workDataOf(KEY_MARK_READ_WORKER_ERROR_DESCRIPTION to "Run attempts exceeded the limit")
             )
 
@@ -180,4 +213,50 @@ class MarkConversationsReadRemoteWorkerTest {
             assertEquals(expectedResult, result)
         }
     }
+
+    @Test
+    fun shouldRunTheNextChunksOfTheChainWhenOneChunkRunsOutOfAttempts() {
+        runBlockingTest {
+            // given
+            val userId = "userId"
+            val failingChunk = arrayOf("conversationId1", "conversationId2")
+            val nextChunk = arrayOf("conversationId3", "conversationId4")
+            val chain = listOf(failingChunk, nextChunk).map { conversationIds ->
+                val parameters = mockk<WorkerParameters>(relaxed = true) {
+                    every { inputData.getStringArray(KEY_MARK_READ_WORKER_CONVERSATION_IDS) } returns conversationIds
+                    every { inputData.getString(KEY_MARK_READ_WORKER_USER_ID) } returns userId
+                    every { runAttemptCount } returns 6
+                }
+                MarkConversationsReadRemoteWorker(context, parameters, protonMailApiManager)
+            }
+            coEvery {
+                protonMailApiManager.markConversationsRead(
+                    ConversationIdsRequestBody(ids = failingChunk.asList()), UserId(userId)
+                )
+            } throws IOException()
+            coEvery {
+                protonMailApiManager.markConversationsRead(
+                    ConversationIdsRequestBody(ids = nextChunk.asList()), UserId(userId)
+                )
+            } returns mockk(relaxed = true)
+
+            // when
+            // like WorkManager, a chain stops at the first request that doesn't succeed
+            val results = mutableListOf<ListenableWorker.Result>()
+            for (worker in chain) {
+                val result = worker.doWork()
+                results += result
+                if (result !is ListenableWorker.Result.Success) break
+            }
+
+            // then
+            assertEquals(chain.size, results.size)
+            assertTrue(results.all { it is ListenableWorker.Result.Success })
+            coVerify(exactly = 1) {
+                protonMailApiManager.markConversationsRead(
+                    ConversationIdsRequestBody(ids = nextChunk.asList()), UserId(userId)
+                )
+            }
+        }
+    }
 }
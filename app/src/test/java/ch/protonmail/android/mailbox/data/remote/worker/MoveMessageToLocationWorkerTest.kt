@@ -105,7 +105,7 @@ class MoveMessageToLocationWorkerTest {
     }
 
     @Test
-    fun shouldReturnFailureIfMessagesIdsListIsNull() {
+    fun shouldGiveUpWithoutFailingTheChainIfMessagesIdsListIsNull() {
         runBlockingTest {
             // given
             val newLocation = Constants.MessageLocationType.INBOX.messageLocationTypeValue
@@ -124,7 +124,7 @@ class MoveMessageToLocationWorkerTest {
                 )
             } returns mockk()
 
-            val expectedResult = ListenableWorker.Result.failure(
+            val expectedResult = ListenableWorker.Result.success(
                 workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Input data is not complete")
             )
 
@@ -168,7 +168,7 @@ class MoveMessageToLocationWorkerTest {
     }
 
     @Test
-    fun shouldReturnFailureIfApiCallFailsAndRunAttemptsExceedTheLimit() {
+    fun shouldGiveUpWithoutFailingTheChainIfApiCallFailsAndRunAttemptsExceedTheLimit() {
         runBlockingTest {
             // given
             val messageIds = arrayOf("id1", "id2")
@@ -191,7 +191,7 @@ class MoveMessageToLocationWorkerTest {
                 )
             } throws IOException()
 
-            val expectedResult = ListenableWorker.Result.failure(
+            val expectedResult = ListenableWorker.Result.success(
                 workDataOf(KEY_LABEL_WORKER_ERROR_DESCRIPTION to "Run attempts exceeded the limit")
             )
 
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.domain
+
+import ch.protonmail.android.event.data.remote.model.ConversationsEventResponse
+import ch.protonmail.android.event.domain.model.ActionType
+import ch.protonmail.android.mailbox.data.remote.model.ConversationApiModel
+import io.mockk.coVerify
+import io.mockk.mockk
+import kotlinx.coroutines.test.runTest
+import me.proton.core.domain.entity.UserId
+import me.proton.core.test.kotlin.CoroutinesTest
+import kotlin.test.Test
+
+class HandleChangeToConversationsTest : CoroutinesTest by CoroutinesTest() {
+
+    private val conversationsRepository = mockk<ConversationsRepository>(relaxUnitFun = true)
+
+    private val handleChangeToConversations = HandleChangeToConversations(conversationsRepository, dispatchers)
+
+    private val userId = UserId("userId")
+
+    @Test
+    fun allTheChangesAreAppliedWithASingleCall() = runTest {
+        // given
+        val created = mockk<ConversationApiModel>()
+        val updated = mockk<ConversationApiModel>()
+        val changes = listOf(
+            ConversationsEventResponse("created", ActionType.CREATE.eventType, created),
+            ConversationsEventResponse("updated", ActionType.UPDATE_FLAGS.eventType, updated),
+            ConversationsEventResponse("deleted", ActionType.DELETE.eventType, null)
+        )
+
+        // when
+        handleChangeToConversations(userId, changes)
+
+        // then
+        coVerify(exactly = 1) {
+            conversationsRepository.saveAndDeleteConversations(userId, listOf(created, updated), listOf("deleted"))
+        }
+    }
+
+    @Test
+    fun onlyTheLastChangeOfAConversationIsApplied() = runTest {
+        // given
+        val conversation = mockk<ConversationApiModel>()
+        val changes = listOf(
+            ConversationsEventResponse("conversationId", ActionType.UPDATE.eventType, conversation),
+            ConversationsEventResponse("conversationId", ActionType.DELETE.eventType, null)
+        )
+
+        // when
+        handleChangeToConversations(userId, changes)
+
+        // then
+        coVerify { conversationsRepository.saveAndDeleteConversations(userId, emptyList(), listOf("conversationId")) }
+    }
+
+    @Test
+    fun nothingIsWrittenWhenThereAreNoChangesToApply() = runTest {
+        // given
+        val changes = listOf(ConversationsEventResponse("conversationId", ActionType.UNKNOWN.eventType, null))
+
+        // when
+        handleChangeToConversations(userId, changes)
+
+        // then
+        coVerify(exactly = 0) { conversationsRepository.saveAndDeleteConversations(any(), any(), any()) }
+    }
+}
@@ -71,6 +71,7 @@ class ObserveAllUnreadCountersTest : CoroutinesTest by CoroutinesTest() {
 
             // then
             assertEquals(expected, awaitItem())
+            awaitComplete()
         }
     }
 
@@ -89,6 +90,7 @@ class ObserveAllUnreadCountersTest : CoroutinesTest by CoroutinesTest() {
             // An Item is emitted from conversationRepository which is mocked to return a success
             awaitItem()
             assertEquals(expectedError, awaitItem())
+            awaitComplete()
         }
     }
 
@@ -113,6 +115,7 @@ class ObserveAllUnreadCountersTest : CoroutinesTest by CoroutinesTest() {
 
             // then
             assertEquals(expected, awaitItem())
+            awaitComplete()
         }
     }
 
@@ -131,6 +134,7 @@ class ObserveAllUnreadCountersTest : CoroutinesTest by CoroutinesTest() {
             // An Item is emitted from messageRepository which is mocked to return a success
             awaitItem()
             assertEquals(expectedError, awaitItem())
+            awaitComplete()
         }
     }
 
@@ -161,6 +165,7 @@ class ObserveAllUnreadCountersTest : CoroutinesTest by CoroutinesTest() {
 
             // then
             assertEquals(expected, awaitItem())
+            awaitComplete()
         }
     }
 }
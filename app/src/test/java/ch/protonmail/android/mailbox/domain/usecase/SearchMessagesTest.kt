@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.domain.usecase
+
+import app.cash.turbine.test
+import ch.protonmail.android.api.ProtonMailApiManager
+import ch.protonmail.android.api.models.DatabaseProvider
+import ch.protonmail.android.core.QueueNetworkUtil
+import ch.protonmail.android.data.local.MessageDao
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.mailbox.data.local.SearchResultPageCache
+import ch.protonmail.android.mailbox.domain.model.SearchMessagesResult
+import io.mockk.coEvery
+import io.mockk.coVerify
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.test.runBlockingTest
+import me.proton.core.domain.entity.UserId
+import me.proton.core.test.kotlin.CoroutinesTest
+import java.io.IOException
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+
+class SearchMessagesTest : CoroutinesTest by CoroutinesTest() {
+
+    private val testUserId = UserId("user")
+    private val query = "invoice"
+
+    private val messageDao: MessageDao = mockk {
+        every { searchMessages(query) } returns flowOf(emptyList())
+    }
+    private val databaseProvider: DatabaseProvider = mockk {
+        every { provideMessageDao(testUserId) } returns messageDao
+    }
+    private val api: ProtonMailApiManager = mockk {
+        coEvery { getMessages(any()).messages } returns emptyList()
+    }
+    private val queueNetworkUtil: QueueNetworkUtil = mockk {
+        every { isConnected() } returns true
+    }
+    private val searchResultPageCache: SearchResultPageCache = mockk(relaxUnitFun = true) {
+        every { get(any(), any(), any()) } returns null
+    }
+    private val searchMessages = SearchMessages(
+        databaseProvider = databaseProvider,
+        api = api,
+        queueNetworkUtil = queueNetworkUtil,
+        searchResultPageCache = searchResultPageCache,
+        dispatchers = dispatchers
+    )
+
+    @Test
+    fun emitsLocalResultsBeforeMergedRemoteResults() = runBlockingTest {
+        // given
+        val localMessage = buildMessage("local", time = 2)
+        val remoteMessage = buildMessage("remote", time = 1)
+        every { messageDao.searchMessages(query) } returns flowOf(listOf(localMessage))
+        coEvery { api.getMessages(any()).messages } returns listOf(remoteMessage)
+
+        // when
+        searchMessages(testUserId, query, page = 0).test {
+
+            // then
+            assertEquals(
+                SearchMessagesResult(listOf(localMessage), isLoadingRemote = true, hasMorePages = false),
+                awaitItem()
+            )
+            assertEquals(
+                SearchMessagesResult(
+                    listOf(localMessage, remoteMessage),
+                    isLoadingRemote = false,
+                    hasMorePages = false
+                ),
+                awaitItem()
+            )
+            awaitComplete()
+        }
+        verify { searchResultPageCache.put(testUserId, query, 0, listOf(remoteMessage)) }
+    }
+
+    @Test
+    fun mergedResultsAreDeduplicatedByIdAndSortedByTime() = runBlockingTest {
+        // given
+        val localMessage = buildMessage("duplicated", time = 1)
+        val remoteDuplicate = buildMessage("duplicated", time = 1)
+        val remoteMessage = buildMessage("newer", time = 5)
+
+        // when
+        val result = SearchMessages.mergeById(listOf(localMessage), listOf(remoteDuplicate, remoteMessage))
+
+        // then
+        assertEquals(listOf(remoteMessage, localMessage), result)
+        assertSame(localMessage, result[1])
+    }
+
+    @Test
+    fun onlyLocalResultsAreEmittedWhenOffline() = runBlockingTest {
+        // given
+        val localMessage = buildMessage("local", time = 1)
+        every { messageDao.searchMessages(query) } returns flowOf(listOf(localMessage))
+        every { queueNetworkUtil.isConnected() } returns false
+
+        // when
+        searchMessages(testUserId, query, page = 0).test {
+
+            // then
+            assertEquals(
+                SearchMessagesResult(listOf(localMessage), isLoadingRemote = false, hasMorePages = false),
+                awaitItem()
+            )
+            awaitComplete()
+        }
+        coVerify(exactly = 0) { api.getMessages(any()) }
+    }
+
+    @Test
+    fun cachedRemotePageIsEmittedWithoutHittingTheNetwork() = runBlockingTest {
+        // given
+        val cachedMessage = buildMessage("cached", time = 1)
+        every { searchResultPageCache.get(testUserId, query, 1) } returns listOf(cachedMessage)
+
+        // when
+        searchMessages(testUserId, query, page = 1).test {
+
+            // then
+            assertEquals(
+                SearchMessagesResult(listOf(cachedMessage), isLoadingRemote = false, hasMorePages = false),
+                awaitItem()
+            )
+            awaitComplete()
+        }
+        coVerify(exactly = 0) { api.getMessages(any()) }
+        verify(exactly = 0) { messageDao.searchMessages(any()) }
+    }
+
+    @Test
+    fun remoteErrorKeepsLocalResults() = runBlockingTest {
+        // given
+        val localMessage = buildMessage("local", time = 1)
+        every { messageDao.searchMessages(query) } returns flowOf(listOf(localMessage))
+        coEvery { api.getMessages(any()) } throws IOException("No connection")
+
+        // when
+        searchMessages(testUserId, query, page = 0).test {
+
+            // then
+            assertEquals(true, awaitItem().isLoadingRemote)
+            assertEquals(
+                SearchMessagesResult(listOf(localMessage), isLoadingRemote = false, hasMorePages = false),
+                awaitItem()
+            )
+            awaitComplete()
+        }
+        verify(exactly = 0) { searchResultPageCache.put(any(), any(), any(), any()) }
+    }
+
+    private fun buildMessage(id: String, time: Long) = Message(messageId = id, time = time)
+}
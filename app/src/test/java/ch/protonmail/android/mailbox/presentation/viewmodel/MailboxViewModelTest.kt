@@ -37,6 +37,7 @@ import ch.protonmail.android.core.Constants.MessageLocationType.LABEL
 import ch.protonmail.android.core.Constants.MessageLocationType.LABEL_FOLDER
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.details.data.remote.worker.PrefetchMessageBodiesWorker
 import ch.protonmail.android.di.JobEntryPoint
 import ch.protonmail.android.domain.loadMoreFlowOf
 import ch.protonmail.android.domain.withLoadMore
@@ -182,6 +183,7 @@ class MailboxViewModelTest : ArchTest by ArchTest(),
         coEvery { this@mockk.invoke() } just runs
     }
     private val shouldStartRateAppFlow: ShouldStartRateAppFlow = mockk()
+    private val prefetchMessageBodies: PrefetchMessageBodiesWorker.Enqueuer = mockk(relaxed = true)
 
     private lateinit var viewModel: MailboxViewModel
 
@@ -218,9 +220,9 @@ class MailboxViewModelTest : ArchTest by ArchTest(),
             )
         } returns true // ALL_MAIL type to use with conversations
         every { verifyConnection.invoke() } returns flowOf(Constants.ConnectionState.CONNECTED)
-        coEvery { observeMessagesByLocation(any()) } returns messagesResponseChannel.receiveAsFlow()
+        coEvery { observeMessagesByLocation(any(), any()) } returns messagesResponseChannel.receiveAsFlow()
             .withLoadMore(loadMoreFlowOf<GetMessagesResult>()) {}
-        every { observeConversationsByLocation(any()) } returns conversationsResponseFlow.receiveAsFlow()
+        every { observeConversationsByLocation(any(), any()) } returns conversationsResponseFlow.receiveAsFlow()
             .withLoadMore(loadMoreFlowOf<GetConversationsResult>()) {}
 
         val jobEntryPoint = mockk<JobEntryPoint>()
@@ -277,7 +279,8 @@ class MailboxViewModelTest : ArchTest by ArchTest(),
             mailboxItemUiModelMapper = mailboxItemUiModelMapper,
             fetchEventsAndReschedule = fetchEventsAndReschedule,
             clearNotificationsForUser = clearNotificationsForUser,
-            shouldStartRateAppFlow = shouldStartRateAppFlow
+            shouldStartRateAppFlow = shouldStartRateAppFlow,
+            prefetchMessageBodies = prefetchMessageBodies
         )
     }
 
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.mailbox.presentation.viewmodel
+
+import ch.protonmail.android.core.UserManager
+import ch.protonmail.android.data.local.model.Message
+import ch.protonmail.android.mailbox.data.local.SearchResultPageCache
+import ch.protonmail.android.mailbox.domain.model.SearchMessagesResult
+import ch.protonmail.android.mailbox.domain.usecase.SearchMessages
+import ch.protonmail.android.mailbox.presentation.model.SearchState
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.test.UnconfinedTestDispatcher
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.runCurrent
+import kotlinx.coroutines.test.runTest
+import me.proton.core.domain.entity.UserId
+import me.proton.core.test.kotlin.CoroutinesTest
+import me.proton.core.test.kotlin.TestDispatcherProvider
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class SearchViewModelTest :
+    CoroutinesTest by CoroutinesTest({ TestDispatcherProvider(UnconfinedTestDispatcher()) }) {
+
+    private val testUserId = UserId("user")
+
+    private val searchMessages: SearchMessages = mockk()
+    private val userManager: UserManager = mockk {
+        every { currentUserId } returns testUserId
+    }
+    private val searchResultPageCache: SearchResultPageCache = mockk(relaxUnitFun = true)
+    private val viewModel = SearchViewModel(searchMessages, userManager, searchResultPageCache)
+
+    @Test
+    fun onlyTheLastQueryTypedWithinTheDebounceIsSearched() = runTest {
+        // given
+        val message = buildMessage("id", time = 1)
+        every { searchMessages(testUserId, "inv", 0) } returns flowOf(result(listOf(message)))
+        every { searchMessages(testUserId, "invoice", 0) } returns flowOf(result(listOf(message)))
+
+        // when
+        viewModel.setQuery("i")
+        advanceTimeBy(100)
+        viewModel.setQuery("inv")
+        advanceTimeBy(100)
+        viewModel.setQuery("invoice")
+        advanceTimeBy(400)
+        runCurrent()
+
+        // then
+        verify(exactly = 0) { searchMessages(testUserId, "i", any()) }
+        verify(exactly = 0) { searchMessages(testUserId, "inv", any()) }
+        verify(exactly = 1) { searchMessages(testUserId, "invoice", 0) }
+        assertEquals(
+            SearchState.Results(listOf(message), isLoading = false, hasMorePages = false),
+            viewModel.searchState.value
+        )
+    }
+
+    @Test
+    fun loadMoreMergesTheNextPageIntoTheResults() = runTest {
+        // given
+        val first = buildMessage("first", time = 2)
+        val second = buildMessage("second", time = 1)
+        every { searchMessages(testUserId, "invoice", 0) } returns flowOf(result(listOf(first), hasMorePages = true))
+        every { searchMessages(testUserId, "invoice", 1) } returns flowOf(result(listOf(first, second)))
+        viewModel.setQuery("invoice")
+        advanceTimeBy(400)
+        runCurrent()
+
+        // when
+        viewModel.loadMore()
+        runCurrent()
+
+        // then
+        assertEquals(
+            SearchState.Results(listOf(first, second), isLoading = false, hasMorePages = false),
+            viewModel.searchState.value
+        )
+    }
+
+    @Test
+    fun loadMoreIsIgnoredWhileTheNextPageIsLoading() = runTest {
+        // given
+        val first = buildMessage("first", time = 2)
+        every { searchMessages(testUserId, "invoice", 0) } returns flowOf(result(listOf(first), hasMorePages = true))
+        every { searchMessages(testUserId, "invoice", 1) } returns MutableSharedFlow()
+        viewModel.setQuery("invoice")
+        advanceTimeBy(400)
+        runCurrent()
+
+        // when
+        viewModel.loadMore()
+        viewModel.loadMore()
+        runCurrent()
+        viewModel.loadMore()
+        runCurrent()
+
+        // then
+        verify(exactly = 1) { searchMessages(testUserId, "invoice", 1) }
+        verify(exactly = 0) { searchMessages(testUserId, "invoice", 2) }
+        assertEquals(
+            SearchState.Results(listOf(first), isLoading = true, hasMorePages = true),
+            viewModel.searchState.value
+        )
+    }
+
+    @Test
+    fun refreshSearchesTheCurrentQueryAgain() = runTest {
+        // given
+        val message = buildMessage("id", time = 1)
+        val updatedMessage = message.copy(Unread = true)
+        every { searchMessages(testUserId, "invoice", 0) } returnsMany listOf(
+            flowOf(result(listOf(message))),
+            flowOf(result(listOf(updatedMessage)))
+        )
+        viewModel.setQuery("invoice")
+        advanceTimeBy(400)
+        runCurrent()
+
+        // when
+        viewModel.refresh()
+        runCurrent()
+
+        // then
+        verify(exactly = 2) { searchMessages(testUserId, "invoice", 0) }
+        assertEquals(
+            SearchState.Results(listOf(updatedMessage), isLoading = false, hasMorePages = false),
+            viewModel.searchState.value
+        )
+    }
+
+    @Test
+    fun refreshDoesNothingWithoutAQuery() = runTest {
+        // when
+        viewModel.refresh()
+        runCurrent()
+
+        // then
+        verify(exactly = 0) { searchMessages(any(), any(), any()) }
+        assertEquals(SearchState.Idle, viewModel.searchState.value)
+    }
+
+    @Test
+    fun clearingTheQueryResetsTheState() = runTest {
+        // given
+        every { searchMessages(testUserId, "invoice", 0) } returns flowOf(result(emptyList()))
+        viewModel.setQuery("invoice")
+        advanceTimeBy(400)
+        runCurrent()
+
+        // when
+        viewModel.setQuery("")
+        runCurrent()
+
+        // then
+        assertEquals(SearchState.Idle, viewModel.searchState.value)
+    }
+
+    private fun result(messages: List<Message>, hasMorePages: Boolean = false) =
+        SearchMessagesResult(messages, isLoadingRemote = false, hasMorePages = hasMorePages)
+
+    private fun buildMessage(id: String, time: Long) = Message(messageId = id, time = time)
+}
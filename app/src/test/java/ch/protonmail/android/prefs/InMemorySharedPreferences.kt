@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.prefs
+
+import android.content.SharedPreferences
+
+/**
+ * Minimal [SharedPreferences] keeping its values in memory and notifying its listeners on commit
+ */
+class InMemorySharedPreferences : SharedPreferences {
+
+    val values = mutableMapOf<String, Any?>()
+    private val listeners = mutableSetOf<SharedPreferences.OnSharedPreferenceChangeListener>()
+
+    override fun getAll(): Map<String, *> = values.toMap()
+    override fun getString(key: String, defValue: String?) = values[key] as String? ?: defValue
+    override fun getStringSet(key: String, defValues: Set<String>?) = throw UnsupportedOperationException()
+    override fun getInt(key: String, defValue: Int) = values[key] as Int? ?: defValue
+    override fun getLong(key: String, defValue: Long) = values[key] as Long? ?: defValue
+    override fun getFloat(key: String, defValue: Float) = values[key] as Float? ?: defValue
+    override fun getBoolean(key: String, defValue: Boolean) = values[key] as Boolean? ?: defValue
+    override fun contains(key: String) = values.containsKey(key)
+    override fun edit(): SharedPreferences.Editor = Editor()
+
+    override fun registerOnSharedPreferenceChangeListener(
+        listener: SharedPreferences.OnSharedPreferenceChangeListener
+    ) {
+        listeners += listener
+    }
+
+    @Suppress("FunctionMaxLength") // Platform name
+    override fun unregisterOnSharedPreferenceChangeListener(
+        listener: SharedPreferences.OnSharedPreferenceChangeListener
+    ) {
+        listeners -= listener
+    }
+
+    private inner class Editor : SharedPreferences.Editor {
+
+        private val changes = mutableMapOf<String, Any?>()
+        private val removals = mutableSetOf<String>()
+        private var clear = false
+
+        override fun putString(key: String, value: String?) = apply { changes[key] = value }
+        override fun putStringSet(key: String, values: Set<String>?) = throw UnsupportedOperationException()
+        override fun putInt(key: String, value: Int) = apply { changes[key] = value }
+        override fun putLong(key: String, value: Long) = apply { changes[key] = value }
+        override fun putFloat(key: String, value: Float) = apply { changes[key] = value }
+        override fun putBoolean(key: String, value: Boolean) = apply { changes[key] = value }
+        override fun remove(key: String) = apply { removals += key }
+        override fun clear() = apply { clear = true }
+
+        override fun commit(): Boolean {
+            if (clear) values.clear()
+            values -= removals
+            values += changes
+            (removals + changes.keys).forEach { key ->
+                listeners.forEach { it.onSharedPreferenceChanged(this@InMemorySharedPreferences, key) }
+            }
+            return true
+        }
+
+        override fun apply() {
+            commit()
+        }
+    }
+}
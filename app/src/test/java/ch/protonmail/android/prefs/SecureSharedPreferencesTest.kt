@@ -28,6 +28,7 @@ import io.mockk.every
 import io.mockk.mockk
 import io.mockk.mockkStatic
 import io.mockk.unmockkStatic
+import io.mockk.verify
 import kotlinx.coroutines.test.runTest
 import me.proton.core.domain.entity.UserId
 import me.proton.core.test.kotlin.CoroutinesTest
@@ -39,11 +40,106 @@ import kotlin.test.AfterTest
 import kotlin.test.BeforeTest
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
 import kotlin.test.assertTrue
 
 @RunWith(Enclosed::class)
 class SecureSharedPreferencesTest {
 
+    class CachingTest {
+
+        private val delegate = InMemorySharedPreferences()
+        private val sekrit = "sekrit".toCharArray()
+        private lateinit var preferences: SecureSharedPreferences
+
+        @BeforeTest
+        fun setup() {
+            mockkStatic(Base64::class)
+            every { Base64.encode(any(), any()) } answers {
+                java.util.Base64.getEncoder().encode(firstArg<ByteArray>())
+            }
+            every { Base64.decode(any<String>(), any()) } answers {
+                java.util.Base64.getDecoder().decode(firstArg<String>())
+            }
+            preferences = SecureSharedPreferences(delegate, sekrit)
+        }
+
+        @AfterTest
+        fun teardown() {
+            unmockkStatic(Base64::class)
+        }
+
+        @Test
+        fun `values of a batch are stored encrypted and read back`() {
+            // when
+            preferences.edit()
+                .putString("string", "value")
+                .putInt("int", 5)
+                .putBoolean("boolean", true)
+                .commit()
+
+            // then
+            assertEquals("value", preferences.getString("string", null))
+            assertEquals(5, preferences.getInt("int", 0))
+            assertEquals(true, preferences.getBoolean("boolean", false))
+            assertFalse(delegate.values.containsKey("string"))
+            assertFalse(delegate.values.containsValue("value"))
+        }
+
+        @Test
+        fun `changes are not visible before being committed`() {
+            // when
+            val editor = preferences.edit().putString("key", "value")
+
+            // then
+            assertNull(preferences.getString("key", null))
+            editor.apply()
+            assertEquals("value", preferences.getString("key", null))
+        }
+
+        @Test
+        fun `a removal after a put in the same batch wins`() {
+            // given
+            preferences.edit().putString("key", "old").commit()
+
+            // when
+            preferences.edit().putString("key", "new").remove("key").commit()
+
+            // then
+            assertFalse(preferences.contains("key"))
+        }
+
+        @Test
+        fun `decrypted values are read from the cache until they change`() {
+            // given
+            preferences.edit().putString("key", "value").commit()
+
+            // when
+            repeat(3) { preferences.getString("key", null) }
+            preferences.edit().putString("key", "new value").commit()
+            val result = preferences.getString("key", null)
+
+            // then
+            assertEquals("new value", result)
+            verify(exactly = 2) { Base64.decode(any<String>(), any()) }
+        }
+
+        @Test
+        fun `changes made through another instance are read back`() {
+            // given
+            val otherPreferences = SecureSharedPreferences(delegate, sekrit)
+            preferences.edit().putString("key", "value").commit()
+            preferences.getString("key", null)
+
+            // when
+            otherPreferences.edit().putString("key", "new value").commit()
+
+            // then
+            assertEquals("new value", preferences.getString("key", null))
+        }
+    }
+
     @Suppress("DEPRECATION")
     class UsernameToIdMigrationTest : CoroutinesTest by CoroutinesTest() {
 
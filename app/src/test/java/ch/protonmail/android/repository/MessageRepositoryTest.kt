@@ -29,11 +29,11 @@ import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.NetworkConnectivityManager
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.data.local.ContactDao
-import ch.protonmail.android.data.local.CounterDao
 import ch.protonmail.android.data.local.MessageDao
 import ch.protonmail.android.data.local.MessagePreferenceDao
 import ch.protonmail.android.data.local.model.Message
 import ch.protonmail.android.data.local.model.MessagePreferenceEntity
+import ch.protonmail.android.details.data.local.PrefetchedMessageBodyCache
 import ch.protonmail.android.domain.entity.user.User
 import ch.protonmail.android.labels.domain.LabelRepository
 import ch.protonmail.android.labels.domain.model.Label
@@ -61,6 +61,7 @@ import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.slot
 import io.mockk.spyk
+import io.mockk.verify
 import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.channels.BufferOverflow
 import kotlinx.coroutines.flow.MutableSharedFlow
@@ -68,6 +69,7 @@ import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.take
 import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.test.TestScope
 import me.proton.core.domain.arch.DataResult
 import me.proton.core.domain.arch.ResponseSource
 import me.proton.core.domain.entity.UserId
@@ -80,6 +82,7 @@ import java.io.IOException
 import kotlin.random.Random.Default.nextBytes
 import kotlin.test.assertEquals
 import kotlin.test.assertNull
+import kotlin.test.assertTrue
 import kotlin.time.Duration.Companion.seconds
 
 class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
@@ -97,17 +100,12 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
         every { findAllContactsEmails() } returns flowOf(emptyList())
     }
 
-    private val counterDao: CounterDao = mockk {
-        coEvery { insertUnreadLocation(any()) } just runs
-    }
-
     private val messagePreferenceDao: MessagePreferenceDao = mockk {
         coEvery { saveMessagePreference(any()) } returns 123
     }
 
     private val databaseProvider: DatabaseProvider = mockk {
         every { provideContactDao(any()) } returns contactDao
-        every { provideCounterDao(any()) } returns counterDao
         every { provideMessageDao(any()) } returns messageDao
         every { provideMessagePreferenceDao(any()) } returns messagePreferenceDao
         every { provideUnreadCounterDao(any()) } returns unreadCounterDao
@@ -141,6 +139,8 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
         coEvery { enqueue(any(), any()) } returns mockk()
     }
 
+    private val prefetchedMessageBodyCache: PrefetchedMessageBodyCache = mockk(relaxUnitFun = true)
+
     private val testUserName = "userName1"
     private val testUserId = UserId(testUserName)
     private val messageId = "messageId"
@@ -179,7 +179,9 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
             connectivityManager = networkConnectivityManager,
             labelRepository = labelRepository,
             moveMessageToLocationWorker = postToLocationWorker,
-            emptyFolderRemoteWorker = emptyFolderRemoteWorker
+            emptyFolderRemoteWorker = emptyFolderRemoteWorker,
+            prefetchedMessageBodyCache = prefetchedMessageBodyCache,
+            externalScope = TestScope(dispatchers.Io)
         )
     }
 
@@ -755,17 +757,43 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
     @Test
     fun handlesExceptionDuringUnreadCountersRefreshAndContinuesObserving() = coroutinesTest {
         // given
+        val labelId = "inbox"
         val expectedMessage = "Invalid username!"
+        val counters = MutableStateFlow(listOf(buildUnreadCounterEntity(labelId, unreadCount = 3)))
+        every { unreadCounterDao.observeMessagesUnreadCounters(testUserId) } returns counters
         coEvery { protonMailApiManager.fetchMessagesCounts(testUserId) } answers {
             throw IllegalArgumentException(expectedMessage)
         }
 
         // when
         messageRepository.getUnreadCounters(testUserId).test {
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 3))), awaitItem())
+            messageRepository.refreshUnreadCounters()
 
             // then
             val actual = awaitItem() as DataResult.Error.Remote
             assertEquals(expectedMessage, actual.message)
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 3))), awaitItem())
+            counters.value = listOf(buildUnreadCounterEntity(labelId, unreadCount = 4))
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 4))), awaitItem())
+        }
+    }
+
+    @Test
+    fun keepsObservingTheStoredUnreadCountersWhenTheirReconciliationFails() = coroutinesTest {
+        // given
+        val labelId = "inbox"
+        val counters = MutableStateFlow(emptyList<UnreadCounterEntity>())
+        every { unreadCounterDao.observeMessagesUnreadCounters(testUserId) } returns counters
+        coEvery { protonMailApiManager.fetchMessagesCounts(testUserId) } throws IOException("No connection")
+
+        // when
+        messageRepository.getUnreadCounters(testUserId).test {
+
+            // then
+            assertEquals(DataResult.Success(ResponseSource.Local, emptyList<UnreadCounter>()), awaitItem())
+            counters.value = listOf(buildUnreadCounterEntity(labelId, unreadCount = 2))
+            assertEquals(DataResult.Success(ResponseSource.Local, listOf(UnreadCounter(labelId, 2))), awaitItem())
         }
     }
 
@@ -808,17 +836,16 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
                 allLabelIDs = labelIds.ids()
             )
             val customLabel = buildLabel(id = customLabelId)
-            coEvery { messageDao.findMessageByIdOnce(messageId) } returns message
-            coEvery { counterDao.findUnreadLocationById(any()) } returns mockk(relaxed = true)
+            coEvery { messageDao.findMessagesInfoByIds(messageIds) } returns listOf(message)
             coEvery { labelRepository.findLabel(customLabelId) } returns customLabel
 
             // when
             messageRepository.moveToCustomFolderLocation(messageIds, customFolderId.id, testUserId)
 
             // then
-            val savedMessageCaptor = slot<Message>()
-            coVerify { messageDao.saveMessage(capture(savedMessageCaptor)) }
-            assertEquals(expectedLabelIds, savedMessageCaptor.captured.allLabelIDs)
+            val savedMessagesCaptor = slot<List<Message>>()
+            coVerify { messageDao.updateMessagesInfo(capture(savedMessagesCaptor)) }
+            assertEquals(expectedLabelIds, savedMessagesCaptor.captured.single().allLabelIDs)
         }
 
     @Test
@@ -832,17 +859,16 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
             allLabelIDs = labelIds.ids()
         )
         val customLabel = buildLabel(id = customLabelId)
-        coEvery { messageDao.findMessageByIdOnce(messageId) } returns message
-        coEvery { counterDao.findUnreadLocationById(any()) } returns mockk(relaxed = true)
+        coEvery { messageDao.findMessagesInfoByIds(messageIds) } returns listOf(message)
         coEvery { labelRepository.findLabel(customLabelId) } returns customLabel
 
         // when
         messageRepository.moveToTrash(messageIds, testUserId)
 
         // then
-        val savedMessageCaptor = slot<Message>()
-        coVerify { messageDao.saveMessage(capture(savedMessageCaptor)) }
-        assertEquals(expectedLabelIds, savedMessageCaptor.captured.allLabelIDs)
+        val savedMessagesCaptor = slot<List<Message>>()
+        coVerify { messageDao.updateMessagesInfo(capture(savedMessagesCaptor)) }
+        assertEquals(expectedLabelIds, savedMessagesCaptor.captured.single().allLabelIDs)
     }
 
     @Test
@@ -857,17 +883,42 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
                 allLabelIDs = labelIds.ids()
             )
             val customLabel = buildLabel(id = customLabelId)
-            coEvery { messageDao.findMessageByIdOnce(messageId) } returns message
-            coEvery { counterDao.findUnreadLocationById(any()) } returns mockk(relaxed = true)
+            coEvery { messageDao.findMessagesInfoByIds(messageIds) } returns listOf(message)
             coEvery { labelRepository.findLabel(customLabelId) } returns customLabel
 
             // when
             messageRepository.moveToTrash(messageIds, testUserId)
 
             // then
-            val savedMessageCaptor = slot<Message>()
-            coVerify { messageDao.saveMessage(capture(savedMessageCaptor)) }
-            assertEquals(expectedLabelIds, savedMessageCaptor.captured.allLabelIDs)
+            val savedMessagesCaptor = slot<List<Message>>()
+            coVerify { messageDao.updateMessagesInfo(capture(savedMessagesCaptor)) }
+            assertEquals(expectedLabelIds, savedMessagesCaptor.captured.single().allLabelIDs)
+        }
+
+    @Test
+    fun `verify all messages are moved with one worker chain and one write when moving a large selection`() =
+        coroutinesTest {
+            // given
+            val messageIds = (1..250).map { "messageId$it" }
+            val messages = messageIds.map { id ->
+                Message(messageId = id, allLabelIDs = listOf(inboxLabelId, customLabelId).ids())
+            }
+            val customLabel = buildLabel(id = customLabelId)
+            coEvery { messageDao.findMessagesInfoByIds(messageIds) } returns messages
+            coEvery { labelRepository.findLabel(customLabelId) } returns customLabel
+
+            // when
+            messageRepository.moveToArchive(messageIds, testUserId)
+
+            // then
+            verify(exactly = 1) {
+                postToLocationWorker.enqueue(testUserId, messageIds, Constants.MessageLocationType.ARCHIVE, null)
+            }
+            coVerify(exactly = 1) { messageDao.updateMessagesInfo(messages) }
+            // The type of each custom label is looked up once for the whole selection
+            coVerify(exactly = 1) { labelRepository.findLabel(customLabelId) }
+            val expectedLabelIds = setOf(customLabelId.id, Constants.MessageLocationType.ARCHIVE.asLabelIdString())
+            assertTrue(messages.all { it.allLabelIDs.toSet() == expectedLabelIds })
         }
 
     @Test
@@ -922,6 +973,30 @@ class MessageRepositoryTest: CoroutinesTest by UnconfinedCoroutinesTest() {
             }
         }
 
+    @Test
+    fun `should remove the prefetched bodies of the messages deleted from the DB`() =
+        coroutinesTest {
+            // given
+            val messageIds = listOf("1", "2")
+            coEvery { messageDao.deleteAttachmentsByMessageIds(messageIds) } just runs
+            coEvery { messageDao.deleteMessagesByIds(messageIds) } just runs
+
+            // when
+            messageRepository.deleteMessagesInDb(testUserId, messageIds)
+
+            // then
+            coVerify { messageDao.deleteMessagesByIds(messageIds) }
+            coVerify { prefetchedMessageBodyCache.remove(testUserId, "1") }
+            coVerify { prefetchedMessageBodyCache.remove(testUserId, "2") }
+        }
+
+    private fun buildUnreadCounterEntity(labelId: String, unreadCount: Int) = UnreadCounterEntity(
+        userId = testUserId,
+        type = UnreadCounterEntity.Type.MESSAGES,
+        labelId = labelId,
+        unreadCount = unreadCount
+    )
+
     private fun setupUnreadCounterDaoToSimulateReplace() {
 
         val counters = MutableStateFlow(emptyList<UnreadCounterEntity>())
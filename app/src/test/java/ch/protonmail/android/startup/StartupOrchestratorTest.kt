@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.startup
+
+import ch.protonmail.android.startup.StartupTask.Mode
+import ch.protonmail.android.usecase.GetElapsedRealTimeMillis
+import io.mockk.every
+import io.mockk.mockk
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.test.runTest
+import me.proton.core.test.kotlin.CoroutinesTest
+import java.util.Collections
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class StartupOrchestratorTest : CoroutinesTest by CoroutinesTest() {
+
+    private var currentTime = 0L
+    private val getElapsedRealTimeMillis: GetElapsedRealTimeMillis = mockk {
+        every { this@mockk() } answers { currentTime }
+    }
+    private val executedTasks = Collections.synchronizedList(mutableListOf<String>())
+
+    private fun CoroutineScope.buildOrchestrator() =
+        StartupOrchestrator(this, dispatchers, getElapsedRealTimeMillis)
+
+    @Test
+    fun runsOnlyCriticalTasksBeforeTheFirstDraw() = runTest {
+        // given
+        val orchestrator = buildOrchestrator()
+            .add("critical", Mode.CRITICAL, task("critical"))
+            .add("background", Mode.DEFERRED_BACKGROUND, task("background"))
+            .add("main", Mode.DEFERRED_MAIN_THREAD, task("main"))
+
+        // when
+        orchestrator.runCritical()
+
+        // then
+        assertEquals(listOf("critical"), executedTasks)
+    }
+
+    @Test
+    fun runsCriticalTasksAfterTheirDependencies() = runTest {
+        // given
+        val orchestrator = buildOrchestrator()
+            .add("second", Mode.CRITICAL, listOf("first"), task("second"))
+            .add("third", Mode.CRITICAL, listOf("second"), task("third"))
+            .add("first", Mode.CRITICAL, task("first"))
+
+        // when
+        orchestrator.runCritical()
+
+        // then
+        assertEquals(listOf("first", "second", "third"), executedTasks)
+    }
+
+    @Test
+    fun runsDeferredTasksAfterTheirDependencies() = runTest {
+        // given
+        val orchestrator = buildOrchestrator()
+            .add("critical", Mode.CRITICAL, task("critical"))
+            .add("dependent", Mode.DEFERRED_MAIN_THREAD, listOf("critical", "background"), task("dependent"))
+            .add("background", Mode.DEFERRED_BACKGROUND, task("background"))
+
+        // when
+        orchestrator.runCritical()
+        orchestrator.runDeferred().join()
+
+        // then
+        assertEquals(listOf("critical", "background", "dependent"), executedTasks)
+    }
+
+    @Test
+    fun recordsTheDurationOfEveryTask() = runTest {
+        // given
+        val orchestrator = buildOrchestrator()
+            .add("critical", Mode.CRITICAL) { currentTime += 30 }
+            .add("background", Mode.DEFERRED_BACKGROUND) { currentTime += 200 }
+
+        // when
+        orchestrator.runCritical()
+        orchestrator.runDeferred().join()
+
+        // then
+        assertEquals(mapOf("critical" to 30L, "background" to 200L), orchestrator.timings)
+    }
+
+    @Test
+    fun criticalTasksCannotDependOnDeferredOnes() = runTest {
+        // given
+        val orchestrator = buildOrchestrator()
+            .add("background", Mode.DEFERRED_BACKGROUND, task("background"))
+            .add("critical", Mode.CRITICAL, listOf("background"), task("critical"))
+
+        // when
+        val error = assertFailsWith<IllegalStateException> { orchestrator.runCritical() }
+
+        // then
+        assertTrue(executedTasks.isEmpty())
+        assertTrue("deferred" in error.message.orEmpty())
+    }
+
+    @Test
+    fun failsOnCyclicDependencies() = runTest {
+        // given
+        val orchestrator = buildOrchestrator()
+            .add("first", Mode.CRITICAL, listOf("second"), task("first"))
+            .add("second", Mode.CRITICAL, listOf("first"), task("second"))
+
+        // when
+        assertFailsWith<IllegalStateException> { orchestrator.runCritical() }
+
+        // then
+        assertTrue(executedTasks.isEmpty())
+    }
+
+    @Test
+    fun failsOnDependenciesThatAreNotDeclared() = runTest {
+        // given
+        val orchestrator = buildOrchestrator()
+            .add("first", Mode.CRITICAL, listOf("unknown"), task("first"))
+
+        // when
+        assertFailsWith<IllegalStateException> { orchestrator.runCritical() }
+    }
+
+    private fun task(name: String) = Runnable { executedTasks += name }
+}
@@ -25,6 +25,7 @@ import ch.protonmail.android.api.models.PublicKeyResponse
 import ch.protonmail.android.core.Constants
 import ch.protonmail.android.core.UserManager
 import ch.protonmail.android.crypto.UserCrypto
+import ch.protonmail.android.crypto.VerificationKeysCache
 import ch.protonmail.android.data.local.ContactDao
 import ch.protonmail.android.data.local.model.ContactEmail
 import ch.protonmail.android.data.local.model.FullContactDetailsResponse
@@ -32,8 +33,10 @@ import ch.protonmail.android.domain.entity.user.User
 import ch.protonmail.android.testdata.UserTestData.userId
 import ch.protonmail.android.utils.crypto.KeyInformation
 import io.mockk.coEvery
+import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlinx.coroutines.test.runTest
 import me.proton.core.domain.entity.UserId
 import me.proton.core.test.kotlin.CoroutinesTest
@@ -65,11 +68,22 @@ class FetchVerificationKeysTest : CoroutinesTest by CoroutinesTest() {
 
     private val contactDao: ContactDao = mockk()
 
+    private val verificationKeysCache: VerificationKeysCache = mockk(relaxUnitFun = true) {
+        coEvery { get(any(), any()) } returns null
+    }
+
     private lateinit var useCase: FetchVerificationKeys
 
     @BeforeTest
     fun setUp() {
-        useCase = FetchVerificationKeys(api, userManager, userCryptoFactory, contactDao, dispatchers)
+        useCase = FetchVerificationKeys(
+            api,
+            userManager,
+            userCryptoFactory,
+            contactDao,
+            dispatchers,
+            verificationKeysCache
+        )
     }
 
     @Test
@@ -176,4 +190,64 @@ class FetchVerificationKeysTest : CoroutinesTest by CoroutinesTest() {
         assertNotNull(result)
         assertEquals(expected, result)
     }
+
+    @Test
+    fun verifyThatCachedKeysAreReturnedWithoutFetchingThem() = runTest {
+        // given
+        val testEmail = "testemail@asd.com"
+        val cachedKeys = listOf(KeyInformation(null, null, true, "fingerprint", false, true))
+        coEvery { verificationKeysCache.get(userId, testEmail) } returns cachedKeys
+
+        // when
+        val result = useCase(userId, testEmail)
+
+        // then
+        assertEquals(cachedKeys, result)
+        coVerify(exactly = 0) { api.getPublicKeys(any()) }
+        verify(exactly = 0) { contactDao.findContactEmailByEmailBlocking(any()) }
+    }
+
+    @Test
+    fun verifyThatFetchedKeysAreCached() = runTest {
+        // given
+        val testEmail = "testemail@asd.com"
+        val testContactId = "contactId"
+        val testContactEmail = mockk<ContactEmail> {
+            every { contactId } returns testContactId
+        }
+        every { contactDao.findContactEmailByEmailBlocking(testEmail) } returns testContactEmail
+        coEvery { contactDao.insertFullContactDetails(any()) } returns Unit
+        coEvery { api.fetchContactDetails(testContactId) } returns mockk {
+            every { contact } returns mockk(relaxed = true) {
+                every { getPublicKeys(any(), any()) } returns listOf("testKey")
+            }
+        }
+        coEvery { api.getPublicKeys(testEmail) } returns mockk {
+            every { keys } returns arrayOf(PublicKeyBody(0, "pubKey"))
+            every { hasError() } returns false
+        }
+        val keyInformation = KeyInformation(null, null, true, null, false, true)
+        every { userCrypto.deriveKeyInfo(any()) } returns keyInformation
+
+        // when
+        val result = useCase(userId, testEmail)
+
+        // then
+        assertEquals(listOf(keyInformation), result)
+        coVerify { verificationKeysCache.put(userId, testEmail, listOf(keyInformation)) }
+    }
+
+    @Test
+    fun verifyThatEmptyResultsAreNotCached() = runTest {
+        // given
+        val testEmail = "testemail@asd.com"
+        every { contactDao.findContactEmailByEmailBlocking(testEmail) } returns null
+
+        // when
+        val result = useCase(userId, testEmail)
+
+        // then
+        assertEquals(emptyList(), result)
+        coVerify(exactly = 0) { verificationKeysCache.put(any(), any(), any()) }
+    }
 }
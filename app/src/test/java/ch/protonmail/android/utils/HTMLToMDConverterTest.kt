@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils
+
+import org.jsoup.Jsoup
+import org.junit.Test
+import kotlin.test.assertEquals
+
+class HTMLToMDConverterTest {
+
+    private val converter = HTMLToMDConverter()
+
+    @Test
+    fun `converts paragraphs, line breaks and collapses whitespace`() {
+        // given
+        val html = "<p>Hello   <b>World</b>,</p><p>second\n paragraph<br>new line</p><div>div</div>"
+
+        // when
+        val result = converter.convert(html)
+
+        // then
+        assertEquals("Hello **World**,\n\nsecond paragraph\nnew line\n\ndiv", result)
+    }
+
+    @Test
+    fun `skips head, scripts and styles`() {
+        // given
+        val html = "<html><head><title>title</title><style>p { color: red; }</style></head>" +
+            "<body><script>alert(1)</script>content</body></html>"
+
+        // when
+        val result = converter.convert(html)
+
+        // then
+        assertEquals("content", result)
+    }
+
+    @Test
+    fun `converts links keeping their target when it differs from the text`() {
+        // given
+        val html = "<a href=\"https://proton.me\">Proton</a> <a href=\"https://proton.me\">https://proton.me</a> " +
+            "<a href=\"mailto:test@proton.me\">test@proton.me</a> <a href=\"#anchor\">anchor</a>"
+
+        // when
+        val result = converter.convert(html)
+
+        // then
+        assertEquals("Proton (https://proton.me) https://proton.me test@proton.me anchor", result)
+    }
+
+    @Test
+    fun `converts lists, headers, rules and tables`() {
+        // given
+        val html = "<h2>Title</h2><ul><li>one</li><li>two<ol><li>nested</li><li>second</li></ol></li></ul><hr>" +
+            "<table><tr><th>a</th><th>b</th></tr><tr><td>1</td><td>2</td></tr></table>"
+
+        // when
+        val result = converter.convert(html)
+
+        // then
+        val expected = "## Title\n\n* one\n* two\n  1. nested\n  2. second\n\n---\n\na | b\n1 | 2"
+        assertEquals(expected, result)
+    }
+
+    @Test
+    fun `keeps the content of preformatted blocks`() {
+        // given
+        val html = "<p>code:</p><pre>fun main() {\n    println(\"a  b\")\n}</pre>"
+
+        // when
+        val result = converter.convert(html)
+
+        // then
+        assertEquals("code:\n\n```\nfun main() {\n    println(\"a  b\")\n}\n```", result)
+    }
+
+    @Test
+    fun `prefixes every line of nested quotes`() {
+        // given
+        val html = "Reply<blockquote>First<br>line<blockquote>Original</blockquote></blockquote>After"
+
+        // when
+        val result = converter.convert(html)
+
+        // then
+        assertEquals("Reply\n\n> First\n> line\n>\n> > Original\n\nAfter", result)
+    }
+
+    @Test
+    fun `converts deeply nested quotes without overflowing the stack`() {
+        // given
+        val depth = 5_000
+        val html = "<blockquote>".repeat(depth) + "text" + "</blockquote>".repeat(depth)
+
+        // when
+        val result = converter.convert(html)
+
+        // then
+        assertEquals("> ".repeat(depth) + "text", result)
+    }
+
+    @Test
+    fun `converts an already parsed document`() {
+        // given
+        val document = Jsoup.parse("<p>parsed</p>")
+
+        // when
+        val result = converter.convert(document)
+
+        // then
+        assertEquals("parsed", result)
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils.HTMLTransformer
+
+import org.jsoup.Jsoup
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class HtmlTransformersTest {
+
+    @Test
+    fun blacklistedElementsAreRemovedWithTheirContent() {
+        // given
+        val html = "<p>text</p><script>alert()</script><iframe src='url'></iframe>" +
+            "<picture><form><i>inside picture</i></form></picture><video><source src='url'></video>"
+
+        // when
+        val result = DefaultTransformer().transform(Jsoup.parse(html))
+
+        // then
+        assertEquals("<p>text</p>", result.body().html())
+    }
+
+    @Test
+    fun formsAreUnwrapped() {
+        // given
+        val html = "<form action='url'><b>kept</b><input name='input'></form>"
+
+        // when
+        val result = DefaultTransformer().transform(Jsoup.parse(html))
+
+        // then
+        assertEquals("<b>kept</b>", result.body().html())
+    }
+
+    @Test
+    fun fixedTableLayoutIsReset() {
+        // given
+        val html = "<table style='table-layout: fixed; width: 10px'><tr><td>cell</td></tr></table>"
+
+        // when
+        val result = DefaultTransformer().transform(Jsoup.parse(html))
+
+        // then
+        assertEquals("table-layout: auto; width: 10px", result.selectFirst("table").attr("style"))
+    }
+
+    @Test
+    fun pingsAndResourceLinksAreRemoved() {
+        // given
+        val html = "<html><head><link rel='stylesheet' href='style'><link rel=' Preload ' href='font'>" +
+            "<link rel='icon' href='icon'></head><body><a href='url' ping='tracker'>link</a></body></html>"
+
+        // when
+        val result = DefaultTransformer().transform(Jsoup.parse(html))
+
+        // then
+        assertEquals(listOf("icon"), result.select("link").map { it.attr("rel") })
+        assertEquals("url", result.selectFirst("a").attr("href"))
+        assertTrue(result.selectFirst("a").hasAttr("ping").not())
+    }
+
+    @Test
+    fun embeddedImageUrlsSetByTheSenderAreRemoved() {
+        // given
+        val html = "<img src='PM-Embedded-Image://token/image' alt='image'>" +
+            "<div style='background: url(pm-embedded-image://token/image)'>text</div><img src='cid:image'>"
+
+        // when
+        val result = DefaultTransformer().transform(Jsoup.parse(html))
+
+        // then
+        assertEquals(listOf("", "cid:image"), result.select("img").map { it.attr("src") })
+        assertEquals("image", result.selectFirst("img").attr("alt"))
+        assertTrue(result.selectFirst("div").hasAttr("style").not())
+    }
+
+    @Test
+    fun viewportWrapsTheWholeBodyInTheContainer() {
+        // given
+        val html = "<html lang='en'><head><title>title</title></head><body bgcolor='red'><p>text</p></body></html>"
+
+        // when
+        val result = ViewportTransformer(400, "css", "darkCss").transform(Jsoup.parse(html))
+
+        // then
+        assertEquals("cssdarkCss", result.head().selectFirst("style").data())
+        assertEquals("width=400, maximum-scale=2", result.head().selectFirst("meta[name=viewport]").attr("content"))
+        assertEquals("en", result.child(0).attr("lang"))
+        assertEquals("red", result.body().attr("bgcolor"))
+        val container = result.body().child(0)
+        assertEquals("pm-body", container.id())
+        assertEquals(listOf("title", "p"), container.children().map { it.normalName() })
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils
+
+import org.junit.Test
+import kotlin.test.assertEquals
+
+class PlainTextHtmlRendererTest {
+
+    @Test
+    fun `render escapes html special characters`() {
+        // given
+        val text = """<script>alert("Tom & Jerry's")</script>"""
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        assertEquals("&lt;script&gt;alert(&quot;Tom &amp; Jerry&#39;s&quot;)&lt;/script&gt;", result)
+    }
+
+    @Test
+    fun `render converts every kind of line break to a single br`() {
+        // given
+        val text = "one\r\ntwo\rthree\nfour\n\nfive"
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        assertEquals("one<br>two<br>three<br>four<br><br>five", result)
+    }
+
+    @Test
+    fun `render keeps consecutive spaces as they are`() {
+        // given
+        val text = "a    b c"
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        assertEquals(text, result)
+    }
+
+    @Test
+    fun `render wraps links into anchors`() {
+        // given
+        val text = "Visit https://proton.me/mail?a=1&b=2, or www.proton.me."
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        val expected = "Visit <a href=\"https://proton.me/mail?a=1&amp;b=2\">https://proton.me/mail?a=1&amp;b=2</a>, " +
+            "or <a href=\"http://www.proton.me\">www.proton.me</a>."
+        assertEquals(expected, result)
+    }
+
+    @Test
+    fun `render keeps balanced parentheses in links and drops unbalanced ones`() {
+        // given
+        val text = "(see https://en.wikipedia.org/wiki/Proton_(disambiguation))"
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        val url = "https://en.wikipedia.org/wiki/Proton_(disambiguation)"
+        assertEquals("(see <a href=\"$url\">$url</a>)", result)
+    }
+
+    @Test
+    fun `render does not create links for prefixes in the middle of words or without a host`() {
+        // given
+        val text = "xhttp://proton.me email@www.proton.me https:// www.proton"
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        assertEquals(text, result)
+    }
+
+    @Test
+    fun `render links bare domains`() {
+        // given
+        val text = "Write to proton.me/support, mail.Proton.CH:443 or example.com."
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        val expected = "Write to <a href=\"http://proton.me/support\">proton.me/support</a>, " +
+            "<a href=\"http://mail.Proton.CH:443\">mail.Proton.CH:443</a> or " +
+            "<a href=\"http://example.com\">example.com</a>."
+        assertEquals(expected, result)
+    }
+
+    @Test
+    fun `render does not link words that are not domains`() {
+        // given
+        val text = "e.g. 3.14 notes.txt Mr.Smith a..com .com email@proton.me"
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        assertEquals(text, result)
+    }
+
+    @Test
+    fun `render links urls at the beginning of a line`() {
+        // given
+        val text = "first\nhttp://proton.me"
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        assertEquals("first<br><a href=\"http://proton.me\">http://proton.me</a>", result)
+    }
+
+    @Test
+    fun `linkify wraps links in escaped html without touching tags and existing anchors`() {
+        // given
+        val html = "&lt;www.proton.me&gt;<br>https://proton.me/a?b=1&amp;c=2<br>" +
+            "<a href=\"https://proton.me\">https://proton.me</a>"
+
+        // when
+        val result = PlainTextHtmlRenderer.linkify(html)
+
+        // then
+        val expected = "&lt;<a href=\"http://www.proton.me\">www.proton.me</a>&gt;<br>" +
+            "<a href=\"https://proton.me/a?b=1&amp;c=2\">https://proton.me/a?b=1&amp;c=2</a><br>" +
+            "<a href=\"https://proton.me\">https://proton.me</a>"
+        assertEquals(expected, result)
+    }
+
+    @Test
+    fun `linkify links bare domains in escaped html`() {
+        // given
+        val html = "&lt;proton.me&gt;<br>see&nbsp;example.org/a?b=1&amp;c=2"
+
+        // when
+        val result = PlainTextHtmlRenderer.linkify(html)
+
+        // then
+        val expected = "&lt;<a href=\"http://proton.me\">proton.me</a>&gt;<br>" +
+            "see&nbsp;<a href=\"http://example.org/a?b=1&amp;c=2\">example.org/a?b=1&amp;c=2</a>"
+        assertEquals(expected, result)
+    }
+
+    @Test
+    fun `render output grows linearly with the input`() {
+        // given
+        val line = "2022-10-19 12:00:00 <INFO> request to https://proton.me/api/v4/messages?page=1 & done\n"
+        val text = line.repeat(50_000)
+
+        // when
+        val result = PlainTextHtmlRenderer.render(text)
+
+        // then
+        assertEquals(PlainTextHtmlRenderer.render(line).length * 50_000, result.length)
+    }
+}
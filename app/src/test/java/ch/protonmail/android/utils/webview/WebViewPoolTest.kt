@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+
+package ch.protonmail.android.utils.webview
+
+import android.content.ComponentCallbacks2
+import android.content.Context
+import android.webkit.WebView
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class WebViewPoolTest {
+
+    private val applicationContext: Context = mockk()
+    private val activityContext: Context = mockk()
+    private val factory: PooledWebViewFactory = mockk {
+        every { create(any()) } answers { mockk() }
+        every { attach(any(), any()) } just runs
+        every { reset(any(), any()) } just runs
+        every { destroy(any()) } just runs
+    }
+
+    private val pool = WebViewPool(applicationContext, factory, capacity = 2)
+
+    @Test
+    fun prewarmFillsThePoolOneWebViewAtATime() {
+        // when
+        val needsMoreAfterFirst = pool.prewarmNext()
+        val needsMoreAfterSecond = pool.prewarmNext()
+        val needsMoreWhenFull = pool.prewarmNext()
+
+        // then
+        assertTrue(needsMoreAfterFirst)
+        assertFalse(needsMoreAfterSecond)
+        assertFalse(needsMoreWhenFull)
+        assertEquals(2, pool.stats.pooled)
+        verify(exactly = 2) { factory.create(applicationContext) }
+    }
+
+    @Test
+    fun acquireHandsOutAPrewarmedWebViewAttachedToTheGivenContext() {
+        // given
+        pool.prewarmNext()
+
+        // when
+        val webView = pool.acquire(activityContext)
+
+        // then
+        verify { factory.attach(webView, activityContext) }
+        verify(exactly = 1) { factory.create(any()) }
+        assertEquals(WebViewPoolStats(hits = 1, misses = 0, pooled = 0), pool.stats)
+    }
+
+    @Test
+    fun acquireCreatesANewWebViewWhenThePoolIsEmpty() {
+        // when
+        pool.acquire(activityContext)
+
+        // then
+        verify { factory.create(activityContext) }
+        assertEquals(WebViewPoolStats(hits = 0, misses = 1, pooled = 0), pool.stats)
+    }
+
+    @Test
+    fun releasedWebViewsAreResetAndHandedOutAgain() {
+        // given
+        val webView = pool.acquire(activityContext)
+
+        // when
+        pool.release(webView)
+        val reacquired = pool.acquire(activityContext)
+
+        // then
+        verify { factory.reset(webView, applicationContext) }
+        assertSame(webView, reacquired)
+        assertEquals(0.5f, pool.stats.hitRate)
+    }
+
+    @Test
+    fun releasedWebViewsAreDestroyedWhenThePoolIsFull() {
+        // given
+        val webViews = List(3) { pool.acquire(activityContext) }
+
+        // when
+        webViews.forEach(pool::release)
+
+        // then
+        assertEquals(2, pool.stats.pooled)
+        verify(exactly = 1) { factory.destroy(webViews.last()) }
+    }
+
+    @Test
+    fun aWebViewReleasedTwiceIsPooledOnce() {
+        // given
+        val webView = pool.acquire(activityContext)
+
+        // when
+        pool.release(webView)
+        pool.release(webView)
+
+        // then
+        assertEquals(1, pool.stats.pooled)
+        assertSame(webView, pool.acquire(activityContext))
+        assertNotSame(webView, pool.acquire(activityContext))
+    }
+
+    @Test
+    fun poolIsTrimmedWhenRunningLowOnMemory() {
+        // given
+        repeat(2) { pool.prewarmNext() }
+
+        // when
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+
+        // then
+        assertEquals(0, pool.stats.pooled)
+        verify(exactly = 2) { factory.destroy(any()) }
+    }
+
+    @Test
+    fun poolIsKeptWhenTheUiIsHidden() {
+        // given
+        repeat(2) { pool.prewarmNext() }
+
+        // when
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+
+        // then
+        assertEquals(2, pool.stats.pooled)
+        verify(exactly = 0) { factory.destroy(any()) }
+    }
+}
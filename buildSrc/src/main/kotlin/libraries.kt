@@ -142,7 +142,6 @@ val DependencyHandler.`retrofit2-converter` get() =         dependency("com.squa
 val DependencyHandler.`fasterxml-jackson-core` get() =      dependency("com.fasterxml.jackson.core", module = "jackson-core") version `jackson version`
 val DependencyHandler.`fasterxml-jackson-anno` get() =      dependency("com.fasterxml.jackson.core", module = "jackson-annotations") version `jackson version`
 val DependencyHandler.`fasterxml-jackson-databind` get() =  dependency("com.fasterxml.jackson.core", module = "jackson-databind") version `jackson version`
-val DependencyHandler.`remark` get() =                      dependency("com.overzealous", module = "remark") version `remark version`
 val DependencyHandler.`store` get() =                       dependency("com.dropbox.mobile.store", module = "store4") version `store version`
 val DependencyHandler.`coil-base` get() =                   dependency("io.coil-kt", module="coil-base") version `coil version`
 // endregion
@@ -158,6 +157,7 @@ val DependencyHandler.falcon get() = dependency("com.jraska", module = "falcon")
 val DependencyHandler.`orchestrator` get() =  androidx("test", module = "orchestrator") version `android-test-orchestrator version`
 val DependencyHandler.`browserstack-gradle-plugin` get() =  dependency("gradle.plugin.com.browserstack.gradle", module = "browserstack-gradle-plugin") version `browserstack-plugin version`
 val DependencyHandler.`uiautomator` get() =  androidx("test.uiautomator", module = "uiautomator") version `uiautomator version`
+val DependencyHandler.`benchmark-junit4` get() =  androidx("benchmark", module = "benchmark-junit4") version `android-benchmark version`
 val DependencyHandler.`android-activation` get() =  dependency("com.sun.mail", module = "android-activation") version `sun-mail-android version`
 val DependencyHandler.`junit-ext` get() =  androidx("test.ext", module = "junit-ktx") version `junit-ktx version`
 val DependencyHandler.`mock-web-server` get() =  dependency("com.squareup.okhttp3", module = "mockwebserver") version `okHttp3 version`
@@ -66,6 +66,7 @@ const val `Proton-core version` =               "10.4.0"
 
 // Test
 const val `aerogear version` =                  "1.0.0"         // Released: Mar 23, 2013
+const val `android-benchmark version` =         "1.1.1"         // Released: Nov 09, 2022
 const val `android-test-ext version` =          "1.1.4"
 const val `android-test-orchestrator version` = "1.4.1"         // Released: Dec 13, 2021
 const val `assertJ version` =                   "3.13.2"        // Released: Aug 04, 2019
@@ -115,6 +116,5 @@ const val `sonarQube version` =                 "2.7.1"         // Released: May
 const val `stetho version` =                    "1.5.1"         // Released: Mar 18, 2019
 const val `timber version` =                    "4.7.1"         // Released:
 const val `trustKit version` =                  "1.1.2"         // Released: Jun 09, 2019
-const val `remark version` =                    "1.1.0"         // Released: Dec 08, 2016
 const val `store version` =                     "4.0.5"
 const val `coil version` =                      "1.2.1"         // Released: Apr 28, 2021
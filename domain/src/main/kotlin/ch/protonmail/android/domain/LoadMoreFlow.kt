@@ -20,17 +20,79 @@
 package ch.protonmail.android.domain
 
 import kotlinx.coroutines.flow.Flow
-import kotlinx.coroutines.flow.MutableSharedFlow
-import kotlinx.coroutines.flow.map
-import kotlinx.coroutines.flow.onStart
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.transform
+
+private const val DEFAULT_PREFETCH_DISTANCE = 15
+private const val DEFAULT_MAX_PAGES_AHEAD = 2
 
 class LoadMoreFlow<T> internal constructor(
     underlying: Flow<T>,
-    internal val trigger: MutableSharedFlow<Unit>
+    internal val trigger: LoadMoreTrigger
 ) : Flow<T> by underlying {
 
     fun loadMore() {
-        trigger.tryEmit(Unit)
+        trigger.request()
+    }
+
+    /**
+     * Call [loadMore] in advance, when the visible window gets close to the end of the loaded items, so the next
+     *  page is fetched while the user is still scrolling.
+     * The pages loaded ahead run in the collector of this Flow, so they are cancelled as soon as its collection is
+     *  cancelled, e.g. when the user switches label
+     *
+     * @param lastVisibleIndex index of the last item currently visible
+     * @param itemCount count of the items currently loaded
+     * @param prefetchDistance how many items before the end of the list the next page is requested
+     * @param maxPagesAhead max number of pages requested, that are not loaded yet
+     *
+     * @return `true` if a new page has been requested
+     */
+    fun prefetch(
+        lastVisibleIndex: Int,
+        itemCount: Int,
+        prefetchDistance: Int = DEFAULT_PREFETCH_DISTANCE,
+        maxPagesAhead: Int = DEFAULT_MAX_PAGES_AHEAD
+    ): Boolean {
+        val isCloseToTheEnd = itemCount - 1 - lastVisibleIndex <= prefetchDistance
+        return isCloseToTheEnd && trigger.request(maxPendingPages = maxPagesAhead)
+    }
+}
+
+/**
+ * Counts the pages requested for a [LoadMoreFlow] and the ones already loaded, so the requests made while a page is
+ *  loading are not merged together and the pages still to load are known
+ */
+internal class LoadMoreTrigger {
+
+    private val mutableRequestedPages = MutableStateFlow(0)
+    private var loadedPages = 0
+
+    /**
+     * Total count of the pages requested so far. Being a counter, nothing is lost when its values are conflated
+     */
+    val requestedPages: StateFlow<Int> = mutableRequestedPages.asStateFlow()
+
+    /**
+     * Request a new page, unless [maxPendingPages] pages are already requested and not loaded yet
+     * @return `true` if the page has been requested
+     */
+    @Synchronized
+    fun request(maxPendingPages: Int = Int.MAX_VALUE): Boolean {
+        val requestedPages = mutableRequestedPages.value
+        if (requestedPages - loadedPages >= maxPendingPages) return false
+        mutableRequestedPages.value = requestedPages + 1
+        return true
+    }
+
+    /**
+     * Called by the collector when the requested pages, up to [count], are loaded
+     */
+    @Synchronized
+    fun onPagesLoaded(count: Int) {
+        loadedPages = maxOf(loadedPages, count)
     }
 }
 
@@ -50,15 +112,17 @@ fun <B, T> loadMoreFlow(
     load: suspend (bookmark: B) -> T
 ): LoadMoreFlow<T> {
     var bookmark = initialBookmark
-    val trigger = MutableSharedFlow<Unit>(replay = 1)
-    val underlying = trigger.onStart {
-        // Load the first page
-        trigger.emit(Unit)
-    }.map {
+    // The first page is loaded at start, without being requested
+    var loadedPages = -1
+    val trigger = LoadMoreTrigger()
+    val underlying = trigger.requestedPages.transform { requestedPages ->
         // For each 'loadMore' invocation, load next page and prepare next bookmark
-        val page = load(bookmark)
-        bookmark = createNextBookmark(page, bookmark)
-        page
+        while (loadedPages < requestedPages) {
+            val page = load(bookmark)
+            bookmark = createNextBookmark(page, bookmark)
+            trigger.onPagesLoaded(++loadedPages)
+            emit(page)
+        }
     }
 
     return LoadMoreFlow(underlying, trigger)
@@ -23,7 +23,6 @@ import kotlinx.coroutines.channels.BufferOverflow
 import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.FlowCollector
-import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.buffer
 import kotlinx.coroutines.flow.catch
 import kotlinx.coroutines.flow.combine
@@ -71,18 +70,13 @@ fun <B, T> Flow<T>.asLoadMoreFlow(
     onLoadMore: suspend FlowCollector<T>.(previousBookmark: B) -> B,
 ): LoadMoreFlow<T> {
     var bookmark = initialBookmark
-    val trigger = MutableSharedFlow<Unit>(replay = 1)
-
-    val fixedFlow = this
-    val fixedTrigger = trigger.emitInitialNull()
+    val trigger = LoadMoreTrigger()
 
     var lastFromFlow: T? = null
     var shouldLoadOnNonTriggerEvent = loadAtStart
-    val underlying = combineTransform(fixedFlow, fixedTrigger) { fromFlow, _ ->
-        val isTriggerEvent = fromFlow === lastFromFlow
-        if (isTriggerEvent) {
-            bookmark = onLoadMore(bookmark)
-        } else {
+    var loadedPages = 0
+    val underlying = combineTransform(this, trigger.requestedPages) { fromFlow, requestedPages ->
+        if (fromFlow !== lastFromFlow) {
             lastFromFlow = fromFlow
             emit(fromFlow)
         }
@@ -91,6 +85,11 @@ fun <B, T> Flow<T>.asLoadMoreFlow(
             bookmark = onLoadMore(bookmark)
             shouldLoadOnNonTriggerEvent = false
         }
+        // Requests are counted, so the ones made while loading are not lost when 'combine' conflates them
+        while (loadedPages < requestedPages) {
+            bookmark = onLoadMore(bookmark)
+            trigger.onPagesLoaded(++loadedPages)
+        }
     }
 
     return LoadMoreFlow(underlying, trigger)
@@ -137,7 +136,7 @@ fun <T> LoadMoreFlow<T>.loadMoreEmitInitialNull(): LoadMoreFlow<T?> =
  * Same as [flowOf], but returns a [LoadMoreFlow] instead
  */
 fun <T> loadMoreFlowOf(vararg elements: T): LoadMoreFlow<T> =
-    LoadMoreFlow(flowOf(*elements), MutableSharedFlow())
+    LoadMoreFlow(flowOf(*elements), LoadMoreTrigger())
 
 /**
  * Same as [Flow.flatMapLatest], but returns a [LoadMoreFlow] instead
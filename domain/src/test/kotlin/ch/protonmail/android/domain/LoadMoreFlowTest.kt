@@ -20,6 +20,7 @@
 package ch.protonmail.android.domain
 
 import app.cash.turbine.test
+import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.map
@@ -28,6 +29,8 @@ import me.proton.core.test.kotlin.CoroutinesTest
 import me.proton.core.test.kotlin.TestDispatcherProvider
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
 
 /**
  * Test suite for [LoadMoreFlow]
@@ -247,6 +250,93 @@ class LoadMoreFlowTest : CoroutinesTest by CoroutinesTest({ TestDispatcherProvid
 
     // endregion
 
+    // region prefetch
+
+    @Test
+    fun prefetchLoadsNextPageWhenCloseToTheEnd() = coroutinesTest {
+        // given
+        fakeDatabase.save(item1)
+        val flow = fakeDatabase.findAll().asLoadMoreFlow(
+            initialBookmark = 0,
+        ) { bookmark ->
+            val apiResult = fakePagedApi.getItems(bookmark)
+            fakeDatabase.save(apiResult)
+            apiResult.maxOfOrNull { it.position } ?: bookmark
+        }
+
+        // when - then
+        flow.test {
+            assertEquals(allItems.take(1), awaitItem())
+            assertFalse(flow.prefetch(lastVisibleIndex = 0, itemCount = 10, prefetchDistance = 5))
+            expectNoEvents()
+            assertTrue(flow.prefetch(lastVisibleIndex = 0, itemCount = 1, prefetchDistance = 5))
+            assertEquals(allItems.take(2), awaitItem())
+        }
+    }
+
+    @Test
+    fun prefetchRequestsAtMostMaxPagesAheadOfTheLoadedPages() = coroutinesTest {
+        // given
+        val loadGate = Channel<Unit>()
+        val flow = loadMoreFlow(
+            initialBookmark = 0,
+            createNextBookmark = { list, previousBookmark -> list.maxOfOrNull { it.position } ?: previousBookmark },
+            load = { bookmark ->
+                loadGate.receive()
+                fakePagedApi.getItems(bookmark)
+            }
+        )
+
+        // when - then
+        flow.test {
+            loadGate.send(Unit)
+            assertEquals(allItems.slice(0..1), awaitItem())
+
+            assertTrue(flow.prefetch(lastVisibleIndex = 0, itemCount = 2, maxPagesAhead = 2))
+            assertTrue(flow.prefetch(lastVisibleIndex = 0, itemCount = 2, maxPagesAhead = 2))
+            assertFalse(flow.prefetch(lastVisibleIndex = 0, itemCount = 2, maxPagesAhead = 2))
+
+            loadGate.send(Unit)
+            assertEquals(allItems.slice(2..3), awaitItem())
+            assertTrue(flow.prefetch(lastVisibleIndex = 0, itemCount = 4, maxPagesAhead = 2))
+            assertFalse(flow.prefetch(lastVisibleIndex = 0, itemCount = 4, maxPagesAhead = 2))
+
+            loadGate.send(Unit)
+            assertEquals(allItems.slice(4..5), awaitItem())
+            loadGate.send(Unit)
+            assertEquals(allItems.slice(6..6), awaitItem())
+            expectNoEvents()
+        }
+    }
+
+    @Test
+    fun loadMoreRequestsMadeWhileLoadingAreNotMerged() = coroutinesTest {
+        // given
+        val loadGate = Channel<Unit>()
+        val flow = loadMoreFlow(
+            initialBookmark = 0,
+            createNextBookmark = { list, previousBookmark -> list.maxOfOrNull { it.position } ?: previousBookmark },
+            load = { bookmark ->
+                loadGate.receive()
+                fakePagedApi.getItems(bookmark)
+            }
+        )
+
+        // when - then
+        flow.test {
+            flow.loadMore()
+            flow.loadMore()
+            repeat(3) { loadGate.send(Unit) }
+
+            assertEquals(allItems.slice(0..1), awaitItem())
+            assertEquals(allItems.slice(2..3), awaitItem())
+            assertEquals(allItems.slice(4..5), awaitItem())
+            expectNoEvents()
+        }
+    }
+
+    // endregion
+
     private data class Item(val position: Int, val content: String)
 
     private class FakePagedApi {
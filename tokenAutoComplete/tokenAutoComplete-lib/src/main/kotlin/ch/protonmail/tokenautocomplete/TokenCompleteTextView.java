@@ -93,6 +93,13 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         }
     }
 
+    //When the user deletes part of a token...
+    public enum TokenDeleteStyle {
+        Clear, //...remove the whole token
+        PartialCompletion, //...replace it with the text that was completed into the token
+        ToString //...replace it with the string representation of the token
+    }
+
     private Tokenizer tokenizer;
     private T selectedObject;
     private TokenListener<T> listener;
@@ -102,6 +109,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
     private @Nullable
     SpannableStringBuilder hiddenContent;
     private TokenClickStyle tokenClickStyle = TokenClickStyle.None;
+    private TokenDeleteStyle deletionStyle = TokenDeleteStyle.Clear;
     private Layout lastLayout = null;
     private boolean initialized = false;
     private boolean performBestGuess = true;
@@ -110,6 +118,10 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
     private boolean shouldFocusNext = false;
     private boolean allowCollapse = true;
     private boolean internalEditInProgress = false;
+    private boolean bulkEditInProgress = false;
+    private @Nullable
+    Editable prebuiltContent;
+    private final TokenSpanStore<TokenImageSpan> tokenStore = new TokenSpanStore<>();
 
     private int tokenLimit = -1;
 
@@ -170,6 +182,17 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         // Listen to IME action keys
         setOnEditorActionListener(this);
 
+        // Content prepared by a bulk insertion already holds its spans, use it as it is so it's laid out only once
+        setEditableFactory(new Editable.Factory() {
+            @Override
+            public Editable newEditable(CharSequence source) {
+                if (prebuiltContent != null && source == prebuiltContent) {
+                    return prebuiltContent;
+                }
+                return super.newEditable(source);
+            }
+        });
+
         // Initialise the text filter (listens for the split chars)
         setFilters(new InputFilter[]{new InputFilter() {
             @Override
@@ -180,7 +203,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
                 }
 
                 // Token limit check
-                if (tokenLimit != -1 && getObjects().size() == tokenLimit) {
+                if (tokenLimit != -1 && tokenStore.size() == tokenLimit) {
                     return "";
                 }
 
@@ -237,6 +260,15 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         tokenClickStyle = cStyle;
     }
 
+    /**
+     * Set the action to be taken when the user deletes part of a Token
+     *
+     * @param dStyle The TokenDeleteStyle
+     */
+    public void setDeletionStyle(TokenDeleteStyle dStyle) {
+        deletionStyle = dStyle;
+    }
+
     /**
      * Set the listener that will be notified of changes in the Token list
      *
@@ -270,17 +302,23 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
      * @return List of tokens
      */
     public List<T> getObjects() {
-        ArrayList<T>objects = new ArrayList<>();
-        Editable text = getText();
-        if (hiddenContent != null) {
-            text = hiddenContent;
-        }
-        for (TokenImageSpan span: text.getSpans(0, text.length(), TokenImageSpan.class)) {
+        List<TokenImageSpan> spans = tokenStore.getSpans();
+        ArrayList<T> objects = new ArrayList<>(spans.size());
+        for (TokenImageSpan span : spans) {
             objects.add(span.getToken());
         }
         return objects;
     }
 
+    /**
+     * Get the number of Tokens, without building the list of them
+     *
+     * @return number of tokens
+     */
+    public int getObjectCount() {
+        return tokenStore.size();
+    }
+
     /**
      * Get the content entered in the text field, including hidden text when ellipsized
      *
@@ -360,7 +398,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
      */
     @SuppressWarnings("unused")
     public CharSequence getTextForAccessibility() {
-        if (getObjects().size() == 0) {
+        if (tokenStore.size() == 0) {
             return getText();
         }
 
@@ -636,7 +674,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
 
             TokenImageSpan[] spans = text.getSpans(0, text.length(), TokenImageSpan.class);
             for (TokenImageSpan span : spans) {
-                if (span.view.isSelected()) {
+                if (span.view != null && span.view.isSelected()) {
                     removeSpan(text, span);
                     return true;
                 }
@@ -777,7 +815,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
                 text.removeSpan(spanWatcher);
 
                 CountSpan temp = preventFreeFormText ? countSpan : null;
-                Spanned ellipsized = SpanUtils.ellipsizeWithSpans(temp, getObjects().size(),
+                Spanned ellipsized = SpanUtils.ellipsizeWithSpans(temp, tokenStore.size(),
                         lastLayout.getPaint(), text, maxTextWidth());
 
                 if (ellipsized != null) {
@@ -813,9 +851,30 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
                 }
             }
         }
+        //The spans have moved between the visible and the hidden content
+        resetTokenStore();
         internalEditInProgress = false;
     }
 
+    @Override
+    public void setText(CharSequence text, BufferType type) {
+        super.setText(text, type);
+        //Token spans are not copied to a text set from outside, so it holds no tokens.
+        //The store is null while the super constructor sets the initial text
+        //noinspection ConstantConditions
+        if (tokenStore != null && !internalEditInProgress) {
+            resetTokenStore();
+        }
+    }
+
+    /**
+     * Rebuild the token store from the content of record, used when the content is replaced as a whole
+     */
+    private void resetTokenStore() {
+        Spanned content = hiddenContent != null ? hiddenContent : getText();
+        tokenStore.reset(content != null ? content.getSpans(0, content.length(), TokenImageSpan.class) : null);
+    }
+
     @Override
     public void onFocusChanged(boolean hasFocus, int direction, Rect previous) {
         super.onFocusChanged(hasFocus, direction, previous);
@@ -838,8 +897,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         if (obj == null) {
             return null;
         }
-        View tokenView = getViewForObject(obj);
-        return new TokenImageSpan(tokenView, obj);
+        return new TokenImageSpan(obj);
     }
 
     @Override
@@ -872,6 +930,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
                 }
             } else {
                 SpannableStringBuilder ssb = new SpannableStringBuilder(tokenizer.wrapTokenValue(tokenToString(tokenSpan.token)));
+                tokenSpan.completionText = original;
                 editable.replace(candidateRange.start, candidateRange.end, ssb);
                 editable.setSpan(tokenSpan, candidateRange.start, candidateRange.start + ssb.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
                 editable.insert(candidateRange.start + ssb.length(), " ");
@@ -904,11 +963,115 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
             }
             return;
         }
-        if (tokenLimit != -1 && getObjects().size() == tokenLimit) return;
+        if (tokenLimit != -1 && tokenStore.size() == tokenLimit) return;
         insertSpan(buildSpanForObject(object));
         if (getText() != null && isFocused()) setSelection(getText().length());
     }
 
+    /**
+     * Append token objects to the object list with a single edit of the text, which is laid out once,
+     * instead of one edit and one layout per object. May only be called from the main thread.
+     *
+     * @param objects the objects to add to the displayed tokens
+     */
+    @UiThread
+    public void addObjects(List<T> objects) {
+        Editable text = getText();
+        if (text == null || objects == null) return;
+
+        int available = tokenLimit == -1 ? Integer.MAX_VALUE : tokenLimit - tokenStore.size();
+        List<TokenImageSpan> spans = new ArrayList<>(Math.min(objects.size(), available));
+        for (T object : objects) {
+            if (object == null) continue;
+            if (shouldIgnoreToken(object)) {
+                if (listener != null) {
+                    listener.onTokenIgnored(object);
+                }
+                continue;
+            }
+            if (spans.size() >= available) break;
+            spans.add(buildSpanForObject(object));
+        }
+        if (spans.isEmpty()) return;
+
+        //Text of all the tokens, separated like insertSpan does, and the range of each token in it
+        SpannableStringBuilder tokensText = new SpannableStringBuilder();
+        int[] tokenStarts = new int[spans.size()];
+        int[] tokenEnds = new int[spans.size()];
+        for (int i = 0; i < spans.size(); i++) {
+            tokenStarts[i] = tokensText.length();
+            tokensText.append(tokenizer.wrapTokenValue(tokenToString(spans.get(i).getToken())));
+            tokenEnds[i] = tokensText.length();
+            tokensText.append(" ");
+        }
+
+        bulkEditInProgress = true;
+        if (hiddenContent != null) {
+            //Collapsed: the hidden content is not laid out, and its span watcher notifies the new tokens
+            int offset = hiddenContent.length();
+            hiddenContent.append(tokensText);
+            for (int i = 0; i < spans.size(); i++) {
+                hiddenContent.setSpan(spans.get(i), offset + tokenStarts[i], offset + tokenEnds[i],
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
+            bulkEditInProgress = false;
+            updateCountSpan();
+            return;
+        }
+
+        //Build the new content aside, with all its spans, and set it at once. The listeners are detached, as
+        //replacing the whole text would otherwise be seen as the deletion of every token
+        int offset = text.length();
+        Range currentRange = getCurrentCandidateTokenRange();
+        if (currentRange.length() > 0) {
+            offset = currentRange.start;
+        }
+        removeListeners();
+        internalEditInProgress = true;
+        SpannableStringBuilder content = new SpannableStringBuilder(text);
+        TextUtils.copySpansFrom(text, 0, text.length(), TokenImageSpan.class, content, 0);
+        content.insert(offset, tokensText);
+        for (int i = 0; i < spans.size(); i++) {
+            content.setSpan(spans.get(i), offset + tokenStarts[i], offset + tokenEnds[i],
+                    Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        prebuiltContent = content;
+        setText(content);
+        prebuiltContent = null;
+        internalEditInProgress = false;
+        addListeners();
+        resetTokenStore();
+        bulkEditInProgress = false;
+
+        if (listener != null) {
+            for (TokenImageSpan span : spans) {
+                listener.onTokenAdded(span.getToken());
+            }
+        }
+        if (isFocused()) {
+            setSelection(getText().length());
+        } else if (allowCollapse) {
+            collapseWhenLaidOut();
+        }
+    }
+
+    /**
+     * Collapse the view now if it has been laid out, otherwise once it is, as the collapse needs the text layout
+     */
+    private void collapseWhenLaidOut() {
+        if (lastLayout != null) {
+            performCollapse(false);
+            return;
+        }
+        post(new Runnable() {
+            @Override
+            public void run() {
+                //Resize the view and display the +x if appropriate
+                performCollapse(isFocused());
+            }
+        });
+    }
+
     /**
      * Append a token object to the object list. Object will be added on the main thread.
      *
@@ -996,7 +1159,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         Editable text = getText();
 
         int visibleCount = getText().getSpans(0, getText().length(), TokenImageSpan.class).length;
-        countSpan.setCount(getObjects().size() - visibleCount);
+        countSpan.setCount(tokenStore.size() - visibleCount);
 
         SpannableStringBuilder spannedCountText = new SpannableStringBuilder(countSpan.getCountText());
         spannedCountText.setSpan(countSpan, 0, spannedCountText.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
@@ -1036,6 +1199,46 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         }
     }
 
+    /**
+     * Replace a span the user is deleting part of, according to the {@link TokenDeleteStyle}, so the token can be
+     * edited again instead of being removed entirely
+     *
+     * @param text Editable to replace the span in
+     * @param span TokenImageSpan being deleted
+     */
+    private void replaceDeletedSpan(Editable text, TokenImageSpan span) {
+        CharSequence replacement;
+        switch (deletionStyle) {
+            case PartialCompletion:
+                replacement = span.completionText;
+                break;
+            case ToString:
+                replacement = tokenToString(span.getToken());
+                break;
+            case Clear:
+            default:
+                removeSpan(text, span);
+                return;
+        }
+
+        int start = text.getSpanStart(span);
+        int end = text.getSpanEnd(span);
+        //The whitespace added after the token goes with it
+        if (end < text.length() && text.charAt(end) == ' ') {
+            end += 1;
+        }
+
+        internalEditInProgress = true;
+        text.removeSpan(span);
+        text.replace(start, end, replacement);
+        internalEditInProgress = false;
+        setSelection(start + replacement.length());
+
+        if (allowCollapse && !isFocused()) {
+            updateCountSpan();
+        }
+    }
+
     /**
      * Insert a new span for an Object
      *
@@ -1078,21 +1281,39 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         Editable text = getText();
         if (text == null) return;
 
-        TokenImageSpan[] tokens = text.getSpans(0, text.length(), TokenImageSpan.class);
-        for (TokenImageSpan token : tokens) {
-            token.view.setSelected(false);
+        for (TokenImageSpan token : tokenStore.getSpans()) {
+            //Views not created yet cannot be selected
+            if (token.view != null) {
+                token.view.setSelected(false);
+            }
         }
         invalidate();
     }
 
     protected class TokenImageSpan extends ViewSpan implements NoCopySpan {
         private T token;
+        //The text the user typed to create the token, empty for the tokens that were added directly
+        private CharSequence completionText = "";
 
         public TokenImageSpan(View d, T token) {
             super(d, TokenCompleteTextView.this);
             this.token = token;
         }
 
+        /**
+         * Create a span whose view is obtained from {@link #getViewForObject(Object)} only once it's displayed
+         */
+        public TokenImageSpan(T token) {
+            super(TokenCompleteTextView.this);
+            this.token = token;
+        }
+
+        @NonNull
+        @Override
+        protected View createView() {
+            return getViewForObject(token);
+        }
+
         public T getToken() {
             return this.token;
         }
@@ -1105,14 +1326,14 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
                 case Select:
                 case SelectDeselect:
 
-                    if (!view.isSelected()) {
+                    if (!getView().isSelected()) {
                         clearSelections();
-                        view.setSelected(true);
+                        getView().setSelected(true);
                         break;
                     }
 
                     if (tokenClickStyle == TokenClickStyle.SelectDeselect || !isTokenRemovable(token)) {
-                        view.setSelected(false);
+                        getView().setSelected(false);
                         invalidate();
                         break;
                     }
@@ -1143,11 +1364,14 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         @SuppressWarnings("unchecked cast")
         @Override
         public void onSpanAdded(Spannable text, Object what, int start, int end) {
+            if (what instanceof TokenCompleteTextView<?>.TokenImageSpan) {
+                tokenStore.add(text, (TokenImageSpan) what);
+            }
             if (what instanceof TokenCompleteTextView<?>.TokenImageSpan && !savingState) {
                 TokenImageSpan token = (TokenImageSpan) what;
 
-                // If we're not focused: collapse the view if necessary
-                if (!isFocused() && allowCollapse) performCollapse(false);
+                // If we're not focused: collapse the view if necessary, once at the end of a bulk insertion
+                if (!isFocused() && allowCollapse && !bulkEditInProgress) performCollapse(false);
 
                 if (listener != null)
                     listener.onTokenAdded(token.getToken());
@@ -1157,6 +1381,9 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         @SuppressWarnings("unchecked cast")
         @Override
         public void onSpanRemoved(Spannable text, Object what, int start, int end) {
+            if (what instanceof TokenCompleteTextView<?>.TokenImageSpan) {
+                tokenStore.remove((TokenImageSpan) what);
+            }
             if (what instanceof TokenCompleteTextView<?>.TokenImageSpan && !savingState) {
                 TokenImageSpan token = (TokenImageSpan) what;
 
@@ -1203,7 +1430,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
             for (TokenImageSpan token : spansCopy) {
                 //Only remove it if it's still present
                 if (text.getSpanStart(token) != -1 && text.getSpanEnd(token) != -1) {
-                    removeSpan(text, token);
+                    replaceDeletedSpan(text, token);
                 }
 
             }
@@ -1225,7 +1452,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
                 Log.e(TAG_TOKEN_AUTO_COMPLETE, "Unable to save '" + obj + "'");
             }
         }
-        if (serializables.size() != getObjects().size()) {
+        if (serializables.size() != tokenStore.size()) {
             String message = "You should make your objects Serializable or Parcelable or\n" +
                     "override getSerializableObjects and convertSerializableArrayToObjectArray";
             Log.e(TAG_TOKEN_AUTO_COMPLETE, message);
@@ -1324,20 +1551,8 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
         }
 
         //TODO: change this to keep object spans in the correct locations based on ranges.
-        for (T obj: objects) {
-            addObjectSync(obj);
-        }
-
-        // Collapse the view if necessary
-        if (!isFocused() && allowCollapse) {
-            post(new Runnable() {
-                @Override
-                public void run() {
-                    //Resize the view and display the +x if appropriate
-                    performCollapse(isFocused());
-                }
-            });
-        }
+        //Also collapses the view if necessary
+        addObjects(objects);
     }
 
     /**
@@ -1434,7 +1649,7 @@ public abstract class TokenCompleteTextView<T> extends AppCompatAutoCompleteText
      */
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean canDeleteSelection(int beforeLength) {
-        if (getObjects().size() < 1) return true;
+        if (tokenStore.size() < 1) return true;
 
         // if beforeLength is 1, we either have no selection or the call is coming from OnKey Event.
         // In these scenarios, getSelectionStart() will return the correct value.
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+package ch.protonmail.tokenautocomplete;
+
+import android.text.Spanned;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index of the token spans of a text, kept in text order and updated as spans are added and removed, so reading
+ * the tokens doesn't have to query the spans of the whole text every time.
+ *
+ * @param <S> type of the token spans
+ */
+class TokenSpanStore<S> {
+
+    private final ArrayList<S> spans = new ArrayList<>();
+    private final Set<S> index = Collections.newSetFromMap(new IdentityHashMap<S, Boolean>());
+
+    /**
+     * Add a span that has just been set on {@code text}, at the position matching its start in the text
+     *
+     * @param text the text the span has been set on
+     * @param span the span to add
+     * @return false if the span was already in the store
+     */
+    boolean add(@NonNull Spanned text, @NonNull S span) {
+        if (!index.add(span)) return false;
+
+        int start = text.getSpanStart(span);
+        int size = spans.size();
+        //Tokens are almost always appended, so check the last one before searching
+        if (size == 0 || start < 0 || text.getSpanStart(spans.get(size - 1)) <= start) {
+            spans.add(span);
+            return true;
+        }
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (text.getSpanStart(spans.get(middle)) <= start) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        spans.add(low, span);
+        return true;
+    }
+
+    /**
+     * @param span the span to remove
+     * @return false if the span was not in the store
+     */
+    boolean remove(@NonNull S span) {
+        if (!index.remove(span)) return false;
+
+        //Spans don't override equals, compare identities and start from the most recent ones
+        for (int i = spans.size() - 1; i >= 0; i--) {
+            if (spans.get(i) == span) {
+                spans.remove(i);
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replace the content of the store, used when the whole text is replaced
+     *
+     * @param orderedSpans the token spans of the new text, in text order
+     */
+    void reset(@Nullable S[] orderedSpans) {
+        spans.clear();
+        index.clear();
+        if (orderedSpans == null) return;
+
+        spans.ensureCapacity(orderedSpans.length);
+        for (S span : orderedSpans) {
+            if (index.add(span)) {
+                spans.add(span);
+            }
+        }
+    }
+
+    int size() {
+        return spans.size();
+    }
+
+    @NonNull
+    List<S> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+}
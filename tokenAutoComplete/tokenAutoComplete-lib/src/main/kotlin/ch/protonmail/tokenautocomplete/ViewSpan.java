@@ -49,7 +49,39 @@ public class ViewSpan extends ReplacementSpan {
         this.view.setLayoutParams(new ViewGroup.LayoutParams(WRAP_CONTENT, WRAP_CONTENT));
     }
 
+    /**
+     * Create a span whose view is only created by {@link #createView()} the first time it is measured or drawn,
+     * so spans that are never displayed, like the ones hidden by a collapsed view, cost no inflation.
+     */
+    protected ViewSpan(ViewSpan.Layout layout) {
+        super();
+        this.layout = layout;
+    }
+
+    /**
+     * Create the view of a span built without one. Must be overridden when using {@link #ViewSpan(Layout)}
+     *
+     * @return the view to display for this span
+     */
+    @NonNull
+    protected View createView() {
+        throw new IllegalStateException("A ViewSpan without view must override createView");
+    }
+
+    /**
+     * @return the view displayed by this span, created if needed
+     */
+    @NonNull
+    protected View getView() {
+        if (view == null) {
+            view = createView();
+            view.setLayoutParams(new ViewGroup.LayoutParams(WRAP_CONTENT, WRAP_CONTENT));
+        }
+        return view;
+    }
+
     private void prepView() {
+        View view = getView();
         if (layout.getMaxViewSpanWidth() != cachedMaxWidth) {
             cachedMaxWidth = layout.getMaxViewSpanWidth();
 
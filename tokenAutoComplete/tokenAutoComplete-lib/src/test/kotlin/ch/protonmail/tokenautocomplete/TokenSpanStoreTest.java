@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2022 Proton AG
+ *
+ * This file is part of Proton Mail.
+ *
+ * Proton Mail is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Proton Mail is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Proton Mail. If not, see https://www.gnu.org/licenses/.
+ */
+package ch.protonmail.tokenautocomplete;
+
+import android.text.Spanned;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenSpanStoreTest {
+
+    private TokenSpanStore<Object> store;
+    private FakeSpanned text;
+
+    @Before
+    public void setup() {
+        store = new TokenSpanStore<>();
+        text = new FakeSpanned();
+    }
+
+    @Test
+    public void keepsAppendedSpansInOrder() {
+        Object first = text.setSpan(0);
+        Object second = text.setSpan(10);
+        Object third = text.setSpan(20);
+
+        store.add(text, first);
+        store.add(text, second);
+        store.add(text, third);
+
+        assertEquals(Arrays.asList(first, second, third), store.getSpans());
+    }
+
+    @Test
+    public void insertsSpansAtTheirTextPosition() {
+        Object first = text.setSpan(0);
+        Object third = text.setSpan(20);
+        Object second = text.setSpan(10);
+        Object sameStart = text.setSpan(0);
+
+        store.add(text, first);
+        store.add(text, third);
+        store.add(text, second);
+
+        assertEquals(Arrays.asList(first, second, third), store.getSpans());
+        assertEquals(3, store.size());
+        assertTrue(store.add(text, sameStart));
+        assertEquals(Arrays.asList(first, sameStart, second, third), store.getSpans());
+    }
+
+    @Test
+    public void ignoresSpansAddedTwice() {
+        Object span = text.setSpan(0);
+
+        assertTrue(store.add(text, span));
+        assertFalse(store.add(text, span));
+
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void removesSpansByIdentity() {
+        String first = new String("token");
+        String second = new String("token");
+        text.setSpan(first, 0);
+        text.setSpan(second, 10);
+        store.add(text, first);
+        store.add(text, second);
+
+        assertTrue(store.remove(second));
+        assertFalse(store.remove(second));
+
+        assertEquals(1, store.size());
+        assertTrue(store.getSpans().get(0) == first);
+    }
+
+    @Test
+    public void resetReplacesTheContent() {
+        Object old = text.setSpan(0);
+        store.add(text, old);
+        Object first = new Object();
+        Object second = new Object();
+
+        store.reset(new Object[]{first, second, first});
+
+        assertEquals(Arrays.asList(first, second), store.getSpans());
+        assertFalse(store.remove(old));
+
+        store.reset(null);
+
+        assertEquals(Collections.emptyList(), store.getSpans());
+    }
+
+    /**
+     * Minimal Spanned only tracking the start of its spans
+     */
+    private static class FakeSpanned implements Spanned {
+
+        private final Map<Object, Integer> starts = new IdentityHashMap<>();
+
+        Object setSpan(int start) {
+            return setSpan(new Object(), start);
+        }
+
+        Object setSpan(Object span, int start) {
+            starts.put(span, start);
+            return span;
+        }
+
+        @Override
+        public <T> T[] getSpans(int start, int end, Class<T> type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getSpanStart(Object tag) {
+            Integer start = starts.get(tag);
+            return start != null ? start : -1;
+        }
+
+        @Override
+        public int getSpanEnd(Object tag) {
+            return getSpanStart(tag) + 1;
+        }
+
+        @Override
+        public int getSpanFlags(Object tag) {
+            return 0;
+        }
+
+        @Override
+        public int nextSpanTransition(int start, int limit, Class type) {
+            return limit;
+        }
+
+        @Override
+        public int length() {
+            return 0;
+        }
+
+        @Override
+        public char charAt(int index) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return "";
+        }
+    }
+}